@@ -3178,6 +3178,16 @@ public class AMD64Assembler extends AMD64BaseAssembler {
         emitByte(imm8);
     }
 
+    public final void pslldq(Register dst, int imm8) {
+        assert isUByte(imm8) : "invalid value";
+        assert inRC(XMM, dst);
+        // XMM7 is for /7 encoding: 66 0F 73 /7 ib
+        simdPrefix(AMD64.xmm7, dst, dst, PD, P_0F, false);
+        emitByte(0x73);
+        emitModRM(7, dst);
+        emitByte(imm8);
+    }
+
     public final void pshufb(Register dst, Register src) {
         assert supports(CPUFeature.SSSE3);
         assert inRC(XMM, dst) && inRC(XMM, src);
@@ -3186,6 +3196,44 @@ public class AMD64Assembler extends AMD64BaseAssembler {
         emitModRM(dst, src);
     }
 
+    public final void pclmulqdq(Register dst, Register src, int imm8) {
+        assert supports(CPUFeature.CLMUL);
+        assert isUByte(imm8) : "invalid value";
+        assert inRC(XMM, dst) && inRC(XMM, src);
+        simdPrefix(dst, dst, src, PD, P_0F3A, false);
+        emitByte(0x44);
+        emitModRM(dst, src);
+        emitByte(imm8);
+    }
+
+    public final void aesenc(Register dst, Register src) {
+        emitAES(0xDC, dst, src);
+    }
+
+    public final void aesenclast(Register dst, Register src) {
+        emitAES(0xDD, dst, src);
+    }
+
+    public final void aesdec(Register dst, Register src) {
+        emitAES(0xDE, dst, src);
+    }
+
+    public final void aesdeclast(Register dst, Register src) {
+        emitAES(0xDF, dst, src);
+    }
+
+    /**
+     * Emits one of the AES-NI round instructions, which are all encoded as
+     * {@code 66 0F 38 op /r}.
+     */
+    private void emitAES(int op, Register dst, Register src) {
+        assert supports(CPUFeature.AES);
+        assert inRC(XMM, dst) && inRC(XMM, src);
+        simdPrefix(dst, dst, src, PD, P_0F38, false);
+        emitByte(op);
+        emitModRM(dst, src);
+    }
+
     public final void pshuflw(Register dst, Register src, int imm8) {
         assert supports(CPUFeature.SSE2);
         assert isUByte(imm8) : "invalid value";
@@ -69,6 +69,7 @@ import org.graalvm.compiler.lir.SwitchStrategy;
 import org.graalvm.compiler.lir.Variable;
 import org.graalvm.compiler.lir.amd64.AMD64AddressValue;
 import org.graalvm.compiler.lir.amd64.AMD64ArithmeticLIRGeneratorTool;
+import org.graalvm.compiler.lir.amd64.AMD64AESCryptOp;
 import org.graalvm.compiler.lir.amd64.AMD64ArrayCompareToOp;
 import org.graalvm.compiler.lir.amd64.AMD64ArrayEqualsOp;
 import org.graalvm.compiler.lir.amd64.AMD64ArrayIndexOfOp;
@@ -93,6 +94,9 @@ import org.graalvm.compiler.lir.amd64.AMD64ControlFlow.TableSwitchOp;
 import org.graalvm.compiler.lir.amd64.AMD64ControlFlow.TestBranchOp;
 import org.graalvm.compiler.lir.amd64.AMD64ControlFlow.TestByteBranchOp;
 import org.graalvm.compiler.lir.amd64.AMD64ControlFlow.TestConstBranchOp;
+import org.graalvm.compiler.lir.amd64.AMD64EncodeISOArrayOp;
+import org.graalvm.compiler.lir.amd64.AMD64GHASHProcessBlocksOp;
+import org.graalvm.compiler.lir.amd64.AMD64HasNegativesOp;
 import org.graalvm.compiler.lir.amd64.AMD64LFenceOp;
 import org.graalvm.compiler.lir.amd64.AMD64Move;
 import org.graalvm.compiler.lir.amd64.AMD64Move.CompareAndSwapOp;
@@ -665,6 +669,30 @@ public abstract class AMD64LIRGenerator extends LIRGenerator {
         return res;
     }
 
+    @Override
+    public Variable emitEncodeISOArray(Value src, Value dst, Value len) {
+        Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        append(new AMD64EncodeISOArrayOp(this, result, asAllocatable(src), asAllocatable(dst), asAllocatable(len)));
+        return result;
+    }
+
+    @Override
+    public Variable emitHasNegatives(Value src, Value len) {
+        Variable result = newVariable(LIRKind.value(AMD64Kind.DWORD));
+        append(new AMD64HasNegativesOp(this, result, asAllocatable(src), asAllocatable(len)));
+        return result;
+    }
+
+    @Override
+    public void emitAESCrypt(Value in, Value inOffset, Value out, Value outOffset, Value key, Value keyLength, boolean encrypt) {
+        append(new AMD64AESCryptOp(this, asAllocatable(in), asAllocatable(inOffset), asAllocatable(out), asAllocatable(outOffset), asAllocatable(key), asAllocatable(keyLength), encrypt));
+    }
+
+    @Override
+    public void emitGHASHProcessBlocks(Value state, Value subkey, Value data, Value blocks) {
+        append(new AMD64GHASHProcessBlocksOp(this, asAllocatable(state), asAllocatable(subkey), asAllocatable(data), asAllocatable(blocks)));
+    }
+
     @Override
     public void emitReturn(JavaKind kind, Value input) {
         AllocatableValue operand = Value.ILLEGAL;
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.core.test.inlining;
+
+import org.graalvm.compiler.core.common.GraalOptions;
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.DebugDumpScope;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.OptimisticOptimizations;
+import org.graalvm.compiler.phases.common.DeadCodeEliminationPhase;
+import org.graalvm.compiler.phases.common.inlining.CallTreeInliningPhase;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+public class CallTreeInliningTest extends GraalCompilerTest {
+
+    static int field;
+
+    public static int chainSnippet(int value) {
+        return chain1(value) + 1;
+    }
+
+    static int chain1(int value) {
+        return chain2(value) * 3;
+    }
+
+    static int chain2(int value) {
+        return chain3(value) - 7;
+    }
+
+    static int chain3(int value) {
+        return chain4(value) ^ field;
+    }
+
+    static int chain4(int value) {
+        return chain5(value) + value;
+    }
+
+    static int chain5(int value) {
+        return value << 2;
+    }
+
+    @Test
+    public void testCallChain() {
+        assertInvokeCount(getGraph("chainSnippet", getCallTreeInliningOptions()), 0);
+        test(getCallTreeInliningOptions(), "chainSnippet", 42);
+    }
+
+    public static int constantArgumentSnippet() {
+        return select(3, 17);
+    }
+
+    static int select(int kind, int value) {
+        switch (kind) {
+            case 0:
+                return value + field;
+            case 1:
+                return value * field;
+            case 2:
+                return value - field;
+            case 3:
+                return value;
+            default:
+                return value ^ field;
+        }
+    }
+
+    @Test
+    public void testConstantArgument() {
+        assertInvokeCount(getGraph("constantArgumentSnippet", getCallTreeInliningOptions()), 0);
+        test(getCallTreeInliningOptions(), "constantArgumentSnippet");
+    }
+
+    public static int recursiveSnippet(int value) {
+        return recursive(value);
+    }
+
+    static int recursive(int value) {
+        if (value <= 0) {
+            return field;
+        }
+        return recursive(value - 1) + 1;
+    }
+
+    @Test
+    public void testRecursion() {
+        StructuredGraph graph = getGraph("recursiveSnippet", getCallTreeInliningOptions());
+        assertInvokeCountAtLeast(graph, 1);
+        test(getCallTreeInliningOptions(), "recursiveSnippet", 10);
+    }
+
+    @Test
+    public void testSizeBudget() {
+        OptionValues options = new OptionValues(getCallTreeInliningOptions(), GraalOptions.MaximumDesiredSize, 1);
+        assertInvokeCountAtLeast(getGraph("chainSnippet", options), 1);
+    }
+
+    @Test
+    public void testExplorationDepth() {
+        OptionValues options = new OptionValues(getCallTreeInliningOptions(), CallTreeInliningPhase.Options.CallTreeInliningMaxDepth, 2);
+        assertInvokeCountAtLeast(getGraph("chainSnippet", options), 1);
+    }
+
+    private OptionValues getCallTreeInliningOptions() {
+        return new OptionValues(getInitialOptions(), CallTreeInliningPhase.Options.CallTreeInlining, true);
+    }
+
+    @SuppressWarnings("try")
+    private StructuredGraph getGraph(String snippet, OptionValues options) {
+        DebugContext debug = getDebugContext(options, null, null);
+        try (DebugContext.Scope s = debug.scope("CallTreeInliningTest", new DebugDumpScope(snippet, true))) {
+            ResolvedJavaMethod method = getResolvedJavaMethod(snippet);
+            StructuredGraph graph = parse(builder(method, AllowAssumptions.YES, debug), getEagerGraphBuilderSuite());
+            HighTierContext context = new HighTierContext(getProviders(), getDefaultGraphBuilderSuite(), OptimisticOptimizations.ALL);
+            createCanonicalizerPhase().apply(graph, context);
+            new CallTreeInliningPhase(createCanonicalizerPhase()).apply(graph, context);
+            debug.dump(DebugContext.BASIC_LEVEL, graph, "After call tree inlining");
+            createCanonicalizerPhase().apply(graph, context);
+            new DeadCodeEliminationPhase().apply(graph);
+            return graph;
+        } catch (Throwable e) {
+            throw debug.handle(e);
+        }
+    }
+
+    private static void assertInvokeCount(StructuredGraph graph, int expected) {
+        Assert.assertEquals(expected, graph.getNodes().filter(Invoke.class).count());
+    }
+
+    private static void assertInvokeCountAtLeast(StructuredGraph graph, int expected) {
+        int count = graph.getNodes().filter(Invoke.class).count();
+        Assert.assertTrue("expected at least " + expected + " invokes, found " + count, count >= expected);
+    }
+}
@@ -49,6 +49,7 @@ import org.graalvm.compiler.phases.common.IncrementalCanonicalizerPhase;
 import org.graalvm.compiler.phases.common.IterativeConditionalEliminationPhase;
 import org.graalvm.compiler.phases.common.LoweringPhase;
 import org.graalvm.compiler.phases.common.NodeCounterPhase;
+import org.graalvm.compiler.phases.common.inlining.CallTreeInliningPhase;
 import org.graalvm.compiler.phases.common.inlining.InliningPhase;
 import org.graalvm.compiler.phases.common.inlining.policy.GreedyInliningPolicy;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
@@ -74,7 +75,11 @@ public class HighTier extends BaseTier<HighTierContext> {
         }
 
         if (Options.Inline.getValue(options)) {
-            appendPhase(new InliningPhase(new GreedyInliningPolicy(null), canonicalizer));
+            if (CallTreeInliningPhase.Options.CallTreeInlining.getValue(options)) {
+                appendPhase(new CallTreeInliningPhase(canonicalizer));
+            } else {
+                appendPhase(new InliningPhase(new GreedyInliningPolicy(null), canonicalizer));
+            }
             appendPhase(new DeadCodeEliminationPhase(Optional));
         }
 
@@ -265,8 +265,6 @@ public class CheckGraalIntrinsics extends GraalTest {
                         // Can share most implementation parts with with
                         // Unsafe.allocateUninitializedArray0
                         "java/lang/reflect/Array.newArray(Ljava/lang/Class;I)Ljava/lang/Object;",
-                        // HotSpot MacroAssembler-based intrinsic
-                        "sun/nio/cs/ISO_8859_1$Encoder.encodeISOArray([CI[BII)I",
                         // We have implemented implCompressMultiBlock0 on JDK9+. Does it worth
                         // backporting as corresponding HotSpot stubs are only generated on SPARC?
                         "sun/security/provider/DigestBase.implCompressMultiBlock([BII)I");
@@ -284,15 +282,8 @@ public class CheckGraalIntrinsics extends GraalTest {
             add(toBeInvestigated,
                             // Only used as a marker for vectorization?
                             "java/util/stream/Streams$RangeIntSpliterator.forEachRemaining(Ljava/util/function/IntConsumer;)V",
-                            // Only implemented on non-AMD64 platforms (some logic and runtime call)
-                            "java/util/zip/Adler32.updateByteBuffer(IJII)I",
-                            // Only implemented on non-AMD64 platforms (some logic and runtime call)
-                            "java/util/zip/Adler32.updateBytes(I[BII)I",
                             // Emits a slow and a fast path and some dispatching logic
-                            "jdk/internal/misc/Unsafe.allocateUninitializedArray0(Ljava/lang/Class;I)Ljava/lang/Object;",
-
-                            // HotSpot MacroAssembler-based intrinsic
-                            "sun/nio/cs/ISO_8859_1$Encoder.implEncodeISOArray([CI[BII)I");
+                            "jdk/internal/misc/Unsafe.allocateUninitializedArray0(Ljava/lang/Class;I)Ljava/lang/Object;");
 
             /*
              * Per default, all these operations are mapped to some generic method for which we
@@ -336,10 +327,6 @@ public class CheckGraalIntrinsics extends GraalTest {
                             "jdk/internal/misc/Unsafe.weakCompareAndSetShortPlain(Ljava/lang/Object;JSS)Z",
                             "jdk/internal/misc/Unsafe.weakCompareAndSetShortRelease(Ljava/lang/Object;JSS)Z");
 
-            // Compact string support - HotSpot MacroAssembler-based intrinsic or complex C2 logic.
-            add(toBeInvestigated,
-                            "java/lang/StringCoding.hasNegatives([BII)Z",
-                            "java/lang/StringCoding.implEncodeISOArray([BI[BII)I");
             add(ignore,
                             // handled through an intrinsic for String.equals itself
                             "java/lang/StringLatin1.equals([B[B)Z",
@@ -467,7 +454,16 @@ public class CheckGraalIntrinsics extends GraalTest {
                             "sun/misc/Unsafe.getAndSetLong(Ljava/lang/Object;JJ)J",
                             "sun/misc/Unsafe.getAndSet" + oopName + "(Ljava/lang/Object;JLjava/lang/Object;)Ljava/lang/Object;");
 
+            if (!isJDK9OrHigher()) {
+                add(toBeInvestigated,
+                                "sun/nio/cs/ISO_8859_1$Encoder.encodeISOArray([CI[BII)I");
+            }
+
             if (isJDK9OrHigher()) {
+                add(toBeInvestigated,
+                                "java/lang/StringCoding.hasNegatives([BII)Z",
+                                "java/lang/StringCoding.implEncodeISOArray([BI[BII)I",
+                                "sun/nio/cs/ISO_8859_1$Encoder.implEncodeISOArray([CI[BII)I");
                 if (isSPARC(arch)) {
                     add(toBeInvestigated,
                                     "java/lang/StringLatin1.compareTo([B[B)I",
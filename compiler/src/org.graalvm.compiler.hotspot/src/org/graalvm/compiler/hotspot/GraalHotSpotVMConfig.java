@@ -132,6 +132,7 @@ public class GraalHotSpotVMConfig extends GraalHotSpotVMConfigAccess {
     public final boolean useAESCTRIntrinsics = getFlag("UseAESCTRIntrinsics", Boolean.class, false, (JDK == 8 && !IS_OPENJDK) || JDK >= 9);
     public final boolean useCRC32Intrinsics = getFlag("UseCRC32Intrinsics", Boolean.class);
     public final boolean useCRC32CIntrinsics = getFlag("UseCRC32CIntrinsics", Boolean.class, false, JDK >= 9); // JDK-8073583
+    public final boolean useAdler32Intrinsics = getFlag("UseAdler32Intrinsics", Boolean.class, false, isJDK11Plus);
     public final boolean useThreadLocalPolling;
     {
         if (JDK >= 14) {
@@ -30,6 +30,7 @@ import static org.graalvm.compiler.hotspot.GraalHotSpotVMConfigAccess.JDK;
 import static org.graalvm.compiler.hotspot.HotSpotBackend.BASE64_ENCODE_BLOCK;
 import static org.graalvm.compiler.hotspot.HotSpotBackend.CRC_TABLE_LOCATION;
 import static org.graalvm.compiler.hotspot.HotSpotBackend.GHASH_PROCESS_BLOCKS;
+import static org.graalvm.compiler.hotspot.HotSpotBackend.UPDATE_BYTES_ADLER32;
 import static org.graalvm.compiler.hotspot.HotSpotBackend.UPDATE_BYTES_CRC32;
 import static org.graalvm.compiler.hotspot.HotSpotBackend.UPDATE_BYTES_CRC32C;
 import static org.graalvm.compiler.hotspot.meta.HotSpotAOTProfilingPlugin.Options.TieredAOT;
@@ -44,6 +45,7 @@ import java.lang.invoke.VolatileCallSite;
 import java.lang.reflect.Array;
 import java.lang.reflect.Type;
 import java.math.BigInteger;
+import java.util.zip.Adler32;
 import java.util.zip.CRC32;
 
 import org.graalvm.collections.Pair;
@@ -216,6 +218,7 @@ public class HotSpotGraphBuilderPlugins {
                 registerAESPlugins(invocationPlugins, config, replacements);
                 registerCRC32Plugins(invocationPlugins, config, replacements);
                 registerCRC32CPlugins(invocationPlugins, config, replacements);
+                registerAdler32Plugins(invocationPlugins, config, replacements);
                 registerBigIntegerPlugins(invocationPlugins, config, replacements);
                 registerSHAPlugins(invocationPlugins, config, replacements);
                 registerGHASHPlugins(invocationPlugins, config, metaAccess);
@@ -990,6 +993,31 @@ public class HotSpotGraphBuilderPlugins {
         }
     }
 
+    private static void registerAdler32Plugins(InvocationPlugins plugins, GraalHotSpotVMConfig config, Replacements replacements) {
+        if (config.useAdler32Intrinsics) {
+            Registration r = new Registration(plugins, Adler32.class, replacements);
+            r.register4("updateBytes", int.class, byte[].class, int.class, int.class, new InvocationPlugin() {
+                @Override
+                public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode adler, ValueNode buf, ValueNode off, ValueNode len) {
+                    int byteArrayBaseOffset = b.getMetaAccess().getArrayBaseOffset(JavaKind.Byte);
+                    ValueNode bufAddr = b.add(new ComputeObjectAddressNode(buf, new AddNode(ConstantNode.forInt(byteArrayBaseOffset), off)));
+                    b.addPush(JavaKind.Int, new ForeignCallNode(UPDATE_BYTES_ADLER32, adler, bufAddr, len));
+                    return true;
+                }
+            });
+            r.register4("updateByteBuffer", int.class, long.class, int.class, int.class, new InvocationPlugin() {
+                @Override
+                public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode adler, ValueNode addr, ValueNode off, ValueNode len) {
+                    ValueNode bufAddr = b.add(new AddNode(addr, new SignExtendNode(off, 32, 64)));
+                    b.addPush(JavaKind.Int, new ForeignCallNode(UPDATE_BYTES_ADLER32, adler, bufAddr, len));
+                    return true;
+                }
+            });
+        } else {
+            StandardGraphBuilderPlugins.registerAdler32Plugins(plugins, replacements);
+        }
+    }
+
     private static void registerCRC32CPlugins(InvocationPlugins plugins, GraalHotSpotVMConfig config, Replacements replacements) {
         if (JavaVersionUtil.JAVA_SPEC > 8 && config.useCRC32CIntrinsics) {
             Registration r = new Registration(plugins, "java.util.zip.CRC32C", replacements);
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.ArrayDataPointerConstant;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Encrypts or decrypts a single 16 byte block with the AES-NI instructions, using the expanded key
+ * of a {@code com.sun.crypto.provider.AESCrypt} object.
+ * <p>
+ * The expanded key is an {@code int[]} of 44, 52 or 60 elements for 128, 192 and 256 bit keys. Its
+ * words are stored in Java byte order, so each round key is byte swapped per word after loading.
+ * For decryption the Java key schedule is rotated by one round key: the first round uses the key at
+ * offset 0x10 and the last round the one at offset 0x00.
+ */
+@Opcode("AMD64_AES_CRYPT")
+public final class AMD64AESCryptOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64AESCryptOp> TYPE = LIRInstructionClass.create(AMD64AESCryptOp.class);
+
+    /** Byte swaps each of the four 32-bit words of a vector. */
+    private static final ArrayDataPointerConstant KEY_SHUFFLE_MASK = new ArrayDataPointerConstant(new int[]{0x00010203, 0x04050607, 0x08090a0b, 0x0c0d0e0f}, 16);
+
+    private static final int KEY_LENGTH_128 = 44;
+    private static final int KEY_LENGTH_192 = 52;
+
+    private final boolean encrypt;
+    private final int byteArrayBaseOffset;
+    private final int intArrayBaseOffset;
+
+    @Alive({REG}) private Value inValue;
+    @Alive({REG}) private Value inOffsetValue;
+    @Alive({REG}) private Value outValue;
+    @Alive({REG}) private Value outOffsetValue;
+    @Alive({REG}) private Value keyValue;
+    @Alive({REG}) private Value keyLengthValue;
+
+    @Temp({REG}) private Value inPointerTemp;
+    @Temp({REG}) private Value outPointerTemp;
+    @Temp({REG}) private Value resultTemp;
+    @Temp({REG}) private Value keyTemp;
+    @Temp({REG}) private Value shuffleMaskTemp;
+
+    public AMD64AESCryptOp(LIRGeneratorTool tool, Value in, Value inOffset, Value out, Value outOffset, Value key, Value keyLength, boolean encrypt) {
+        super(TYPE);
+        this.encrypt = encrypt;
+        this.byteArrayBaseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(JavaKind.Byte);
+        this.intArrayBaseOffset = tool.getProviders().getMetaAccess().getArrayBaseOffset(JavaKind.Int);
+
+        this.inValue = in;
+        this.inOffsetValue = inOffset;
+        this.outValue = out;
+        this.outOffsetValue = outOffset;
+        this.keyValue = key;
+        this.keyLengthValue = keyLength;
+
+        this.inPointerTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.outPointerTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        LIRKind vkind = LIRKind.value(AMD64Kind.V128_BYTE);
+        this.resultTemp = tool.newVariable(vkind);
+        this.keyTemp = tool.newVariable(vkind);
+        this.shuffleMaskTemp = tool.newVariable(vkind);
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register inPointer = asRegister(inPointerTemp);
+        Register outPointer = asRegister(outPointerTemp);
+        Register keyLength = asRegister(keyLengthValue);
+        Register result = asRegister(resultTemp);
+        Register shuffleMask = asRegister(shuffleMaskTemp);
+
+        masm.movslq(inPointer, asRegister(inOffsetValue));
+        masm.leaq(inPointer, new AMD64Address(asRegister(inValue), inPointer, AMD64Address.Scale.Times1, byteArrayBaseOffset));
+        masm.movslq(outPointer, asRegister(outOffsetValue));
+        masm.leaq(outPointer, new AMD64Address(asRegister(outValue), outPointer, AMD64Address.Scale.Times1, byteArrayBaseOffset));
+
+        masm.movdqu(shuffleMask, (AMD64Address) crb.recordDataReferenceInCode(KEY_SHUFFLE_MASK));
+        masm.movdqu(result, new AMD64Address(inPointer));
+
+        Label labelLastRound = new Label();
+        if (encrypt) {
+            Label labelKey192 = new Label();
+            Label labelKey256 = new Label();
+            Label labelDone = new Label();
+            loadKey(masm, 0x00);
+            masm.pxor(result, asRegister(keyTemp));
+            for (int offset = 0x10; offset <= 0x90; offset += 0x10) {
+                encryptRound(masm, offset, false);
+            }
+            masm.cmplAndJcc(keyLength, KEY_LENGTH_128, ConditionFlag.NotEqual, labelKey192, true);
+            encryptRound(masm, 0xa0, true);
+            masm.jmp(labelDone);
+
+            masm.bind(labelKey192);
+            encryptRound(masm, 0xa0, false);
+            encryptRound(masm, 0xb0, false);
+            masm.cmplAndJcc(keyLength, KEY_LENGTH_192, ConditionFlag.NotEqual, labelKey256, true);
+            encryptRound(masm, 0xc0, true);
+            masm.jmpb(labelDone);
+
+            masm.bind(labelKey256);
+            encryptRound(masm, 0xc0, false);
+            encryptRound(masm, 0xd0, false);
+            encryptRound(masm, 0xe0, true);
+            masm.bind(labelDone);
+        } else {
+            loadKey(masm, 0x10);
+            masm.pxor(result, asRegister(keyTemp));
+            for (int offset = 0x20; offset <= 0xa0; offset += 0x10) {
+                decryptRound(masm, offset);
+            }
+            masm.cmplAndJcc(keyLength, KEY_LENGTH_128, ConditionFlag.Equal, labelLastRound, true);
+            decryptRound(masm, 0xb0);
+            decryptRound(masm, 0xc0);
+            masm.cmplAndJcc(keyLength, KEY_LENGTH_192, ConditionFlag.Equal, labelLastRound, true);
+            decryptRound(masm, 0xd0);
+            decryptRound(masm, 0xe0);
+
+            masm.bind(labelLastRound);
+            loadKey(masm, 0x00);
+            masm.aesdeclast(result, asRegister(keyTemp));
+        }
+        masm.movdqu(new AMD64Address(outPointer), result);
+    }
+
+    private void loadKey(AMD64MacroAssembler masm, int offset) {
+        Register key = asRegister(keyTemp);
+        masm.movdqu(key, new AMD64Address(asRegister(keyValue), intArrayBaseOffset + offset));
+        masm.pshufb(key, asRegister(shuffleMaskTemp));
+    }
+
+    private void encryptRound(AMD64MacroAssembler masm, int offset, boolean last) {
+        loadKey(masm, offset);
+        if (last) {
+            masm.aesenclast(asRegister(resultTemp), asRegister(keyTemp));
+        } else {
+            masm.aesenc(asRegister(resultTemp), asRegister(keyTemp));
+        }
+    }
+
+    private void decryptRound(AMD64MacroAssembler masm, int offset) {
+        loadKey(masm, offset);
+        masm.aesdec(asRegister(resultTemp), asRegister(keyTemp));
+    }
+
+    @Override
+    public boolean needsClearUpperVectorRegisters() {
+        return true;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Encodes a sequence of UTF-16 chars to ISO-8859-1 bytes, stopping at the first char that is not
+ * representable. The result is the number of chars encoded.
+ * <p>
+ * Used for {@code sun.nio.cs.ISO_8859_1$Encoder.encodeISOArray} (JDK 8),
+ * {@code sun.nio.cs.ISO_8859_1$Encoder.implEncodeISOArray} and
+ * {@code java.lang.StringCoding.implEncodeISOArray} (JDK 9+).
+ */
+@Opcode("AMD64_ENCODE_ISO_ARRAY")
+public final class AMD64EncodeISOArrayOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64EncodeISOArrayOp> TYPE = LIRInstructionClass.create(AMD64EncodeISOArrayOp.class);
+
+    @Def({REG}) private Value rres;
+    @Alive({REG}) private Value rsrc;
+    @Alive({REG}) private Value rdst;
+    @Alive({REG}) private Value rlen;
+
+    @Temp({REG}) private Value rtmp1;
+    @Temp({REG}) private Value rtmp2;
+    @Temp({REG}) private Value vtmp1;
+    @Temp({REG}) private Value vtmp2;
+    @Temp({REG}) private Value vtmp3;
+    @Temp({REG}) private Value vtmp4;
+
+    public AMD64EncodeISOArrayOp(LIRGeneratorTool tool, Value res, Value src, Value dst, Value len) {
+        super(TYPE);
+        rres = res;
+        rsrc = src;
+        rdst = dst;
+        rlen = len;
+
+        rtmp1 = tool.newVariable(LIRKind.value(AMD64Kind.DWORD));
+        rtmp2 = tool.newVariable(LIRKind.value(AMD64Kind.DWORD));
+
+        LIRKind vkind = LIRKind.value(AMD64Kind.V128_BYTE);
+        vtmp1 = tool.newVariable(vkind);
+        vtmp2 = tool.newVariable(vkind);
+        vtmp3 = tool.newVariable(vkind);
+        vtmp4 = tool.newVariable(vkind);
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register res = asRegister(rres);
+        Register src = asRegister(rsrc);
+        Register dst = asRegister(rdst);
+        Register len = asRegister(rlen);
+        Register tmp1 = asRegister(rtmp1);
+        Register tmp2 = asRegister(rtmp2);
+        Register mask = asRegister(vtmp1);
+        Register vec1 = asRegister(vtmp2);
+        Register vec2 = asRegister(vtmp3);
+        Register vec3 = asRegister(vtmp4);
+
+        Label labelCharLoop = new Label();
+        Label labelTail = new Label();
+        Label labelDone = new Label();
+
+        // res is the index of the next char to encode and doubles as the result.
+        masm.xorl(res, res);
+
+        if (masm.supports(AMD64.CPUFeature.SSE4_1)) {
+            Label labelVectorLoop = new Label();
+
+            masm.movl(tmp1, 0xff00ff00); // Create mask to test for non-Latin1 chars in vectors.
+            masm.movdl(mask, tmp1);
+            masm.pshufd(mask, mask, 0);
+
+            masm.movl(tmp2, len);
+            masm.andlAndJcc(tmp2, ~(16 - 1), ConditionFlag.Zero, labelTail, false); // vector count
+
+            // Test and encode 16 chars per iteration. A vector containing a non-Latin1 char is
+            // left to the scalar loop, which stops exactly at that char.
+            masm.bind(labelVectorLoop);
+            masm.movdqu(vec1, new AMD64Address(src, res, AMD64Address.Scale.Times2));
+            masm.movdqu(vec2, new AMD64Address(src, res, AMD64Address.Scale.Times2, 16));
+            masm.movdqu(vec3, vec1);
+            masm.por(vec3, vec2);
+            masm.ptest(vec3, mask);
+            masm.jcc(ConditionFlag.NotZero, labelTail);
+            masm.packuswb(vec1, vec2);
+            masm.movdqu(new AMD64Address(dst, res, AMD64Address.Scale.Times1), vec1);
+            masm.addl(res, 16);
+            masm.cmplAndJcc(res, tmp2, ConditionFlag.Less, labelVectorLoop, false);
+        }
+
+        masm.bind(labelTail);
+        masm.cmplAndJcc(res, len, ConditionFlag.GreaterEqual, labelDone, false);
+
+        // Encode a single char per iteration.
+        masm.bind(labelCharLoop);
+        masm.movzwl(tmp1, new AMD64Address(src, res, AMD64Address.Scale.Times2));
+        masm.testlAndJcc(tmp1, 0xff00, ConditionFlag.NotZero, labelDone, false);
+        masm.movb(new AMD64Address(dst, res, AMD64Address.Scale.Times1), tmp1);
+        masm.incl(res);
+        masm.cmplAndJcc(res, len, ConditionFlag.Less, labelCharLoop, true);
+
+        masm.bind(labelDone);
+    }
+
+    @Override
+    public boolean needsClearUpperVectorRegisters() {
+        return true;
+    }
+}
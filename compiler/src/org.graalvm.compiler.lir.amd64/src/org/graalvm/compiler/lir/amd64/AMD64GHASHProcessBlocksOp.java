@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.ArrayDataPointerConstant;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Processes {@code blocks} 16 byte blocks of GHASH input with carry-less multiplication
+ * ({@code PCLMULQDQ}). This is the same algorithm as the HotSpot {@code ghash_processBlocks} stub:
+ * the 256-bit product of state and subkey is shifted left by one bit to account for the reflected
+ * bit order and then reduced modulo the GCM polynomial in two phases.
+ * <p>
+ * The state and the subkey are {@code long[2]} arrays holding the high half first, the data is
+ * big-endian.
+ */
+@Opcode("AMD64_GHASH_PROCESS_BLOCKS")
+public final class AMD64GHASHProcessBlocksOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64GHASHProcessBlocksOp> TYPE = LIRInstructionClass.create(AMD64GHASHProcessBlocksOp.class);
+
+    /** Reverses the order of all 16 bytes of a vector. */
+    private static final ArrayDataPointerConstant BYTE_SWAP_MASK = new ArrayDataPointerConstant(new int[]{0x0c0d0e0f, 0x08090a0b, 0x04050607, 0x00010203}, 16);
+
+    /** {@code pshufd} selector that swaps the two quadwords of a vector. */
+    private static final int SWAP_QUADWORDS = 0x4E;
+
+    @Alive({REG}) private Value stateValue;
+    @Alive({REG}) private Value subkeyValue;
+    @Alive({REG}) private Value dataValue;
+    @Alive({REG}) private Value blocksValue;
+
+    @Temp({REG}) private Value dataPointerTemp;
+    @Temp({REG}) private Value blocksTemp;
+    @Temp({REG}) private Value[] vectorTemps;
+
+    public AMD64GHASHProcessBlocksOp(LIRGeneratorTool tool, Value state, Value subkey, Value data, Value blocks) {
+        super(TYPE);
+        this.stateValue = state;
+        this.subkeyValue = subkey;
+        this.dataValue = data;
+        this.blocksValue = blocks;
+
+        this.dataPointerTemp = tool.newVariable(LIRKind.value(AMD64Kind.QWORD));
+        this.blocksTemp = tool.newVariable(LIRKind.value(AMD64Kind.DWORD));
+        LIRKind vkind = LIRKind.value(AMD64Kind.V128_BYTE);
+        this.vectorTemps = new Value[11];
+        for (int i = 0; i < vectorTemps.length; i++) {
+            vectorTemps[i] = tool.newVariable(vkind);
+        }
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register state = asRegister(stateValue);
+        Register subkey = asRegister(subkeyValue);
+        Register data = asRegister(dataPointerTemp);
+        Register blocks = asRegister(blocksTemp);
+
+        Register temp0 = asRegister(vectorTemps[0]);
+        Register temp1 = asRegister(vectorTemps[1]);
+        Register temp2 = asRegister(vectorTemps[2]);
+        Register temp3 = asRegister(vectorTemps[3]);
+        Register temp4 = asRegister(vectorTemps[4]);
+        Register temp5 = asRegister(vectorTemps[5]);
+        Register temp6 = asRegister(vectorTemps[6]);
+        Register temp7 = asRegister(vectorTemps[7]);
+        Register temp8 = asRegister(vectorTemps[8]);
+        Register temp9 = asRegister(vectorTemps[9]);
+        Register byteSwapMask = asRegister(vectorTemps[10]);
+
+        Label labelLoop = new Label();
+        Label labelExit = new Label();
+
+        masm.movq(data, asRegister(dataValue));
+        masm.movl(blocks, asRegister(blocksValue));
+        masm.testlAndJcc(blocks, blocks, ConditionFlag.Zero, labelExit, false);
+
+        masm.movdqu(byteSwapMask, (AMD64Address) crb.recordDataReferenceInCode(BYTE_SWAP_MASK));
+        masm.movdqu(temp0, new AMD64Address(state));
+        masm.pshufd(temp0, temp0, SWAP_QUADWORDS);
+        masm.movdqu(temp1, new AMD64Address(subkey));
+        masm.pshufd(temp1, temp1, SWAP_QUADWORDS);
+
+        masm.bind(labelLoop);
+        masm.movdqu(temp2, new AMD64Address(data));
+        masm.pshufb(temp2, byteSwapMask);
+        masm.pxor(temp0, temp2);
+
+        // Multiply with the hash key. <temp6:temp3> holds the 256-bit carry-less product.
+        masm.movdqu(temp3, temp0);
+        masm.pclmulqdq(temp3, temp1, 0x00); // a0 * b0
+        masm.movdqu(temp4, temp0);
+        masm.pclmulqdq(temp4, temp1, 0x10); // a0 * b1
+        masm.movdqu(temp5, temp0);
+        masm.pclmulqdq(temp5, temp1, 0x01); // a1 * b0
+        masm.movdqu(temp6, temp0);
+        masm.pclmulqdq(temp6, temp1, 0x11); // a1 * b1
+
+        masm.pxor(temp4, temp5); // a0 * b1 + a1 * b0
+        masm.movdqu(temp5, temp4);
+        masm.psrldq(temp4, 8);
+        masm.pslldq(temp5, 8);
+        masm.pxor(temp3, temp5);
+        masm.pxor(temp6, temp4);
+
+        // Shift the product left by one bit because the bits are reflected.
+        masm.movdqu(temp7, temp3);
+        masm.movdqu(temp8, temp6);
+        masm.pslld(temp3, 1);
+        masm.pslld(temp6, 1);
+        masm.psrld(temp7, 31);
+        masm.psrld(temp8, 31);
+        masm.movdqu(temp9, temp7);
+        masm.pslldq(temp8, 4);
+        masm.pslldq(temp7, 4);
+        masm.psrldq(temp9, 12);
+        masm.por(temp3, temp7);
+        masm.por(temp6, temp8);
+        masm.por(temp6, temp9);
+
+        // First phase of the reduction.
+        masm.movdqu(temp7, temp3);
+        masm.movdqu(temp8, temp3);
+        masm.movdqu(temp9, temp3);
+        masm.pslld(temp7, 31);
+        masm.pslld(temp8, 30);
+        masm.pslld(temp9, 25);
+        masm.pxor(temp7, temp8);
+        masm.pxor(temp7, temp9);
+        masm.movdqu(temp8, temp7);
+        masm.pslldq(temp7, 12);
+        masm.psrldq(temp8, 4);
+        masm.pxor(temp3, temp7);
+
+        // Second phase of the reduction.
+        masm.movdqu(temp2, temp3);
+        masm.movdqu(temp4, temp3);
+        masm.movdqu(temp5, temp3);
+        masm.psrld(temp2, 1);
+        masm.psrld(temp4, 2);
+        masm.psrld(temp5, 7);
+        masm.pxor(temp2, temp4);
+        masm.pxor(temp2, temp5);
+        masm.pxor(temp2, temp8);
+        masm.pxor(temp3, temp2);
+        masm.pxor(temp6, temp3); // the new state
+
+        masm.movdqu(temp0, temp6);
+        masm.addq(data, 16);
+        masm.decl(blocks);
+        masm.jcc(ConditionFlag.NotZero, labelLoop);
+
+        masm.pshufd(temp0, temp0, SWAP_QUADWORDS);
+        masm.movdqu(new AMD64Address(state), temp0);
+
+        masm.bind(labelExit);
+    }
+
+    @Override
+    public boolean needsClearUpperVectorRegisters() {
+        return true;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.lir.amd64;
+
+import static jdk.vm.ci.code.ValueUtil.asRegister;
+import static org.graalvm.compiler.lir.LIRInstruction.OperandFlag.REG;
+
+import org.graalvm.compiler.asm.Label;
+import org.graalvm.compiler.asm.amd64.AMD64Address;
+import org.graalvm.compiler.asm.amd64.AMD64Assembler.ConditionFlag;
+import org.graalvm.compiler.asm.amd64.AMD64MacroAssembler;
+import org.graalvm.compiler.core.common.LIRKind;
+import org.graalvm.compiler.lir.LIRInstructionClass;
+import org.graalvm.compiler.lir.Opcode;
+import org.graalvm.compiler.lir.asm.CompilationResultBuilder;
+import org.graalvm.compiler.lir.gen.LIRGeneratorTool;
+
+import jdk.vm.ci.amd64.AMD64Kind;
+import jdk.vm.ci.code.Register;
+import jdk.vm.ci.meta.Value;
+
+/**
+ * Checks whether a sequence of bytes contains a negative value, i.e., a non-ASCII byte. The result
+ * is 1 if it does, 0 otherwise.
+ * <p>
+ * Used for {@code java.lang.StringCoding.hasNegatives} (JDK 9+).
+ */
+@Opcode("AMD64_HAS_NEGATIVES")
+public final class AMD64HasNegativesOp extends AMD64LIRInstruction {
+    public static final LIRInstructionClass<AMD64HasNegativesOp> TYPE = LIRInstructionClass.create(AMD64HasNegativesOp.class);
+
+    @Def({REG}) private Value rres;
+    @Alive({REG}) private Value rsrc;
+    @Alive({REG}) private Value rlen;
+
+    @Temp({REG}) private Value rtmp1;
+    @Temp({REG}) private Value rtmp2;
+    @Temp({REG}) private Value vtmp1;
+    @Temp({REG}) private Value vtmp2;
+
+    public AMD64HasNegativesOp(LIRGeneratorTool tool, Value res, Value src, Value len) {
+        super(TYPE);
+        rres = res;
+        rsrc = src;
+        rlen = len;
+
+        rtmp1 = tool.newVariable(LIRKind.value(AMD64Kind.DWORD));
+        rtmp2 = tool.newVariable(LIRKind.value(AMD64Kind.DWORD));
+
+        LIRKind vkind = LIRKind.value(AMD64Kind.V128_BYTE);
+        vtmp1 = tool.newVariable(vkind);
+        vtmp2 = tool.newVariable(vkind);
+    }
+
+    @Override
+    public void emitCode(CompilationResultBuilder crb, AMD64MacroAssembler masm) {
+        Register res = asRegister(rres);
+        Register src = asRegister(rsrc);
+        Register len = asRegister(rlen);
+        Register index = asRegister(rtmp1);
+        Register signs = asRegister(rtmp2);
+        Register vec1 = asRegister(vtmp1);
+        Register vec2 = asRegister(vtmp2);
+
+        Label labelVectorLoop = new Label();
+        Label labelTail = new Label();
+        Label labelByteLoop = new Label();
+        Label labelTrue = new Label();
+        Label labelFalse = new Label();
+        Label labelDone = new Label();
+
+        masm.xorl(index, index);
+        masm.movl(res, len);
+        masm.andlAndJcc(res, ~(32 - 1), ConditionFlag.Zero, labelTail, false); // vector count
+
+        // Test 32 bytes per iteration. pmovmskb collects the sign bits of all bytes, so the
+        // combined vector contains a negative byte iff the mask is non-zero.
+        masm.bind(labelVectorLoop);
+        masm.movdqu(vec1, new AMD64Address(src, index, AMD64Address.Scale.Times1));
+        masm.movdqu(vec2, new AMD64Address(src, index, AMD64Address.Scale.Times1, 16));
+        masm.por(vec1, vec2);
+        masm.pmovmskb(signs, vec1);
+        masm.testlAndJcc(signs, signs, ConditionFlag.NotZero, labelTrue, false);
+        masm.addl(index, 32);
+        masm.cmplAndJcc(index, res, ConditionFlag.Less, labelVectorLoop, false);
+
+        masm.bind(labelTail);
+        masm.cmplAndJcc(index, len, ConditionFlag.GreaterEqual, labelFalse, false);
+
+        // Test a single byte per iteration.
+        masm.bind(labelByteLoop);
+        masm.movzbl(res, new AMD64Address(src, index, AMD64Address.Scale.Times1));
+        masm.testlAndJcc(res, 0x80, ConditionFlag.NotZero, labelTrue, false);
+        masm.incl(index);
+        masm.cmplAndJcc(index, len, ConditionFlag.Less, labelByteLoop, true);
+
+        masm.bind(labelFalse);
+        masm.xorl(res, res);
+        masm.jmpb(labelDone);
+
+        masm.bind(labelTrue);
+        masm.movl(res, 1);
+
+        masm.bind(labelDone);
+    }
+
+    @Override
+    public boolean needsClearUpperVectorRegisters() {
+        return true;
+    }
+}
@@ -267,6 +267,40 @@ public interface LIRGeneratorTool extends DiagnosticLIRGeneratorTool, ValueKindF
         throw GraalError.unimplemented("StringUTF16.compress substitution is not implemented on this architecture");
     }
 
+    /**
+     * Encodes {@code len} chars at {@code src} to ISO-8859-1 bytes at {@code dst}, stopping at the
+     * first char greater than {@code 0xff}, and returns the number of chars encoded.
+     */
+    @SuppressWarnings("unused")
+    default Variable emitEncodeISOArray(Value src, Value dst, Value len) {
+        throw GraalError.unimplemented("ISO-8859-1 encodeISOArray substitution is not implemented on this architecture");
+    }
+
+    /**
+     * Returns 1 if any of the {@code len} bytes at {@code src} is negative, 0 otherwise.
+     */
+    @SuppressWarnings("unused")
+    default Variable emitHasNegatives(Value src, Value len) {
+        throw GraalError.unimplemented("StringCoding.hasNegatives substitution is not implemented on this architecture");
+    }
+
+    /**
+     * Encrypts or decrypts the 16 byte block at {@code in[inOffset]} into {@code out[outOffset]}
+     * with the expanded AES key {@code key} of {@code keyLength} ints.
+     */
+    @SuppressWarnings("unused")
+    default void emitAESCrypt(Value in, Value inOffset, Value out, Value outOffset, Value key, Value keyLength, boolean encrypt) {
+        throw GraalError.unimplemented("AES intrinsic is not implemented on this architecture");
+    }
+
+    /**
+     * Updates the GHASH {@code state} with {@code blocks} 16 byte blocks at {@code data}.
+     */
+    @SuppressWarnings("unused")
+    default void emitGHASHProcessBlocks(Value state, Value subkey, Value data, Value blocks) {
+        throw GraalError.unimplemented("GHASH.processBlocks intrinsic is not implemented on this architecture");
+    }
+
     void emitBlackhole(Value operand);
 
     LIRKind getLIRKind(Stamp stamp);
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.phases.common.inlining;
+
+import java.util.LinkedList;
+
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionKey;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.compiler.phases.common.AbstractInliningPhase;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.inlining.walker.CallTree;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+
+/**
+ * Inlining phase that explores the call tree of the compilation unit before deciding, and then
+ * inlines the subtrees with the best estimated benefit-to-cost ratio within the size budget of the
+ * compilation unit.
+ *
+ * @see CallTree
+ * @see InliningPhase
+ */
+public class CallTreeInliningPhase extends AbstractInliningPhase {
+
+    public static class Options {
+
+        @Option(help = "Use the call tree based cost-benefit inliner instead of the greedy inliner", type = OptionType.Expert)//
+        public static final OptionKey<Boolean> CallTreeInlining = new OptionKey<>(false);
+
+        @Option(help = "Maximum number of callee graph nodes built while exploring the call tree", type = OptionType.Expert)//
+        public static final OptionKey<Integer> CallTreeInliningExplorationBudget = new OptionKey<>(30000);
+
+        @Option(help = "Maximum depth up to which the callees in the call tree are explored", type = OptionType.Expert)//
+        public static final OptionKey<Integer> CallTreeInliningMaxDepth = new OptionKey<>(15);
+
+        @Option(help = "Minimum frequency relative to the compilation unit of callsites that are explored", type = OptionType.Expert)//
+        public static final OptionKey<Double> CallTreeInliningMinFrequency = new OptionKey<>(0.01);
+    }
+
+    private final CanonicalizerPhase canonicalizer;
+    private LinkedList<Invoke> rootInvokes = null;
+
+    private int maxMethodPerInlining = Integer.MAX_VALUE;
+
+    public CallTreeInliningPhase(CanonicalizerPhase canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    public CanonicalizerPhase getCanonicalizer() {
+        return canonicalizer;
+    }
+
+    @Override
+    public float codeSizeIncrease() {
+        return 10_000f;
+    }
+
+    public void setMaxMethodsPerInlining(int max) {
+        maxMethodPerInlining = max;
+    }
+
+    public void setRootInvokes(LinkedList<Invoke> rootInvokes) {
+        this.rootInvokes = rootInvokes;
+    }
+
+    @Override
+    protected void run(final StructuredGraph graph, final HighTierContext context) {
+        CallTree tree = new CallTree(graph, context, maxMethodPerInlining, canonicalizer, rootInvokes);
+        tree.expand();
+        tree.select();
+        tree.inline();
+    }
+}
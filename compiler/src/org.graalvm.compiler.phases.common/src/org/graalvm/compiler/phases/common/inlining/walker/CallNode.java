@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.phases.common.inlining.walker;
+
+import static org.graalvm.compiler.core.common.GraalOptions.InlineEverything;
+import static org.graalvm.compiler.phases.common.inlining.InliningPhase.Options.AlwaysInlineIntrinsics;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.graalvm.compiler.core.common.type.ObjectStamp;
+import org.graalvm.compiler.core.common.type.Stamp;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.NodeView;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.spi.Replacements;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.common.inlining.info.InlineInfo;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * A node of a {@link CallTree}. The root node stands for the graph being compiled, every other
+ * node for a callsite whose feasible targets have been resolved into an {@link InlineInfo}.
+ *
+ * <p>
+ * A node is <i>expanded</i> once the graphs of its targets have been built (and specialized to the
+ * arguments at the callsite). Only then its {@link #getCost() cost} is known. A node with a single
+ * target additionally holds the callee {@link #getGraph() graph} and the callsites in it as
+ * {@link #getChildren() children}, so that its callees can be inlined into that graph before the
+ * graph itself is inlined into the caller.
+ * </p>
+ */
+public final class CallNode {
+
+    /**
+     * Weight of the benefit of a callsite that comes from removing the call itself.
+     */
+    private static final double CALL_BENEFIT = 1.0;
+
+    /**
+     * Additional weight for each constant argument, which lets the callee graph be canonicalized.
+     */
+    private static final double CONSTANT_ARGUMENT_BENEFIT = 1.0;
+
+    /**
+     * Additional weight for each freshly instantiated argument, which escape analysis may be able
+     * to virtualize once the callee is inlined.
+     */
+    private static final double FRESH_ARGUMENT_BENEFIT = 1.0;
+
+    /**
+     * Additional weight for each object argument of exact type, which lets calls in the callee be
+     * devirtualized.
+     */
+    private static final double EXACT_TYPE_ARGUMENT_BENEFIT = 0.5;
+
+    private final CallNode parent;
+    private final InlineInfo info;
+    private final double frequency;
+    private final double relevance;
+    private final BitSet freshlyInstantiatedArguments;
+    private final double argumentWeight;
+    private final int depth;
+    private final List<CallNode> children = new ArrayList<>();
+
+    private StructuredGraph graph;
+    private boolean expanded;
+    private boolean selected;
+    private int cost;
+    private double benefit;
+    private double subtreeBenefit;
+    private int subtreeCost;
+
+    CallNode(StructuredGraph rootGraph) {
+        this.parent = null;
+        this.info = null;
+        this.frequency = 1.0;
+        this.relevance = 1.0;
+        this.freshlyInstantiatedArguments = null;
+        this.argumentWeight = CALL_BENEFIT;
+        this.depth = 0;
+        this.graph = rootGraph;
+        this.expanded = true;
+        this.selected = true;
+    }
+
+    CallNode(CallNode parent, InlineInfo info, double frequency, double relevance, BitSet freshlyInstantiatedArguments) {
+        this.parent = parent;
+        this.info = info;
+        this.frequency = frequency;
+        this.relevance = relevance;
+        this.freshlyInstantiatedArguments = freshlyInstantiatedArguments;
+        this.argumentWeight = argumentWeight(info.invoke(), freshlyInstantiatedArguments);
+        this.depth = parent.depth + 1;
+        this.benefit = frequency * argumentWeight;
+    }
+
+    private static double argumentWeight(Invoke invoke, BitSet freshlyInstantiatedArguments) {
+        double result = CALL_BENEFIT;
+        int argIdx = 0;
+        for (ValueNode arg : invoke.callTarget().arguments()) {
+            Stamp stamp = arg.stamp(NodeView.DEFAULT);
+            if (arg.isConstant()) {
+                result += CONSTANT_ARGUMENT_BENEFIT;
+            } else if (freshlyInstantiatedArguments != null && freshlyInstantiatedArguments.get(argIdx)) {
+                result += FRESH_ARGUMENT_BENEFIT;
+            } else if (stamp instanceof ObjectStamp && ((ObjectStamp) stamp).isExactType()) {
+                result += EXACT_TYPE_ARGUMENT_BENEFIT;
+            }
+            argIdx++;
+        }
+        return result;
+    }
+
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    public CallNode getParent() {
+        return parent;
+    }
+
+    public InlineInfo getInfo() {
+        return info;
+    }
+
+    /**
+     * Gets the estimated number of executions of this callsite per execution of the root graph.
+     */
+    public double getFrequency() {
+        return frequency;
+    }
+
+    public double getRelevance() {
+        return relevance;
+    }
+
+    public BitSet getFreshlyInstantiatedArguments() {
+        return freshlyInstantiatedArguments;
+    }
+
+    /**
+     * Gets the weight of the optimization opportunities that the arguments at this callsite
+     * provide to the callee, relative to just removing the call.
+     */
+    public double getArgumentWeight() {
+        return argumentWeight;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public List<CallNode> getChildren() {
+        return children;
+    }
+
+    /**
+     * Gets the graph holding the callsites of the {@linkplain #getChildren() children}, or null if
+     * the callees of this node are not explored.
+     */
+    public StructuredGraph getGraph() {
+        return graph;
+    }
+
+    public ResolvedJavaMethod getMethod() {
+        return graph != null ? graph.method() : null;
+    }
+
+    public boolean isExpanded() {
+        return expanded;
+    }
+
+    public boolean isSelected() {
+        return selected;
+    }
+
+    /**
+     * Gets the number of nodes the inlined callee graphs add to the caller.
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Gets the estimated benefit of inlining this callsite, ie the frequency of the callsite
+     * weighted by the optimization opportunities its arguments provide to the callee.
+     */
+    public double getBenefit() {
+        return benefit;
+    }
+
+    /**
+     * Gets the benefit of inlining this node together with the most profitable part of its
+     * subtree.
+     *
+     * @see CallTree#select()
+     */
+    public double getSubtreeBenefit() {
+        return subtreeBenefit;
+    }
+
+    public int getSubtreeCost() {
+        return subtreeCost;
+    }
+
+    /**
+     * Gets the benefit-to-cost ratio under which this node competes for the inlining budget.
+     */
+    public double getPriority() {
+        return subtreeBenefit / Math.max(1, subtreeCost);
+    }
+
+    /**
+     * Determines if this callsite is inlined regardless of its cost.
+     */
+    public boolean isMandatory(Replacements replacements) {
+        OptionValues options = info.graph().getOptions();
+        if (InlineEverything.getValue(options) || info.shouldInline()) {
+            return true;
+        }
+        if (AlwaysInlineIntrinsics.getValue(options)) {
+            for (int i = 0; i < info.numberOfMethods(); i++) {
+                if (!replacements.hasSubstitution(info.methodAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    void setExpanded(int cost, StructuredGraph calleeGraph) {
+        assert !expanded;
+        this.expanded = true;
+        this.cost = cost;
+        this.graph = calleeGraph;
+    }
+
+    void setSelected() {
+        selected = true;
+    }
+
+    void setSubtreeValue(double subtreeBenefit, int subtreeCost) {
+        this.subtreeBenefit = subtreeBenefit;
+        this.subtreeCost = subtreeCost;
+    }
+
+    /**
+     * Counts the occurrences of {@code method} on the path from the root to this node.
+     */
+    int countRecursiveInlining(ResolvedJavaMethod method) {
+        int count = 0;
+        for (CallNode node = this; node != null; node = node.parent) {
+            if (method.equals(node.getMethod())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        if (isRoot()) {
+            return "<root>";
+        }
+        return String.format("%s (frequency=%f, benefit=%f, cost=%d)", info, frequency, benefit, cost);
+    }
+}
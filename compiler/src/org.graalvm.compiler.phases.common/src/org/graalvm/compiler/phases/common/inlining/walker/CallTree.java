@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.phases.common.inlining.walker;
+
+import static org.graalvm.compiler.core.common.GraalOptions.MaximumDesiredSize;
+import static org.graalvm.compiler.core.common.GraalOptions.MaximumInliningSize;
+import static org.graalvm.compiler.core.common.GraalOptions.TrivialInliningSize;
+import static org.graalvm.compiler.phases.common.inlining.CallTreeInliningPhase.Options.CallTreeInliningExplorationBudget;
+import static org.graalvm.compiler.phases.common.inlining.CallTreeInliningPhase.Options.CallTreeInliningMaxDepth;
+import static org.graalvm.compiler.phases.common.inlining.CallTreeInliningPhase.Options.CallTreeInliningMinFrequency;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.graalvm.collections.EconomicSet;
+import org.graalvm.collections.Equivalence;
+import org.graalvm.compiler.debug.CounterKey;
+import org.graalvm.compiler.debug.DebugContext;
+import org.graalvm.compiler.debug.GraalError;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.nodes.Invoke;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.options.OptionValues;
+import org.graalvm.compiler.phases.common.CanonicalizerPhase;
+import org.graalvm.compiler.phases.common.inlining.InliningUtil;
+import org.graalvm.compiler.phases.common.inlining.info.InlineInfo;
+import org.graalvm.compiler.phases.common.inlining.info.elem.Inlineable;
+import org.graalvm.compiler.phases.common.inlining.info.elem.InlineableGraph;
+import org.graalvm.compiler.phases.tiers.HighTierContext;
+
+import jdk.vm.ci.code.BailoutException;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * The call tree of a compilation unit, explored before any inlining decision is made.
+ *
+ * <p>
+ * In contrast to the depth-first walk of {@link InliningData}, which decides callsite by callsite,
+ * inlining with a call tree proceeds in three steps:
+ * <ol>
+ * <li>{@link #expand() Expansion}: callsites are resolved and their callee graphs are built, the
+ * most frequent callsites first, until the exploration budget is exhausted.</li>
+ * <li>{@link #select() Selection}: the subtrees with the best benefit-to-cost ratio are chosen
+ * until the size budget of the compilation unit is used up.</li>
+ * <li>{@link #inline() Inlining}: the selected callees are inlined bottom-up, ie each callee graph
+ * receives its own selected callees before it is inlined into its caller.</li>
+ * </ol>
+ */
+public final class CallTree {
+
+    private static final CounterKey counterCallTreeNodesExpanded = DebugContext.counter("CallTreeNodesExpanded");
+    private static final CounterKey counterCallTreeNodesSelected = DebugContext.counter("CallTreeNodesSelected");
+    private static final CounterKey counterCallTreeExplorationCutoff = DebugContext.counter("CallTreeExplorationCutoff");
+    private static final CounterKey counterInliningPerformed = DebugContext.counter("InliningPerformed");
+
+    private static final Comparator<CallNode> BY_FREQUENCY = (a, b) -> Double.compare(b.getFrequency(), a.getFrequency());
+    private static final Comparator<CallNode> BY_PRIORITY = (a, b) -> Double.compare(b.getPriority(), a.getPriority());
+
+    private final StructuredGraph rootGraph;
+    private final HighTierContext context;
+    private final CanonicalizerPhase canonicalizer;
+    private final DebugContext debug;
+    private final OptionValues options;
+    private final CallNode root;
+    private final InlineInfoResolver resolver;
+
+    /**
+     * The node whose callsites are currently being resolved.
+     */
+    private CallNode current;
+
+    public CallTree(StructuredGraph rootGraph, HighTierContext context, int maxMethodPerInlining, CanonicalizerPhase canonicalizer, LinkedList<Invoke> rootInvokes) {
+        this.rootGraph = rootGraph;
+        this.context = context;
+        this.canonicalizer = canonicalizer;
+        this.debug = rootGraph.getDebug();
+        this.options = rootGraph.getOptions();
+        this.root = new CallNode(rootGraph);
+        this.resolver = new InlineInfoResolver(rootGraph, context, maxMethodPerInlining) {
+            @Override
+            protected int countRecursiveInlining(ResolvedJavaMethod method) {
+                return current.countRecursiveInlining(method);
+            }
+
+            @Override
+            protected int inliningDepth() {
+                return current.getDepth();
+            }
+        };
+        addChildren(root, new CallsiteHolderExplorable(rootGraph, 1.0, 1.0, null, rootInvokes));
+    }
+
+    public CallNode getRoot() {
+        return root;
+    }
+
+    private void addChildren(CallNode node, CallsiteHolderExplorable holder) {
+        current = node;
+        while (holder.hasRemainingInvokes()) {
+            Invoke invoke = holder.popInvoke();
+            InlineInfo info = resolver.getInlineInfo(invoke);
+            if (info != null) {
+                node.getChildren().add(new CallNode(node, info, holder.invokeProbability(invoke), holder.invokeRelevance(invoke),
+                                InliningData.freshlyInstantiatedArguments(invoke, holder.getFixedParams())));
+            }
+        }
+        current = null;
+    }
+
+    /**
+     * Builds the callee graphs of the call tree, visiting the most frequent callsites first. The
+     * callees of a node are explored only if it has a single target. Exploration stops at
+     * callsites that are too cold or too deep, and altogether once the number of parsed nodes
+     * exceeds the exploration budget.
+     */
+    public void expand() {
+        int budget = CallTreeInliningExplorationBudget.getValue(options);
+        int maxDepth = CallTreeInliningMaxDepth.getValue(options);
+        double minFrequency = CallTreeInliningMinFrequency.getValue(options);
+        int explored = 0;
+
+        PriorityQueue<CallNode> pending = new PriorityQueue<>(BY_FREQUENCY);
+        pending.addAll(root.getChildren());
+        while (!pending.isEmpty()) {
+            CallNode node = pending.poll();
+            boolean mandatory = node.isMandatory(context.getReplacements());
+            if (!mandatory && (explored >= budget || node.getFrequency() < minFrequency)) {
+                counterCallTreeExplorationCutoff.increment(debug);
+                continue;
+            }
+            InlineInfo info = node.getInfo();
+            info.populateInlinableElements(context, node.getParent().getGraph(), canonicalizer, options);
+            int cost = info.determineNodeCount();
+            explored += cost;
+            counterCallTreeNodesExpanded.increment(debug);
+
+            StructuredGraph calleeGraph = null;
+            if (info.numberOfMethods() == 1 && node.getDepth() < maxDepth) {
+                Inlineable element = info.inlineableElementAt(0);
+                if (element instanceof InlineableGraph) {
+                    calleeGraph = ((InlineableGraph) element).getGraph();
+                }
+            }
+            node.setExpanded(cost, calleeGraph);
+            if (calleeGraph != null) {
+                CallsiteHolderExplorable holder = new CallsiteHolderExplorable(calleeGraph, node.getFrequency() * info.probabilityAt(0), node.getRelevance() * info.relevanceAt(0),
+                                node.getFreshlyInstantiatedArguments(), null);
+                addChildren(node, holder);
+                pending.addAll(node.getChildren());
+            }
+        }
+    }
+
+    /**
+     * Determines whether {@code node} may be inlined at all. Apart from mandatory inlining, this
+     * limits the size of a single callee relative to the relevance of its callsite, so that the
+     * size budget is not spent on large callees of marginal importance.
+     */
+    private boolean isCandidate(CallNode node) {
+        if (!node.isExpanded()) {
+            return false;
+        }
+        if (node.isMandatory(context.getReplacements()) || node.getCost() < TrivialInliningSize.getValue(options)) {
+            return true;
+        }
+        double maximumNodes = MaximumInliningSize.getValue(options) * Math.min(1.0, node.getRelevance()) * node.getArgumentWeight();
+        return node.getCost() <= maximumNodes;
+    }
+
+    /**
+     * Computes the value of the subtree rooted at {@code node}: the node itself together with
+     * those candidate children whose own subtree value has a better benefit-to-cost ratio than
+     * what has been accumulated so far. This lets a callsite that is not profitable on its own
+     * compete with the profitable callsites it leads to.
+     */
+    private void computeSubtreeValues(CallNode node) {
+        List<CallNode> candidates = new ArrayList<>();
+        for (CallNode child : node.getChildren()) {
+            if (isCandidate(child)) {
+                computeSubtreeValues(child);
+                candidates.add(child);
+            }
+        }
+        candidates.sort(BY_PRIORITY);
+        double subtreeBenefit = node.getBenefit();
+        int subtreeCost = node.getCost();
+        for (CallNode child : candidates) {
+            if (child.getPriority() <= subtreeBenefit / Math.max(1, subtreeCost)) {
+                break;
+            }
+            subtreeBenefit += child.getSubtreeBenefit();
+            subtreeCost += child.getSubtreeCost();
+        }
+        node.setSubtreeValue(subtreeBenefit, subtreeCost);
+    }
+
+    /**
+     * Selects the callsites to inline. The selection grows from the root, so that a node is only
+     * selected together with all its ancestors. Among the children of the selected nodes, the one
+     * with the best {@linkplain CallNode#getPriority() priority} is selected next, as long as its
+     * cost fits into what remains of {@link org.graalvm.compiler.core.common.GraalOptions#MaximumDesiredSize}.
+     */
+    public void select() {
+        computeSubtreeValues(root);
+        int budget = MaximumDesiredSize.getValue(options) - InliningUtil.getNodeCount(rootGraph);
+
+        PriorityQueue<CallNode> frontier = new PriorityQueue<>(BY_PRIORITY);
+        addCandidates(root, frontier);
+        while (!frontier.isEmpty()) {
+            CallNode node = frontier.poll();
+            InlineInfo info = node.getInfo();
+            if (node.isMandatory(context.getReplacements())) {
+                InliningUtil.traceInlinedMethod(info, node.getDepth(), true, "mandatory");
+            } else if (node.getCost() <= budget) {
+                budget -= node.getCost();
+                InliningUtil.traceInlinedMethod(info, node.getDepth(), true, "call tree (frequency=%f, benefit=%f, nodes=%d, priority=%f)", node.getFrequency(), node.getBenefit(),
+                                node.getCost(), node.getPriority());
+            } else {
+                InliningUtil.traceNotInlinedMethod(info, node.getDepth(), "call tree size budget exceeded (frequency=%f, nodes=%d, remaining=%d)", node.getFrequency(), node.getCost(), budget);
+                continue;
+            }
+            node.setSelected();
+            counterCallTreeNodesSelected.increment(debug);
+            addCandidates(node, frontier);
+        }
+    }
+
+    private void addCandidates(CallNode node, PriorityQueue<CallNode> frontier) {
+        for (CallNode child : node.getChildren()) {
+            if (isCandidate(child)) {
+                frontier.add(child);
+            } else if (child.isExpanded()) {
+                InliningUtil.traceNotInlinedMethod(child.getInfo(), child.getDepth(), "call tree relevance-based (relevance=%f, frequency=%f, nodes=%d)", child.getRelevance(),
+                                child.getFrequency(), child.getCost());
+            }
+        }
+    }
+
+    /**
+     * Inlines the selected callsites.
+     */
+    public void inline() {
+        inlineSelectedChildren(root);
+    }
+
+    private void inlineSelectedChildren(CallNode caller) {
+        for (CallNode child : caller.getChildren()) {
+            InlineInfo info = child.getInfo();
+            if (!info.invoke().asNode().isAlive()) {
+                // removed by canonicalization after inlining a sibling
+                continue;
+            }
+            if (child.isSelected()) {
+                inlineSelectedChildren(child);
+                doInline(caller.getGraph(), child);
+            } else if (context.getOptimisticOptimizations().devirtualizeInvokes(options)) {
+                info.tryToDevirtualizeInvoke(context.getProviders());
+            }
+        }
+    }
+
+    @SuppressWarnings("try")
+    private void doInline(StructuredGraph callerGraph, CallNode callee) {
+        InlineInfo calleeInfo = callee.getInfo();
+        try (DebugContext.Scope scope = debug.scope("doInline", callerGraph)) {
+            EconomicSet<Node> canonicalizedNodes = EconomicSet.create(Equivalence.IDENTITY);
+            canonicalizedNodes.addAll(calleeInfo.invoke().asNode().usages());
+            EconomicSet<Node> parameterUsages = calleeInfo.inline(context.getProviders(), "call tree");
+            canonicalizedNodes.addAll(parameterUsages);
+            debug.dump(DebugContext.DETAILED_LEVEL, callerGraph, "after %s", calleeInfo);
+            canonicalizer.applyIncremental(callerGraph, context, canonicalizedNodes);
+            counterInliningPerformed.increment(debug);
+        } catch (BailoutException bailout) {
+            throw bailout;
+        } catch (AssertionError | RuntimeException e) {
+            throw new GraalError(e).addContext(calleeInfo.toString());
+        } catch (GraalError e) {
+            throw e.addContext(calleeInfo.toString());
+        } catch (Throwable e) {
+            throw debug.handle(e);
+        }
+    }
+}
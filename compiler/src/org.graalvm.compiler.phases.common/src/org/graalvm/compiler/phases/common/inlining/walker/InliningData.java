@@ -24,10 +24,6 @@
  */
 package org.graalvm.compiler.phases.common.inlining.walker;
 
-import static org.graalvm.compiler.core.common.GraalOptions.Intrinsify;
-import static org.graalvm.compiler.core.common.GraalOptions.MaximumRecursiveInlining;
-import static org.graalvm.compiler.core.common.GraalOptions.MegamorphicInliningMinMethodProbability;
-
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
@@ -38,44 +34,27 @@ import java.util.List;
 
 import org.graalvm.collections.EconomicSet;
 import org.graalvm.collections.Equivalence;
-import org.graalvm.compiler.core.common.type.ObjectStamp;
 import org.graalvm.compiler.debug.CounterKey;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.GraalError;
 import org.graalvm.compiler.graph.Graph;
 import org.graalvm.compiler.graph.Node;
-import org.graalvm.compiler.nodes.CallTargetNode;
-import org.graalvm.compiler.nodes.CallTargetNode.InvokeKind;
-import org.graalvm.compiler.nodes.InliningLog;
 import org.graalvm.compiler.nodes.Invoke;
-import org.graalvm.compiler.nodes.NodeView;
 import org.graalvm.compiler.nodes.ParameterNode;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.ValueNode;
 import org.graalvm.compiler.nodes.java.AbstractNewObjectNode;
-import org.graalvm.compiler.nodes.java.MethodCallTargetNode;
 import org.graalvm.compiler.nodes.virtual.AllocatedObjectNode;
 import org.graalvm.compiler.nodes.virtual.VirtualObjectNode;
-import org.graalvm.compiler.options.OptionValues;
-import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.phases.common.CanonicalizerPhase;
-import org.graalvm.compiler.phases.common.inlining.InliningUtil;
-import org.graalvm.compiler.phases.common.inlining.info.AssumptionInlineInfo;
-import org.graalvm.compiler.phases.common.inlining.info.ExactInlineInfo;
 import org.graalvm.compiler.phases.common.inlining.info.InlineInfo;
-import org.graalvm.compiler.phases.common.inlining.info.MultiTypeGuardInlineInfo;
-import org.graalvm.compiler.phases.common.inlining.info.TypeGuardInlineInfo;
 import org.graalvm.compiler.phases.common.inlining.info.elem.Inlineable;
 import org.graalvm.compiler.phases.common.inlining.info.elem.InlineableGraph;
 import org.graalvm.compiler.phases.common.inlining.policy.InliningPolicy;
 import org.graalvm.compiler.phases.tiers.HighTierContext;
 
 import jdk.vm.ci.code.BailoutException;
-import jdk.vm.ci.meta.Assumptions.AssumptionResult;
-import jdk.vm.ci.meta.JavaTypeProfile;
 import jdk.vm.ci.meta.ResolvedJavaMethod;
-import jdk.vm.ci.meta.ResolvedJavaType;
-import jdk.vm.ci.meta.SpeculationLog;
 
 /**
  * <p>
@@ -116,7 +95,7 @@ public class InliningData {
     private final ArrayDeque<MethodInvocation> invocationQueue = new ArrayDeque<>();
 
     private final HighTierContext context;
-    private final int maxMethodPerInlining;
+    private final InlineInfoResolver resolver;
     private final CanonicalizerPhase canonicalizer;
     private final InliningPolicy inliningPolicy;
     private final StructuredGraph rootGraph;
@@ -127,7 +106,17 @@ public class InliningData {
     public InliningData(StructuredGraph rootGraph, HighTierContext context, int maxMethodPerInlining, CanonicalizerPhase canonicalizer, InliningPolicy inliningPolicy, LinkedList<Invoke> rootInvokes) {
         assert rootGraph != null;
         this.context = context;
-        this.maxMethodPerInlining = maxMethodPerInlining;
+        this.resolver = new InlineInfoResolver(rootGraph, context, maxMethodPerInlining) {
+            @Override
+            protected int countRecursiveInlining(ResolvedJavaMethod method) {
+                return InliningData.this.countRecursiveInlining(method);
+            }
+
+            @Override
+            protected int inliningDepth() {
+                return InliningData.this.inliningDepth();
+            }
+        };
         this.canonicalizer = canonicalizer;
         this.inliningPolicy = inliningPolicy;
         this.maxGraphs = 1;
@@ -142,278 +131,6 @@ public class InliningData {
         return (arg instanceof AbstractNewObjectNode) || (arg instanceof AllocatedObjectNode) || (arg instanceof VirtualObjectNode);
     }
 
-    private String checkTargetConditionsHelper(ResolvedJavaMethod method, Invoke invoke) {
-        OptionValues options = rootGraph.getOptions();
-        if (method == null) {
-            return "the method is not resolved";
-        } else if (method.isNative() && !(Intrinsify.getValue(options) &&
-                        context.getReplacements().getInlineSubstitution(method, invoke.bci(), invoke.getInlineControl(), rootGraph.trackNodeSourcePosition(), null, rootGraph.allowAssumptions(),
-                                        options) != null)) {
-            // We have conditional intrinsic, e.g., String.intern, which may not have inlineable
-            // graph depending on the context. The getInlineSubstitution test ensures the inlineable
-            // graph is present.
-            return "it is a non-intrinsic native method";
-        } else if (method.isAbstract()) {
-            return "it is an abstract method";
-        } else if (!method.getDeclaringClass().isInitialized()) {
-            return "the method's class is not initialized";
-        } else if (!method.canBeInlined()) {
-            return "it is marked non-inlinable";
-        } else if (countRecursiveInlining(method) > MaximumRecursiveInlining.getValue(options)) {
-            return "it exceeds the maximum recursive inlining depth";
-        } else {
-            if (new OptimisticOptimizations(rootGraph.getProfilingInfo(method), options).lessOptimisticThan(context.getOptimisticOptimizations())) {
-                return "the callee uses less optimistic optimizations than caller";
-            } else {
-                return null;
-            }
-        }
-    }
-
-    private boolean checkTargetConditions(Invoke invoke, ResolvedJavaMethod method) {
-        final String failureMessage = checkTargetConditionsHelper(method, invoke);
-        if (failureMessage == null) {
-            return true;
-        } else {
-            InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), method, failureMessage);
-            invoke.asNode().graph().getInliningLog().addDecision(invoke, false, "InliningPhase", null, null, failureMessage);
-            return false;
-        }
-    }
-
-    /**
-     * Determines if inlining is possible at the given invoke node.
-     *
-     * @param invoke the invoke that should be inlined
-     * @return an instance of InlineInfo, or null if no inlining is possible at the given invoke
-     */
-    private InlineInfo getInlineInfo(Invoke invoke) {
-        final String failureMessage = InliningUtil.checkInvokeConditions(invoke);
-        if (failureMessage != null) {
-            InliningUtil.logNotInlinedMethod(invoke, failureMessage);
-            return null;
-        }
-        MethodCallTargetNode callTarget = (MethodCallTargetNode) invoke.callTarget();
-        ResolvedJavaMethod targetMethod = callTarget.targetMethod();
-
-        InvokeKind invokeKind = callTarget.invokeKind();
-        if (invokeKind == CallTargetNode.InvokeKind.Special || invokeKind == CallTargetNode.InvokeKind.Static || targetMethod.canBeStaticallyBound()) {
-            return getExactInlineInfo(invoke, targetMethod);
-        }
-
-        assert invokeKind.isIndirect();
-
-        ResolvedJavaType holder = targetMethod.getDeclaringClass();
-        if (!(callTarget.receiver().stamp(NodeView.DEFAULT) instanceof ObjectStamp)) {
-            return null;
-        }
-        ObjectStamp receiverStamp = (ObjectStamp) callTarget.receiver().stamp(NodeView.DEFAULT);
-        if (receiverStamp.alwaysNull()) {
-            // Don't inline if receiver is known to be null
-            return null;
-        }
-        ResolvedJavaType contextType = invoke.getContextType();
-        if (receiverStamp.type() != null) {
-            // the invoke target might be more specific than the holder (happens after inlining:
-            // parameters lose their declared type...)
-            ResolvedJavaType receiverType = receiverStamp.type();
-            if (receiverType != null && holder.isAssignableFrom(receiverType)) {
-                holder = receiverType;
-                if (receiverStamp.isExactType()) {
-                    assert targetMethod.getDeclaringClass().isAssignableFrom(holder) : holder + " subtype of " + targetMethod.getDeclaringClass() + " for " + targetMethod;
-                    ResolvedJavaMethod resolvedMethod = holder.resolveConcreteMethod(targetMethod, contextType);
-                    if (resolvedMethod != null) {
-                        return getExactInlineInfo(invoke, resolvedMethod);
-                    }
-                }
-            }
-        }
-
-        if (holder.isArray()) {
-            // arrays can be treated as Objects
-            ResolvedJavaMethod resolvedMethod = holder.resolveConcreteMethod(targetMethod, contextType);
-            if (resolvedMethod != null) {
-                return getExactInlineInfo(invoke, resolvedMethod);
-            }
-        }
-
-        if (invokeKind != InvokeKind.Interface) {
-            AssumptionResult<ResolvedJavaType> leafConcreteSubtype = holder.findLeafConcreteSubtype();
-            if (leafConcreteSubtype != null) {
-                ResolvedJavaMethod resolvedMethod = leafConcreteSubtype.getResult().resolveConcreteMethod(targetMethod, contextType);
-                if (resolvedMethod != null && leafConcreteSubtype.canRecordTo(callTarget.graph().getAssumptions())) {
-                    return getAssumptionInlineInfo(invoke, resolvedMethod, leafConcreteSubtype);
-                }
-            }
-
-            AssumptionResult<ResolvedJavaMethod> concrete = holder.findUniqueConcreteMethod(targetMethod);
-            if (concrete != null && concrete.canRecordTo(callTarget.graph().getAssumptions())) {
-                return getAssumptionInlineInfo(invoke, concrete.getResult(), concrete);
-            }
-        }
-
-        // type check based inlining
-        return getTypeCheckedInlineInfo(invoke, targetMethod);
-    }
-
-    private InlineInfo getTypeCheckedInlineInfo(Invoke invoke, ResolvedJavaMethod targetMethod) {
-        StructuredGraph graph = invoke.asNode().graph();
-        InliningLog inliningLog = graph.getInliningLog();
-        JavaTypeProfile typeProfile = ((MethodCallTargetNode) invoke.callTarget()).getProfile();
-        if (typeProfile == null) {
-            InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), targetMethod, "no type profile exists");
-            inliningLog.addDecision(invoke, false, "InliningPhase", null, null, "no type profile exists");
-            return null;
-        }
-
-        JavaTypeProfile.ProfiledType[] ptypes = typeProfile.getTypes();
-        if (ptypes == null || ptypes.length <= 0) {
-            InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), targetMethod, "no types in profile");
-            inliningLog.addDecision(invoke, false, "InliningPhase", null, null, "no types in profile");
-            return null;
-        }
-        ResolvedJavaType contextType = invoke.getContextType();
-        double notRecordedTypeProbability = typeProfile.getNotRecordedProbability();
-        final OptimisticOptimizations optimisticOpts = context.getOptimisticOptimizations();
-        OptionValues options = invoke.asNode().getOptions();
-
-        SpeculationLog speculationLog = graph.getSpeculationLog();
-        SpeculationLog.SpeculationReason speculation = notRecordedTypeProbability == 0 ? InliningUtil.createSpeculation(invoke, typeProfile) : null;
-
-        if (ptypes.length == 1 && notRecordedTypeProbability == 0 && (speculationLog == null || speculationLog.maySpeculate(speculation))) {
-            if (!optimisticOpts.inlineMonomorphicCalls(options)) {
-                InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), targetMethod, "inlining monomorphic calls is disabled");
-                inliningLog.addDecision(invoke, false, "InliningPhase", null, null, "inlining monomorphic calls is disabled");
-                return null;
-            }
-
-            ResolvedJavaType type = ptypes[0].getType();
-            assert type.isArray() || type.isConcrete();
-            ResolvedJavaMethod concrete = type.resolveConcreteMethod(targetMethod, contextType);
-            if (!checkTargetConditions(invoke, concrete)) {
-                return null;
-            }
-            return new TypeGuardInlineInfo(invoke, concrete, type, speculation);
-        } else {
-            invoke.setPolymorphic(true);
-
-            if (!optimisticOpts.inlinePolymorphicCalls(options) && notRecordedTypeProbability == 0) {
-                InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), targetMethod, "inlining polymorphic calls is disabled (%d types)", ptypes.length);
-                inliningLog.addDecision(invoke, false, "InliningPhase", null, null, "inlining polymorphic calls is disabled (%d types)", ptypes.length);
-                return null;
-            }
-            if (!optimisticOpts.inlineMegamorphicCalls(options) && notRecordedTypeProbability > 0) {
-                // due to filtering impossible types, notRecordedTypeProbability can be > 0 although
-                // the number of types is lower than what can be recorded in a type profile
-                InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), targetMethod, "inlining megamorphic calls is disabled (%d types, %f %% not recorded types)", ptypes.length,
-                                notRecordedTypeProbability * 100);
-                inliningLog.addDecision(invoke, false, "InliningPhase", null, null,
-                                "inlining megamorphic calls is disabled (%d types, %f %% not recorded types)", ptypes.length, notRecordedTypeProbability);
-                return null;
-            }
-
-            // Find unique methods and their probabilities.
-            ArrayList<ResolvedJavaMethod> concreteMethods = new ArrayList<>();
-            ArrayList<Double> concreteMethodsProbabilities = new ArrayList<>();
-            for (int i = 0; i < ptypes.length; i++) {
-                ResolvedJavaMethod concrete = ptypes[i].getType().resolveConcreteMethod(targetMethod, contextType);
-                if (concrete == null) {
-                    InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), targetMethod, "could not resolve method");
-                    inliningLog.addDecision(invoke, false, "InliningPhase", null, null, "could not resolve method");
-                    return null;
-                }
-                int index = concreteMethods.indexOf(concrete);
-                double curProbability = ptypes[i].getProbability();
-                if (index < 0) {
-                    index = concreteMethods.size();
-                    concreteMethods.add(concrete);
-                    concreteMethodsProbabilities.add(curProbability);
-                } else {
-                    concreteMethodsProbabilities.set(index, concreteMethodsProbabilities.get(index) + curProbability);
-                }
-            }
-
-            // Clear methods that fall below the threshold.
-            if (notRecordedTypeProbability > 0) {
-                ArrayList<ResolvedJavaMethod> newConcreteMethods = new ArrayList<>();
-                ArrayList<Double> newConcreteMethodsProbabilities = new ArrayList<>();
-                for (int i = 0; i < concreteMethods.size(); ++i) {
-                    if (concreteMethodsProbabilities.get(i) >= MegamorphicInliningMinMethodProbability.getValue(options)) {
-                        newConcreteMethods.add(concreteMethods.get(i));
-                        newConcreteMethodsProbabilities.add(concreteMethodsProbabilities.get(i));
-                    }
-                }
-
-                if (newConcreteMethods.isEmpty()) {
-                    // No method left that is worth inlining.
-                    InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), targetMethod, "no methods remaining after filtering less frequent methods (%d methods previously)",
-                                    concreteMethods.size());
-                    inliningLog.addDecision(invoke, false, "InliningPhase", null, null,
-                                    "no methods remaining after filtering less frequent methods (%d methods previously)", concreteMethods.size());
-                    return null;
-                }
-
-                concreteMethods = newConcreteMethods;
-                concreteMethodsProbabilities = newConcreteMethodsProbabilities;
-            }
-
-            if (concreteMethods.size() > maxMethodPerInlining) {
-                InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), targetMethod, "polymorphic call with more than %d target methods", maxMethodPerInlining);
-                inliningLog.addDecision(invoke, false, "InliningPhase", null, null, "polymorphic call with more than %d target methods", maxMethodPerInlining);
-                return null;
-            }
-
-            // Clean out types whose methods are no longer available.
-            ArrayList<JavaTypeProfile.ProfiledType> usedTypes = new ArrayList<>();
-            ArrayList<Integer> typesToConcretes = new ArrayList<>();
-            for (JavaTypeProfile.ProfiledType type : ptypes) {
-                ResolvedJavaMethod concrete = type.getType().resolveConcreteMethod(targetMethod, contextType);
-                int index = concreteMethods.indexOf(concrete);
-                if (index == -1) {
-                    notRecordedTypeProbability += type.getProbability();
-                } else {
-                    assert type.getType().isArray() || !type.getType().isAbstract() : type + " " + concrete;
-                    usedTypes.add(type);
-                    typesToConcretes.add(index);
-                }
-            }
-
-            if (usedTypes.isEmpty()) {
-                // No type left that is worth checking for.
-                InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), targetMethod, "no types remaining after filtering less frequent types (%d types previously)", ptypes.length);
-                inliningLog.addDecision(invoke, false, "InliningPhase", null, null, "no types remaining after filtering less frequent types (%d types previously)",
-                                ptypes.length);
-                return null;
-            }
-
-            for (ResolvedJavaMethod concrete : concreteMethods) {
-                if (!checkTargetConditions(invoke, concrete)) {
-                    InliningUtil.traceNotInlinedMethod(invoke, inliningDepth(), targetMethod, "it is a polymorphic method call and at least one invoked method cannot be inlined");
-                    inliningLog.addDecision(invoke, false, "InliningPhase", null, null,
-                                    "it is a polymorphic method call and at least one invoked method cannot be inlined");
-                    return null;
-                }
-            }
-            return new MultiTypeGuardInlineInfo(invoke, concreteMethods, usedTypes, typesToConcretes, notRecordedTypeProbability, speculation);
-        }
-    }
-
-    private InlineInfo getAssumptionInlineInfo(Invoke invoke, ResolvedJavaMethod concrete, AssumptionResult<?> takenAssumption) {
-        assert concrete.isConcrete();
-        if (checkTargetConditions(invoke, concrete)) {
-            return new AssumptionInlineInfo(invoke, concrete, takenAssumption);
-        }
-        return null;
-    }
-
-    private InlineInfo getExactInlineInfo(Invoke invoke, ResolvedJavaMethod targetMethod) {
-        assert targetMethod.isConcrete();
-        if (checkTargetConditions(invoke, targetMethod)) {
-            return new ExactInlineInfo(invoke, targetMethod);
-        }
-        return null;
-    }
-
     @SuppressWarnings("try")
     private void doInline(CallsiteHolderExplorable callerCallsiteHolder, MethodInvocation calleeInvocation, String reason) {
         StructuredGraph callerGraph = callerCallsiteHolder.graph();
@@ -512,7 +229,7 @@ public class InliningData {
     private void processNextInvoke() {
         CallsiteHolderExplorable callsiteHolder = (CallsiteHolderExplorable) currentGraph();
         Invoke invoke = callsiteHolder.popInvoke();
-        InlineInfo info = getInlineInfo(invoke);
+        InlineInfo info = resolver.getInlineInfo(invoke);
 
         if (info != null) {
             info.populateInlinableElements(context, currentGraph().graph(), canonicalizer, rootGraph.getOptions());
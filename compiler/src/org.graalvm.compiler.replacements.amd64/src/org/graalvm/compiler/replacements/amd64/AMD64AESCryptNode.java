@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.amd64;
+
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_64;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_128;
+
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.memory.AbstractMemoryCheckpoint;
+import org.graalvm.compiler.nodes.memory.SingleMemoryKill;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Encrypts or decrypts a single AES block with the AES-NI instructions.
+ * <p>
+ * {@code com.sun.crypto.provider.AESCrypt.implEncryptBlock([BI[BI)V} and
+ * {@code implDecryptBlock([BI[BI)V} are represented by this node, with {@code key} being the
+ * expanded key from the {@code K} field of the receiver. The callers check the array bounds. The
+ * output may overlap the input, so the node is a state split that must not be re-executed.
+ */
+@NodeInfo(cycles = CYCLES_64, size = SIZE_128)
+public final class AMD64AESCryptNode extends AbstractMemoryCheckpoint implements LIRLowerable, SingleMemoryKill {
+
+    public static final NodeClass<AMD64AESCryptNode> TYPE = NodeClass.create(AMD64AESCryptNode.class);
+
+    @Input private ValueNode in;
+    @Input private ValueNode inOffset;
+    @Input private ValueNode out;
+    @Input private ValueNode outOffset;
+    @Input private ValueNode key;
+    @Input private ValueNode keyLength;
+    private final boolean encrypt;
+
+    public AMD64AESCryptNode(ValueNode in, ValueNode inOffset, ValueNode out, ValueNode outOffset, ValueNode key, ValueNode keyLength, boolean encrypt) {
+        super(TYPE, StampFactory.forVoid());
+        this.in = in;
+        this.inOffset = inOffset;
+        this.out = out;
+        this.outOffset = outOffset;
+        this.key = key;
+        this.keyLength = keyLength;
+        this.encrypt = encrypt;
+    }
+
+    @Override
+    public LocationIdentity getKilledLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(JavaKind.Byte);
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        gen.getLIRGeneratorTool().emitAESCrypt(gen.operand(in), gen.operand(inOffset), gen.operand(out), gen.operand(outOffset), gen.operand(key), gen.operand(keyLength), encrypt);
+    }
+}
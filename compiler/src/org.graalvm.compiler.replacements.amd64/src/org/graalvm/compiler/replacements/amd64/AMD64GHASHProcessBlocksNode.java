@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.amd64;
+
+import static org.graalvm.compiler.nodeinfo.NodeCycles.CYCLES_UNKNOWN;
+import static org.graalvm.compiler.nodeinfo.NodeSize.SIZE_256;
+
+import org.graalvm.compiler.core.common.type.StampFactory;
+import org.graalvm.compiler.graph.NodeClass;
+import org.graalvm.compiler.nodeinfo.NodeInfo;
+import org.graalvm.compiler.nodes.NamedLocationIdentity;
+import org.graalvm.compiler.nodes.ValueNode;
+import org.graalvm.compiler.nodes.memory.AbstractMemoryCheckpoint;
+import org.graalvm.compiler.nodes.memory.SingleMemoryKill;
+import org.graalvm.compiler.nodes.spi.LIRLowerable;
+import org.graalvm.compiler.nodes.spi.NodeLIRBuilderTool;
+import org.graalvm.word.LocationIdentity;
+import org.graalvm.word.Pointer;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * Updates the GHASH state with a number of 16 byte blocks using carry-less multiplication.
+ * <p>
+ * {@code com.sun.crypto.provider.GHASH.processBlocks([BII[J[J)V} is represented by this node. The
+ * state is updated in place, so the node is a state split that must not be re-executed.
+ */
+@NodeInfo(cycles = CYCLES_UNKNOWN, size = SIZE_256)
+public final class AMD64GHASHProcessBlocksNode extends AbstractMemoryCheckpoint implements LIRLowerable, SingleMemoryKill {
+
+    public static final NodeClass<AMD64GHASHProcessBlocksNode> TYPE = NodeClass.create(AMD64GHASHProcessBlocksNode.class);
+
+    @Input private ValueNode state;
+    @Input private ValueNode subkey;
+    @Input private ValueNode data;
+    @Input private ValueNode blocks;
+
+    public AMD64GHASHProcessBlocksNode(ValueNode state, ValueNode subkey, ValueNode data, ValueNode blocks) {
+        super(TYPE, StampFactory.forVoid());
+        this.state = state;
+        this.subkey = subkey;
+        this.data = data;
+        this.blocks = blocks;
+    }
+
+    @Override
+    public LocationIdentity getKilledLocationIdentity() {
+        return NamedLocationIdentity.getArrayLocation(JavaKind.Long);
+    }
+
+    @Override
+    public void generate(NodeLIRBuilderTool gen) {
+        gen.getLIRGeneratorTool().emitGHASHProcessBlocks(gen.operand(state), gen.operand(subkey), gen.operand(data), gen.operand(blocks));
+    }
+
+    @NodeIntrinsic
+    public static native void processBlocks(Pointer state, Pointer subkey, Pointer data, int blocks);
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.amd64;
+
+import static org.graalvm.compiler.replacements.ReplacementsUtil.byteArrayBaseOffset;
+import static org.graalvm.compiler.replacements.ReplacementsUtil.getArrayBaseOffset;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.Fold.InjectedParameter;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.Pointer;
+
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.MetaAccessProvider;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@code com.sun.crypto.provider.GHASH} methods.
+ * <p>
+ * Since JDK 9.
+ */
+@ClassSubstitution(className = "com.sun.crypto.provider.GHASH", optional = true)
+public class AMD64GHASHSubstitutions {
+
+    /** Marker value for the {@link InjectedParameter} injected parameter. */
+    static final MetaAccessProvider INJECTED = null;
+
+    /**
+     * Intrinsic for {@code com.sun.crypto.provider.GHASH.processBlocks([BII[J[J)V}.
+     *
+     * <pre>
+     * &#64;HotSpotIntrinsicCandidate
+     * private static void processBlocks(byte[] data, int inOfs, int blocks, long[] st, long[] subH)
+     * </pre>
+     *
+     * The caller checks the bounds of {@code data}, {@code st} and {@code subH}.
+     */
+    @MethodSubstitution
+    public static void processBlocks(byte[] data, int inOfs, int blocks, long[] st, long[] subH) {
+        Pointer state = Word.objectToTrackedPointer(st).add(getArrayBaseOffset(INJECTED, JavaKind.Long));
+        Pointer subkey = Word.objectToTrackedPointer(subH).add(getArrayBaseOffset(INJECTED, JavaKind.Long));
+        Pointer dataPointer = Word.objectToTrackedPointer(data).add(byteArrayBaseOffset(INJECTED)).add(inOfs);
+        AMD64GHASHProcessBlocksNode.processBlocks(state, subkey, dataPointer, blocks);
+    }
+}
@@ -51,6 +51,7 @@ import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins.Registratio
 import org.graalvm.compiler.nodes.java.ArrayLengthNode;
 import org.graalvm.compiler.nodes.java.AtomicReadAndAddNode;
 import org.graalvm.compiler.nodes.java.AtomicReadAndWriteNode;
+import org.graalvm.compiler.nodes.java.LoadFieldNode;
 import org.graalvm.compiler.nodes.memory.OnHeapMemoryAccess;
 import org.graalvm.compiler.nodes.memory.address.IndexAddressNode;
 import org.graalvm.compiler.nodes.memory.address.OffsetAddressNode;
@@ -73,6 +74,7 @@ import jdk.vm.ci.amd64.AMD64;
 import jdk.vm.ci.amd64.AMD64.CPUFeature;
 import jdk.vm.ci.code.Architecture;
 import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.ResolvedJavaField;
 import jdk.vm.ci.meta.ResolvedJavaMethod;
 import sun.misc.Unsafe;
 
@@ -100,7 +102,9 @@ public class AMD64GraphBuilderPlugins implements TargetGraphBuilderPlugins {
                 if (emitJDK9StringSubstitutions) {
                     registerStringLatin1Plugins(invocationPlugins, replacements);
                     registerStringUTF16Plugins(invocationPlugins, replacements);
+                    registerStringCodingPlugins(invocationPlugins, replacements);
                 }
+                registerISO8859EncoderPlugins(invocationPlugins, replacements);
                 registerMathPlugins(invocationPlugins, useFMAIntrinsics, arch, replacements);
                 registerArraysEqualsPlugins(invocationPlugins, replacements);
             }
@@ -301,6 +305,18 @@ public class AMD64GraphBuilderPlugins implements TargetGraphBuilderPlugins {
         });
     }
 
+    private static void registerStringCodingPlugins(InvocationPlugins plugins, Replacements replacements) {
+        Registration r = new Registration(plugins, "java.lang.StringCoding", replacements);
+        r.registerMethodSubstitution(AMD64StringCodingSubstitutions.class, "hasNegatives", byte[].class, int.class, int.class);
+        r.registerMethodSubstitution(AMD64StringCodingSubstitutions.class, "implEncodeISOArray", byte[].class, int.class, byte[].class, int.class, int.class);
+    }
+
+    private static void registerISO8859EncoderPlugins(InvocationPlugins plugins, Replacements replacements) {
+        Registration r = new Registration(plugins, "sun.nio.cs.ISO_8859_1$Encoder", replacements);
+        String name = JavaVersionUtil.JAVA_SPEC <= 8 ? "encodeISOArray" : "implEncodeISOArray";
+        r.registerMethodSubstitution(AMD64ISO8859EncoderSubstitutions.class, name, "encodeISOArray", char[].class, int.class, byte[].class, int.class, int.class);
+    }
+
     private static void registerUnsafePlugins(InvocationPlugins plugins, Replacements replacements, boolean explicitUnsafeNullChecks) {
         registerUnsafePlugins(new Registration(plugins, Unsafe.class), explicitUnsafeNullChecks, new JavaKind[]{JavaKind.Int, JavaKind.Long, JavaKind.Object}, true);
         if (JavaVersionUtil.JAVA_SPEC > 8) {
@@ -348,6 +364,61 @@ public class AMD64GraphBuilderPlugins implements TargetGraphBuilderPlugins {
 
     }
 
+    /**
+     * Registers the AES and GHASH intrinsics implemented by {@link AMD64AESCryptNode} and
+     * {@link AMD64GHASHProcessBlocksNode}. These are not part of
+     * {@link #register(Plugins, Replacements, AMD64, boolean, boolean, boolean)} since HotSpot
+     * intrinsifies the same methods with its own stubs.
+     * <p>
+     * Only the JDK 9+ entry points are intrinsified because their callers check the array bounds.
+     */
+    public static void registerCryptoPlugins(InvocationPlugins plugins, Replacements replacements, AMD64 arch) {
+        if (JavaVersionUtil.JAVA_SPEC <= 8 || !arch.getFeatures().contains(CPUFeature.SSSE3)) {
+            return;
+        }
+        plugins.defer(new Runnable() {
+            @Override
+            public void run() {
+                if (arch.getFeatures().contains(CPUFeature.AES)) {
+                    Registration r = new Registration(plugins, "com.sun.crypto.provider.AESCrypt", replacements);
+                    r.register5("implEncryptBlock", Receiver.class, byte[].class, int.class, byte[].class, int.class, new AESCryptPlugin(true));
+                    r.register5("implDecryptBlock", Receiver.class, byte[].class, int.class, byte[].class, int.class, new AESCryptPlugin(false));
+                }
+                if (arch.getFeatures().contains(CPUFeature.CLMUL)) {
+                    Registration r = new Registration(plugins, "com.sun.crypto.provider.GHASH", replacements);
+                    r.registerMethodSubstitution(AMD64GHASHSubstitutions.class, "processBlocks", byte[].class, int.class, int.class, long[].class, long[].class);
+                }
+            }
+        });
+    }
+
+    private static final class AESCryptPlugin implements InvocationPlugin {
+        private final boolean encrypt;
+
+        AESCryptPlugin(boolean encrypt) {
+            this.encrypt = encrypt;
+        }
+
+        @Override
+        public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver, ValueNode in, ValueNode inOffset, ValueNode out, ValueNode outOffset) {
+            ResolvedJavaField keyField = null;
+            for (ResolvedJavaField field : targetMethod.getDeclaringClass().getInstanceFields(false)) {
+                if (field.getName().equals("K")) {
+                    keyField = field;
+                    break;
+                }
+            }
+            if (keyField == null) {
+                return false;
+            }
+            ValueNode key = b.add(LoadFieldNode.create(b.getAssumptions(), receiver.get(), keyField));
+            // Also null checks the key
+            ValueNode keyLength = b.add(ArrayLengthNode.create(key, b.getConstantReflection()));
+            b.add(new AMD64AESCryptNode(in, inOffset, out, outOffset, key, keyLength, encrypt));
+            return true;
+        }
+    }
+
     private static void registerArraysEqualsPlugins(InvocationPlugins plugins, Replacements replacements) {
         Registration r = new Registration(plugins, Arrays.class, replacements);
         r.registerMethodSubstitution(ArraysSubstitutions.class, "equals", float[].class, float[].class);
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.amd64;
+
+import static org.graalvm.compiler.api.directives.GraalDirectives.SLOWPATH_PROBABILITY;
+import static org.graalvm.compiler.api.directives.GraalDirectives.injectBranchProbability;
+import static org.graalvm.compiler.replacements.ReplacementsUtil.byteArrayBaseOffset;
+import static org.graalvm.compiler.replacements.ReplacementsUtil.byteArrayIndexScale;
+import static org.graalvm.compiler.replacements.ReplacementsUtil.charArrayBaseOffset;
+import static org.graalvm.compiler.replacements.ReplacementsUtil.charArrayIndexScale;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.Fold.InjectedParameter;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.nodes.DeoptimizeNode;
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.Pointer;
+
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.JavaKind;
+import jdk.vm.ci.meta.MetaAccessProvider;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@code java.lang.StringCoding} methods.
+ * <p>
+ * Since JDK 9.
+ */
+@ClassSubstitution(className = "java.lang.StringCoding", optional = true)
+public class AMD64StringCodingSubstitutions {
+
+    /** Marker value for the {@link InjectedParameter} injected parameter. */
+    static final MetaAccessProvider INJECTED = null;
+
+    /**
+     * Intrinsic for {@code java.lang.StringCoding.hasNegatives([BII)Z}.
+     *
+     * <pre>
+     * &#64;HotSpotIntrinsicCandidate
+     * public static boolean hasNegatives(byte[] ba, int off, int len)
+     * </pre>
+     */
+    @MethodSubstitution
+    public static boolean hasNegatives(byte[] ba, int off, int len) {
+        if (injectBranchProbability(SLOWPATH_PROBABILITY, len < 0) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, off < 0) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, off + len > ba.length)) {
+            DeoptimizeNode.deopt(DeoptimizationAction.None, DeoptimizationReason.BoundsCheckException);
+        }
+        Pointer pointer = Word.objectToTrackedPointer(ba).add(byteArrayBaseOffset(INJECTED)).add(off * byteArrayIndexScale(INJECTED));
+        return AMD64HasNegativesNode.hasNegatives(pointer, len) != 0;
+    }
+
+    /**
+     * Intrinsic for {@code java.lang.StringCoding.implEncodeISOArray([BI[BII)I}.
+     *
+     * <pre>
+     * &#64;HotSpotIntrinsicCandidate
+     * private static int implEncodeISOArray(byte[] sa, int sp, byte[] da, int dp, int len)
+     * </pre>
+     * <p>
+     * In this variant {@code sa} refers to a byte array containing 2 byte per char so {@code sp}
+     * and {@code len} are in terms of char elements and have to be scaled by 2 when referring to
+     * {@code sa}.
+     */
+    @MethodSubstitution
+    public static int implEncodeISOArray(byte[] sa, int sp, byte[] da, int dp, int len) {
+        checkLimits(sa.length >> 1, sp, da.length, dp, len);
+
+        Pointer srcPointer = Word.objectToTrackedPointer(sa).add(byteArrayBaseOffset(INJECTED)).add(sp * charArrayIndexScale(INJECTED));
+        Pointer destPointer = Word.objectToTrackedPointer(da).add(byteArrayBaseOffset(INJECTED)).add(dp * byteArrayIndexScale(INJECTED));
+        return AMD64EncodeISOArrayNode.encode(srcPointer, destPointer, len, JavaKind.Byte);
+    }
+
+    /**
+     * Shared by the {@code sun.nio.cs.ISO_8859_1$Encoder} substitutions, which operate on a
+     * {@code char[]}.
+     */
+    static int encodeISOArray(char[] sa, int sp, byte[] da, int dp, int len) {
+        checkLimits(sa.length, sp, da.length, dp, len);
+
+        Pointer srcPointer = Word.objectToTrackedPointer(sa).add(charArrayBaseOffset(INJECTED)).add(sp * charArrayIndexScale(INJECTED));
+        Pointer destPointer = Word.objectToTrackedPointer(da).add(byteArrayBaseOffset(INJECTED)).add(dp * byteArrayIndexScale(INJECTED));
+        return AMD64EncodeISOArrayNode.encode(srcPointer, destPointer, len, JavaKind.Char);
+    }
+
+    private static void checkLimits(int srcLen, int srcIndex, int destLen, int destIndex, int len) {
+        if (injectBranchProbability(SLOWPATH_PROBABILITY, len < 0) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, srcIndex < 0) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, srcIndex + len > srcLen) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, destIndex < 0) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, destIndex + len > destLen)) {
+            DeoptimizeNode.deopt(DeoptimizationAction.None, DeoptimizationReason.BoundsCheckException);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.jdk9.test;
+
+import java.security.GeneralSecurityException;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.graalvm.compiler.core.test.GraalCompilerTest;
+import org.graalvm.compiler.graph.Node;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration;
+import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugin;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins;
+import org.graalvm.compiler.replacements.amd64.AMD64AESCryptNode;
+import org.graalvm.compiler.replacements.amd64.AMD64GHASHProcessBlocksNode;
+import org.graalvm.compiler.replacements.amd64.AMD64GraphBuilderPlugins;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.code.InstalledCode;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Tests the AES and GHASH intrinsics registered by
+ * {@link AMD64GraphBuilderPlugins#registerCryptoPlugins}. The callers of the intrinsified methods
+ * are compiled with these plugins taking precedence over the default ones and installed, then
+ * known-answer vectors are run through {@link Cipher}.
+ */
+public class AMD64CryptoSubstitutionTest extends GraalCompilerTest {
+
+    private final List<InstalledCode> installedCode = new ArrayList<>();
+
+    @Before
+    public void checkTarget() {
+        Assume.assumeTrue(getTarget().arch instanceof AMD64);
+        Assume.assumeTrue(((AMD64) getTarget().arch).getFeatures().contains(AMD64.CPUFeature.SSSE3));
+    }
+
+    @After
+    public void invalidateInstalledCode() {
+        for (InstalledCode code : installedCode) {
+            code.invalidate();
+        }
+        installedCode.clear();
+    }
+
+    @Override
+    protected GraphBuilderConfiguration editGraphBuilderConfiguration(GraphBuilderConfiguration conf) {
+        GraphBuilderConfiguration editedConf = super.editGraphBuilderConfiguration(conf);
+        InvocationPlugins defaultPlugins = editedConf.getPlugins().getInvocationPlugins();
+        // HotSpot registers its own stubs for the same methods, so the crypto plugins
+        // are looked up first
+        InvocationPlugins cryptoPlugins = new InvocationPlugins() {
+            @Override
+            public InvocationPlugin lookupInvocation(ResolvedJavaMethod method) {
+                InvocationPlugin plugin = super.lookupInvocation(method);
+                return plugin != null ? plugin : defaultPlugins.lookupInvocation(method);
+            }
+        };
+        AMD64GraphBuilderPlugins.registerCryptoPlugins(cryptoPlugins, getReplacements(), (AMD64) getTarget().arch);
+        return GraphBuilderConfiguration.getDefault(new Plugins(editedConf.getPlugins(), cryptoPlugins)).withEagerResolving(editedConf.eagerResolving()).withUnresolvedIsError(
+                        editedConf.unresolvedIsError()).withFullInfopoints(editedConf.insertFullInfopoints());
+    }
+
+    private void compileAndInstall(String className, String methodName, Class<? extends Node> intrinsic) throws ClassNotFoundException {
+        Class<?> klass = Class.forName(className);
+        boolean intrinsified = false;
+        for (ResolvedJavaMethod method : getMetaAccess().lookupJavaType(klass).getDeclaredMethods()) {
+            if (method.getName().equals(methodName) && method.hasBytecodes()) {
+                StructuredGraph graph = parseEager(method, AllowAssumptions.YES);
+                intrinsified |= graph.getNodes().filter(intrinsic).isNotEmpty();
+                installedCode.add(getCode(method, graph, true, true, graph.getOptions()));
+            }
+        }
+        Assert.assertTrue(className + "." + methodName + " does not use " + intrinsic.getSimpleName(), intrinsified);
+    }
+
+    private void installAESCrypt() throws ClassNotFoundException {
+        Assume.assumeTrue(((AMD64) getTarget().arch).getFeatures().contains(AMD64.CPUFeature.AES));
+        compileAndInstall("com.sun.crypto.provider.AESCrypt", "encryptBlock", AMD64AESCryptNode.class);
+        compileAndInstall("com.sun.crypto.provider.AESCrypt", "decryptBlock", AMD64AESCryptNode.class);
+    }
+
+    private void installGHASH() throws ClassNotFoundException {
+        Assume.assumeTrue(((AMD64) getTarget().arch).getFeatures().contains(AMD64.CPUFeature.CLMUL));
+        compileAndInstall("com.sun.crypto.provider.GHASH", "update", AMD64GHASHProcessBlocksNode.class);
+    }
+
+    private static void testCipher(String transformation, String key, AlgorithmParameterSpec params, String plainText, String cipherText) throws GeneralSecurityException {
+        SecretKeySpec keySpec = new SecretKeySpec(hex(key), "AES");
+        Cipher cipher = Cipher.getInstance(transformation);
+        cipher.init(Cipher.ENCRYPT_MODE, keySpec, params);
+        Assert.assertArrayEquals(transformation + " encrypt", hex(cipherText), cipher.doFinal(hex(plainText)));
+        cipher = Cipher.getInstance(transformation);
+        cipher.init(Cipher.DECRYPT_MODE, keySpec, params);
+        Assert.assertArrayEquals(transformation + " decrypt", hex(plainText), cipher.doFinal(hex(cipherText)));
+    }
+
+    private static byte[] hex(String s) {
+        byte[] result = new byte[s.length() / 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (byte) Integer.parseInt(s.substring(i * 2, i * 2 + 2), 16);
+        }
+        return result;
+    }
+
+    /**
+     * FIPS-197, Appendix C.
+     */
+    @Test
+    public void testECB() throws Exception {
+        installAESCrypt();
+        String plainText = "00112233445566778899aabbccddeeff";
+        testCipher("AES/ECB/NoPadding", "000102030405060708090a0b0c0d0e0f", null, plainText, "69c4e0d86a7b0430d8cdb78070b4c55a");
+        testCipher("AES/ECB/NoPadding", "000102030405060708090a0b0c0d0e0f1011121314151617", null, plainText, "dda97ca4864cdfe06eaf70a0ec0d7191");
+        testCipher("AES/ECB/NoPadding", "000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f", null, plainText, "8ea2b7ca516745bfeafc49904b496089");
+    }
+
+    /**
+     * NIST SP 800-38A, F.2.1 and F.2.2.
+     */
+    @Test
+    public void testCBC() throws Exception {
+        installAESCrypt();
+        testCipher("AES/CBC/NoPadding", "2b7e151628aed2a6abf7158809cf4f3c", new IvParameterSpec(hex("000102030405060708090a0b0c0d0e0f")),
+                        "6bc1bee22e409f96e93d7e117393172a" + "ae2d8a571e03ac9c9eb76fac45af8e51" + "30c81c46a35ce411e5fbc1191a0a52ef" + "f69f2445df4f9b17ad2b417be66c3710",
+                        "7649abac8119b246cee98e9b12e9197d" + "5086cb9b507219ee95db113a917678b2" + "73bed6b8e3c1743b7116e69e22229516" + "3ff1caa1681fac09120eca307586e1a7");
+    }
+
+    /**
+     * The GCM specification, test cases 2 and 3. The expected cipher text is followed by the tag.
+     */
+    @Test
+    public void testGCM() throws Exception {
+        installAESCrypt();
+        installGHASH();
+        testCipher("AES/GCM/NoPadding", "00000000000000000000000000000000", new GCMParameterSpec(128, hex("000000000000000000000000")),
+                        "00000000000000000000000000000000",
+                        "0388dace60b6a392f328c2b971b2fe78" + "ab6e47d42cec13bdf53a67b21257bddf");
+        testCipher("AES/GCM/NoPadding", "feffe9928665731c6d6a8f9467308308", new GCMParameterSpec(128, hex("cafebabefacedbaddecaf888")),
+                        "d9313225f88406e5a55909c5aff5269a86a7a9531534f7da2e4c303d8a318a721c3c0c95956809532fcf0e2449a6b525b16aedf5aa0de657ba637b391aafd255",
+                        "42831ec2217774244b7221b784d0d49ce3aa212f2c02a4e035c17e2329aca12e21d514b25466931c7d8f6a5aac84aa051ba30b396a0aac973d58e091473f5985" + "4d5c2af327cd64a62cf35abd2ba6fab4");
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Adler32;
+
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins;
+import org.graalvm.compiler.nodes.spi.Replacements;
+import org.graalvm.compiler.replacements.Adler32Substitutions;
+import org.graalvm.compiler.replacements.StandardGraphBuilderPlugins;
+import org.junit.Test;
+
+/**
+ * Tests compiled calls to {@link Adler32} which are intrinsified by {@link Adler32Substitutions}.
+ */
+public class Adler32SubstitutionsTest extends FallbackSubstitutionTest {
+
+    /**
+     * Number of bytes after which the sums are reduced, same as {@code NMAX} in zlib.
+     */
+    private static final int NMAX = 5552;
+
+    @Override
+    protected void registerFallbackPlugins(InvocationPlugins plugins, Replacements replacements) {
+        StandardGraphBuilderPlugins.registerAdler32Plugins(plugins, replacements);
+    }
+
+    @Test
+    public void testIntrinsified() {
+        testGraph(getResolvedJavaMethod(Adler32.class, "update", byte[].class, int.class, int.class), "updateBytes", false);
+    }
+
+    public static long updateBytes(byte[] input, int offset, int length) {
+        Adler32 adler = new Adler32();
+        adler.update(input, offset, length);
+        return adler.getValue();
+    }
+
+    @Test
+    public void testBytes() {
+        Random random = new Random(42);
+        for (int length : lengths(8, NMAX, 2 * NMAX, 3 * NMAX)) {
+            byte[] buf = randomBytes(random, length + 7);
+            for (int offset = 0; offset < 8; offset++) {
+                test("updateBytes", buf, offset, length);
+            }
+        }
+    }
+
+    @Test
+    public void testMaximalSums() {
+        // all bits set maximizes the sums right before they are reduced
+        for (int length : lengths(8, NMAX, 2 * NMAX)) {
+            byte[] buf = new byte[length];
+            Arrays.fill(buf, (byte) 0xff);
+            test("updateBytes", buf, 0, length);
+        }
+    }
+
+    public static long updateBytesInTwoParts(byte[] input, int split) {
+        Adler32 adler = new Adler32();
+        adler.update(input, 0, split);
+        adler.update(input, split, input.length - split);
+        return adler.getValue();
+    }
+
+    @Test
+    public void testIntermediateChecksum() {
+        byte[] buf = randomBytes(new Random(42), 3 * NMAX);
+        for (int split : new int[]{1, 7, NMAX - 1, NMAX, NMAX + 1, 2 * NMAX + 3}) {
+            test("updateBytesInTwoParts", buf, split);
+        }
+    }
+
+    public static long updateByteBuffer(ByteBuffer buffer, int position, int limit) {
+        Adler32 adler = new Adler32();
+        buffer.limit(limit);
+        buffer.position(position);
+        adler.update(buffer);
+        return adler.getValue();
+    }
+
+    @Test
+    public void testByteBuffer() {
+        Random random = new Random(42);
+        for (int length : lengths(8, NMAX)) {
+            byte[] buf = randomBytes(random, length + 3);
+            ByteBuffer directBuf = ByteBuffer.allocateDirect(buf.length);
+            directBuf.put(buf);
+            ByteBuffer heapBuf = ByteBuffer.wrap(buf);
+            for (int offset = 0; offset < 4; offset++) {
+                test("updateByteBuffer", directBuf, offset, offset + length);
+                test("updateByteBuffer", heapBuf, offset, offset + length);
+            }
+        }
+    }
+}
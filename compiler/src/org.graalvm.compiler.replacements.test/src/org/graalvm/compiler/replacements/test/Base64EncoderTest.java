@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import static org.junit.Assume.assumeTrue;
+
+import java.util.Base64;
+import java.util.Random;
+
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins;
+import org.graalvm.compiler.nodes.spi.Replacements;
+import org.graalvm.compiler.replacements.Base64Substitutions;
+import org.graalvm.compiler.replacements.StandardGraphBuilderPlugins;
+import org.graalvm.compiler.serviceprovider.JavaVersionUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests compiled calls to {@link Base64.Encoder} which are intrinsified by
+ * {@link Base64Substitutions}.
+ */
+public class Base64EncoderTest extends FallbackSubstitutionTest {
+
+    @Before
+    public void checkJavaVersion() {
+        assumeTrue(JavaVersionUtil.JAVA_SPEC >= 11);
+    }
+
+    @Override
+    protected void registerFallbackPlugins(InvocationPlugins plugins, Replacements replacements) {
+        StandardGraphBuilderPlugins.registerBase64EncoderPlugins(plugins, replacements);
+    }
+
+    public static byte[] encode(Base64.Encoder encoder, byte[] input) {
+        return encoder.encode(input);
+    }
+
+    @Test
+    public void testEncode() {
+        Random random = new Random(42);
+        for (int length = 0; length < 100; length++) {
+            byte[] input = new byte[length];
+            random.nextBytes(input);
+            test("encode", Base64.getEncoder(), input);
+            test("encode", Base64.getUrlEncoder(), input);
+            test("encode", Base64.getMimeEncoder(), input);
+        }
+    }
+}
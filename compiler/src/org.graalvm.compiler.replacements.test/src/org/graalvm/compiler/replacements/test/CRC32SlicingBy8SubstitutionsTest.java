@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins;
+import org.graalvm.compiler.nodes.spi.Replacements;
+import org.graalvm.compiler.replacements.CRC32Substitutions;
+import org.graalvm.compiler.replacements.StandardGraphBuilderPlugins;
+import org.graalvm.compiler.serviceprovider.JavaVersionUtil;
+import org.junit.Test;
+
+/**
+ * Tests compiled calls to {@link CRC32} which are intrinsified by {@link CRC32Substitutions}.
+ */
+public class CRC32SlicingBy8SubstitutionsTest extends FallbackSubstitutionTest {
+
+    @Override
+    protected void registerFallbackPlugins(InvocationPlugins plugins, Replacements replacements) {
+        StandardGraphBuilderPlugins.registerCRC32Plugins(plugins, replacements);
+    }
+
+    @Test
+    public void testIntrinsified() {
+        testGraph(getResolvedJavaMethod(CRC32.class, "update", int.class), "update", false);
+        if (JavaVersionUtil.JAVA_SPEC <= 8) {
+            testGraph(getResolvedJavaMethod(CRC32.class, "update", byte[].class, int.class, int.class), "updateBytes", false);
+        } else {
+            testGraph(getResolvedJavaMethod(CRC32.class, "updateBytes", int.class, byte[].class, int.class, int.class), "updateBytes0", false);
+        }
+    }
+
+    public static long update(byte[] input) {
+        CRC32 crc = new CRC32();
+        for (byte b : input) {
+            crc.update(b);
+        }
+        return crc.getValue();
+    }
+
+    @Test
+    public void testSingleBytes() {
+        Random random = new Random(42);
+        for (int length : lengths(8)) {
+            test("update", randomBytes(random, length));
+        }
+    }
+
+    public static long updateBytes(byte[] input, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(input, offset, length);
+        return crc.getValue();
+    }
+
+    @Test
+    public void testBytes() {
+        Random random = new Random(42);
+        for (int length : lengths(8, 1024, 4096)) {
+            byte[] buf = randomBytes(random, length + 7);
+            for (int offset = 0; offset < 8; offset++) {
+                test("updateBytes", buf, offset, length);
+            }
+        }
+    }
+
+    public static long updateBytesInTwoParts(byte[] input, int split) {
+        CRC32 crc = new CRC32();
+        crc.update(input, 0, split);
+        crc.update(input, split, input.length - split);
+        return crc.getValue();
+    }
+
+    @Test
+    public void testIntermediateChecksum() {
+        byte[] buf = randomBytes(new Random(42), 1000);
+        for (int split : new int[]{1, 3, 8, 9, 500, 999}) {
+            test("updateBytesInTwoParts", buf, split);
+        }
+    }
+
+    public static long updateByteBuffer(ByteBuffer buffer, int position, int limit) {
+        CRC32 crc = new CRC32();
+        buffer.limit(limit);
+        buffer.position(position);
+        crc.update(buffer);
+        return crc.getValue();
+    }
+
+    @Test
+    public void testByteBuffer() {
+        Random random = new Random(42);
+        for (int length : lengths(8, 1024)) {
+            byte[] buf = randomBytes(random, length + 3);
+            ByteBuffer directBuf = ByteBuffer.allocateDirect(buf.length);
+            directBuf.put(buf);
+            ByteBuffer heapBuf = ByteBuffer.wrap(buf);
+            for (int offset = 0; offset < 4; offset++) {
+                test("updateByteBuffer", directBuf, offset, offset + length);
+                test("updateByteBuffer", heapBuf, offset, offset + length);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import java.util.Random;
+
+import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration;
+import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration.Plugins;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugin;
+import org.graalvm.compiler.nodes.graphbuilderconf.InvocationPlugins;
+import org.graalvm.compiler.nodes.spi.Replacements;
+
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Base class for tests of substitutions that are only used on platforms without a corresponding
+ * HotSpot stub. The plugins registered by {@link #registerFallbackPlugins} are looked up before the
+ * default ones, so that the substitutions are tested on every platform.
+ */
+public abstract class FallbackSubstitutionTest extends MethodSubstitutionTest {
+
+    protected abstract void registerFallbackPlugins(InvocationPlugins plugins, Replacements replacements);
+
+    @Override
+    protected GraphBuilderConfiguration editGraphBuilderConfiguration(GraphBuilderConfiguration conf) {
+        GraphBuilderConfiguration editedConf = super.editGraphBuilderConfiguration(conf);
+        InvocationPlugins defaultPlugins = editedConf.getPlugins().getInvocationPlugins();
+        InvocationPlugins fallbackPlugins = new InvocationPlugins() {
+            @Override
+            public InvocationPlugin lookupInvocation(ResolvedJavaMethod method) {
+                InvocationPlugin plugin = super.lookupInvocation(method);
+                return plugin != null ? plugin : defaultPlugins.lookupInvocation(method);
+            }
+        };
+        registerFallbackPlugins(fallbackPlugins, getReplacements());
+        return GraphBuilderConfiguration.getDefault(new Plugins(editedConf.getPlugins(), fallbackPlugins)).withEagerResolving(editedConf.eagerResolving()).withUnresolvedIsError(
+                        editedConf.unresolvedIsError()).withFullInfopoints(editedConf.insertFullInfopoints());
+    }
+
+    /**
+     * Returns input lengths around multiples of the unrolling factor {@code stride} and around the
+     * given {@code boundaries}, including the empty input.
+     */
+    protected static int[] lengths(int stride, int... boundaries) {
+        int[] lengths = new int[3 * stride + 3 * boundaries.length];
+        for (int i = 0; i < 3 * stride; i++) {
+            lengths[i] = i;
+        }
+        for (int i = 0; i < boundaries.length; i++) {
+            lengths[3 * stride + 3 * i] = boundaries[i] - 1;
+            lengths[3 * stride + 3 * i + 1] = boundaries[i];
+            lengths[3 * stride + 3 * i + 2] = boundaries[i] + 1;
+        }
+        return lengths;
+    }
+
+    protected static byte[] randomBytes(Random random, int length) {
+        byte[] buf = new byte[length];
+        random.nextBytes(buf);
+        return buf;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements.test;
+
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import org.graalvm.compiler.core.common.CompilationIdentifier;
+import org.graalvm.compiler.nodes.StructuredGraph;
+import org.graalvm.compiler.nodes.StructuredGraph.AllowAssumptions;
+import org.graalvm.compiler.replacements.amd64.AMD64EncodeISOArrayNode;
+import org.graalvm.compiler.replacements.amd64.AMD64HasNegativesNode;
+import org.graalvm.compiler.replacements.amd64.AMD64ISO8859EncoderSubstitutions;
+import org.graalvm.compiler.replacements.amd64.AMD64StringCodingSubstitutions;
+import org.graalvm.compiler.serviceprovider.JavaVersionUtil;
+import org.graalvm.compiler.test.AddExports;
+import org.junit.Before;
+import org.junit.Test;
+
+import jdk.vm.ci.amd64.AMD64;
+import jdk.vm.ci.code.InstalledCode;
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
+/**
+ * Test intrinsic/node substitutions for StringCoding.hasNegatives, StringCoding.implEncodeISOArray
+ * and ISO_8859_1$Encoder.implEncodeISOArray provided by {@link AMD64StringCodingSubstitutions} and
+ * {@link AMD64ISO8859EncoderSubstitutions}.
+ */
+@AddExports({"java.base/java.lang", "java.base/sun.nio.cs"})
+public final class StringCodingTest extends MethodSubstitutionTest {
+
+    static final int N = 100;
+
+    /**
+     * Number of chars encoded per iteration of the vector loop of {@link AMD64EncodeISOArrayNode}.
+     * The remaining chars are encoded by a scalar loop.
+     */
+    static final int ENCODE_ISO_STRIDE = 16;
+
+    @Before
+    public void checkAMD64() {
+        assumeFalse(JavaVersionUtil.JAVA_SPEC <= 8);
+        // Test case is (currently) AMD64 only.
+        assumeTrue(getTarget().arch instanceof AMD64);
+    }
+
+    private InstalledCode getIntrinsicCode(ResolvedJavaMethod method, Class<?> expectedNode) {
+        StructuredGraph graph = getReplacements().getIntrinsicGraph(method, CompilationIdentifier.INVALID_COMPILATION_ID, getDebugContext(), AllowAssumptions.YES, null);
+        assertInGraph(graph, expectedNode);
+        return getCode(method, graph);
+    }
+
+    @Test
+    public void testHasNegatives() throws ClassNotFoundException {
+        Class<?> javaclass = Class.forName("java.lang.StringCoding");
+        ResolvedJavaMethod method = getResolvedJavaMethod(javaclass, "hasNegatives", byte[].class, int.class, int.class);
+        InstalledCode code = getIntrinsicCode(method, AMD64HasNegativesNode.class);
+
+        Random random = new Random(42);
+        for (int length = 0; length < N; length++) {
+            for (int offset = 0; offset < 3 && offset <= length; offset++) {
+                byte[] array = new byte[length];
+                for (int j = 0; j < length; j++) {
+                    array[j] = (byte) random.nextInt(0x80);
+                }
+                // no negatives, then a single negative byte at each position
+                for (int neg = -1; neg < length; neg++) {
+                    if (neg >= 0) {
+                        array[neg] = (byte) (0x80 | random.nextInt(0x80));
+                    }
+                    Object expected = invokeSafe(method, null, array, offset, length - offset);
+                    assertDeepEquals(expected, executeVarargsSafe(code, array, offset, length - offset));
+                    if (neg >= 0) {
+                        array[neg] = 0;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStringCodingImplEncodeISOArray() throws ClassNotFoundException {
+        Class<?> javaclass = Class.forName("java.lang.StringCoding");
+        ResolvedJavaMethod method = getResolvedJavaMethod(javaclass, "implEncodeISOArray", byte[].class, int.class, byte[].class, int.class, int.class);
+        InstalledCode code = getIntrinsicCode(method, AMD64EncodeISOArrayNode.class);
+
+        Random random = new Random(42);
+        for (int length = 0; length < N; length++) {
+            // one in a hundred chars is not Latin-1, so most vectors are encoded completely
+            char[] chars = new char[length];
+            for (int j = 0; j < length; j++) {
+                chars[j] = random.nextInt(100) == 0 ? nonLatin1(random) : (char) random.nextInt(0x100);
+            }
+            for (int offset = 0; offset < 3 && offset <= length; offset++) {
+                testStringCodingImplEncodeISOArray(method, code, chars, offset);
+            }
+        }
+        // a single non-Latin-1 char at the start, around the ends of the first two vectors and in
+        // the scalar tail
+        int length = 2 * ENCODE_ISO_STRIDE + ENCODE_ISO_STRIDE / 2;
+        int[] positions = {0, ENCODE_ISO_STRIDE - 1, ENCODE_ISO_STRIDE, ENCODE_ISO_STRIDE + 1, 2 * ENCODE_ISO_STRIDE - 1, 2 * ENCODE_ISO_STRIDE, 2 * ENCODE_ISO_STRIDE + 1, length - 1};
+        for (int offset = 0; offset < 3; offset++) {
+            for (int position : positions) {
+                char[] chars = new char[offset + length];
+                for (int j = 0; j < chars.length; j++) {
+                    chars[j] = (char) random.nextInt(0x100);
+                }
+                chars[offset + position] = nonLatin1(random);
+                testStringCodingImplEncodeISOArray(method, code, chars, offset);
+            }
+        }
+    }
+
+    private void testStringCodingImplEncodeISOArray(ResolvedJavaMethod method, InstalledCode code, char[] chars, int offset) {
+        byte[] src = toUTF16Bytes(chars);
+        int length = chars.length - offset;
+        byte[] dst1 = new byte[length];
+        byte[] dst2 = new byte[length];
+        Object expected = invokeSafe(method, null, src, offset, dst1, 0, length);
+        assertDeepEquals(expected, executeVarargsSafe(code, src, offset, dst2, 0, length));
+        assertDeepEquals(dst1, dst2);
+    }
+
+    /**
+     * Stores the chars in a byte array as java.lang.StringUTF16 does, i.e., in native byte order.
+     */
+    private static byte[] toUTF16Bytes(char[] chars) {
+        ByteBuffer buffer = ByteBuffer.allocate(chars.length * 2).order(ByteOrder.nativeOrder());
+        buffer.asCharBuffer().put(chars);
+        return buffer.array();
+    }
+
+    private static char nonLatin1(Random random) {
+        return (char) (0x100 + random.nextInt(0xff00));
+    }
+
+    @Test
+    public void testISO8859EncoderImplEncodeISOArray() throws ClassNotFoundException {
+        Class<?> javaclass = Class.forName("sun.nio.cs.ISO_8859_1$Encoder");
+        ResolvedJavaMethod method = getResolvedJavaMethod(javaclass, "implEncodeISOArray", char[].class, int.class, byte[].class, int.class, int.class);
+        InstalledCode code = getIntrinsicCode(method, AMD64EncodeISOArrayNode.class);
+
+        Random random = new Random(42);
+        for (int length = 0; length < N; length++) {
+            for (int bad = -1; bad < length; bad++) {
+                char[] src = new char[length];
+                for (int j = 0; j < length; j++) {
+                    src[j] = (char) random.nextInt(0x100);
+                }
+                if (bad >= 0) {
+                    src[bad] = nonLatin1(random);
+                }
+                byte[] dst1 = new byte[length];
+                byte[] dst2 = new byte[length];
+                Object expected = invokeSafe(method, null, src, 0, dst1, 0, length);
+                assertDeepEquals(expected, executeVarargsSafe(code, src, 0, dst2, 0, length));
+                assertDeepEquals(dst1, dst2);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements;
+
+import static org.graalvm.compiler.api.directives.GraalDirectives.SLOWPATH_PROBABILITY;
+import static org.graalvm.compiler.api.directives.GraalDirectives.injectBranchProbability;
+import static org.graalvm.compiler.replacements.ReplacementsUtil.byteArrayBaseOffset;
+
+import java.util.zip.Adler32;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.Fold.InjectedParameter;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.nodes.DeoptimizeNode;
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.WordFactory;
+
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.MetaAccessProvider;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@link Adler32} for platforms that do not provide an Adler32 stub (e.g.,
+ * SubstrateVM). The native implementations are replaced by a compiled loop that reads the input
+ * through a raw pointer, which avoids the JNI transition.
+ */
+@ClassSubstitution(Adler32.class)
+public class Adler32Substitutions {
+
+    /** Marker value for the {@link InjectedParameter} injected parameter. */
+    static final MetaAccessProvider INJECTED = null;
+
+    /** Largest prime smaller than 65536. */
+    private static final int BASE = 65521;
+
+    /**
+     * Number of bytes that can be summed up before {@code s2} has to be reduced modulo
+     * {@link #BASE} to stay within the unsigned {@code int} range. Same as {@code NMAX} in zlib.
+     */
+    private static final int NMAX = 5552;
+
+    @MethodSubstitution
+    public static int updateBytes(int adler, byte[] b, int off, int len) {
+        if (injectBranchProbability(SLOWPATH_PROBABILITY, len < 0) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, off < 0) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, off + len > b.length)) {
+            DeoptimizeNode.deopt(DeoptimizationAction.None, DeoptimizationReason.BoundsCheckException);
+        }
+        Pointer pointer = Word.objectToTrackedPointer(b).add(byteArrayBaseOffset(INJECTED)).add(off);
+        return update(adler, pointer, len);
+    }
+
+    @MethodSubstitution
+    public static int updateByteBuffer(int adler, long addr, int off, int len) {
+        Pointer pointer = WordFactory.pointer(addr);
+        return update(adler, pointer.add(off), len);
+    }
+
+    private static int update(int adler, Pointer buf, int len) {
+        int s1 = adler & 0xffff;
+        int s2 = adler >>> 16;
+        int i = 0;
+        while (i < len) {
+            int chunkEnd = i + Math.min(NMAX, len - i);
+            while (i + 8 <= chunkEnd) {
+                s1 += buf.readByte(i) & 0xff;
+                s2 += s1;
+                s1 += buf.readByte(i + 1) & 0xff;
+                s2 += s1;
+                s1 += buf.readByte(i + 2) & 0xff;
+                s2 += s1;
+                s1 += buf.readByte(i + 3) & 0xff;
+                s2 += s1;
+                s1 += buf.readByte(i + 4) & 0xff;
+                s2 += s1;
+                s1 += buf.readByte(i + 5) & 0xff;
+                s2 += s1;
+                s1 += buf.readByte(i + 6) & 0xff;
+                s2 += s1;
+                s1 += buf.readByte(i + 7) & 0xff;
+                s2 += s1;
+                i += 8;
+            }
+            while (i < chunkEnd) {
+                s1 += buf.readByte(i) & 0xff;
+                s2 += s1;
+                i++;
+            }
+            s1 %= BASE;
+            s2 = Integer.remainderUnsigned(s2, BASE);
+        }
+        return (s2 << 16) | s1;
+    }
+}
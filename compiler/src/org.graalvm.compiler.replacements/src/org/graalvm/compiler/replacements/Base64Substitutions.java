@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements;
+
+import static org.graalvm.compiler.api.directives.GraalDirectives.SLOWPATH_PROBABILITY;
+import static org.graalvm.compiler.api.directives.GraalDirectives.injectBranchProbability;
+import static org.graalvm.compiler.replacements.ReplacementsUtil.byteArrayBaseOffset;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.Fold.InjectedParameter;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.nodes.DeoptimizeNode;
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.Pointer;
+
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.MetaAccessProvider;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@code java.util.Base64$Encoder} used when no Base64 stub is available. The
+ * bounds of the whole block are checked once up front so that the inner loop runs without array
+ * bounds checks.
+ * <p>
+ * Since JDK 11.
+ */
+@ClassSubstitution(className = "java.util.Base64$Encoder", optional = true)
+public class Base64Substitutions {
+
+    /** Marker value for the {@link InjectedParameter} injected parameter. */
+    static final MetaAccessProvider INJECTED = null;
+
+    private static final byte[] TO_BASE64 = createTable("+/");
+    private static final byte[] TO_BASE64_URL = createTable("-_");
+
+    private static byte[] createTable(String lastTwo) {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789" + lastTwo;
+        byte[] table = new byte[64];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (byte) alphabet.charAt(i);
+        }
+        return table;
+    }
+
+    /**
+     * Intrinsic for {@code java.util.Base64$Encoder.encodeBlock([BII[BIZ)V}.
+     *
+     * <pre>
+     * &#64;HotSpotIntrinsicCandidate
+     * private void encodeBlock(byte[] src, int sp, int sl, byte[] dst, int dp, boolean isURL)
+     * </pre>
+     *
+     * The caller guarantees that {@code sl - sp} is a multiple of 3.
+     */
+    @MethodSubstitution(isStatic = false)
+    public static void encodeBlock(@SuppressWarnings("unused") Object receiver, byte[] src, int sp, int sl, byte[] dst, int dp, boolean isURL) {
+        int len = sl - sp;
+        if (injectBranchProbability(SLOWPATH_PROBABILITY, sp < 0) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, sl > src.length) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, dp < 0) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, len > 0 && dp + len / 3 * 4 > dst.length)) {
+            DeoptimizeNode.deopt(DeoptimizationAction.None, DeoptimizationReason.BoundsCheckException);
+        }
+        byte[] table = isURL ? TO_BASE64_URL : TO_BASE64;
+        Pointer srcPointer = Word.objectToTrackedPointer(src).add(byteArrayBaseOffset(INJECTED)).add(sp);
+        Pointer dstPointer = Word.objectToTrackedPointer(dst).add(byteArrayBaseOffset(INJECTED)).add(dp);
+        int d = 0;
+        for (int s = 0; s + 3 <= len; s += 3) {
+            int bits = (srcPointer.readByte(s) & 0xff) << 16 | (srcPointer.readByte(s + 1) & 0xff) << 8 | (srcPointer.readByte(s + 2) & 0xff);
+            dstPointer.writeByte(d, table[(bits >>> 18) & 0x3f]);
+            dstPointer.writeByte(d + 1, table[(bits >>> 12) & 0x3f]);
+            dstPointer.writeByte(d + 2, table[(bits >>> 6) & 0x3f]);
+            dstPointer.writeByte(d + 3, table[bits & 0x3f]);
+            d += 4;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.replacements;
+
+import static org.graalvm.compiler.api.directives.GraalDirectives.SLOWPATH_PROBABILITY;
+import static org.graalvm.compiler.api.directives.GraalDirectives.injectBranchProbability;
+import static org.graalvm.compiler.replacements.ReplacementsUtil.byteArrayBaseOffset;
+
+import java.util.zip.CRC32;
+
+import org.graalvm.compiler.api.replacements.ClassSubstitution;
+import org.graalvm.compiler.api.replacements.Fold.InjectedParameter;
+import org.graalvm.compiler.api.replacements.MethodSubstitution;
+import org.graalvm.compiler.nodes.DeoptimizeNode;
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.WordFactory;
+
+import jdk.vm.ci.meta.DeoptimizationAction;
+import jdk.vm.ci.meta.DeoptimizationReason;
+import jdk.vm.ci.meta.MetaAccessProvider;
+
+// JaCoCo Exclude
+
+/**
+ * Substitutions for {@link CRC32} on SubstrateVM, where there is no CRC32 stub. The checksum is
+ * computed with the slicing-by-8 table algorithm, which processes eight input bytes per iteration.
+ * The tables end up in the image heap. They are not registered on HotSpot, where compiled code
+ * would have to embed them as constants and libgraal would have to carry them in its image.
+ * <p>
+ * The native methods are called {@code updateBytes} and {@code updateByteBuffer} on JDK 8 and
+ * {@code updateBytes0} and {@code updateByteBuffer0} since JDK 9. The registration maps both names
+ * to the substitutions below.
+ */
+@ClassSubstitution(CRC32.class)
+public class CRC32Substitutions {
+
+    /** Marker value for the {@link InjectedParameter} injected parameter. */
+    static final MetaAccessProvider INJECTED = null;
+
+    /**
+     * Eight tables of 256 entries each. The first one is the standard byte-wise table for the
+     * reversed polynomial {@code 0xEDB88320}, table {@code k} advances the CRC of a byte by
+     * {@code k} additional zero bytes.
+     */
+    private static final int[] TABLE = createTable();
+
+    private static int[] createTable() {
+        int[] table = new int[8 * 256];
+        for (int n = 0; n < 256; n++) {
+            int c = n;
+            for (int k = 0; k < 8; k++) {
+                c = (c & 1) != 0 ? (c >>> 1) ^ 0xEDB88320 : c >>> 1;
+            }
+            table[n] = c;
+        }
+        for (int k = 1; k < 8; k++) {
+            for (int n = 0; n < 256; n++) {
+                int c = table[(k - 1) * 256 + n];
+                table[k * 256 + n] = (c >>> 8) ^ table[c & 0xff];
+            }
+        }
+        return table;
+    }
+
+    @MethodSubstitution
+    public static int update(int crc, int b) {
+        int c = ~crc;
+        c = (c >>> 8) ^ TABLE[(c ^ b) & 0xff];
+        return ~c;
+    }
+
+    @MethodSubstitution(optional = true)
+    public static int updateBytes(int crc, byte[] b, int off, int len) {
+        if (injectBranchProbability(SLOWPATH_PROBABILITY, len < 0) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, off < 0) ||
+                        injectBranchProbability(SLOWPATH_PROBABILITY, off + len > b.length)) {
+            DeoptimizeNode.deopt(DeoptimizationAction.None, DeoptimizationReason.BoundsCheckException);
+        }
+        Pointer pointer = Word.objectToTrackedPointer(b).add(byteArrayBaseOffset(INJECTED)).add(off);
+        return update(crc, pointer, len);
+    }
+
+    @MethodSubstitution(optional = true)
+    public static int updateByteBuffer(int crc, long addr, int off, int len) {
+        Pointer pointer = WordFactory.pointer(addr);
+        return update(crc, pointer.add(off), len);
+    }
+
+    private static int update(int crc, Pointer buf, int len) {
+        int c = ~crc;
+        int i = 0;
+        while (i + 8 <= len) {
+            int x = c ^ ((buf.readByte(i) & 0xff) | (buf.readByte(i + 1) & 0xff) << 8 | (buf.readByte(i + 2) & 0xff) << 16 | (buf.readByte(i + 3) & 0xff) << 24);
+            c = TABLE[7 * 256 + (x & 0xff)] ^ TABLE[6 * 256 + ((x >>> 8) & 0xff)] ^ TABLE[5 * 256 + ((x >>> 16) & 0xff)] ^ TABLE[4 * 256 + (x >>> 24)] ^
+                            TABLE[3 * 256 + (buf.readByte(i + 4) & 0xff)] ^ TABLE[2 * 256 + (buf.readByte(i + 5) & 0xff)] ^
+                            TABLE[256 + (buf.readByte(i + 6) & 0xff)] ^ TABLE[buf.readByte(i + 7) & 0xff];
+            i += 8;
+        }
+        while (i < len) {
+            c = (c >>> 8) ^ TABLE[(c ^ buf.readByte(i)) & 0xff];
+            i++;
+        }
+        return ~c;
+    }
+}
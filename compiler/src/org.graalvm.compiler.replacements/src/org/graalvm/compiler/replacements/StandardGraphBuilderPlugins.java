@@ -38,6 +38,8 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.util.Arrays;
 import java.util.function.BiFunction;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
 
 import org.graalvm.compiler.api.directives.GraalDirectives;
 import org.graalvm.compiler.api.replacements.SnippetReflectionProvider;
@@ -318,6 +320,38 @@ public class StandardGraphBuilderPlugins {
         r.registerMethodSubstitution(ArraysSubstitutions.class, "equals", long[].class, long[].class);
     }
 
+    /**
+     * Registers the {@link Adler32} substitutions for platforms that do not have an Adler32 stub.
+     */
+    public static void registerAdler32Plugins(InvocationPlugins plugins, Replacements replacements) {
+        Registration r = new Registration(plugins, Adler32.class, replacements);
+        r.registerMethodSubstitution(Adler32Substitutions.class, "updateBytes", int.class, byte[].class, int.class, int.class);
+        r.registerMethodSubstitution(Adler32Substitutions.class, "updateByteBuffer", int.class, long.class, int.class, int.class);
+    }
+
+    /**
+     * Registers the {@link CRC32} substitutions for SubstrateVM, which does not have a CRC32 stub.
+     */
+    public static void registerCRC32Plugins(InvocationPlugins plugins, Replacements replacements) {
+        Registration r = new Registration(plugins, CRC32.class, replacements);
+        r.registerMethodSubstitution(CRC32Substitutions.class, "update", int.class, int.class);
+        String updateBytesName = JavaVersionUtil.JAVA_SPEC <= 8 ? "updateBytes" : "updateBytes0";
+        r.registerMethodSubstitution(CRC32Substitutions.class, updateBytesName, "updateBytes", int.class, byte[].class, int.class, int.class);
+        String updateByteBufferName = JavaVersionUtil.JAVA_SPEC <= 8 ? "updateByteBuffer" : "updateByteBuffer0";
+        r.registerMethodSubstitution(CRC32Substitutions.class, updateByteBufferName, "updateByteBuffer", int.class, long.class, int.class, int.class);
+    }
+
+    /**
+     * Registers the {@code java.util.Base64$Encoder} substitutions for SubstrateVM, which does not
+     * have a Base64 stub.
+     */
+    public static void registerBase64EncoderPlugins(InvocationPlugins plugins, Replacements replacements) {
+        if (JavaVersionUtil.JAVA_SPEC >= 11) {
+            Registration r = new Registration(plugins, "java.util.Base64$Encoder", replacements);
+            r.registerMethodSubstitution(Base64Substitutions.class, "encodeBlock", Receiver.class, byte[].class, int.class, int.class, byte[].class, int.class, boolean.class);
+        }
+    }
+
     private static void registerArrayPlugins(InvocationPlugins plugins, Replacements replacements) {
         Registration r = new Registration(plugins, Array.class, replacements);
         r.register2("newInstance", Class.class, int.class, new InvocationPlugin() {
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.nodes.RootNode;
+
+/**
+ * Installs, invalidates and reinstalls many compilations. On native images the runtime code cache
+ * is split into segments of 256 methods, so this covers installing into an empty cache, segment
+ * splits, and segments that are emptied and dropped by invalidation.
+ */
+public class RuntimeCodeInstallationTest extends TestWithPolyglotOptions {
+
+    private static final int METHODS = 600;
+
+    @Before
+    public void setUp() {
+        setupContext("engine.CompileImmediately", "true", "engine.BackgroundCompilation", "false");
+    }
+
+    @Test
+    public void testInstallInvalidateReinstall() {
+        OptimizedCallTarget[] targets = new OptimizedCallTarget[METHODS];
+        for (int i = 0; i < METHODS; i++) {
+            targets[i] = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(i));
+            assertCompiled(targets[i], i);
+        }
+
+        for (int i = 0; i < METHODS; i += 2) {
+            targets[i].invalidate(this, "test");
+            Assert.assertFalse(targets[i].isValid());
+        }
+        for (int i = 0; i < METHODS; i++) {
+            assertCompiled(targets[i], i);
+        }
+
+        for (int i = 0; i < METHODS; i++) {
+            targets[i].invalidate(this, "test");
+        }
+        for (int i = METHODS - 1; i >= 0; i--) {
+            assertCompiled(targets[i], i);
+        }
+    }
+
+    private static void assertCompiled(OptimizedCallTarget target, int expected) {
+        Assert.assertEquals(expected, target.call());
+        Assert.assertEquals(expected, target.call());
+        Assert.assertTrue(target.isValid());
+    }
+}
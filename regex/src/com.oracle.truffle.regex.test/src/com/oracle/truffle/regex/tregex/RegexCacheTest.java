@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex;
+
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.regex.RegexCache;
+import com.oracle.truffle.regex.RegexObject;
+import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.UnsupportedRegexException;
+import com.oracle.truffle.regex.tregex.parser.RegexFeatureSet;
+import com.oracle.truffle.regex.tregex.string.Encodings;
+import com.oracle.truffle.regex.util.CompilationResult;
+
+public class RegexCacheTest {
+
+    private static final RegexFeatureSet NO_LOOK_BEHIND = (source, features) -> Optional.of("look-behind assertions are not supported");
+
+    @Test
+    public void testFeatureSetIsPartOfKey() {
+        RegexOptions restricted = RegexOptions.newBuilder().featureSet(NO_LOOK_BEHIND).build();
+        Assert.assertNotEquals(RegexOptions.DEFAULT, restricted);
+        RegexSource source = new RegexSource("(?<=a)b", "", Encodings.UTF_16_RAW);
+        RegexCache cache = new RegexCache();
+        CompilationResult<RegexObject> unsupported = CompilationResult.pack(() -> {
+            throw new UnsupportedRegexException("look-behind assertions are not supported", source);
+        });
+        cache.putIfAbsent(restricted, source, unsupported);
+        // an engine with the default feature set must not see the other engine's bailout
+        Assert.assertNull(cache.get(RegexOptions.DEFAULT, source));
+        Assert.assertSame(unsupported, cache.get(RegexOptions.newBuilder().featureSet(NO_LOOK_BEHIND).build(), source));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+
+/**
+ * Executes expressions past {@link TRegexOptions#TRegexGenerateDFAThreshold} without regression
+ * test mode, so that the DFA is generated while searches keep using the NFA.
+ */
+public class BackgroundDFAGenerationTest {
+
+    private static final String PATTERN = "(a|ab)(c|bcd)(d*)";
+    private static final String INPUT = "xabcd";
+    private static final int[] EXPECTED = {1, 5, 1, 2, 2, 5, 5, 5};
+
+    private static final int N_THREADS = 4;
+    private static final int N_EXECUTIONS = 20 * TRegexOptions.TRegexGenerateDFAThreshold;
+
+    private static Value compileRegex(Context context) {
+        return context.eval(TRegexTestDummyLanguage.ID, "").execute("").execute(PATTERN, "");
+    }
+
+    private static void checkResult(Value compiledRegex) {
+        Value result = compiledRegex.invokeMember("exec", INPUT, 0);
+        assertTrue(result.getMember("isMatch").asBoolean());
+        for (int i = 0; i < EXPECTED.length / 2; i++) {
+            assertEquals(EXPECTED[i * 2], result.invokeMember("getStart", i).asInt());
+            assertEquals(EXPECTED[i * 2 + 1], result.invokeMember("getEnd", i).asInt());
+        }
+    }
+
+    @Test
+    public void testConcurrentExecutionDuringGeneration() throws Exception {
+        try (Context context = Context.newBuilder().allowCreateThread(true).build()) {
+            Value compiledRegex = compileRegex(context);
+            ExecutorService executor = Executors.newFixedThreadPool(N_THREADS);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < N_THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < N_EXECUTIONS; i++) {
+                            checkResult(compiledRegex);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void testCloseDuringGeneration() {
+        // closing the context must wait for the generating thread
+        try (Context context = Context.newBuilder().allowCreateThread(true).build()) {
+            Value compiledRegex = compileRegex(context);
+            for (int i = 0; i <= TRegexOptions.TRegexGenerateDFAThreshold; i++) {
+                checkResult(compiledRegex);
+            }
+        }
+    }
+
+    @Test
+    public void testThreadCreationNotAllowed() {
+        // the DFA is generated on the executing thread instead
+        try (Context context = Context.newBuilder().allowCreateThread(false).build()) {
+            Value compiledRegex = compileRegex(context);
+            for (int i = 0; i < N_EXECUTIONS; i++) {
+                checkResult(compiledRegex);
+            }
+        }
+    }
+}
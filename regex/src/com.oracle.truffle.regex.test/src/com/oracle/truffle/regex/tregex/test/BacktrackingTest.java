@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.test;
+
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Value;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the memoization and the step limit of the backtracking executor.
+ */
+public class BacktrackingTest extends RegexTestBase {
+
+    @Override
+    String getEngineOptions() {
+        return "";
+    }
+
+    @Test
+    public void backtrackingMemoization() {
+        // the negative look-ahead forces the backtracking executor
+        test("(?!c)(a|a)*b", "", repeat('a', 100), 0, false);
+        test("(?!c)(a|a)*b", "", repeat('a', 100) + "b", 0, true, 0, 101, 99, 100);
+        // the first 20 start positions fail after far more steps than the memoization threshold,
+        // the capture groups of the match must be the same as without memoization
+        String input = repeat('a', 20) + "daac";
+        test("(?!x)((a|a)*)(c)", "", input, 0, true, 21, 24, 21, 23, 22, 23, 23, 24);
+        test("((a|a)*)(c)", "", input, 0, true, 21, 24, 21, 23, 22, 23, 23, 24);
+    }
+
+    @Test
+    public void backtrackingStepLimit() {
+        Value engine = createEngine("BacktrackingStepLimit=10000");
+        // back-references disable memoization
+        Value regex = engine.execute("(a*)\\1b", "");
+        try {
+            regex.invokeMember("exec", repeat('a', 1000), 0);
+            Assert.fail("expected the search to exceed the step limit");
+        } catch (PolyglotException e) {
+            Assert.assertTrue(e.isCancelled());
+        }
+        // searches within the limit are not affected
+        Assert.assertTrue(engine.execute("(a*)\\1b", "").invokeMember("exec", "xaab", 0).getMember("isMatch").asBoolean());
+    }
+
+    private static String repeat(char c, int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
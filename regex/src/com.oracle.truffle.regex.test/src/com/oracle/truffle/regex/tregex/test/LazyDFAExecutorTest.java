@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexLazyDFAExecutorNode;
+
+/**
+ * Tests {@link TRegexLazyDFAExecutorNode}. The eager DFA is forced, so that in regression test mode
+ * every search is also run by a lazy DFA executor with a state cache of a few states, which is
+ * flushed in the middle of the search, and its results are compared with those of the eager DFA.
+ */
+public class LazyDFAExecutorTest extends RegexTestBase {
+
+    @Override
+    String getEngineOptions() {
+        return "AlwaysEager=true";
+    }
+
+    @Test
+    public void lazyDFA() {
+        // the DFA of this expression exceeds TRegexMaxDFASize, so it is constructed lazily
+        test("([ab]*)a([ab]{12})", "", "aabbbbbbbbbbbb", 0, true, 0, 14, 0, 1, 2, 14);
+        test("([ab]*)a([ab]{12})", "", "aabbbbbbbbbbbb", 1, true, 1, 14, 1, 1, 2, 14);
+        test("([ab]*)a([ab]{12})", "", "xxabbbbbbbbbbbbbxx", 0, true, 2, 15, 2, 2, 3, 15);
+        test("([ab]*)a([ab]{12})", "", "bbbbbbbbbbbbbbbbbbbb", 0, false);
+    }
+
+    @Test
+    public void cacheFlushOnRandomInput() {
+        Random random = new Random(42);
+        String[] patterns = {"([ab]*)a([ab]{3})", "(a|ab)(c|bcd)(d*)", "([a-c]+)@([a-c]+)\\.(ab|bc)", "([ab]*)a([ab]{12})"};
+        for (String pattern : patterns) {
+            for (int i = 0; i < 20; i++) {
+                String input = randomString(random, "abcd@.", 1 + random.nextInt(1000));
+                testAgainstJavaRegex(pattern, input, random.nextInt(input.length()));
+            }
+        }
+    }
+
+    /**
+     * The window of the last 17 characters makes almost every position of the input a new DFA
+     * state, so the default cache of {@link TRegexOptions#TRegexLazyDFAMaxCachedStates} states is
+     * flushed several times in the middle of the match.
+     */
+    @Test
+    public void cacheFlushOnLongInput() {
+        Random random = new Random(42);
+        String input = randomString(random, "ab", 5 * TRegexOptions.TRegexLazyDFAMaxCachedStates);
+        testAgainstJavaRegex("([ab]*)a([ab]{16})", input, 0);
+        testAgainstJavaRegex("([ab]*)a([ab]{16})", input + "c", 0);
+        testAgainstJavaRegex("([ab]*)a([ab]{16})c", input + "c", 0);
+    }
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The expressions tested here have no constructs in which JavaScript and
+     * {@link java.util.regex} differ, so the latter provides the expected result.
+     */
+    private void testAgainstJavaRegex(String pattern, String input, int fromIndex) {
+        Matcher matcher = Pattern.compile(pattern).matcher(input);
+        if (!matcher.find(fromIndex)) {
+            test(pattern, "", input, fromIndex, false);
+            return;
+        }
+        int[] bounds = new int[(matcher.groupCount() + 1) * 2];
+        for (int i = 0; i <= matcher.groupCount(); i++) {
+            bounds[i * 2] = matcher.start(i);
+            bounds[i * 2 + 1] = matcher.end(i);
+        }
+        test(pattern, "", input, fromIndex, true, bounds);
+    }
+}
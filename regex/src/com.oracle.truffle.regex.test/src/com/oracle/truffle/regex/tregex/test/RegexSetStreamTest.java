@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.test;
+
+import java.nio.ByteBuffer;
+
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the streaming search of regex sets, which is fed the input in chunks.
+ */
+public class RegexSetStreamTest extends RegexTestBase {
+
+    @Override
+    String getEngineOptions() {
+        return "";
+    }
+
+    @Test
+    public void regexSetStream() {
+        Value set = getEngine().invokeMember("compileSet", ProxyArray.fromArray("abc", "b+c", "d$"), "");
+        Value stream = set.invokeMember("createStream");
+        // "abc" spans the chunk boundary
+        testStreamResult(stream.invokeMember("feed", "xab"));
+        // "bc" ends at the end of the chunk
+        testStreamResult(stream.invokeMember("feed", "cbc"), 0, 4, 1, 4, 1, 6);
+        Assert.assertEquals(6, stream.getMember("offset").asLong());
+        testStreamResult(stream.invokeMember("end"));
+        // the stream is reset after end()
+        testStreamResult(stream.invokeMember("feed", "bcd"), 1, 2);
+        testStreamResult(stream.invokeMember("end"), 2, 3);
+    }
+
+    @Test
+    public void regexSetStreamChunkEnd() {
+        Value set = getEngine().invokeMember("compileSet", ProxyArray.fromArray("ab", "abc", "b$"), "");
+        Value stream = set.invokeMember("createStream");
+        // matches ending at the end of a chunk are reported by that chunk and not repeated
+        testStreamResult(stream.invokeMember("feed", "xab"), 0, 3);
+        testStreamResult(stream.invokeMember("feed", "c"), 1, 4);
+        testStreamResult(stream.invokeMember("feed", ""));
+        testStreamResult(stream.invokeMember("end"));
+        // matches of expressions ending in $ are only reported at the end of the input
+        testStreamResult(stream.invokeMember("feed", "ab"), 0, 2);
+        testStreamResult(stream.invokeMember("end"), 2, 2);
+    }
+
+    @Test
+    public void regexSetStreamByteArray() {
+        Value set = getEngine().invokeMember("compileSet", ProxyArray.fromArray("ab", "b\u00e9"), "", "UTF-8");
+        Value stream = set.invokeMember("createStream");
+        testStreamResult(stream.invokeMember("feed", bytes('x', 'a')));
+        testStreamResult(stream.invokeMember("feed", bytes('b')), 0, 3);
+        testStreamResult(stream.invokeMember("feed", bytes(0xc3, 0xa9, 'a', 'b')), 1, 5, 0, 7);
+        testStreamResult(stream.invokeMember("end"));
+    }
+
+    @Test
+    public void regexSetStreamByteBuffer() {
+        Value set = getEngine().invokeMember("compileSet", ProxyArray.fromArray("ab", "b\u00e9"), "", "UTF-8");
+        Value stream = set.invokeMember("createStream");
+        ByteBuffer buffer = ByteBuffer.wrap(bytes('z', 'z', 'x', 'a', 'b', 'z'));
+        buffer.position(2).limit(5);
+        testStreamResult(stream.invokeMember("feed", buffer), 0, 3);
+        // the buffer is read in place
+        Assert.assertEquals(2, buffer.position());
+        Assert.assertEquals(5, buffer.limit());
+        testStreamResult(stream.invokeMember("feed", ByteBuffer.wrap(bytes(0xc3, 0xa9))), 1, 5);
+        Assert.assertEquals(5, stream.getMember("offset").asLong());
+        testStreamResult(stream.invokeMember("end"));
+    }
+
+    @Test
+    public void regexSetStreamSplitCharacter() {
+        Value set = getEngine().invokeMember("compileSet", ProxyArray.fromArray("\u00e9", "a\u00e9b", "a"), "", "UTF-8");
+        Value stream = set.invokeMember("createStream");
+        // the two bytes of the last character are fed in separate chunks, "a" ends before them
+        testStreamResult(stream.invokeMember("feed", bytes('a', 0xc3)), 2, 1);
+        testStreamResult(stream.invokeMember("feed", bytes(0xa9)), 0, 3);
+        testStreamResult(stream.invokeMember("feed", bytes('b')), 1, 4);
+        Assert.assertEquals(4, stream.getMember("offset").asLong());
+        testStreamResult(stream.invokeMember("end"));
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    /**
+     * @param expectedMatches pairs of expression index and absolute end offset.
+     */
+    private static void testStreamResult(Value result, int... expectedMatches) {
+        Assert.assertEquals(expectedMatches.length > 0, result.getMember("isMatch").asBoolean());
+        Assert.assertEquals(expectedMatches.length / 2, result.getMember("matchCount").asInt());
+        for (int i = 0; i < expectedMatches.length / 2; i++) {
+            Assert.assertEquals(expectedMatches[i * 2], result.invokeMember("getPattern", i).asInt());
+            Assert.assertEquals(expectedMatches[i * 2 + 1], result.invokeMember("getEnd", i).asLong());
+        }
+    }
+}
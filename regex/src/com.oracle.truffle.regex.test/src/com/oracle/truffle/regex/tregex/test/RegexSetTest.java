@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.test;
+
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the execution of regex sets, which report all expressions of the set that match.
+ */
+public class RegexSetTest extends RegexTestBase {
+
+    @Override
+    String getEngineOptions() {
+        return "";
+    }
+
+    @Test
+    public void regexSet() {
+        Value set = getEngine().invokeMember("compileSet", ProxyArray.fromArray("abc", "b+c", "^x", "d$"), "");
+        Assert.assertEquals(4, set.getMember("patternCount").asInt());
+        testSet(set, "xabc", 0, 0, 1, 2);
+        testSet(set, "xabc", 1, 0, 1);
+        testSet(set, "bbcd", 0, 1, 3);
+        testSet(set, "dx", 0);
+        testSet(set, "", 0);
+    }
+
+    private static void testSet(Value set, String input, int fromIndex, int... expectedPatterns) {
+        Value result = set.invokeMember("exec", input, fromIndex);
+        Assert.assertEquals(expectedPatterns.length > 0, result.getMember("isMatch").asBoolean());
+        Assert.assertEquals(expectedPatterns.length, result.getArraySize());
+        for (int i = 0; i < expectedPatterns.length; i++) {
+            Assert.assertEquals(expectedPatterns[i], result.getArrayElement(i).asInt());
+        }
+    }
+}
@@ -79,6 +79,13 @@ public abstract class RegexTestBase {
         return engine;
     }
 
+    /**
+     * Creates an engine with the given options and without regression test mode.
+     */
+    static Value createEngine(String options) {
+        return context.eval(TRegexTestDummyLanguage.ID, "").execute(options);
+    }
+
     Value compileRegex(String pattern, String flags) {
         return getEngine().execute(pattern, flags);
     }
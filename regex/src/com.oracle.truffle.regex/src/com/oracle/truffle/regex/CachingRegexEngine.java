@@ -40,28 +40,24 @@
  */
 package com.oracle.truffle.regex;
 
-import java.util.Collections;
-import java.util.Map;
-
-import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
-import com.oracle.truffle.regex.tregex.TRegexOptions;
 import com.oracle.truffle.regex.util.CompilationResult;
-import com.oracle.truffle.regex.util.LRUCache;
 
 public class CachingRegexEngine extends RegexEngine {
 
-    private final Map<RegexSource, CompilationResult<RegexObject>> cache = Collections.synchronizedMap(new LRUCache<>(TRegexOptions.RegexMaxCacheSize));
+    private final RegexOptions options;
+    private final RegexCache cache;
 
-    public CachingRegexEngine(RegexCompiler compiler, RegexOptions options) {
-        super(compiler, options);
+    public CachingRegexEngine(RegexLanguage language, RegexCompiler compiler, RegexOptions options, RegexCache cache) {
+        super(language, compiler, options);
+        this.options = options;
+        this.cache = cache;
     }
 
     @Override
     public RegexObject compile(RegexSource regexSource) throws RegexSyntaxException, UnsupportedRegexException {
-        CompilationResult<RegexObject> result = cacheGet(regexSource);
+        CompilationResult<RegexObject> result = cache.get(options, regexSource);
         if (result == null) {
-            result = doCompile(regexSource);
-            cachePut(regexSource, result);
+            result = cache.putIfAbsent(options, regexSource, doCompile(regexSource));
         }
         return result.unpack();
     }
@@ -69,14 +65,4 @@ public class CachingRegexEngine extends RegexEngine {
     private CompilationResult<RegexObject> doCompile(RegexSource regexSource) {
         return CompilationResult.pack(() -> super.compile(regexSource));
     }
-
-    @TruffleBoundary
-    private CompilationResult<RegexObject> cacheGet(RegexSource source) {
-        return cache.get(source);
-    }
-
-    @TruffleBoundary
-    private CompilationResult<RegexObject> cachePut(RegexSource source, CompilationResult<RegexObject> result) {
-        return cache.put(source, result);
-    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex;
+
+import java.util.logging.Level;
+
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.tregex.util.Loggers;
+import com.oracle.truffle.regex.util.CompilationResult;
+import com.oracle.truffle.regex.util.ConcurrentLRUCache;
+
+/**
+ * Cache of compilation results used by {@link CachingRegexEngine}. Entries are keyed by the engine
+ * options and the regex source, so one instance can be shared by all engines using the same
+ * {@link RegexCompiler}. {@link RegexLanguage} holds such a shared cache for all engines without a
+ * fallback compiler, engines with a fallback compiler get their own instance.
+ * <p>
+ * The cache is bounded by the estimated memory footprint of its entries (see
+ * {@link TRegexOptions#RegexCacheMaxWeight}). Hit, miss and eviction counts are logged to the
+ * {@code regex.Cache} logger on level {@link Level#FINE} whenever entries are evicted.
+ */
+public final class RegexCache {
+
+    private static final class Key {
+
+        private final RegexOptions options;
+        private final RegexSource source;
+        private final int hash;
+
+        Key(RegexOptions options, RegexSource source) {
+            this.options = options;
+            this.source = source;
+            this.hash = options.hashCode() * 31 + source.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return this == obj || obj instanceof Key && source.equals(((Key) obj).source) && options.equals(((Key) obj).options);
+        }
+    }
+
+    private final ConcurrentLRUCache<Key, CompilationResult<RegexObject>> cache = new ConcurrentLRUCache<>(TRegexOptions.RegexCacheMaxWeight, RegexCache::weigh);
+
+    private static int weigh(Key key, @SuppressWarnings("unused") CompilationResult<RegexObject> result) {
+        return TRegexOptions.RegexCacheEntryBaseWeight + key.source.getPattern().length() * TRegexOptions.RegexCacheEntryWeightPerChar;
+    }
+
+    @TruffleBoundary
+    public CompilationResult<RegexObject> get(RegexOptions options, RegexSource source) {
+        return cache.get(new Key(options, source));
+    }
+
+    /**
+     * Inserts a compilation result, unless another thread has already done so.
+     *
+     * @return the cached compilation result.
+     */
+    @TruffleBoundary
+    public CompilationResult<RegexObject> putIfAbsent(RegexOptions options, RegexSource source, CompilationResult<RegexObject> result) {
+        long evictions = cache.getEvictions();
+        CompilationResult<RegexObject> ret = cache.putIfAbsent(new Key(options, source), result);
+        if (cache.getEvictions() != evictions && Loggers.LOG_CACHE.isLoggable(Level.FINE)) {
+            Loggers.LOG_CACHE.fine(cache.toString());
+        }
+        return ret;
+    }
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    public long getEvictions() {
+        return cache.getEvictions();
+    }
+
+    @Override
+    public String toString() {
+        return cache.toString();
+    }
+}
@@ -41,17 +41,22 @@
 package com.oracle.truffle.regex;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
 import com.oracle.truffle.api.dsl.Cached.Shared;
 import com.oracle.truffle.api.interop.ArityException;
 import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.InvalidArrayIndexException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
 import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 import com.oracle.truffle.regex.runtime.nodes.StringEqualsNode;
 import com.oracle.truffle.regex.runtime.nodes.ToStringNode;
+import com.oracle.truffle.regex.runtime.nodes.ToStringNodeGen;
+import com.oracle.truffle.regex.tregex.TRegexCompiler;
 import com.oracle.truffle.regex.tregex.parser.RegexValidator;
 import com.oracle.truffle.regex.tregex.parser.flavors.RegexFlavor;
 import com.oracle.truffle.regex.tregex.parser.flavors.RegexFlavorProcessor;
@@ -85,18 +90,27 @@ import com.oracle.truffle.regex.util.TruffleReadOnlyKeysArray;
  * engine</li>
  * </ul>
  * <p>
+ * In addition, a {@link RegexEngine} provides the method {@code compileSet}, which compiles a set of
+ * regular expressions into a single automaton and returns a {@link RegexSetObject}. It takes the
+ * same arguments as above, except that {@code pattern} is replaced by {@code patterns}, an array of
+ * regular expression sources. {@code flags} and {@code encoding} apply to all expressions in the
+ * set.
+ * <p>
  * A {@link RegexEngine} can be obtained by executing the {@link RegexEngineBuilder}.
  */
 @ExportLibrary(InteropLibrary.class)
 public class RegexEngine extends AbstractConstantKeysObject {
 
     private static final String PROP_VALIDATE = "validate";
-    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_VALIDATE);
+    private static final String PROP_COMPILE_SET = "compileSet";
+    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_VALIDATE, PROP_COMPILE_SET);
 
+    private final RegexLanguage language;
     private final RegexCompiler compiler;
     private final RegexOptions options;
 
-    public RegexEngine(RegexCompiler compiler, RegexOptions options) {
+    public RegexEngine(RegexLanguage language, RegexCompiler compiler, RegexOptions options) {
+        this.language = language;
         this.compiler = compiler;
         this.options = options;
     }
@@ -122,6 +136,27 @@ public class RegexEngine extends AbstractConstantKeysObject {
         return regexObject;
     }
 
+    /**
+     * Compiles all expressions in {@code regexSources} into a {@link RegexSetObject}. Syntax
+     * errors are reported for each expression individually. Expressions in a set are always
+     * compiled by TRegex, so {@link UnsupportedRegexException} is thrown if any of them is not
+     * supported by TRegex's automaton-based matchers.
+     */
+    @TruffleBoundary
+    public RegexSetObject compileSet(RegexSource[] regexSources) throws RegexSyntaxException, UnsupportedRegexException {
+        RegexFlavor flavor = options.getFlavor();
+        for (RegexSource regexSource : regexSources) {
+            if (flavor != null) {
+                flavor.forRegex(regexSource).validate();
+            } else {
+                RegexValidator validator = new RegexValidator(regexSource, options);
+                validator.validate();
+                options.getFeatureSet().checkSupport(regexSource, validator.getFeatures());
+            }
+        }
+        return new TRegexCompiler(language, options).compileRegexSet(regexSources);
+    }
+
     @Override
     public TruffleReadOnlyKeysArray getKeys() {
         return KEYS;
@@ -132,6 +167,8 @@ public class RegexEngine extends AbstractConstantKeysObject {
         switch (symbol) {
             case PROP_VALIDATE:
                 return new ValidateMethod(this);
+            case PROP_COMPILE_SET:
+                return new CompileSetMethod(this);
             default:
                 CompilerDirectives.transferToInterpreterAndInvalidate();
                 throw UnknownIdentifierException.create(symbol);
@@ -154,22 +191,27 @@ public class RegexEngine extends AbstractConstantKeysObject {
     @SuppressWarnings("static-method")
     @ExportMessage
     boolean isMemberInvocable(String member,
-                    @Shared("isValidatePropNode") @Cached StringEqualsNode isValidatePropNode) {
-        return isValidatePropNode.execute(member, PROP_VALIDATE);
+                    @Shared("isValidatePropNode") @Cached StringEqualsNode isValidatePropNode,
+                    @Shared("isCompileSetPropNode") @Cached StringEqualsNode isCompileSetPropNode) {
+        return isValidatePropNode.execute(member, PROP_VALIDATE) || isCompileSetPropNode.execute(member, PROP_COMPILE_SET);
     }
 
     @ExportMessage
     Object invokeMember(String member, Object[] args,
                     @Shared("isValidatePropNode") @Cached StringEqualsNode isValidatePropNode,
+                    @Shared("isCompileSetPropNode") @Cached StringEqualsNode isCompileSetPropNode,
                     @Shared("patternToStringNode") @Cached ToStringNode patternToStringNode,
                     @Shared("flagsToStringNode") @Cached ToStringNode flagsToStringNode,
                     @Shared("encodingToStringNode") @Cached ToStringNode encodingToStringNode) throws UnknownIdentifierException, ArityException, UnsupportedTypeException {
-        if (!isValidatePropNode.execute(member, PROP_VALIDATE)) {
-            CompilerDirectives.transferToInterpreterAndInvalidate();
-            throw UnknownIdentifierException.create(member);
+        if (isValidatePropNode.execute(member, PROP_VALIDATE)) {
+            RegexValidator.validate(argsToRegexSource(args, patternToStringNode, flagsToStringNode, encodingToStringNode));
+            return true;
         }
-        RegexValidator.validate(argsToRegexSource(args, patternToStringNode, flagsToStringNode, encodingToStringNode));
-        return true;
+        if (isCompileSetPropNode.execute(member, PROP_COMPILE_SET)) {
+            return compileSet(argsToRegexSetSources(args));
+        }
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        throw UnknownIdentifierException.create(member);
     }
 
     @ExportLibrary(InteropLibrary.class)
@@ -198,6 +240,52 @@ public class RegexEngine extends AbstractConstantKeysObject {
         }
     }
 
+    @ExportLibrary(InteropLibrary.class)
+    public static final class CompileSetMethod extends AbstractRegexObject {
+
+        private final RegexEngine engine;
+
+        private CompileSetMethod(RegexEngine engine) {
+            this.engine = engine;
+        }
+
+        @SuppressWarnings("static-method")
+        @ExportMessage
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] args) throws ArityException, UnsupportedTypeException {
+            return engine.compileSet(engine.argsToRegexSetSources(args));
+        }
+    }
+
+    @TruffleBoundary
+    private RegexSource[] argsToRegexSetSources(Object[] args) throws ArityException, UnsupportedTypeException {
+        if (args.length == 0 || args.length > 3) {
+            throw ArityException.create(3, args.length);
+        }
+        InteropLibrary interop = InteropLibrary.getFactory().getUncached();
+        ToStringNode toStringNode = ToStringNodeGen.getUncached();
+        Object patterns = args[0];
+        try {
+            long nPatterns = interop.getArraySize(patterns);
+            if (nPatterns > Integer.MAX_VALUE) {
+                throw UnsupportedTypeException.create(args);
+            }
+            RegexSource[] sources = new RegexSource[(int) nPatterns];
+            Object[] patternArgs = args.clone();
+            for (int i = 0; i < sources.length; i++) {
+                patternArgs[0] = interop.readArrayElement(patterns, i);
+                sources[i] = argsToRegexSource(patternArgs, toStringNode, toStringNode, toStringNode);
+            }
+            return sources;
+        } catch (UnsupportedMessageException | InvalidArrayIndexException e) {
+            throw UnsupportedTypeException.create(args);
+        }
+    }
+
     private RegexSource argsToRegexSource(Object[] args, ToStringNode patternToStringNode, ToStringNode flagsToStringNode, ToStringNode encodingToStringNode)
                     throws ArityException, UnsupportedTypeException {
         if (args.length == 0 || args.length > 3) {
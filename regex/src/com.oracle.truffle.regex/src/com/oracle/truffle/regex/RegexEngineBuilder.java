@@ -132,7 +132,12 @@ public final class RegexEngineBuilder extends AbstractRegexObject {
     @TruffleBoundary
     private static RegexEngine createRegexEngine(RegexLanguage regexLanguage, RegexOptions options, TruffleObject fallbackCompiler) {
         RegexCompiler compiler = createRegexCompiler(regexLanguage, options, fallbackCompiler);
-        return options.isRegressionTestMode() ? new RegexEngine(compiler, options) : new CachingRegexEngine(compiler, options);
+        if (options.isRegressionTestMode()) {
+            return new RegexEngine(regexLanguage, compiler, options);
+        }
+        // the TRegex compiler depends only on the options, so its results can be shared
+        RegexCache cache = fallbackCompiler == null ? regexLanguage.getSharedCache() : new RegexCache();
+        return new CachingRegexEngine(regexLanguage, compiler, options, cache);
     }
 
     private static RegexCompiler createRegexCompiler(RegexLanguage regexLanguage, RegexOptions options, TruffleObject fallbackCompiler) {
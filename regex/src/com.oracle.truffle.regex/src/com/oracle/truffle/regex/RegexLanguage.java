@@ -40,10 +40,13 @@
  */
 package com.oracle.truffle.regex;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Scope;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage;
@@ -95,6 +98,7 @@ public final class RegexLanguage extends TruffleLanguage<RegexLanguage.RegexCont
     public static final String MIME_TYPE = "application/tregex";
 
     public final RegexEngineBuilder engineBuilder = new RegexEngineBuilder(this);
+    private final RegexCache sharedCache = new RegexCache();
 
     @Override
     protected CallTarget parse(ParsingRequest parsingRequest) {
@@ -112,6 +116,11 @@ public final class RegexLanguage extends TruffleLanguage<RegexLanguage.RegexCont
         return true;
     }
 
+    @Override
+    protected void finalizeContext(RegexContext context) {
+        context.joinBackgroundThreads();
+    }
+
     @Override
     protected Iterable<Scope> findTopScopes(RegexContext context) {
         return Collections.emptySet();
@@ -133,6 +142,14 @@ public final class RegexLanguage extends TruffleLanguage<RegexLanguage.RegexCont
         return true;
     }
 
+    /**
+     * Returns the compilation cache shared by all {@link CachingRegexEngine}s that do not use a
+     * fallback compiler.
+     */
+    public RegexCache getSharedCache() {
+        return sharedCache;
+    }
+
     public static RegexContext getCurrentContext() {
         return getCurrentContext(RegexLanguage.class);
     }
@@ -140,6 +157,7 @@ public final class RegexLanguage extends TruffleLanguage<RegexLanguage.RegexCont
     public static final class RegexContext {
         @CompilerDirectives.CompilationFinal private Env env;
         private final CallTarget getEngineBuilderCT;
+        private final List<Thread> backgroundThreads = new ArrayList<>();
 
         RegexContext(Env env, RegexEngineBuilder builder) {
             this.env = env;
@@ -153,5 +171,48 @@ public final class RegexLanguage extends TruffleLanguage<RegexLanguage.RegexCont
         public Env getEnv() {
             return env;
         }
+
+        /**
+         * Runs {@code task} on a new thread that has access to this context. The thread is joined
+         * when the context is finalized.
+         *
+         * @param handler called if the thread terminates with an exception, e.g. because it was
+         *            denied access to the context.
+         * @return {@code false} if this context does not allow creating threads.
+         */
+        @TruffleBoundary
+        public boolean startBackgroundThread(Runnable task, Thread.UncaughtExceptionHandler handler) {
+            if (!env.isCreateThreadAllowed()) {
+                return false;
+            }
+            Thread thread = env.createThread(task);
+            thread.setUncaughtExceptionHandler(handler);
+            synchronized (backgroundThreads) {
+                backgroundThreads.removeIf(t -> t.getState() == Thread.State.TERMINATED);
+                backgroundThreads.add(thread);
+            }
+            thread.start();
+            return true;
+        }
+
+        void joinBackgroundThreads() {
+            List<Thread> threads;
+            synchronized (backgroundThreads) {
+                threads = new ArrayList<>(backgroundThreads);
+                backgroundThreads.clear();
+            }
+            boolean interrupted = false;
+            for (int i = 0; i < threads.size();) {
+                try {
+                    threads.get(i).join();
+                    i++;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 }
@@ -62,6 +62,8 @@ public final class RegexOptions {
     private static final int UTF_16_EXPLODE_ASTRAL_SYMBOLS = 1 << 5;
     public static final String UTF_16_EXPLODE_ASTRAL_SYMBOLS_NAME = "UTF16ExplodeAstralSymbols";
 
+    public static final String BACKTRACKING_STEP_LIMIT_NAME = "BacktrackingStepLimit";
+
     private static final String FLAVOR_NAME = "Flavor";
     private static final String FLAVOR_PYTHON_STR = "PythonStr";
     private static final String FLAVOR_PYTHON_BYTES = "PythonBytes";
@@ -71,17 +73,20 @@ public final class RegexOptions {
     private static final String FEATURE_SET_TREGEX_JONI = "TRegexJoni";
     private static final String FEATURE_SET_JONI = "Joni";
 
-    public static final RegexOptions DEFAULT = new RegexOptions(0, null, RegexFeatureSet.DEFAULT);
+    public static final RegexOptions DEFAULT = new RegexOptions(0, null, RegexFeatureSet.DEFAULT, 0);
 
     private final int options;
     private final RegexFlavor flavor;
     private final RegexFeatureSet featureSet;
+    private final int backtrackingStepLimit;
 
-    private RegexOptions(int options, RegexFlavor flavor, RegexFeatureSet featureSet) {
+    private RegexOptions(int options, RegexFlavor flavor, RegexFeatureSet featureSet, int backtrackingStepLimit) {
         assert flavor == null || featureSet == RegexFeatureSet.DEFAULT;
+        assert backtrackingStepLimit >= 0;
         this.options = options;
         this.flavor = flavor;
         this.featureSet = featureSet;
+        this.backtrackingStepLimit = backtrackingStepLimit;
     }
 
     public static Builder newBuilder() {
@@ -93,6 +98,7 @@ public final class RegexOptions {
         int options = 0;
         RegexFlavor flavor = null;
         RegexFeatureSet featureSet = RegexFeatureSet.DEFAULT;
+        int backtrackingStepLimit = 0;
         for (String propValue : optionsString.split(",")) {
             if (propValue.isEmpty()) {
                 continue;
@@ -128,11 +134,14 @@ public final class RegexOptions {
                 case FEATURE_SET_NAME:
                     featureSet = parseFeatureSet(optionsString, value);
                     break;
+                case BACKTRACKING_STEP_LIMIT_NAME:
+                    backtrackingStepLimit = parseNonNegativeIntOption(optionsString, key, value);
+                    break;
                 default:
                     throw optionsSyntaxError(optionsString, "unexpected option " + key);
             }
         }
-        return new RegexOptions(options, flavor, featureSet);
+        return new RegexOptions(options, flavor, featureSet, backtrackingStepLimit);
     }
 
     private static int parseBooleanOption(String optionsString, int options, String key, String value, int flag) throws RegexSyntaxException {
@@ -144,6 +153,18 @@ public final class RegexOptions {
         return options;
     }
 
+    private static int parseNonNegativeIntOption(String optionsString, String key, String value) throws RegexSyntaxException {
+        try {
+            int result = Integer.parseInt(value);
+            if (result >= 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw optionsSyntaxError(optionsString, String.format("unexpected value '%s' for option '%s', expected a non-negative integer", value, key));
+    }
+
     private static RegexFlavor parseFlavor(String optionsString, String value) throws RegexSyntaxException {
         switch (value) {
             case FLAVOR_PYTHON_STR:
@@ -217,6 +238,14 @@ public final class RegexOptions {
         return isBitSet(UTF_16_EXPLODE_ASTRAL_SYMBOLS);
     }
 
+    /**
+     * Maximum number of NFA states the backtracking executor may visit in a single search before
+     * giving up with a {@link RegexInterruptedException}. {@code 0} means unlimited.
+     */
+    public int getBacktrackingStepLimit() {
+        return backtrackingStepLimit;
+    }
+
     public RegexFlavor getFlavor() {
         return flavor;
     }
@@ -233,7 +262,7 @@ public final class RegexOptions {
     @Override
     public int hashCode() {
         int flavorHash = flavor == null ? 0 : flavor.hashCode();
-        return options + 13 * flavorHash;
+        return options + 13 * flavorHash + 17 * featureSet.hashCode() + 31 * backtrackingStepLimit;
     }
 
     @Override
@@ -245,7 +274,7 @@ public final class RegexOptions {
             return false;
         }
         RegexOptions other = (RegexOptions) obj;
-        return this.options == other.options && this.flavor == other.flavor;
+        return this.options == other.options && this.flavor == other.flavor && this.featureSet == other.featureSet && this.backtrackingStepLimit == other.backtrackingStepLimit;
     }
 
     @Override
@@ -266,6 +295,9 @@ public final class RegexOptions {
         if (isAlwaysEager()) {
             sb.append(ALWAYS_EAGER_NAME + "=true,");
         }
+        if (backtrackingStepLimit > 0) {
+            sb.append(BACKTRACKING_STEP_LIMIT_NAME + "=").append(backtrackingStepLimit).append(',');
+        }
         if (flavor == PythonFlavor.STR_INSTANCE) {
             sb.append(FLAVOR_NAME + "=" + FLAVOR_PYTHON_STR + ",");
         } else if (flavor == PythonFlavor.BYTES_INSTANCE) {
@@ -280,11 +312,13 @@ public final class RegexOptions {
         private int options;
         private RegexFlavor flavor;
         private RegexFeatureSet featureSet;
+        private int backtrackingStepLimit;
 
         private Builder() {
             this.options = 0;
             this.flavor = null;
             this.featureSet = RegexFeatureSet.DEFAULT;
+            this.backtrackingStepLimit = 0;
         }
 
         public Builder u180eWhitespace(boolean enabled) {
@@ -327,8 +361,13 @@ public final class RegexOptions {
             return this;
         }
 
+        public Builder backtrackingStepLimit(@SuppressWarnings("hiding") int backtrackingStepLimit) {
+            this.backtrackingStepLimit = backtrackingStepLimit;
+            return this;
+        }
+
         public RegexOptions build() {
-            return new RegexOptions(this.options, this.flavor, this.featureSet);
+            return new RegexOptions(this.options, this.flavor, this.featureSet, this.backtrackingStepLimit);
         }
 
         private void updateOption(boolean enabled, int bitMask) {
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.interop.ArityException;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnsupportedTypeException;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+import com.oracle.truffle.api.nodes.IndirectCallNode;
+import com.oracle.truffle.regex.result.RegexSetResult;
+import com.oracle.truffle.regex.runtime.nodes.ExpectStringOrTruffleObjectNode;
+import com.oracle.truffle.regex.runtime.nodes.StringEqualsNode;
+import com.oracle.truffle.regex.runtime.nodes.ToLongNode;
+import com.oracle.truffle.regex.util.TruffleReadOnlyKeysArray;
+
+/**
+ * {@link RegexSetObject} represents a set of regular expressions compiled into a single automaton,
+ * which can be matched against an input string in one pass. It is the result of calling the
+ * {@code compileSet} method of a {@link RegexEngine}. It exposes the following properties:
+ * <ol>
+ * <li>{@code int patternCount}: the number of regular expressions in the set.</li>
+ * <li>{@link RegexSetObjectExecMethod} {@code exec}: an executable method that matches all
+ * expressions of the set against a string. The method accepts the same parameters as the
+ * {@code exec} method of {@link RegexObject}. The return value is a {@link RegexSetResult}
+ * containing the indices of all expressions that match anywhere in the input at or after
+ * {@code fromIndex}.</li>
+ * <li>{@code createStream()}: returns a new {@link RegexSetStream} for matching the set against an
+ * input supplied in chunks.</li>
+ * </ol>
+ */
+@ExportLibrary(InteropLibrary.class)
+public final class RegexSetObject extends AbstractConstantKeysObject {
+
+    static final String PROP_EXEC = "exec";
+    static final String PROP_CREATE_STREAM = "createStream";
+    private static final String PROP_PATTERN_COUNT = "patternCount";
+    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_EXEC, PROP_CREATE_STREAM, PROP_PATTERN_COUNT);
+
+    private final int numberOfPatterns;
+    private final CallTarget execCallTarget;
+    private final CallTarget streamCallTarget;
+
+    public RegexSetObject(int numberOfPatterns, CallTarget execCallTarget, CallTarget streamCallTarget) {
+        this.numberOfPatterns = numberOfPatterns;
+        this.execCallTarget = execCallTarget;
+        this.streamCallTarget = streamCallTarget;
+    }
+
+    public int getNumberOfPatterns() {
+        return numberOfPatterns;
+    }
+
+    public CallTarget getExecCallTarget() {
+        return execCallTarget;
+    }
+
+    public RegexSetStream createStream() {
+        return new RegexSetStream(streamCallTarget);
+    }
+
+    @Override
+    public TruffleReadOnlyKeysArray getKeys() {
+        return KEYS;
+    }
+
+    @Override
+    public Object readMemberImpl(String symbol) throws UnknownIdentifierException {
+        switch (symbol) {
+            case PROP_EXEC:
+                return new RegexSetObjectExecMethod(this);
+            case PROP_CREATE_STREAM:
+                return new RegexSetObjectCreateStreamMethod(this);
+            case PROP_PATTERN_COUNT:
+                return numberOfPatterns;
+            default:
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw UnknownIdentifierException.create(symbol);
+        }
+    }
+
+    @SuppressWarnings("static-method")
+    @ExportMessage
+    boolean isMemberInvocable(String member,
+                    @Shared("isExecPropNode") @Cached StringEqualsNode isExecPropNode,
+                    @Shared("isCreateStreamPropNode") @Cached StringEqualsNode isCreateStreamPropNode) {
+        return isExecPropNode.execute(member, PROP_EXEC) || isCreateStreamPropNode.execute(member, PROP_CREATE_STREAM);
+    }
+
+    @ExportMessage
+    Object invokeMember(String member, Object[] args,
+                    @Shared("isExecPropNode") @Cached StringEqualsNode isExecPropNode,
+                    @Shared("isCreateStreamPropNode") @Cached StringEqualsNode isCreateStreamPropNode,
+                    @Cached ExpectStringOrTruffleObjectNode expectStringOrTruffleObjectNode,
+                    @Cached ToLongNode toLongNode,
+                    @Cached IndirectCallNode callNode) throws UnknownIdentifierException, ArityException, UnsupportedTypeException {
+        if (isExecPropNode.execute(member, PROP_EXEC)) {
+            return exec(this, args, expectStringOrTruffleObjectNode, toLongNode, callNode);
+        }
+        if (isCreateStreamPropNode.execute(member, PROP_CREATE_STREAM)) {
+            return createStream(this, args);
+        }
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        throw UnknownIdentifierException.create(member);
+    }
+
+    private static Object createStream(RegexSetObject regexSet, Object[] args) throws ArityException {
+        if (args.length != 0) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw ArityException.create(0, args.length);
+        }
+        return regexSet.createStream();
+    }
+
+    private static Object exec(RegexSetObject regexSet, Object[] args, ExpectStringOrTruffleObjectNode expectStringOrTruffleObjectNode, ToLongNode toLongNode, IndirectCallNode callNode)
+                    throws ArityException, UnsupportedTypeException {
+        if (args.length != 2) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw ArityException.create(2, args.length);
+        }
+        Object input = expectStringOrTruffleObjectNode.execute(args[0]);
+        long fromIndex = toLongNode.execute(args[1]);
+        if (fromIndex > Integer.MAX_VALUE) {
+            return new RegexSetResult(new int[0]);
+        }
+        return callNode.call(regexSet.getExecCallTarget(), input, (int) fromIndex);
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    public static final class RegexSetObjectExecMethod extends AbstractRegexObject {
+
+        private final RegexSetObject regexSet;
+
+        public RegexSetObjectExecMethod(RegexSetObject regexSet) {
+            this.regexSet = regexSet;
+        }
+
+        public RegexSetObject getRegexSetObject() {
+            return regexSet;
+        }
+
+        @SuppressWarnings("static-method")
+        @ExportMessage
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] args,
+                        @Cached ExpectStringOrTruffleObjectNode expectStringOrTruffleObjectNode,
+                        @Cached ToLongNode toLongNode,
+                        @Cached IndirectCallNode callNode) throws ArityException, UnsupportedTypeException {
+            return exec(regexSet, args, expectStringOrTruffleObjectNode, toLongNode, callNode);
+        }
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    public static final class RegexSetObjectCreateStreamMethod extends AbstractRegexObject {
+
+        private final RegexSetObject regexSet;
+
+        public RegexSetObjectCreateStreamMethod(RegexSetObject regexSet) {
+            this.regexSet = regexSet;
+        }
+
+        @SuppressWarnings("static-method")
+        @ExportMessage
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] args) throws ArityException {
+            return createStream(regexSet, args);
+        }
+    }
+}
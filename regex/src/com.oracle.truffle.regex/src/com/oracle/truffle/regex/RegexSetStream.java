@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex;
+
+import java.nio.ByteBuffer;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.interop.ArityException;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnsupportedTypeException;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+import com.oracle.truffle.api.nodes.IndirectCallNode;
+import com.oracle.truffle.regex.result.RegexStreamResult;
+import com.oracle.truffle.regex.runtime.nodes.ExpectStringOrTruffleObjectNode;
+import com.oracle.truffle.regex.runtime.nodes.StringEqualsNode;
+import com.oracle.truffle.regex.tregex.nodes.TRegexSetStreamRootNode;
+import com.oracle.truffle.regex.tregex.nodes.TRegexSetStreamRootNode.StreamState;
+import com.oracle.truffle.regex.util.TruffleReadOnlyKeysArray;
+
+/**
+ * {@link RegexSetStream} matches a {@link RegexSetObject} against an input that is supplied in
+ * consecutive chunks, see {@link TRegexSetStreamRootNode}. It is created by the
+ * {@code createStream} method of a {@link RegexSetObject} and exposes the following properties:
+ * <ol>
+ * <li>{@code long offset}: the number of code units consumed so far.</li>
+ * <li>{@code feed(chunk)}: consumes the next chunk of input and returns a
+ * {@link RegexStreamResult} containing all matches that end in this chunk, including matches that
+ * end at the end of the chunk, with end offsets relative to the start of the stream. {@code chunk}
+ * may be a string, an array, or a host {@code byte[]} or {@link ByteBuffer}. {@link ByteBuffer}s
+ * are read in place, so memory-mapped files can be matched without copying.</li>
+ * <li>{@code end()}: signals the end of the input and returns a {@link RegexStreamResult} containing
+ * all matches that end at the end of the input and have not been reported by the last chunk, e.g.
+ * matches of expressions ending in {@code $}. Afterwards, the stream can be reused for another
+ * input.</li>
+ * </ol>
+ */
+@ExportLibrary(InteropLibrary.class)
+public final class RegexSetStream extends AbstractConstantKeysObject {
+
+    static final String PROP_FEED = "feed";
+    static final String PROP_END = "end";
+    private static final String PROP_OFFSET = "offset";
+    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_FEED, PROP_END, PROP_OFFSET);
+
+    private final CallTarget streamCallTarget;
+    private final StreamState state = new StreamState();
+
+    public RegexSetStream(CallTarget streamCallTarget) {
+        this.streamCallTarget = streamCallTarget;
+    }
+
+    @Override
+    public TruffleReadOnlyKeysArray getKeys() {
+        return KEYS;
+    }
+
+    @Override
+    public Object readMemberImpl(String symbol) throws UnknownIdentifierException {
+        switch (symbol) {
+            case PROP_FEED:
+                return new RegexSetStreamMethod(this, false);
+            case PROP_END:
+                return new RegexSetStreamMethod(this, true);
+            case PROP_OFFSET:
+                return state.getOffset();
+            default:
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw UnknownIdentifierException.create(symbol);
+        }
+    }
+
+    @SuppressWarnings("static-method")
+    @ExportMessage
+    boolean isMemberInvocable(String member,
+                    @Shared("isFeedPropNode") @Cached StringEqualsNode isFeedPropNode,
+                    @Shared("isEndPropNode") @Cached StringEqualsNode isEndPropNode) {
+        return isFeedPropNode.execute(member, PROP_FEED) || isEndPropNode.execute(member, PROP_END);
+    }
+
+    @ExportMessage
+    Object invokeMember(String member, Object[] args,
+                    @Shared("isFeedPropNode") @Cached StringEqualsNode isFeedPropNode,
+                    @Shared("isEndPropNode") @Cached StringEqualsNode isEndPropNode,
+                    @Shared("expectChunkNode") @Cached ExpectStringOrTruffleObjectNode expectChunkNode,
+                    @Shared("callNode") @Cached IndirectCallNode callNode) throws UnknownIdentifierException, ArityException, UnsupportedTypeException {
+        if (isFeedPropNode.execute(member, PROP_FEED)) {
+            return call(this, false, args, expectChunkNode, callNode);
+        }
+        if (isEndPropNode.execute(member, PROP_END)) {
+            return call(this, true, args, expectChunkNode, callNode);
+        }
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        throw UnknownIdentifierException.create(member);
+    }
+
+    private static Object call(RegexSetStream stream, boolean end, Object[] args, ExpectStringOrTruffleObjectNode expectChunkNode, IndirectCallNode callNode)
+                    throws ArityException, UnsupportedTypeException {
+        int expectedArgs = end ? 0 : 1;
+        if (args.length != expectedArgs) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw ArityException.create(expectedArgs, args.length);
+        }
+        Object chunk = null;
+        if (!end) {
+            chunk = unwrapHostChunk(args[0]);
+            if (chunk == null) {
+                chunk = expectChunkNode.execute(args[0]);
+            }
+        }
+        return callNode.call(stream.streamCallTarget, stream.state, chunk);
+    }
+
+    /**
+     * Returns the {@code byte[]} or {@link ByteBuffer} wrapped by {@code chunk}, or {@code null} if
+     * {@code chunk} is not such a host object.
+     */
+    @TruffleBoundary
+    private static Object unwrapHostChunk(Object chunk) {
+        Env env = RegexLanguage.getCurrentContext().getEnv();
+        if (env.isHostObject(chunk)) {
+            Object hostObject = env.asHostObject(chunk);
+            if (hostObject instanceof byte[] || hostObject instanceof ByteBuffer) {
+                return hostObject;
+            }
+        }
+        return null;
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    public static final class RegexSetStreamMethod extends AbstractRegexObject {
+
+        private final RegexSetStream stream;
+        private final boolean end;
+
+        public RegexSetStreamMethod(RegexSetStream stream, boolean end) {
+            this.stream = stream;
+            this.end = end;
+        }
+
+        @SuppressWarnings("static-method")
+        @ExportMessage
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] args,
+                        @Cached ExpectStringOrTruffleObjectNode expectChunkNode,
+                        @Cached IndirectCallNode callNode) throws ArityException, UnsupportedTypeException {
+            return call(stream, end, args, expectChunkNode, callNode);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.result;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Cached.Shared;
+import com.oracle.truffle.api.interop.ArityException;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.TruffleObject;
+import com.oracle.truffle.api.interop.UnknownIdentifierException;
+import com.oracle.truffle.api.interop.UnsupportedTypeException;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+import com.oracle.truffle.regex.AbstractConstantKeysObject;
+import com.oracle.truffle.regex.AbstractRegexObject;
+import com.oracle.truffle.regex.RegexSetStream;
+import com.oracle.truffle.regex.runtime.nodes.StringEqualsNode;
+import com.oracle.truffle.regex.runtime.nodes.ToIntNode;
+import com.oracle.truffle.regex.util.TruffleReadOnlyKeysArray;
+
+/**
+ * {@link RegexStreamResult} is a {@link TruffleObject} that represents the matches found by
+ * feeding one chunk of input into a {@link RegexSetStream}. Matches are ordered by end offset,
+ * matches with the same end offset by expression index. It has the following properties:
+ * <ol>
+ * <li>{@code boolean isMatch}: {@code true} if any match was found, {@code false} otherwise.</li>
+ * <li>{@code int matchCount}: the number of matches found.</li>
+ * <li>{@link TruffleObject} {@code getPattern(int i)}: returns the index of the expression that
+ * produced the {@code i}th match.</li>
+ * <li>{@link TruffleObject} {@code getEnd(int i)}: returns the absolute offset in the stream where
+ * the {@code i}th match ends, as a {@code long}.</li>
+ * </ol>
+ */
+@ExportLibrary(InteropLibrary.class)
+public final class RegexStreamResult extends AbstractConstantKeysObject {
+
+    static final String PROP_IS_MATCH = "isMatch";
+    static final String PROP_MATCH_COUNT = "matchCount";
+    static final String PROP_GET_PATTERN = "getPattern";
+    static final String PROP_GET_END = "getEnd";
+
+    private static final TruffleReadOnlyKeysArray KEYS = new TruffleReadOnlyKeysArray(PROP_IS_MATCH, PROP_MATCH_COUNT, PROP_GET_PATTERN, PROP_GET_END);
+
+    private final int[] patterns;
+    private final long[] ends;
+
+    public RegexStreamResult(int[] patterns, long[] ends) {
+        assert patterns.length == ends.length;
+        this.patterns = patterns;
+        this.ends = ends;
+    }
+
+    public int getMatchCount() {
+        return patterns.length;
+    }
+
+    public int getPattern(int i) {
+        return patterns[i];
+    }
+
+    public long getEnd(int i) {
+        return ends[i];
+    }
+
+    @Override
+    public TruffleReadOnlyKeysArray getKeys() {
+        return KEYS;
+    }
+
+    @Override
+    public Object readMemberImpl(String symbol) throws UnknownIdentifierException {
+        switch (symbol) {
+            case PROP_IS_MATCH:
+                return patterns.length > 0;
+            case PROP_MATCH_COUNT:
+                return patterns.length;
+            case PROP_GET_PATTERN:
+                return new RegexStreamResultMethod(this, false);
+            case PROP_GET_END:
+                return new RegexStreamResultMethod(this, true);
+            default:
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                throw UnknownIdentifierException.create(symbol);
+        }
+    }
+
+    @SuppressWarnings("static-method")
+    @ExportMessage
+    boolean isMemberInvocable(String member,
+                    @Shared("isGetPatternNode") @Cached StringEqualsNode isGetPatternNode,
+                    @Shared("isGetEndNode") @Cached StringEqualsNode isGetEndNode) {
+        return isGetPatternNode.execute(member, PROP_GET_PATTERN) || isGetEndNode.execute(member, PROP_GET_END);
+    }
+
+    @ExportMessage
+    Object invokeMember(String member, Object[] args,
+                    @Shared("isGetPatternNode") @Cached StringEqualsNode isGetPatternNode,
+                    @Shared("isGetEndNode") @Cached StringEqualsNode isGetEndNode,
+                    @Shared("toIntNode") @Cached ToIntNode toIntNode) throws UnknownIdentifierException, ArityException, UnsupportedTypeException {
+        if (isGetPatternNode.execute(member, PROP_GET_PATTERN)) {
+            return get(this, false, args, toIntNode);
+        }
+        if (isGetEndNode.execute(member, PROP_GET_END)) {
+            return get(this, true, args, toIntNode);
+        }
+        CompilerDirectives.transferToInterpreterAndInvalidate();
+        throw UnknownIdentifierException.create(member);
+    }
+
+    private static Object get(RegexStreamResult result, boolean end, Object[] args, ToIntNode toIntNode) throws ArityException, UnsupportedTypeException {
+        if (args.length != 1) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw ArityException.create(1, args.length);
+        }
+        int i = toIntNode.execute(args[0]);
+        if (i < 0 || i >= result.getMatchCount()) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw UnsupportedTypeException.create(args, "match index out of bounds");
+        }
+        return end ? (Object) result.getEnd(i) : (Object) result.getPattern(i);
+    }
+
+    @ExportLibrary(InteropLibrary.class)
+    public static final class RegexStreamResultMethod extends AbstractRegexObject {
+
+        private final RegexStreamResult result;
+        private final boolean end;
+
+        public RegexStreamResultMethod(RegexStreamResult result, boolean end) {
+            this.result = result;
+            this.end = end;
+        }
+
+        @SuppressWarnings("static-method")
+        @ExportMessage
+        boolean isExecutable() {
+            return true;
+        }
+
+        @ExportMessage
+        Object execute(Object[] args,
+                        @Cached ToIntNode toIntNode) throws ArityException, UnsupportedTypeException {
+            return get(result, end, args, toIntNode);
+        }
+    }
+}
@@ -65,6 +65,7 @@ import com.oracle.truffle.regex.tregex.nfa.PureNFA;
 import com.oracle.truffle.regex.tregex.nfa.PureNFAGenerator;
 import com.oracle.truffle.regex.tregex.nfa.PureNFAMap;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecRootNode;
+import com.oracle.truffle.regex.tregex.nodes.TRegexSetExecRootNode;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorProperties;
@@ -232,6 +233,15 @@ public final class TRegexCompilationRequest {
                         rootNode);
     }
 
+    @TruffleBoundary
+    TRegexExecRootNode.LazyCaptureGroupRegexSearchNode compileLazyDFAExecutorFromSource(TRegexExecRootNode rootNode, boolean allowSimpleCG) {
+        createAST();
+        assert canTransformToDFA(ast);
+        assert !ast.getRoot().isDead();
+        createNFA();
+        return compileLazyDFAExecutor(rootNode, allowSimpleCG);
+    }
+
     @TruffleBoundary
     TRegexDFAExecutorNode compileEagerDFAExecutor() {
         createAST();
@@ -243,6 +253,30 @@ public final class TRegexCompilationRequest {
         return createDFAExecutor(nfa, true, true, true, false);
     }
 
+    /**
+     * Creates the NFA of this request's expression for use in a {@link TRegexSetExecRootNode}.
+     *
+     * @return the NFA, or {@code null} if the expression can never match.
+     */
+    @TruffleBoundary
+    NFA compileNFAForRegexSet() {
+        createAST();
+        if (ast.getRoot().isDead()) {
+            return null;
+        }
+        if (!canTransformToDFA(ast)) {
+            throw new UnsupportedRegexException("TRegex: expression is not supported in regex sets", source);
+        }
+        createNFA();
+        if (nfa.isDead()) {
+            return null;
+        }
+        if (nfa.getAnchoredEntry().length > 1) {
+            throw new UnsupportedRegexException("TRegex: look-behind assertions are not supported in regex sets", source);
+        }
+        return nfa;
+    }
+
     private static boolean canTransformToDFA(RegexAST ast) throws UnsupportedRegexException {
         RegexProperties p = ast.getProperties();
         return ast.getNumberOfNodes() <= TRegexOptions.TRegexMaxParseTreeSizeForDFA &&
@@ -41,19 +41,27 @@
 package com.oracle.truffle.regex.tregex;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.regex.CompiledRegexObject;
 import com.oracle.truffle.regex.RegexCompiler;
 import com.oracle.truffle.regex.RegexLanguage;
 import com.oracle.truffle.regex.RegexOptions;
+import com.oracle.truffle.regex.RegexRootNode;
+import com.oracle.truffle.regex.RegexSetObject;
 import com.oracle.truffle.regex.RegexSource;
 import com.oracle.truffle.regex.RegexSyntaxException;
+import com.oracle.truffle.regex.UnsupportedRegexException;
 import com.oracle.truffle.regex.tregex.nfa.NFA;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecRootNode;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecRootNode.LazyCaptureGroupRegexSearchNode;
+import com.oracle.truffle.regex.tregex.nodes.TRegexSetExecRootNode;
+import com.oracle.truffle.regex.tregex.nodes.TRegexSetStreamRootNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexBacktrackingNFAExecutorNode;
 import com.oracle.truffle.regex.tregex.parser.flavors.RegexFlavor;
 import com.oracle.truffle.regex.tregex.parser.flavors.RegexFlavorProcessor;
+import com.oracle.truffle.regex.tregex.string.Encodings;
+import com.oracle.truffle.regex.tregex.string.Encodings.Encoding;
 
 public final class TRegexCompiler implements RegexCompiler {
 
@@ -89,6 +97,36 @@ public final class TRegexCompiler implements RegexCompiler {
         return new TRegexCompilationRequest(this, ecmascriptSource).compile();
     }
 
+    /**
+     * Compiles all expressions in {@code sources} into a single automaton that reports which of
+     * them match an input string, see {@link TRegexSetExecRootNode}. All sources must use the same
+     * encoding.
+     */
+    @TruffleBoundary
+    public RegexSetObject compileRegexSet(RegexSource[] sources) throws RegexSyntaxException, UnsupportedRegexException {
+        RegexFlavor flavor = options.getFlavor();
+        Encoding encoding = sources.length == 0 ? Encodings.UTF_16_RAW : sources[0].getEncoding();
+        NFA[] nfas = new NFA[sources.length];
+        StringBuilder pattern = new StringBuilder();
+        for (int i = 0; i < sources.length; i++) {
+            if (sources[i].getEncoding() != encoding) {
+                throw new UnsupportedRegexException("TRegex: all expressions in a regex set must use the same encoding", sources[i]);
+            }
+            RegexSource ecmascriptSource = flavor == null ? sources[i] : flavor.forRegex(sources[i]).toECMAScriptRegex();
+            nfas[i] = new TRegexCompilationRequest(this, ecmascriptSource).compileNFAForRegexSet();
+            if (i > 0) {
+                pattern.append('|');
+            }
+            pattern.append("(?:").append(ecmascriptSource.getPattern()).append(')');
+        }
+        RegexSource setSource = new RegexSource(pattern.toString(), "", encoding);
+        TRegexSetExecRootNode root = new TRegexSetExecRootNode(language, setSource, encoding, nfas);
+        TRegexSetStreamRootNode streamRoot = new TRegexSetStreamRootNode(language, setSource, encoding, nfas);
+        return new RegexSetObject(sources.length,
+                        Truffle.getRuntime().createCallTarget(new RegexRootNode(language, root)),
+                        Truffle.getRuntime().createCallTarget(new RegexRootNode(language, streamRoot)));
+    }
+
     @TruffleBoundary
     public TRegexDFAExecutorNode compileEagerDFAExecutor(RegexSource source) {
         return new TRegexCompilationRequest(this, source).compileEagerDFAExecutor();
@@ -99,6 +137,16 @@ public final class TRegexCompiler implements RegexCompiler {
         return new TRegexCompilationRequest(this, nfa).compileLazyDFAExecutor(rootNode, allowSimpleCG);
     }
 
+    /**
+     * Compiles the lazy DFA of {@code source} from a newly created NFA. Since DFA generation
+     * modifies the NFA it is generated from, this is used for generating DFAs concurrently to
+     * searches that still use the NFA of {@code rootNode}.
+     */
+    @TruffleBoundary
+    public LazyCaptureGroupRegexSearchNode compileLazyDFAExecutor(RegexSource source, TRegexExecRootNode rootNode, boolean allowSimpleCG) {
+        return new TRegexCompilationRequest(this, source).compileLazyDFAExecutorFromSource(rootNode, allowSimpleCG);
+    }
+
     @TruffleBoundary
     public TRegexBacktrackingNFAExecutorNode compileBacktrackingExecutor(NFA nfa) {
         return new TRegexCompilationRequest(this, nfa).compileBacktrackingExecutor();
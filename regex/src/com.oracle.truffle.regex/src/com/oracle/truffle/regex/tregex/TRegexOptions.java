@@ -48,6 +48,7 @@ import com.oracle.truffle.regex.tregex.nfa.NFATraceFinderGenerator;
 import com.oracle.truffle.regex.tregex.nodes.dfa.DFACaptureGroupPartialTransition;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TraceFinderDFAStateNode;
+import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexLazyDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodesplitter.DFANodeSplit;
 import com.oracle.truffle.regex.tregex.parser.RegexParser;
 import com.oracle.truffle.regex.tregex.parser.ast.Group;
@@ -65,6 +66,15 @@ public class TRegexOptions {
      */
     public static final int TRegexGenerateDFAThreshold = 100;
 
+    /**
+     * Generate DFAs on a background thread once {@link #TRegexGenerateDFAThreshold} is reached.
+     * The NFA executor keeps serving searches until the DFA is ready, so that expensive DFA
+     * generation does not stall the thread executing the search. This requires a context that
+     * allows creating threads; otherwise, and in regression test mode, DFAs are generated on the
+     * executing thread.
+     */
+    public static final boolean TRegexBackgroundDFAGeneration = true;
+
     /**
      * Try to pre-calculate results of tree-like expressions (see {@link NFATraceFinderGenerator}).
      * A regular expression is considered tree-like if it does not contain infinite loops (+ or *).
@@ -157,10 +167,60 @@ public class TRegexOptions {
     public static final int TRegexMaxDFASize = 2_400;
 
     /**
-     * Maximum number of entries in the global compilation cache in
-     * {@link com.oracle.truffle.regex.RegexLanguage}.
+     * Use {@link TRegexLazyDFAExecutorNode}, which constructs DFA states on demand, for expressions
+     * whose DFA would exceed {@link #TRegexMaxDFASize}.
+     */
+    public static final boolean TRegexEnableLazyDFA = true;
+
+    /**
+     * Maximum number of states cached by a single {@link TRegexLazyDFAExecutorNode}. When this
+     * limit is reached, the cache is flushed.
+     */
+    public static final int TRegexLazyDFAMaxCachedStates = 10_000;
+
+    /**
+     * Maximum number of transitions cached by a single {@link TRegexLazyDFAExecutorNode}. When this
+     * limit is reached, the cache is flushed.
+     */
+    public static final int TRegexLazyDFAMaxCachedTransitions = 100_000;
+
+    /**
+     * Memoize visited (NFA state, input position) pairs in the backtracking executor, to bound its
+     * running time to {@code O(states * input length)}. Only applicable to expressions without
+     * back-references and quantifier guards, since for those, the outcome of a search from a given
+     * state and position does not depend on the path taken to reach it.
+     */
+    public static final boolean TRegexBacktrackingMemoization = true;
+
+    /**
+     * Number of NFA states visited by the backtracking executor in a single search before the
+     * memoization table is allocated. Searches that succeed or fail quickly never pay for the
+     * table.
+     */
+    public static final int TRegexBacktrackingMemoizationThreshold = 1_000;
+
+    /**
+     * Maximum size of the backtracking executor's memoization table in bits. Searches that would
+     * need a larger table run without memoization.
+     */
+    public static final long TRegexBacktrackingMemoizationMaxBits = 1L << 25;
+
+    /**
+     * Maximum estimated memory footprint (in bytes) of all entries in a compilation cache (see
+     * {@link com.oracle.truffle.regex.RegexCache}). Least recently used entries are evicted once
+     * the limit is exceeded.
+     */
+    public static final long RegexCacheMaxWeight = 16L * 1024 * 1024;
+
+    /**
+     * Estimated memory footprint of a compilation cache entry, independent of the pattern.
+     */
+    public static final int RegexCacheEntryBaseWeight = 2 * 1024;
+
+    /**
+     * Estimated additional memory footprint of a compilation cache entry per pattern character.
      */
-    public static final int RegexMaxCacheSize = 1_000;
+    public static final int RegexCacheEntryWeightPerChar = 128;
 
     /**
      * The parser will try to unroll bounded quantifiers on single character classes up to this
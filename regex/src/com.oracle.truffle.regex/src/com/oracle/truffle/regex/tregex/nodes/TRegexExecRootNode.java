@@ -40,6 +40,9 @@
  */
 package com.oracle.truffle.regex.tregex.nodes;
 
+import java.util.logging.Level;
+
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
@@ -63,10 +66,13 @@ import com.oracle.truffle.regex.result.SingleResult;
 import com.oracle.truffle.regex.result.SingleResultLazyStart;
 import com.oracle.truffle.regex.result.TraceFinderResult;
 import com.oracle.truffle.regex.tregex.TRegexCompiler;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.tregex.nfa.NFA;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexLazyCaptureGroupsRootNode;
 import com.oracle.truffle.regex.tregex.nodes.dfa.TRegexLazyFindStartRootNode;
 import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexBacktrackingNFAExecutorNode;
+import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexLazyDFAExecutorNode;
 import com.oracle.truffle.regex.tregex.nodes.nfa.TRegexNFAExecutorNode;
 import com.oracle.truffle.regex.tregex.parser.ast.RegexAST;
 import com.oracle.truffle.regex.tregex.string.Encodings.Encoding;
@@ -76,13 +82,29 @@ public class TRegexExecRootNode extends RegexExecRootNode implements RegexProfil
 
     private static final LazyCaptureGroupRegexSearchNode LAZY_DFA_BAILED_OUT = new LazyCaptureGroupRegexSearchNode(null, null, null, null, null, null, null, null);
     private static final EagerCaptureGroupRegexSearchNode EAGER_DFA_BAILED_OUT = new EagerCaptureGroupRegexSearchNode(null);
+    /**
+     * State cache size of {@link #regressTestLazyDFAExecutorNode}, small enough that the cache is
+     * flushed in the middle of most searches.
+     */
+    private static final int REGRESSION_TEST_LAZY_DFA_MAX_CACHED_STATES = 4;
 
     private final TRegexCompiler tRegexCompiler;
     private LazyCaptureGroupRegexSearchNode lazyDFANode;
+    /**
+     * Valid as long as no {@link TRegexOptions#TRegexBackgroundDFAGeneration background DFA
+     * generation} result is waiting to be installed. The background thread stores its result in
+     * {@link #backgroundLazyDFANode} and invalidates this assumption, the next search installs the
+     * result and replaces the assumption.
+     */
+    @CompilationFinal private volatile Assumption noPendingBackgroundDFA = createNoPendingBackgroundDFAAssumption();
+    private LazyCaptureGroupRegexSearchNode backgroundLazyDFANode;
+    private boolean backgroundDFAGenerationDenied;
+    private boolean backgroundDFAGenerationStarted;
     private LazyCaptureGroupRegexSearchNode regressTestNoSimpleCGLazyDFANode;
     private EagerCaptureGroupRegexSearchNode eagerDFANode;
     private NFARegexSearchNode nfaNode;
     private NFARegexSearchNode regressTestBacktrackingNode;
+    private NFARegexSearchNode regressTestLazyDFAExecutorNode;
     private RegexProfile regexProfile;
     private final Encoding encoding;
     private final int numberOfCaptureGroups;
@@ -103,15 +125,23 @@ public class TRegexExecRootNode extends RegexExecRootNode implements RegexProfil
         this.runnerNode = nfaNode;
         if (this.regressionTestMode) {
             regressTestBacktrackingNode = new NFARegexSearchNode(createEntryNode(tRegexCompiler.compileBacktrackingExecutor(((TRegexNFAExecutorNode) nfaNode.getExecutor()).getNFA())));
+            if (TRegexOptions.TRegexEnableLazyDFA) {
+                regressTestLazyDFAExecutorNode = new NFARegexSearchNode(createEntryNode(new TRegexLazyDFAExecutorNode(getNFA(), REGRESSION_TEST_LAZY_DFA_MAX_CACHED_STATES)));
+            }
             switchToLazyDFA();
         }
     }
 
     @Override
     public final RegexResult execute(Object input, int fromIndex) {
+        if (!noPendingBackgroundDFA.isValid()) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            installBackgroundLazyDFA();
+        }
         final RegexResult result = runnerNode.run(input, fromIndex, inputLength(input));
         assert !regressionTestMode || backtrackerProducesSameResult(input, fromIndex, result);
         assert !regressionTestMode || nfaProducesSameResult(input, fromIndex, result);
+        assert !regressionTestMode || lazyDFAExecutorProducesSameResult(input, fromIndex, result);
         assert !regressionTestMode || noSimpleCGLazyDFAProducesSameResult(input, fromIndex, result);
         assert !regressionTestMode || eagerAndLazyDFAProduceSameResult(input, fromIndex, result);
         assert validResult(input, fromIndex, result);
@@ -121,10 +151,16 @@ public class TRegexExecRootNode extends RegexExecRootNode implements RegexProfil
                 assert !regressionTestMode;
                 profile.incCalls();
                 if (profile.shouldGenerateDFA()) {
-                    switchToLazyDFA();
-                    profile.resetCalls();
-                    // free the NFA for garbage collection
-                    nfaNode = null;
+                    if (TRegexOptions.TRegexBackgroundDFAGeneration && !backgroundDFAGenerationDenied) {
+                        if (!backgroundDFAGenerationStarted) {
+                            startBackgroundDFAGeneration();
+                        }
+                    } else {
+                        switchToLazyDFA();
+                        profile.resetCalls();
+                        // free the NFA for garbage collection
+                        nfaNode = null;
+                    }
                 }
             } else if (canSwitchToEagerDFA() && runnerNode == lazyDFANode) {
                 if (profile.atEvaluationTripPoint() && profile.shouldUseEagerMatching()) {
@@ -180,10 +216,9 @@ public class TRegexExecRootNode extends RegexExecRootNode implements RegexProfil
     }
 
     private boolean nfaProducesSameResult(Object input, int fromIndex, RegexResult result) {
-        if (lazyDFANode == LAZY_DFA_BAILED_OUT) {
+        if (runnerNode == nfaNode) {
             return true;
         }
-        assert !(runnerNode instanceof NFARegexSearchNode);
         RegexResult btResult = nfaNode.run(input, fromIndex, inputLength(input));
         if (resultsEqual(result, btResult, getNumberOfCaptureGroups())) {
             return true;
@@ -193,6 +228,20 @@ public class TRegexExecRootNode extends RegexExecRootNode implements RegexProfil
         return false;
     }
 
+    private boolean lazyDFAExecutorProducesSameResult(Object input, int fromIndex, RegexResult result) {
+        if (regressTestLazyDFAExecutorNode == null) {
+            return true;
+        }
+        RegexResult lazyDFAResult = regressTestLazyDFAExecutorNode.run(input, fromIndex, inputLength(input));
+        if (resultsEqual(result, lazyDFAResult, getNumberOfCaptureGroups())) {
+            return true;
+        }
+        Loggers.LOG_INTERNAL_ERRORS.severe(
+                        () -> String.format("Regex: %s\nInput: %s\nfromIndex: %d\nLazy DFA executor Result: %s\nDFA Result:               %s", getSource().toStringEscaped(), input, fromIndex,
+                                        lazyDFAResult, result));
+        return false;
+    }
+
     private boolean noSimpleCGLazyDFAProducesSameResult(Object input, int fromIndex, RegexResult result) {
         if (lazyDFANode == LAZY_DFA_BAILED_OUT || !lazyDFANode.isSimpleCG() || regressTestNoSimpleCGLazyDFANode == LAZY_DFA_BAILED_OUT) {
             return true;
@@ -266,21 +315,99 @@ public class TRegexExecRootNode extends RegexExecRootNode implements RegexProfil
                     switchToEagerDFA(null);
                 }
             }
+        } else if (TRegexOptions.TRegexEnableLazyDFA) {
+            // The DFA is too big to be generated eagerly, construct it on demand instead.
+            Loggers.LOG_BAILOUT_MESSAGES.fine(() -> "switching to lazy DFA construction: " + source);
+            runnerNode = insert(new NFARegexSearchNode(createEntryNode(new TRegexLazyDFAExecutorNode(getNFA()))));
         }
     }
 
+    /**
+     * Generates the lazy DFA, including its capture group DFA, on a thread created via
+     * {@link com.oracle.truffle.api.TruffleLanguage.Env#createThread(Runnable)}. The NFA keeps
+     * serving searches until the result is picked up by {@link #installBackgroundLazyDFA()}. If
+     * the context does not allow creating threads, or the thread cannot enter the context, the DFA
+     * is generated on the executing thread instead.
+     */
+    private synchronized void startBackgroundDFAGeneration() {
+        if (backgroundDFAGenerationStarted) {
+            return;
+        }
+        backgroundDFAGenerationStarted = true;
+        if (!RegexLanguage.getCurrentContext().startBackgroundThread(this::generateLazyDFAInBackground, (thread, e) -> backgroundDFAGenerationDenied())) {
+            backgroundDFAGenerationDenied = true;
+        }
+    }
+
+    private synchronized void backgroundDFAGenerationDenied() {
+        // the background thread could not enter the context
+        backgroundDFAGenerationDenied = true;
+    }
+
+    /**
+     * Runs on the background thread. DFA generation modifies the NFA it is generated from, so the
+     * DFA is generated from a private NFA created from the source, leaving the NFA used by
+     * concurrent searches untouched. Failures are logged and treated like a bailout, so that the
+     * generation is not retried.
+     */
+    private void generateLazyDFAInBackground() {
+        LazyCaptureGroupRegexSearchNode node;
+        try {
+            node = compileLazyDFA(getSource(), true);
+        } catch (RuntimeException | StackOverflowError e) {
+            Loggers.LOG_INTERNAL_ERRORS.log(Level.SEVERE, e, () -> "background DFA generation failed: " + source);
+            node = LAZY_DFA_BAILED_OUT;
+        }
+        synchronized (this) {
+            backgroundLazyDFANode = node;
+        }
+        noPendingBackgroundDFA.invalidate();
+    }
+
+    private synchronized void installBackgroundLazyDFA() {
+        LazyCaptureGroupRegexSearchNode node = backgroundLazyDFANode;
+        if (node == null) {
+            // already installed by another thread
+            return;
+        }
+        backgroundLazyDFANode = null;
+        noPendingBackgroundDFA = createNoPendingBackgroundDFAAssumption();
+        lazyDFANode = node;
+        switchToLazyDFA();
+        getRegexProfile().resetCalls();
+        // free the NFA for garbage collection
+        nfaNode = null;
+    }
+
+    private static Assumption createNoPendingBackgroundDFAAssumption() {
+        return Truffle.getRuntime().createAssumption("no pending background DFA");
+    }
+
     private void compileLazyDFA() {
         if (lazyDFANode == null) {
-            lazyDFANode = compileLazyDFA(true);
+            lazyDFANode = compileLazyDFA(getNFA(), true);
         }
         if (regressionTestMode && lazyDFANode != LAZY_DFA_BAILED_OUT && lazyDFANode.isSimpleCG()) {
-            regressTestNoSimpleCGLazyDFANode = compileLazyDFA(false);
+            regressTestNoSimpleCGLazyDFANode = compileLazyDFA(getNFA(), false);
+        }
+    }
+
+    private NFA getNFA() {
+        return ((TRegexNFAExecutorNode) nfaNode.getExecutor()).getNFA();
+    }
+
+    private LazyCaptureGroupRegexSearchNode compileLazyDFA(NFA nfa, boolean allowSimpleCG) {
+        try {
+            return tRegexCompiler.compileLazyDFAExecutor(nfa, this, allowSimpleCG);
+        } catch (UnsupportedRegexException e) {
+            Loggers.LOG_BAILOUT_MESSAGES.fine(() -> e.getReason() + ": " + source);
+            return LAZY_DFA_BAILED_OUT;
         }
     }
 
-    private LazyCaptureGroupRegexSearchNode compileLazyDFA(boolean allowSimpleCG) {
+    private LazyCaptureGroupRegexSearchNode compileLazyDFA(RegexSource regexSource, boolean allowSimpleCG) {
         try {
-            return tRegexCompiler.compileLazyDFAExecutor(((TRegexNFAExecutorNode) nfaNode.getExecutor()).getNFA(), this, allowSimpleCG);
+            return tRegexCompiler.compileLazyDFAExecutor(regexSource, this, allowSimpleCG);
         } catch (UnsupportedRegexException e) {
             Loggers.LOG_BAILOUT_MESSAGES.fine(() -> e.getReason() + ": " + source);
             return LAZY_DFA_BAILED_OUT;
@@ -0,0 +1,524 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.nodes;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.regex.RegexBodyNode;
+import com.oracle.truffle.regex.RegexLanguage;
+import com.oracle.truffle.regex.RegexRootNode;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.result.RegexSetResult;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.tregex.nfa.NFA;
+import com.oracle.truffle.regex.tregex.nfa.NFAState;
+import com.oracle.truffle.regex.tregex.nfa.NFAStateTransition;
+import com.oracle.truffle.regex.tregex.nodes.input.InputLengthNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputReadNode;
+import com.oracle.truffle.regex.tregex.string.Encodings;
+import com.oracle.truffle.regex.tregex.string.Encodings.Encoding;
+
+/**
+ * Matches a set of regular expressions against an input string in a single pass, reporting which
+ * of the expressions match anywhere in the input.
+ * <p>
+ * The NFAs of all expressions are combined into one automaton, whose states are identified by
+ * their index in the concatenation of all NFA state arrays. Since only the existence of a match is
+ * of interest, priorities and capture groups are ignored, and the combined automaton can be
+ * determinized by plain subset construction. This is done lazily: every {@link SetState} is a set
+ * of active NFA states together with the set of expressions that have already matched, and its
+ * successors are computed on demand and cached for ASCII characters. Expressions that have matched
+ * are dropped from the active set, and matching stops as soon as no further expression can match.
+ * The state cache is bounded by {@link TRegexOptions#TRegexLazyDFAMaxCachedStates} and
+ * {@link TRegexOptions#TRegexLazyDFAMaxCachedTransitions} and flushed when full.
+ * <p>
+ * Expressions that can never match are represented by {@code null} entries in the NFA array.
+ * <p>
+ * The same automaton is used in streaming mode by {@link TRegexSetStreamRootNode}, see
+ * {@link SetStateCache#SetStateCache(NFA[], boolean)}.
+ */
+public final class TRegexSetExecRootNode extends RegexBodyNode {
+
+    private static final int CACHED_CHARACTERS = 128;
+
+    private final Encoding encoding;
+    private final SetStateCache cache;
+
+    @Child private InputLengthNode lengthNode = InputLengthNode.create();
+    @Child private InputReadNode readNode = InputReadNode.create();
+
+    public TRegexSetExecRootNode(RegexLanguage language, RegexSource source, Encoding encoding, NFA[] nfas) {
+        super(language, source);
+        this.encoding = encoding;
+        this.cache = new SetStateCache(nfas, false);
+    }
+
+    public int getNumberOfPatterns() {
+        return cache.nfas.length;
+    }
+
+    @Override
+    public Object execute(VirtualFrame frame) {
+        Object[] args = frame.getArguments();
+        assert args.length == 2;
+        Object input = args[0];
+        int fromIndex = (int) args[1];
+        int length = lengthNode.execute(input);
+        SetState state = cache.getInitialState(fromIndex == 0);
+        int index = fromIndex;
+        while (!state.done && index < length) {
+            if (CompilerDirectives.inInterpreter()) {
+                RegexRootNode.checkThreadInterrupted();
+            }
+            int c = readNode.execute(input, index);
+            int nextIndex = index + 1;
+            if (encoding == Encodings.UTF_16) {
+                if (Character.isHighSurrogate((char) c) && nextIndex < length) {
+                    int c2 = readNode.execute(input, nextIndex);
+                    if (Character.isLowSurrogate((char) c2)) {
+                        c = Character.toCodePoint((char) c, (char) c2);
+                        nextIndex++;
+                    }
+                }
+            } else if (encoding == Encodings.UTF_8 && c >= 0x80) {
+                int nBytes = Integer.numberOfLeadingZeros(~(c << 24));
+                c &= 0xff >>> nBytes;
+                for (int i = 1; i < nBytes && nextIndex < length; i++) {
+                    c = c << 6 | (readNode.execute(input, nextIndex) & 0x3f);
+                    nextIndex++;
+                }
+            }
+            SetState successor = state.getCachedSuccessor(c);
+            if (successor == null) {
+                successor = cache.computeSuccessor(state, c);
+            }
+            state = successor;
+            index = nextIndex;
+        }
+        return new RegexSetResult(cache.getMatchedPatterns(state, !state.done));
+    }
+
+    @Override
+    protected String getEngineLabel() {
+        return "TRegex set";
+    }
+
+    /**
+     * A state of the lazily determinized combined automaton. Equality is defined over the active
+     * NFA states and the matched expressions, so that the state can be used as its own key in
+     * {@link SetStateCache}.
+     */
+    static final class SetState {
+
+        private final long[] activeStates;
+        private final long[] matchedPatterns;
+        private final boolean done;
+        private final int hash;
+        /*
+         * Allocated lazily and possibly written concurrently; since SetState is immutable apart
+         * from this cache, a racy read either sees a complete successor or null.
+         */
+        private SetState[] successors;
+
+        SetState(long[] activeStates, long[] matchedPatterns, boolean done) {
+            this.activeStates = activeStates;
+            this.matchedPatterns = matchedPatterns;
+            this.done = done;
+            this.hash = Arrays.hashCode(activeStates) * 31 + Arrays.hashCode(matchedPatterns);
+        }
+
+        /**
+         * Returns the smallest index {@code >= fromIndex} of an expression matched in this state,
+         * or {@code -1}.
+         */
+        int nextMatchedPattern(int fromIndex) {
+            return SetStateCache.nextSetBit(matchedPatterns, fromIndex);
+        }
+
+        boolean isDone() {
+            return done;
+        }
+
+        SetState getCachedSuccessor(int c) {
+            SetState[] cached = successors;
+            if (cached == null || c >= CACHED_CHARACTERS) {
+                return null;
+            }
+            return cached[c];
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof SetState)) {
+                return false;
+            }
+            SetState o = (SetState) obj;
+            return Arrays.equals(activeStates, o.activeStates) && Arrays.equals(matchedPatterns, o.matchedPatterns);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The combined automaton and a memory-bounded set of its {@link SetState}s. All modifications
+     * are synchronized, lookups of already cached successors are done without locking via
+     * {@link SetState#getCachedSuccessor(int)}.
+     */
+    static final class SetStateCache {
+
+        private final NFA[] nfas;
+        private final boolean streaming;
+        private final boolean[] searching;
+        private final NFAState[] globalStates;
+        private final int[] patternOfState;
+        private final int[] stateOffsets;
+        private final HashMap<SetState, SetState> states = new HashMap<>();
+        private int nCachedTransitions = 0;
+        private SetState initialStateAtBegin;
+        private SetState initialState;
+
+        /**
+         * @param streaming if {@code false}, the matched expressions of a {@link SetState} are
+         *            accumulated over the whole input, and the NFA states of an expression are
+         *            dropped once it has matched. If {@code true}, a {@link SetState} reached on a
+         *            character at index {@code i} contains exactly the expressions having a match
+         *            that ends at {@code i}, and all NFA states are kept, so that every match end
+         *            is reported.
+         */
+        SetStateCache(NFA[] nfas, boolean streaming) {
+            this.nfas = nfas;
+            this.streaming = streaming;
+            this.searching = new boolean[nfas.length];
+            this.stateOffsets = new int[nfas.length];
+            int nStates = 0;
+            for (int p = 0; p < nfas.length; p++) {
+                stateOffsets[p] = nStates;
+                if (nfas[p] != null) {
+                    searching[p] = !nfas[p].getAst().getFlags().isSticky() && !nfas[p].getAst().getRoot().startsWithCaret();
+                    nStates += nfas[p].getNumberOfStates();
+                }
+            }
+            this.globalStates = new NFAState[nStates];
+            this.patternOfState = new int[nStates];
+            for (int p = 0; p < nfas.length; p++) {
+                if (nfas[p] != null) {
+                    for (int i = 0; i < nfas[p].getNumberOfStates(); i++) {
+                        globalStates[stateOffsets[p] + i] = nfas[p].getState(i);
+                        patternOfState[stateOffsets[p] + i] = p;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns the initial state, reading the cached state without locking. Since
+         * {@link SetState} is immutable apart from its successor cache, a racy read either sees a
+         * complete state or {@code null}.
+         */
+        SetState getInitialState(boolean atBegin) {
+            SetState cached = atBegin ? initialStateAtBegin : initialState;
+            if (cached == null) {
+                return computeInitialState(atBegin);
+            }
+            return cached;
+        }
+
+        @TruffleBoundary
+        private synchronized SetState computeInitialState(boolean atBegin) {
+            SetState cached = atBegin ? initialStateAtBegin : initialState;
+            if (cached != null) {
+                return cached;
+            }
+            long[] active = new long[wordsFor(globalStates.length)];
+            for (int p = 0; p < nfas.length; p++) {
+                if (nfas[p] != null) {
+                    NFAState anchored = nfas[p].getAnchoredInitialState();
+                    NFAState unAnchored = nfas[p].getUnAnchoredInitialState();
+                    if (atBegin && anchored != unAnchored) {
+                        setBit(active, stateOffsets[p] + anchored.getId());
+                    }
+                    if (nfas[p].getState(unAnchored.getId()) != null) {
+                        setBit(active, stateOffsets[p] + unAnchored.getId());
+                    }
+                }
+            }
+            SetState state = intern(active, new long[wordsFor(nfas.length)]);
+            if (atBegin) {
+                initialStateAtBegin = state;
+            } else {
+                initialState = state;
+            }
+            return state;
+        }
+
+        /**
+         * Computes the successor of {@code state} on character {@code c} and caches it in
+         * {@code state} if possible.
+         */
+        @TruffleBoundary
+        synchronized SetState computeSuccessor(SetState state, int c) {
+            SetState cached = state.getCachedSuccessor(c);
+            if (cached != null) {
+                return cached;
+            }
+            long[] active = new long[state.activeStates.length];
+            long[] matched = streaming ? new long[state.matchedPatterns.length] : state.matchedPatterns.clone();
+            for (int i = nextSetBit(state.activeStates, 0); i >= 0; i = nextSetBit(state.activeStates, i + 1)) {
+                int p = patternOfState[i];
+                if (!hasMatched(matched, p)) {
+                    expand(globalStates[i], p, c, active, matched);
+                }
+            }
+            for (int p = 0; p < nfas.length; p++) {
+                if (searching[p] && !hasMatched(matched, p)) {
+                    expand(nfas[p].getInitialLoopBackTransition().getTarget(), p, c, active, matched);
+                }
+            }
+            if (!streaming) {
+                // drop the states of all expressions that matched in this step
+                for (int i = nextSetBit(active, 0); i >= 0; i = nextSetBit(active, i + 1)) {
+                    if (isSet(matched, patternOfState[i])) {
+                        clearBit(active, i);
+                    }
+                }
+            }
+            SetState successor = intern(active, matched);
+            if (c < CACHED_CHARACTERS) {
+                if (nCachedTransitions >= TRegexOptions.TRegexLazyDFAMaxCachedTransitions) {
+                    flush();
+                    // keep the current state and its successor reachable from the new cache
+                    states.put(state, state);
+                    states.put(successor, successor);
+                }
+                if (state.successors == null) {
+                    state.successors = new SetState[CACHED_CHARACTERS];
+                }
+                state.successors[c] = successor;
+                nCachedTransitions++;
+            }
+            return successor;
+        }
+
+        private void expand(NFAState source, int p, int c, long[] active, long[] matched) {
+            for (NFAStateTransition t : source.getSuccessors()) {
+                NFAState target = t.getTarget();
+                if (target.isAnchoredFinalState(true)) {
+                    continue;
+                }
+                if (target.isUnAnchoredFinalState(true)) {
+                    setBit(matched, p);
+                    continue;
+                }
+                if (t.getCodePointSet().contains(c)) {
+                    setBit(active, stateOffsets[p] + target.getId());
+                }
+            }
+        }
+
+        /**
+         * Returns the indices of all expressions matched in {@code state}. If {@code atEnd} is
+         * {@code true}, the end of the input has been reached, so expressions that can match at
+         * the end of the input are included as well.
+         */
+        @TruffleBoundary
+        int[] getMatchedPatterns(SetState state, boolean atEnd) {
+            long[] matched = state.matchedPatterns;
+            if (atEnd) {
+                matched = matched.clone();
+                addMatchesAtEnd(state, matched);
+            }
+            return toIndices(matched);
+        }
+
+        /**
+         * Returns the indices of all expressions having a match that ends at the end of the input,
+         * when the end of the input is reached in {@code state}. Only applicable in streaming
+         * mode.
+         */
+        @TruffleBoundary
+        int[] getPatternsMatchingAtEnd(SetState state) {
+            assert streaming;
+            long[] matched = new long[state.matchedPatterns.length];
+            addMatchesAtEnd(state, matched);
+            return toIndices(matched);
+        }
+
+        /**
+         * Returns the set of expressions having a match that ends right after the input consumed to
+         * reach {@code state}, i.e. the expressions that are matched in every successor of
+         * {@code state}. Only applicable in streaming mode.
+         */
+        @TruffleBoundary
+        long[] getPatternsMatchingBeforeNextStep(SetState state) {
+            assert streaming;
+            long[] matched = new long[state.matchedPatterns.length];
+            for (int i = nextSetBit(state.activeStates, 0); i >= 0; i = nextSetBit(state.activeStates, i + 1)) {
+                addUnAnchoredMatch(globalStates[i], patternOfState[i], matched);
+            }
+            for (int p = 0; p < nfas.length; p++) {
+                if (searching[p]) {
+                    addUnAnchoredMatch(nfas[p].getInitialLoopBackTransition().getTarget(), p, matched);
+                }
+            }
+            return matched;
+        }
+
+        private static void addUnAnchoredMatch(NFAState source, int p, long[] matched) {
+            for (NFAStateTransition t : source.getSuccessors()) {
+                if (t.getTarget().isUnAnchoredFinalState(true)) {
+                    setBit(matched, p);
+                    return;
+                }
+            }
+        }
+
+        private void addMatchesAtEnd(SetState state, long[] matched) {
+            for (int i = nextSetBit(state.activeStates, 0); i >= 0; i = nextSetBit(state.activeStates, i + 1)) {
+                if (globalStates[i].hasTransitionToFinalState(true)) {
+                    setBit(matched, patternOfState[i]);
+                }
+            }
+            for (int p = 0; p < nfas.length; p++) {
+                if (searching[p] && !isSet(matched, p) && nfas[p].getInitialLoopBackTransition().getTarget().hasTransitionToFinalState(true)) {
+                    setBit(matched, p);
+                }
+            }
+        }
+
+        static int[] toIndices(long[] matched) {
+            int count = 0;
+            for (long word : matched) {
+                count += Long.bitCount(word);
+            }
+            int[] result = new int[count];
+            int j = 0;
+            for (int p = nextSetBit(matched, 0); p >= 0; p = nextSetBit(matched, p + 1)) {
+                result[j++] = p;
+            }
+            return result;
+        }
+
+        private SetState intern(long[] active, long[] matched) {
+            SetState key = new SetState(active, matched, isDone(active, matched));
+            SetState state = states.get(key);
+            if (state == null) {
+                if (states.size() >= TRegexOptions.TRegexLazyDFAMaxCachedStates) {
+                    flush();
+                }
+                states.put(key, key);
+                state = key;
+            }
+            return state;
+        }
+
+        private boolean hasMatched(long[] matched, int p) {
+            return !streaming && isSet(matched, p);
+        }
+
+        private boolean isDone(long[] active, long[] matched) {
+            boolean activeEmpty = nextSetBit(active, 0) < 0;
+            for (int p = 0; p < nfas.length; p++) {
+                if (nfas[p] != null && !hasMatched(matched, p) && (searching[p] || !activeEmpty)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Drops all cached states except the initial states. States still referenced by running
+         * executions remain valid and are garbage collected once those executions leave them.
+         */
+        private void flush() {
+            for (SetState s : states.keySet()) {
+                s.successors = null;
+            }
+            states.clear();
+            nCachedTransitions = 0;
+            if (initialStateAtBegin != null) {
+                states.put(initialStateAtBegin, initialStateAtBegin);
+            }
+            if (initialState != null) {
+                states.put(initialState, initialState);
+            }
+        }
+
+        private static int wordsFor(int nBits) {
+            return Math.max(1, (nBits + 63) >> 6);
+        }
+
+        static boolean isSet(long[] bits, int i) {
+            return (bits[i >> 6] & (1L << i)) != 0;
+        }
+
+        private static void setBit(long[] bits, int i) {
+            bits[i >> 6] |= 1L << i;
+        }
+
+        private static void clearBit(long[] bits, int i) {
+            bits[i >> 6] &= ~(1L << i);
+        }
+
+        static int nextSetBit(long[] bits, int fromIndex) {
+            int wordIndex = fromIndex >> 6;
+            if (wordIndex >= bits.length) {
+                return -1;
+            }
+            long word = bits[wordIndex] & (-1L << fromIndex);
+            while (true) {
+                if (word != 0) {
+                    return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+                }
+                if (++wordIndex == bits.length) {
+                    return -1;
+                }
+                word = bits[wordIndex];
+            }
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.nodes;
+
+import java.nio.ByteBuffer;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.regex.RegexBodyNode;
+import com.oracle.truffle.regex.RegexLanguage;
+import com.oracle.truffle.regex.RegexRootNode;
+import com.oracle.truffle.regex.RegexSource;
+import com.oracle.truffle.regex.result.RegexStreamResult;
+import com.oracle.truffle.regex.tregex.buffer.IntArrayBuffer;
+import com.oracle.truffle.regex.tregex.buffer.LongArrayBuffer;
+import com.oracle.truffle.regex.tregex.nfa.NFA;
+import com.oracle.truffle.regex.tregex.nodes.TRegexSetExecRootNode.SetState;
+import com.oracle.truffle.regex.tregex.nodes.TRegexSetExecRootNode.SetStateCache;
+import com.oracle.truffle.regex.tregex.nodes.input.InputLengthNode;
+import com.oracle.truffle.regex.tregex.nodes.input.InputReadNode;
+import com.oracle.truffle.regex.tregex.string.Encodings;
+import com.oracle.truffle.regex.tregex.string.Encodings.Encoding;
+
+/**
+ * Streaming mode of {@link TRegexSetExecRootNode}: matches a set of regular expressions against an
+ * input that is supplied in consecutive chunks, such as a large file read through a channel or a
+ * memory-mapped {@link ByteBuffer}. The automaton state, the absolute input offset and any
+ * partially decoded character are carried from one chunk to the next in a {@link StreamState}, so
+ * matches spanning chunk boundaries are found without buffering any input.
+ * <p>
+ * For every position where a match of an expression ends, the expression's index and the absolute
+ * end offset (in code units of the set's encoding) are reported. Start offsets are not reported,
+ * since finding them would require access to previous chunks. A match is reported by the chunk it
+ * ends in: matches ending after the last complete character of a chunk are found by checking the
+ * final state transitions of the current state when the chunk is consumed, and are not reported
+ * again when the next character confirms them.
+ * <p>
+ * Arguments: the {@link StreamState} and the next chunk, or {@code null} to signal the end of the
+ * input. Chunks may be {@link String}s, {@code byte} arrays, {@link ByteBuffer}s or arrays
+ * accessible via interop. The remaining bytes of a {@link ByteBuffer} are read in place, without
+ * modifying the buffer's position. At the end of the input, the {@link StreamState} is reset, so
+ * that it can be used for another stream.
+ */
+public final class TRegexSetStreamRootNode extends RegexBodyNode {
+
+    private final Encoding encoding;
+    private final SetStateCache cache;
+
+    @Child private InputLengthNode lengthNode = InputLengthNode.create();
+    @Child private InputReadNode readNode = InputReadNode.create();
+
+    public TRegexSetStreamRootNode(RegexLanguage language, RegexSource source, Encoding encoding, NFA[] nfas) {
+        super(language, source);
+        this.encoding = encoding;
+        this.cache = new SetStateCache(nfas, true);
+    }
+
+    @Override
+    public Object execute(VirtualFrame frame) {
+        Object[] args = frame.getArguments();
+        assert args.length == 2;
+        StreamState stream = (StreamState) args[0];
+        Object chunk = args[1];
+        IntArrayBuffer patterns = new IntArrayBuffer();
+        LongArrayBuffer ends = new LongArrayBuffer(8);
+        synchronized (stream) {
+            if (stream.state == null) {
+                stream.state = cache.getInitialState(true);
+            }
+            if (chunk == null) {
+                end(stream, patterns, ends);
+            } else if (chunk instanceof ByteBuffer) {
+                feedByteBuffer(stream, (ByteBuffer) chunk, patterns, ends);
+            } else {
+                int length = lengthNode.execute(chunk);
+                for (int i = 0; i < length; i++) {
+                    if (CompilerDirectives.inInterpreter()) {
+                        RegexRootNode.checkThreadInterrupted();
+                    }
+                    feedCodeUnit(stream, readNode.execute(chunk, i), patterns, ends);
+                }
+            }
+            if (chunk != null) {
+                reportMatchesAtChunkEnd(stream, patterns, ends);
+            }
+        }
+        return new RegexStreamResult(patterns.toArray(), ends.toArray());
+    }
+
+    @TruffleBoundary
+    private void feedByteBuffer(StreamState stream, ByteBuffer chunk, IntArrayBuffer patterns, LongArrayBuffer ends) {
+        for (int i = chunk.position(); i < chunk.limit(); i++) {
+            RegexRootNode.checkThreadInterrupted();
+            feedCodeUnit(stream, Byte.toUnsignedInt(chunk.get(i)), patterns, ends);
+        }
+    }
+
+    /**
+     * Decodes code unit {@code c}, completing or starting a multi-unit character if necessary, and
+     * advances the automaton once a character is complete. Malformed sequences are passed on
+     * as-is, like in {@link TRegexSetExecRootNode}.
+     */
+    private void feedCodeUnit(StreamState stream, int c, IntArrayBuffer patterns, LongArrayBuffer ends) {
+        long offset = stream.offset++;
+        if (encoding == Encodings.UTF_16) {
+            if (stream.pendingUnits > 0) {
+                stream.pendingUnits = 0;
+                if (Character.isLowSurrogate((char) c)) {
+                    step(stream, Character.toCodePoint((char) stream.pendingCodePoint, (char) c), stream.codePointStart, patterns, ends);
+                    return;
+                }
+                step(stream, stream.pendingCodePoint, stream.codePointStart, patterns, ends);
+            }
+            if (Character.isHighSurrogate((char) c)) {
+                startCodePoint(stream, c, 1, offset);
+                return;
+            }
+        } else if (encoding == Encodings.UTF_8) {
+            if (stream.pendingUnits > 0) {
+                if (c >> 6 == 2) {
+                    stream.pendingCodePoint = stream.pendingCodePoint << 6 | (c & 0x3f);
+                    if (--stream.pendingUnits == 0) {
+                        step(stream, stream.pendingCodePoint, stream.codePointStart, patterns, ends);
+                    }
+                    return;
+                }
+                // truncated sequence
+                stream.pendingUnits = 0;
+                step(stream, stream.pendingCodePoint, stream.codePointStart, patterns, ends);
+            }
+            if (c >= 0xc0) {
+                int nBytes = Integer.numberOfLeadingZeros(~(c << 24));
+                startCodePoint(stream, c & (0xff >>> nBytes), Math.min(nBytes, 4) - 1, offset);
+                return;
+            }
+        }
+        step(stream, c, offset, patterns, ends);
+    }
+
+    private static void startCodePoint(StreamState stream, int c, int pendingUnits, long offset) {
+        stream.pendingCodePoint = c;
+        stream.pendingUnits = pendingUnits;
+        stream.codePointStart = offset;
+    }
+
+    /**
+     * Advances the automaton on code point {@code c} starting at absolute offset {@code offset},
+     * and records all matches ending at {@code offset}.
+     */
+    private void step(StreamState stream, int c, long offset, IntArrayBuffer patterns, LongArrayBuffer ends) {
+        SetState state = stream.state;
+        if (state.isDone()) {
+            return;
+        }
+        SetState successor = state.getCachedSuccessor(c);
+        if (successor == null) {
+            successor = cache.computeSuccessor(state, c);
+        }
+        for (int p = successor.nextMatchedPattern(0); p >= 0; p = successor.nextMatchedPattern(p + 1)) {
+            if (!stream.isReported(p, offset)) {
+                patterns.add(p);
+                ends.add(offset);
+            }
+        }
+        stream.state = successor;
+    }
+
+    /**
+     * Reports the matches ending after the last complete character consumed so far, which would
+     * otherwise only be found when stepping over the next character.
+     */
+    private void reportMatchesAtChunkEnd(StreamState stream, IntArrayBuffer patterns, LongArrayBuffer ends) {
+        long offset = stream.pendingUnits > 0 ? stream.codePointStart : stream.offset;
+        if (stream.state.isDone() || offset == stream.reportedOffset) {
+            return;
+        }
+        long[] matched = cache.getPatternsMatchingBeforeNextStep(stream.state);
+        for (int p = SetStateCache.nextSetBit(matched, 0); p >= 0; p = SetStateCache.nextSetBit(matched, p + 1)) {
+            patterns.add(p);
+            ends.add(offset);
+        }
+        stream.reportedOffset = offset;
+        stream.reportedPatterns = matched;
+    }
+
+    private void end(StreamState stream, IntArrayBuffer patterns, LongArrayBuffer ends) {
+        if (stream.pendingUnits > 0) {
+            stream.pendingUnits = 0;
+            step(stream, stream.pendingCodePoint, stream.codePointStart, patterns, ends);
+        }
+        for (int p : cache.getPatternsMatchingAtEnd(stream.state)) {
+            if (!stream.isReported(p, stream.offset)) {
+                patterns.add(p);
+                ends.add(stream.offset);
+            }
+        }
+        stream.reset();
+    }
+
+    @Override
+    protected String getEngineLabel() {
+        return "TRegex set stream";
+    }
+
+    /**
+     * The state of a stream carried over between chunks. Accesses are synchronized on the
+     * instance.
+     */
+    public static final class StreamState {
+
+        private SetState state;
+        private long offset;
+        private long codePointStart;
+        private int pendingCodePoint;
+        private int pendingUnits;
+        // matches already reported at the end of the previous chunk
+        private long reportedOffset = -1;
+        private long[] reportedPatterns;
+
+        /**
+         * Returns the number of code units consumed by this stream so far.
+         */
+        public synchronized long getOffset() {
+            return offset;
+        }
+
+        private boolean isReported(int pattern, long matchEnd) {
+            return matchEnd == reportedOffset && SetStateCache.isSet(reportedPatterns, pattern);
+        }
+
+        private void reset() {
+            state = null;
+            offset = 0;
+            pendingUnits = 0;
+            reportedOffset = -1;
+            reportedPatterns = null;
+        }
+    }
+}
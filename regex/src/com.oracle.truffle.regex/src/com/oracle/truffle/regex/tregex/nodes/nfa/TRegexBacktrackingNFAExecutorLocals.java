@@ -44,6 +44,7 @@ import java.util.Arrays;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
 import com.oracle.truffle.regex.tregex.nfa.PureNFATransition;
 import com.oracle.truffle.regex.tregex.nodes.TRegexExecutorLocals;
 import com.oracle.truffle.regex.tregex.parser.Token.Quantifier;
@@ -72,6 +73,10 @@ import com.oracle.truffle.regex.util.BitSets;
  *
  * frame size: 2 + n_capture_groups*2 + n_quantifiers + n_zero_width_quantifiers
  * </pre>
+ *
+ * In addition, the locals hold the number of NFA states visited in the current search and, if
+ * enabled, the table of visited (NFA state, index) pairs (see
+ * {@link TRegexOptions#TRegexBacktrackingMemoization}).
  */
 public final class TRegexBacktrackingNFAExecutorLocals extends TRegexExecutorLocals {
 
@@ -86,6 +91,8 @@ public final class TRegexBacktrackingNFAExecutorLocals extends TRegexExecutorLoc
     private int lastResultSp = -1;
     private int lastInnerLiteralIndex;
     private int lastInitialStateIndex;
+    private int steps;
+    private long[] visited;
 
     public TRegexBacktrackingNFAExecutorLocals(Object input, int fromIndex, int index, int maxIndex, int nCaptureGroups, int nQuantifiers, int nZeroWidthQuantifiers, int maxNTransitions) {
         this(input, fromIndex, index, maxIndex, nCaptureGroups, nQuantifiers, nZeroWidthQuantifiers, new Stack(new int[getStackFrameSize(nCaptureGroups, nQuantifiers, nZeroWidthQuantifiers) * 4]), 0,
@@ -311,6 +318,46 @@ public final class TRegexBacktrackingNFAExecutorLocals extends TRegexExecutorLoc
         this.lastInitialStateIndex = i;
     }
 
+    /**
+     * Increments and returns the number of NFA states visited in this search.
+     */
+    public int incSteps() {
+        return ++steps;
+    }
+
+    public boolean hasMemoTable() {
+        return visited != null;
+    }
+
+    /**
+     * Allocates the table of visited (NFA state, index) pairs, unless it would exceed
+     * {@link TRegexOptions#TRegexBacktrackingMemoizationMaxBits}.
+     */
+    @TruffleBoundary
+    public void initMemoTable(int nStates) {
+        long nBits = (long) nStates * (getMaxIndex() - getFromIndex() + 1);
+        if (nBits <= TRegexOptions.TRegexBacktrackingMemoizationMaxBits) {
+            visited = new long[(int) ((nBits + 63) >> 6)];
+        }
+    }
+
+    /**
+     * Marks NFA state {@code stateId} at the current index as visited.
+     *
+     * @return {@code true} if the pair was visited before.
+     */
+    public boolean checkAndMarkVisited(int stateId, int nStates) {
+        assert getIndex() >= getFromIndex() && getIndex() <= getMaxIndex();
+        int bit = (getIndex() - getFromIndex()) * nStates + stateId;
+        long mask = 1L << bit;
+        long word = visited[bit >> 6];
+        if ((word & mask) != 0) {
+            return true;
+        }
+        visited[bit >> 6] = word | mask;
+        return false;
+    }
+
     @TruffleBoundary
     public void printStack(int curPc) {
         for (int i = sp; i >= 0; i -= stackFrameSize) {
@@ -45,9 +45,11 @@ import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.regex.RegexInterruptedException;
 import com.oracle.truffle.regex.RegexRootNode;
 import com.oracle.truffle.regex.charset.CharMatchers;
 import com.oracle.truffle.regex.charset.CodePointSet;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
 import com.oracle.truffle.regex.tregex.buffer.CompilationBuffer;
 import com.oracle.truffle.regex.tregex.matchers.CharMatcher;
 import com.oracle.truffle.regex.tregex.nfa.PureNFA;
@@ -70,6 +72,11 @@ import com.oracle.truffle.regex.tregex.util.Exceptions;
 /**
  * This regex executor uses a backtracking algorithm on the NFA. It is used for all expressions that
  * cannot be matched with the DFA, such as expressions with backreferences.
+ * <p>
+ * To guard against exponential running time, the executor can memoize visited (NFA state, index)
+ * pairs (see {@link TRegexOptions#TRegexBacktrackingMemoization}), and abort searches exceeding
+ * {@link com.oracle.truffle.regex.RegexOptions#getBacktrackingStepLimit()} with a
+ * {@link RegexInterruptedException}.
  */
 public final class TRegexBacktrackingNFAExecutorNode extends TRegexExecutorNode {
 
@@ -85,6 +92,8 @@ public final class TRegexBacktrackingNFAExecutorNode extends TRegexExecutorNode
     private final boolean unicode;
     private final boolean loneSurrogates;
     private final boolean loopbackInitialState;
+    private final boolean memoize;
+    private final int stepLimit;
     private final InnerLiteral innerLiteral;
     @CompilationFinal(dimensions = 1) private final TRegexExecutorNode[] lookAroundExecutors;
     @Children private CharMatcher[] matchers;
@@ -126,6 +135,23 @@ public final class TRegexBacktrackingNFAExecutorNode extends TRegexExecutorNode
             s.initIsDeterministic(forward, compilationBuffer);
         }
         this.maxNTransitions = maxTransitions;
+        this.stepLimit = nfaMap.getAst().getOptions().getBacktrackingStepLimit();
+        this.memoize = TRegexOptions.TRegexBacktrackingMemoization && forward && nfa == nfaMap.getRoot() && !nfaMap.getAst().getProperties().hasBackReferences() && !hasQuantifierGuards(nfa, forward);
+    }
+
+    /**
+     * Memoization is only correct if the outcome of a search from a given state and index does
+     * not depend on the quantifier counters or zero-width check indices on the stack.
+     */
+    private static boolean hasQuantifierGuards(PureNFA nfa, boolean forward) {
+        for (int i = 0; i < nfa.getNumberOfStates(); i++) {
+            for (PureNFATransition t : nfa.getState(i).getSuccessors(forward)) {
+                if (t.getQuantifierGuards().length > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     public void initialize(TRegexExecRootNode rootNode) {
@@ -265,6 +291,10 @@ public final class TRegexBacktrackingNFAExecutorNode extends TRegexExecutorNode
             } else if (ip == IP_END) {
                 break;
             }
+            if ((memoize || stepLimit > 0) && alreadyVisited(locals, ip)) {
+                ip = IP_BACKTRACK;
+                continue;
+            }
             /*
              * Compilation of the actual states.
              */
@@ -291,6 +321,30 @@ public final class TRegexBacktrackingNFAExecutorNode extends TRegexExecutorNode
         }
     }
 
+    /**
+     * Counts the visit of NFA state {@code stateId} towards the step limit and, if memoization is
+     * enabled, checks whether the state was already visited at the current index. Since any
+     * earlier visit of the same pair must have failed, the state can be skipped in that case. The
+     * memoization table is allocated only after
+     * {@link TRegexOptions#TRegexBacktrackingMemoizationThreshold} steps, visits before that are
+     * not recorded.
+     */
+    private boolean alreadyVisited(TRegexBacktrackingNFAExecutorLocals locals, int stateId) {
+        int steps = locals.incSteps();
+        if (stepLimit > 0 && steps > stepLimit) {
+            CompilerDirectives.transferToInterpreter();
+            throw new RegexInterruptedException();
+        }
+        if (memoize) {
+            if (locals.hasMemoTable()) {
+                return locals.checkAndMarkVisited(stateId, nfa.getNumberOfStates());
+            } else if (steps == TRegexOptions.TRegexBacktrackingMemoizationThreshold) {
+                locals.initMemoTable(nfa.getNumberOfStates());
+            }
+        }
+        return false;
+    }
+
     /**
      * Executes the given NFA state.
      */
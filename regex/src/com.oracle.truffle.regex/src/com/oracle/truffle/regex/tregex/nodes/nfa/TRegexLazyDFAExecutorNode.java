@@ -0,0 +1,438 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.tregex.nodes.nfa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.regex.RegexRootNode;
+import com.oracle.truffle.regex.tregex.TRegexOptions;
+import com.oracle.truffle.regex.tregex.nfa.NFA;
+import com.oracle.truffle.regex.tregex.nfa.NFAState;
+import com.oracle.truffle.regex.tregex.nfa.NFAStateTransition;
+import com.oracle.truffle.regex.tregex.nodes.TRegexExecutorLocals;
+import com.oracle.truffle.regex.tregex.nodes.TRegexExecutorNode;
+
+/**
+ * This regex executor matches a given expression by constructing DFA states from the NFA on
+ * demand. It is used instead of {@link TRegexNFAExecutorNode} for expressions whose fully expanded
+ * DFA would exceed {@link TRegexOptions#TRegexMaxDFASize}.
+ * <p>
+ * Every {@link LazyDFAState} represents the ordered list of NFA states that
+ * {@link TRegexNFAExecutorNode} would be tracking at a given point. The first time a state is left
+ * via a given character, the executor computes the successor state list exactly as
+ * {@link TRegexNFAExecutorNode} does and records the NFA transitions that were taken as a
+ * {@link LazyDFATransition}. Subsequent steps from the same state on the same character just
+ * replay the recorded transitions on the capture group data in {@link TRegexNFAExecutorLocals},
+ * without re-evaluating any code point sets. Transitions are cached for ASCII characters only;
+ * all other characters are computed on every step.
+ * <p>
+ * All states are kept in a {@link LazyDFACache} shared by all copies of this node. When the cache
+ * exceeds {@link TRegexOptions#TRegexLazyDFAMaxCachedStates} states or
+ * {@link TRegexOptions#TRegexLazyDFAMaxCachedTransitions} transitions, it is flushed and rebuilt
+ * from scratch, which bounds the memory used by this executor independently of the size of the
+ * equivalent DFA. The initial states are looked up in the cache once and then kept in this node, so
+ * that an execution that only follows cached transitions never has to lock the cache.
+ */
+public final class TRegexLazyDFAExecutorNode extends TRegexExecutorNode {
+
+    private static final int CACHED_CHARACTERS = 128;
+
+    private final NFA nfa;
+    private final boolean searching;
+    private final LazyDFACache cache;
+    /*
+     * Initial states indexed by (rewind offset << 1) | (starts at the beginning of the input ? 1 :
+     * 0), filled lazily.
+     */
+    @CompilationFinal(dimensions = 1) private final LazyDFAState[] initialStates;
+
+    public TRegexLazyDFAExecutorNode(NFA nfa) {
+        this(nfa, TRegexOptions.TRegexLazyDFAMaxCachedStates);
+    }
+
+    /**
+     * @param maxCachedStates the number of cached states at which the state cache is flushed. Small
+     *            values force flushes in the middle of a search.
+     */
+    public TRegexLazyDFAExecutorNode(NFA nfa, int maxCachedStates) {
+        this.nfa = nfa;
+        nfa.setInitialLoopBack(false);
+        this.searching = !nfa.getAst().getFlags().isSticky() && !nfa.getAst().getRoot().startsWithCaret();
+        for (int i = 0; i < nfa.getNumberOfTransitions(); i++) {
+            if (nfa.getTransitions()[i] != null) {
+                nfa.getTransitions()[i].getGroupBoundaries().materializeArrays();
+            }
+        }
+        this.cache = new LazyDFACache(nfa, searching, maxCachedStates);
+        this.initialStates = new LazyDFAState[nfa.getAnchoredEntry().length << 1];
+    }
+
+    public NFA getNFA() {
+        return nfa;
+    }
+
+    /**
+     * Returns the number of states currently held in the state cache.
+     */
+    public int getNumberOfCachedStates() {
+        return cache.getNumberOfStates();
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    @Override
+    public boolean writesCaptureGroups() {
+        return true;
+    }
+
+    @Override
+    public TRegexExecutorLocals createLocals(Object input, int fromIndex, int index, int maxIndex) {
+        return new TRegexNFAExecutorLocals(input, fromIndex, index, maxIndex, getNumberOfCaptureGroups(), nfa.getNumberOfStates());
+    }
+
+    @Override
+    public Object execute(TRegexExecutorLocals abstractLocals, boolean compactString) {
+        TRegexNFAExecutorLocals locals = (TRegexNFAExecutorLocals) abstractLocals;
+        CompilerDirectives.ensureVirtualized(locals);
+
+        final int offset = rewindUpTo(locals, 0, nfa.getAnchoredEntry().length - 1);
+        int anchoredInitialState = nfa.getAnchoredEntry()[offset].getTarget().getId();
+        int unAnchoredInitialState = nfa.getUnAnchoredEntry()[offset].getTarget().getId();
+        boolean atBegin = unAnchoredInitialState != anchoredInitialState && inputAtBegin(locals);
+        if (atBegin) {
+            locals.addInitialState(anchoredInitialState);
+        }
+        if (nfa.getState(unAnchoredInitialState) != null) {
+            locals.addInitialState(unAnchoredInitialState);
+        }
+        if (locals.curStatesEmpty()) {
+            return null;
+        }
+        int initialStateIndex = (offset << 1) | (atBegin ? 1 : 0);
+        LazyDFAState state = initialStates[initialStateIndex];
+        if (state == null) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            state = cache.getInitialState(locals.getCurStateIds());
+            initialStates[initialStateIndex] = state;
+        }
+        while (true) {
+            if (CompilerDirectives.inInterpreter()) {
+                RegexRootNode.checkThreadInterrupted();
+            }
+            if (inputHasNext(locals)) {
+                int c = inputReadAndDecode(locals);
+                // The loopback transition is followed only if no path has been completed so far,
+                // see TRegexNFAExecutorNode#findNextStates.
+                boolean loopBack = searching && !locals.hasResult() && locals.getIndex() >= locals.getFromIndex();
+                LazyDFATransition transition = state.getCachedTransition(c, loopBack);
+                if (transition == null) {
+                    transition = cache.computeTransition(state, c, loopBack);
+                }
+                transition.apply(locals);
+                if (locals.successorsEmpty() && (!searching || locals.hasResult())) {
+                    return locals.getResult();
+                }
+                state = transition.getTarget();
+            } else {
+                findNextStatesAtEnd(locals);
+                return locals.getResult();
+            }
+            locals.nextState();
+            inputAdvance(locals);
+        }
+    }
+
+    private void findNextStatesAtEnd(TRegexNFAExecutorLocals locals) {
+        while (locals.hasNext()) {
+            NFAState state = nfa.getState(locals.next());
+            if (state.hasTransitionToFinalState(true)) {
+                locals.pushResult(state.getFirstTransitionToFinalState(true), true);
+                return;
+            }
+        }
+        if (searching && !locals.hasResult()) {
+            NFAState loopBackState = nfa.getInitialLoopBackTransition().getTarget();
+            if (loopBackState.hasTransitionToFinalState(true)) {
+                locals.pushResult(loopBackState.getFirstTransitionToFinalState(true), false);
+            }
+        }
+    }
+
+    /**
+     * A state of the lazily constructed DFA, i.e. an ordered list of NFA states. Equality is
+     * defined over the list of NFA state IDs only, so that the state can be used as its own key in
+     * {@link LazyDFACache}.
+     */
+    static final class LazyDFAState {
+
+        private final int[] nfaStateIds;
+        private final int hash;
+        /*
+         * Transition caches for steps with and without the initial loopback transition, indexed
+         * by character. Both arrays are allocated lazily and may be written concurrently; since
+         * LazyDFATransition is immutable, a racy read either sees a complete transition or null.
+         */
+        private LazyDFATransition[] transitions;
+        private LazyDFATransition[] transitionsWithLoopBack;
+
+        LazyDFAState(int[] nfaStateIds) {
+            this.nfaStateIds = nfaStateIds;
+            this.hash = Arrays.hashCode(nfaStateIds);
+        }
+
+        LazyDFATransition getCachedTransition(int c, boolean loopBack) {
+            LazyDFATransition[] cached = loopBack ? transitionsWithLoopBack : transitions;
+            if (cached == null || c >= CACHED_CHARACTERS) {
+                return null;
+            }
+            return cached[c];
+        }
+
+        boolean cacheTransition(int c, boolean loopBack, LazyDFATransition transition) {
+            if (c >= CACHED_CHARACTERS) {
+                return false;
+            }
+            if (loopBack) {
+                if (transitionsWithLoopBack == null) {
+                    transitionsWithLoopBack = new LazyDFATransition[CACHED_CHARACTERS];
+                }
+                transitionsWithLoopBack[c] = transition;
+            } else {
+                if (transitions == null) {
+                    transitions = new LazyDFATransition[CACHED_CHARACTERS];
+                }
+                transitions[c] = transition;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof LazyDFAState && Arrays.equals(nfaStateIds, ((LazyDFAState) obj).nfaStateIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The NFA transitions taken in one step from a {@link LazyDFAState}, in the order in which
+     * {@link TRegexNFAExecutorNode} would take them. A source index of {@code -1} denotes the
+     * initial loopback transition, which starts a new path instead of copying an existing one.
+     */
+    static final class LazyDFATransition {
+
+        private final int[] sourceIndices;
+        private final NFAStateTransition[] successors;
+        private final int resultSourceIndex;
+        private final NFAStateTransition result;
+        private final LazyDFAState target;
+
+        LazyDFATransition(int[] sourceIndices, NFAStateTransition[] successors, int resultSourceIndex, NFAStateTransition result, LazyDFAState target) {
+            this.sourceIndices = sourceIndices;
+            this.successors = successors;
+            this.resultSourceIndex = resultSourceIndex;
+            this.result = result;
+            this.target = target;
+        }
+
+        LazyDFAState getTarget() {
+            return target;
+        }
+
+        void apply(TRegexNFAExecutorLocals locals) {
+            for (int i = 0; i < successors.length; i++) {
+                locals.pushSuccessor(sourceIndices[i], successors[i], sourceIndices[i] >= 0);
+            }
+            if (result != null) {
+                locals.pushResult(resultSourceIndex, result, resultSourceIndex >= 0);
+            }
+        }
+    }
+
+    /**
+     * Memory-bounded set of {@link LazyDFAState}s. All modifications are synchronized, lookups of
+     * already cached transitions are done without locking via
+     * {@link LazyDFAState#getCachedTransition(int, boolean)}.
+     */
+    static final class LazyDFACache {
+
+        private final NFA nfa;
+        private final boolean searching;
+        private final int maxCachedStates;
+        private final HashMap<LazyDFAState, LazyDFAState> states = new HashMap<>();
+        // initial states referenced by executor nodes, these survive a flush
+        private final ArrayList<LazyDFAState> initialStates = new ArrayList<>();
+        private int nCachedTransitions = 0;
+
+        LazyDFACache(NFA nfa, boolean searching, int maxCachedStates) {
+            this.nfa = nfa;
+            this.searching = searching;
+            this.maxCachedStates = maxCachedStates;
+        }
+
+        @TruffleBoundary
+        synchronized int getNumberOfStates() {
+            return states.size();
+        }
+
+        @TruffleBoundary
+        synchronized LazyDFAState getState(int[] nfaStateIds) {
+            LazyDFAState key = new LazyDFAState(nfaStateIds);
+            LazyDFAState state = states.get(key);
+            if (state == null) {
+                if (states.size() >= maxCachedStates) {
+                    flush();
+                }
+                states.put(key, key);
+                state = key;
+            }
+            return state;
+        }
+
+        @TruffleBoundary
+        synchronized LazyDFAState getInitialState(int[] nfaStateIds) {
+            LazyDFAState state = getState(nfaStateIds);
+            if (!initialStates.contains(state)) {
+                initialStates.add(state);
+            }
+            return state;
+        }
+
+        /**
+         * Computes the step from {@code state} on character {@code c} the same way as
+         * {@link TRegexNFAExecutorNode#execute(TRegexExecutorLocals, boolean)} does, and caches it
+         * in {@code state} if possible.
+         */
+        @TruffleBoundary
+        synchronized LazyDFATransition computeTransition(LazyDFAState state, int c, boolean loopBack) {
+            LazyDFATransition cached = state.getCachedTransition(c, loopBack);
+            if (cached != null) {
+                return cached;
+            }
+            long[] marks = new long[((nfa.getNumberOfStates() - 1) >> 6) + 1];
+            int[] sourceIndices = new int[8];
+            NFAStateTransition[] successors = new NFAStateTransition[8];
+            int nSuccessors = 0;
+            int resultSourceIndex = -1;
+            NFAStateTransition result = null;
+            int nSources = state.nfaStateIds.length;
+            for (int i = 0; i <= nSources && result == null; i++) {
+                int sourceIndex;
+                NFAState source;
+                if (i < nSources) {
+                    sourceIndex = i;
+                    source = nfa.getState(state.nfaStateIds[i]);
+                } else if (loopBack) {
+                    assert searching;
+                    sourceIndex = -1;
+                    source = nfa.getInitialLoopBackTransition().getTarget();
+                } else {
+                    break;
+                }
+                int maxTransitionIndex = source.hasTransitionToUnAnchoredFinalState(true) ? source.getTransitionToUnAnchoredFinalStateId(true) + 1 : source.getSuccessors().length;
+                for (int j = 0; j < maxTransitionIndex; j++) {
+                    NFAStateTransition t = source.getSuccessors()[j];
+                    int targetId = t.getTarget().getId();
+                    int markIndex = targetId >> 6;
+                    long markBit = 1L << targetId;
+                    if (!t.getTarget().isAnchoredFinalState(true) && (marks[markIndex] & markBit) == 0) {
+                        marks[markIndex] |= markBit;
+                        if (t.getTarget().isUnAnchoredFinalState(true)) {
+                            resultSourceIndex = sourceIndex;
+                            result = t;
+                        } else if (t.getCodePointSet().contains(c)) {
+                            if (nSuccessors == successors.length) {
+                                sourceIndices = Arrays.copyOf(sourceIndices, nSuccessors * 2);
+                                successors = Arrays.copyOf(successors, nSuccessors * 2);
+                            }
+                            sourceIndices[nSuccessors] = sourceIndex;
+                            successors[nSuccessors] = t;
+                            nSuccessors++;
+                        }
+                    }
+                }
+            }
+            int[] targetIds = new int[nSuccessors];
+            for (int i = 0; i < nSuccessors; i++) {
+                targetIds[i] = successors[i].getTarget().getId();
+            }
+            LazyDFAState target = getState(targetIds);
+            LazyDFATransition transition = new LazyDFATransition(Arrays.copyOf(sourceIndices, nSuccessors), Arrays.copyOf(successors, nSuccessors), resultSourceIndex, result, target);
+            if (nCachedTransitions >= TRegexOptions.TRegexLazyDFAMaxCachedTransitions) {
+                flush();
+                // keep the current state and its successor reachable from the new cache
+                states.put(state, state);
+                states.put(target, target);
+            }
+            if (state.cacheTransition(c, loopBack, transition)) {
+                nCachedTransitions++;
+            }
+            return transition;
+        }
+
+        /**
+         * Drops all cached states except the initial states. States still referenced by running
+         * executions remain valid and are garbage collected once those executions leave them.
+         */
+        private void flush() {
+            for (LazyDFAState s : states.keySet()) {
+                s.transitions = null;
+                s.transitionsWithLoopBack = null;
+            }
+            states.clear();
+            for (LazyDFAState s : initialStates) {
+                states.put(s, s);
+            }
+            nCachedTransitions = 0;
+        }
+    }
+}
@@ -119,13 +119,38 @@ public final class TRegexNFAExecutorLocals extends TRegexExecutorLocals {
         return marks;
     }
 
+    /**
+     * Returns the IDs of the states on all paths in {@link #curStates}, in priority order.
+     */
+    public int[] getCurStateIds() {
+        int[] ids = new int[curStatesLength / frameSize];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = curStates[i * frameSize];
+        }
+        return ids;
+    }
+
     public void pushSuccessor(NFAStateTransition t, boolean copy) {
+        pushSuccessorFrom(iCurStates - frameSize, t, copy);
+    }
+
+    /**
+     * Like {@link #pushSuccessor(NFAStateTransition, boolean)}, but derives the new path from the
+     * path at position {@code curStateIndex} in {@link #curStates} instead of the path last
+     * returned by {@link #next()}. Used by {@link TRegexLazyDFAExecutorNode} to replay cached
+     * transitions.
+     */
+    public void pushSuccessor(int curStateIndex, NFAStateTransition t, boolean copy) {
+        pushSuccessorFrom(curStateIndex * frameSize, t, copy);
+    }
+
+    private void pushSuccessorFrom(int curStatesOffset, NFAStateTransition t, boolean copy) {
         if (nextStatesLength >= nextStates.length) {
             nextStates = Arrays.copyOf(nextStates, Math.min(nextStates.length * 2, maxSize));
         }
         nextStates[nextStatesLength] = t.getTarget().getId();
         if (copy) {
-            System.arraycopy(curStates, iCurStates - frameSize + 1, nextStates, nextStatesLength + 1, frameSize - 1);
+            System.arraycopy(curStates, curStatesOffset + 1, nextStates, nextStatesLength + 1, frameSize - 1);
         } else {
             Arrays.fill(nextStates, nextStatesLength + 1, nextStatesLength + frameSize, -1);
         }
@@ -145,12 +170,24 @@ public final class TRegexNFAExecutorLocals extends TRegexExecutorLocals {
     }
 
     public void pushResult(NFAStateTransition t, boolean copy) {
+        pushResultFrom(iCurStates - frameSize, t, copy);
+    }
+
+    /**
+     * Like {@link #pushResult(NFAStateTransition, boolean)}, but derives the result from the path
+     * at position {@code curStateIndex} in {@link #curStates}.
+     */
+    public void pushResult(int curStateIndex, NFAStateTransition t, boolean copy) {
+        pushResultFrom(curStateIndex * frameSize, t, copy);
+    }
+
+    private void pushResultFrom(int curStatesOffset, NFAStateTransition t, boolean copy) {
         resultPushed = true;
         if (result == null) {
             result = new int[frameSize - 1];
         }
         if (copy) {
-            System.arraycopy(curStates, iCurStates + 1 - frameSize, result, 0, frameSize - 1);
+            System.arraycopy(curStates, curStatesOffset + 1, result, 0, frameSize - 1);
         } else {
             Arrays.fill(result, -1);
         }
@@ -52,4 +52,5 @@ public final class Loggers {
     public static final TruffleLogger LOG_COMPILER_FALLBACK = TruffleLogger.getLogger("regex", "CompilerFallback");
     public static final TruffleLogger LOG_INTERNAL_ERRORS = TruffleLogger.getLogger("regex", "InternalErrors");
     public static final TruffleLogger LOG_TREGEX_COMPILATIONS = TruffleLogger.getLogger("regex", "TRegexCompilations");
+    public static final TruffleLogger LOG_CACHE = TruffleLogger.getLogger("regex", "Cache");
 }
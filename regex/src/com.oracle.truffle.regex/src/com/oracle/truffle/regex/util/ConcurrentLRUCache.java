@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.regex.util;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A thread-safe cache with an approximate least-recently-used policy and a limit on the total
+ * weight of its entries.
+ * <p>
+ * Lookups and insertions do not lock; they go directly to a {@link ConcurrentHashMap}. The global
+ * access clock only advances on insertions and evictions, a lookup just stamps the entry with the
+ * current clock value, so concurrent lookups do not contend on the clock. Entries used between two
+ * insertions are considered equally recent. When an insertion pushes the total weight over the
+ * limit, the inserting thread (if no other thread is already doing so) sorts the entries by their
+ * last access and evicts the oldest ones until the total weight drops to
+ * {@link #EVICTION_TARGET_PERCENT} percent of the limit. Evicting in batches amortizes the cost of
+ * sorting over many insertions. Concurrent insertions may temporarily exceed the limit.
+ */
+public final class ConcurrentLRUCache<K, V> {
+
+    private static final int EVICTION_TARGET_PERCENT = 75;
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final int weight;
+        private volatile long lastAccess;
+
+        Entry(V value, int weight, long lastAccess) {
+            this.value = value;
+            this.weight = weight;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    private static final class EvictionCandidate<K, V> {
+
+        private final K key;
+        private final Entry<V> entry;
+        private final long lastAccess;
+
+        EvictionCandidate(K key, Entry<V> entry) {
+            this.key = key;
+            this.entry = entry;
+            this.lastAccess = entry.lastAccess;
+        }
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> map = new ConcurrentHashMap<>();
+    private final ToIntBiFunction<K, V> weigher;
+    private final long maxWeight;
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxWeight the maximum total weight of all entries.
+     * @param weigher computes the weight of an entry. Must return the same value for equal
+     *            entries.
+     */
+    public ConcurrentLRUCache(long maxWeight, ToIntBiFunction<K, V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        long now = clock.get();
+        if (entry.lastAccess != now) {
+            entry.lastAccess = now;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Inserts the given entry, unless an entry for {@code key} already exists.
+     *
+     * @return the value associated with {@code key} after the insertion.
+     */
+    public V putIfAbsent(K key, V value) {
+        Entry<V> entry = new Entry<>(value, weigher.applyAsInt(key, value), clock.incrementAndGet());
+        Entry<V> existing = map.putIfAbsent(key, entry);
+        if (existing != null) {
+            return existing.value;
+        }
+        if (totalWeight.addAndGet(entry.weight) > maxWeight) {
+            evict();
+        }
+        return value;
+    }
+
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long target = maxWeight / 100 * EVICTION_TARGET_PERCENT;
+            if (totalWeight.get() <= target) {
+                return;
+            }
+            // entries used from now on are more recent than all eviction candidates
+            clock.incrementAndGet();
+            // snapshot the access stamps, since they may change concurrently while sorting
+            ArrayList<EvictionCandidate<K, V>> candidates = new ArrayList<>(map.size());
+            for (Map.Entry<K, Entry<V>> e : map.entrySet()) {
+                candidates.add(new EvictionCandidate<>(e.getKey(), e.getValue()));
+            }
+            candidates.sort((a, b) -> Long.compare(a.lastAccess, b.lastAccess));
+            for (EvictionCandidate<K, V> c : candidates) {
+                if (totalWeight.get() <= target) {
+                    break;
+                }
+                if (map.remove(c.key, c.entry)) {
+                    totalWeight.addAndGet(-c.entry.weight);
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public long getTotalWeight() {
+        return totalWeight.get();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("entries: %d, weight: %d/%d, hits: %d, misses: %d, evictions: %d", size(), getTotalWeight(), maxWeight, getHits(), getMisses(), getEvictions());
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.nativeimage;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.graalvm.nativeimage.Isolates.CreateIsolateParameters;
+import org.graalvm.nativeimage.Isolates.IsolateException;
+import org.graalvm.word.WordFactory;
+
+/**
+ * A pool of isolates that have been created ahead of time, so that handing out an isolate only
+ * requires attaching the current thread to it. Creating an isolate maps and initializes its image
+ * heap and runs the startup of the isolate, which is avoided on the critical path of, for example,
+ * handling a request in its own isolate.
+ * <p>
+ * Isolates in the pool have no threads attached. {@link #acquire()} attaches the current thread to
+ * a pooled isolate, creating a new isolate only if the pool is empty. When the thread is done with
+ * the isolate, it passes its isolate thread either to {@link #recycle}, which returns the isolate
+ * with all of its state and committed memory to the pool, or to {@link #discard}, which tears the
+ * isolate down. Only isolates in which no code can observe the state of previous users should be
+ * recycled. The pool can be {@linkplain #fill() refilled} ahead of time, for example from a
+ * background thread.
+ * <p>
+ * All methods of this class are thread-safe.
+ *
+ * @since 20.3
+ */
+public final class IsolatePool implements AutoCloseable {
+    private final CreateIsolateParameters parameters;
+    private final int capacity;
+
+    /** Raw addresses of the pooled {@link Isolate isolates}, which are word types. */
+    private final long[] isolates;
+    private int size;
+    private boolean closed;
+
+    private IsolatePool(int capacity, CreateIsolateParameters parameters) {
+        this.parameters = parameters;
+        this.capacity = capacity;
+        this.isolates = new long[capacity];
+    }
+
+    /**
+     * Creates a new pool that holds up to {@code capacity} isolates created with the passed
+     * parameters. The pool is initially empty.
+     *
+     * @param capacity The maximum number of idle isolates in the pool.
+     * @param parameters Parameters for the creation of the isolates.
+     *
+     * @since 20.3
+     */
+    public static IsolatePool create(int capacity, CreateIsolateParameters parameters) {
+        Objects.requireNonNull(parameters);
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        return new IsolatePool(capacity, parameters);
+    }
+
+    /**
+     * Creates new isolates until the pool holds {@link #getCapacity()} isolates.
+     *
+     * @throws IsolateException on error.
+     *
+     * @since 20.3
+     */
+    public void fill() throws IsolateException {
+        while (getSize() < capacity) {
+            IsolateThread thread = Isolates.createIsolate(parameters);
+            Isolate isolate = Isolates.getIsolate(thread);
+            Isolates.detachThread(thread);
+            if (!offer(isolate)) {
+                tearDown(isolate);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Attaches the current thread to an isolate from the pool, or to a newly created isolate if the
+     * pool is empty.
+     *
+     * @return A pointer to the structure that represents the current thread in the isolate.
+     * @throws IsolateException on error.
+     *
+     * @since 20.3
+     */
+    public IsolateThread acquire() throws IsolateException {
+        long isolate;
+        synchronized (this) {
+            if (closed) {
+                throw new IsolateException("Isolate pool has been closed");
+            }
+            if (size == 0) {
+                isolate = 0;
+            } else {
+                size--;
+                isolate = isolates[size];
+            }
+        }
+        if (isolate == 0) {
+            return Isolates.createIsolate(parameters);
+        }
+        return Isolates.attachCurrentThread(WordFactory.pointer(isolate));
+    }
+
+    /**
+     * Detaches the passed isolate thread from its isolate and returns the isolate to the pool. If
+     * the pool is already full or closed, the isolate is torn down instead. The isolate retains all
+     * of its state, which will be visible to the next thread that {@linkplain #acquire() acquires}
+     * it.
+     *
+     * @param thread The isolate thread of the current thread, which must have been returned by
+     *            {@link #acquire()}, and which must be the only thread attached to the isolate.
+     * @throws IsolateException on error.
+     *
+     * @since 20.3
+     */
+    public void recycle(IsolateThread thread) throws IsolateException {
+        Isolate isolate = Isolates.getIsolate(thread);
+        synchronized (this) {
+            if (!closed && size < capacity) {
+                Isolates.detachThread(thread);
+                isolates[size] = isolate.rawValue();
+                size++;
+                return;
+            }
+        }
+        Isolates.tearDownIsolate(thread);
+    }
+
+    /**
+     * Tears down the isolate of the passed isolate thread instead of returning it to the pool.
+     *
+     * @param thread The isolate thread of the current thread, which must have been returned by
+     *            {@link #acquire()}.
+     * @throws IsolateException on error.
+     *
+     * @since 20.3
+     */
+    public void discard(IsolateThread thread) throws IsolateException {
+        Isolates.tearDownIsolate(thread);
+    }
+
+    /**
+     * Returns the maximum number of idle isolates in the pool.
+     *
+     * @since 20.3
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of idle isolates currently in the pool.
+     *
+     * @since 20.3
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * Tears down all idle isolates in the pool. Isolates that are currently acquired are torn down
+     * when they are recycled. Subsequent calls to {@link #acquire()} fail.
+     *
+     * @throws IsolateException on error.
+     *
+     * @since 20.3
+     */
+    @Override
+    public void close() throws IsolateException {
+        long[] idle;
+        synchronized (this) {
+            closed = true;
+            idle = Arrays.copyOf(isolates, size);
+            size = 0;
+        }
+        for (long isolate : idle) {
+            tearDown(WordFactory.pointer(isolate));
+        }
+    }
+
+    private synchronized boolean offer(Isolate isolate) {
+        if (closed || size == capacity) {
+            return false;
+        }
+        isolates[size] = isolate.rawValue();
+        size++;
+        return true;
+    }
+
+    private static void tearDown(Isolate isolate) {
+        Isolates.tearDownIsolate(Isolates.attachCurrentThread(isolate));
+    }
+}
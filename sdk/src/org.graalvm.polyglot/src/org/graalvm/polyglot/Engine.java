@@ -658,6 +658,11 @@ public final class Engine implements AutoCloseable {
             return access.allowListAccess;
         }
 
+        @Override
+        public boolean isBufferAccessible(HostAccess access) {
+            return access.allowBufferAccess;
+        }
+
         @Override
         public Object getHostAccessImpl(HostAccess conf) {
             return conf.impl;
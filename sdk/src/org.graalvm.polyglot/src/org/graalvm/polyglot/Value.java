@@ -42,6 +42,7 @@ package org.graalvm.polyglot;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteOrder;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -97,6 +98,8 @@ import org.graalvm.polyglot.proxy.Proxy;
  * <ul>
  * <li>{@link #hasArrayElements() Array Elements}: This value may contain array elements. The array
  * indices always start with <code>0</code>, also if the language uses a different style.
+ * <li>{@link #hasBufferElements() Buffer Elements}: This value may contain buffer elements. The
+ * buffer contents are raw bytes that can be read and written in place at byte offsets.
  * <li>{@link #hasMembers() Members}: This value may contain members. Members are structural
  * elements of an object. For example, the members of a Java object are all public methods and
  * fields. Members are accessible using {@link #getMember(String)}.
@@ -321,6 +324,255 @@ public final class Value {
         return impl.getArraySize(receiver);
     }
 
+    /**
+     * Returns <code>true</code> if the receiver may have buffer elements. Buffer elements are raw
+     * bytes that can be accessed in place at byte offsets using the <code>readBuffer</code> and
+     * <code>writeBuffer</code> methods, without converting every element to a {@link Value}. A
+     * value may have {@link #hasArrayElements() array elements} and buffer elements at the same
+     * time.
+     *
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @see #getBufferSize()
+     * @see #isBufferWritable()
+     * @since 20.3
+     */
+    public boolean hasBufferElements() {
+        return impl.hasBufferElements(receiver);
+    }
+
+    /**
+     * Returns <code>true</code> if the receiver object is a modifiable buffer.
+     *
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public boolean isBufferWritable() {
+        return impl.isBufferWritable(receiver);
+    }
+
+    /**
+     * Returns the buffer size in bytes for values with buffer elements.
+     *
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public long getBufferSize() {
+        return impl.getBufferSize(receiver);
+    }
+
+    /**
+     * Reads the byte at the given byte offset from the start of the buffer.
+     *
+     * @throws IndexOutOfBoundsException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt;= </code>{@link #getBufferSize()}.
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public byte readBufferByte(long byteOffset) {
+        return impl.readBufferByte(receiver, byteOffset);
+    }
+
+    /**
+     * Writes the given byte at the given byte offset from the start of the buffer.
+     *
+     * @throws IndexOutOfBoundsException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt;= </code>{@link #getBufferSize()}.
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements} or is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public void writeBufferByte(long byteOffset, byte value) {
+        impl.writeBufferByte(receiver, byteOffset, value);
+    }
+
+    /**
+     * Reads the short at the given byte offset from the start of the buffer in the given byte
+     * order. Unaligned accesses are supported.
+     *
+     * @throws IndexOutOfBoundsException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize()}
+     *             <code> - 2</code>.
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public short readBufferShort(ByteOrder order, long byteOffset) {
+        return impl.readBufferShort(receiver, order, byteOffset);
+    }
+
+    /**
+     * Writes the given short at the given byte offset from the start of the buffer in the given
+     * byte order. Unaligned accesses are supported.
+     *
+     * @throws IndexOutOfBoundsException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize()}
+     *             <code> - 2</code>.
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements} or is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public void writeBufferShort(ByteOrder order, long byteOffset, short value) {
+        impl.writeBufferShort(receiver, order, byteOffset, value);
+    }
+
+    /**
+     * Reads the int at the given byte offset from the start of the buffer in the given byte order.
+     * Unaligned accesses are supported.
+     *
+     * @throws IndexOutOfBoundsException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize()}
+     *             <code> - 4</code>.
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public int readBufferInt(ByteOrder order, long byteOffset) {
+        return impl.readBufferInt(receiver, order, byteOffset);
+    }
+
+    /**
+     * Writes the given int at the given byte offset from the start of the buffer in the given byte
+     * order. Unaligned accesses are supported.
+     *
+     * @throws IndexOutOfBoundsException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize()}
+     *             <code> - 4</code>.
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements} or is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public void writeBufferInt(ByteOrder order, long byteOffset, int value) {
+        impl.writeBufferInt(receiver, order, byteOffset, value);
+    }
+
+    /**
+     * Reads the long at the given byte offset from the start of the buffer in the given byte
+     * order. Unaligned accesses are supported.
+     *
+     * @throws IndexOutOfBoundsException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize()}
+     *             <code> - 8</code>.
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public long readBufferLong(ByteOrder order, long byteOffset) {
+        return impl.readBufferLong(receiver, order, byteOffset);
+    }
+
+    /**
+     * Writes the given long at the given byte offset from the start of the buffer in the given
+     * byte order. Unaligned accesses are supported.
+     *
+     * @throws IndexOutOfBoundsException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize()}
+     *             <code> - 8</code>.
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements} or is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public void writeBufferLong(ByteOrder order, long byteOffset, long value) {
+        impl.writeBufferLong(receiver, order, byteOffset, value);
+    }
+
+    /**
+     * Reads the float at the given byte offset from the start of the buffer in the given byte
+     * order. Unaligned accesses are supported.
+     *
+     * @throws IndexOutOfBoundsException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize()}
+     *             <code> - 4</code>.
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public float readBufferFloat(ByteOrder order, long byteOffset) {
+        return impl.readBufferFloat(receiver, order, byteOffset);
+    }
+
+    /**
+     * Writes the given float at the given byte offset from the start of the buffer in the given
+     * byte order. Unaligned accesses are supported.
+     *
+     * @throws IndexOutOfBoundsException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize()}
+     *             <code> - 4</code>.
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements} or is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public void writeBufferFloat(ByteOrder order, long byteOffset, float value) {
+        impl.writeBufferFloat(receiver, order, byteOffset, value);
+    }
+
+    /**
+     * Reads the double at the given byte offset from the start of the buffer in the given byte
+     * order. Unaligned accesses are supported.
+     *
+     * @throws IndexOutOfBoundsException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize()}
+     *             <code> - 8</code>.
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public double readBufferDouble(ByteOrder order, long byteOffset) {
+        return impl.readBufferDouble(receiver, order, byteOffset);
+    }
+
+    /**
+     * Writes the given double at the given byte offset from the start of the buffer in the given
+     * byte order. Unaligned accesses are supported.
+     *
+     * @throws IndexOutOfBoundsException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize()}
+     *             <code> - 8</code>.
+     * @throws UnsupportedOperationException if the value does not have
+     *             {@link #hasBufferElements() buffer elements} or is not
+     *             {@link #isBufferWritable() writable}.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.3
+     */
+    public void writeBufferDouble(ByteOrder order, long byteOffset, double value) {
+        impl.writeBufferDouble(receiver, order, byteOffset, value);
+    }
+
     /**
      * Returns <code>true</code> if this value generally supports containing members. To check
      * whether a value has <i>no</i> members use
@@ -415,7 +415,12 @@ def svm_gate_body(args, tasks):
                         blacklist_args = ['--blacklist', blacklist.name]
 
                     # We need the -H:+EnableAllSecurityServices for com.oracle.svm.test.SecurityServiceTest
-                    native_unittest(['--build-args', _native_unittest_features, '-H:+EnableAllSecurityServices'] + blacklist_args)
+                    # and -H:+FlightRecorder for com.oracle.svm.test.FlightRecorderTest
+                    # and -H:+SamplingProfiler for com.oracle.svm.test.SamplingProfilerTest
+                    # and -H:+AllowVMInspection with heap dumps on OutOfMemoryError for com.oracle.svm.test.HeapDumpTest
+                    native_unittest(['--build-args', _native_unittest_features, '-H:+EnableAllSecurityServices', '-H:+FlightRecorder',
+                                     '-H:+SamplingProfiler', '-R:SamplingProfilerOutputFile=' + join(svmbuild_dir(), 'native-unittest.collapsed'),
+                                     '-H:+AllowVMInspection', '-R:+HeapDumpOnOutOfMemoryError', '-R:HeapDumpPath=' + join(svmbuild_dir(), 'native-unittest-oom.hprof')] + blacklist_args)
 
         with Task('Run Truffle NFI unittests with SVM image', tasks, tags=["svmjunit"]) as t:
             if t:
@@ -561,6 +561,7 @@ suite = {
             "dependencies": [
                 "mx:JUNIT_TOOL",
                 "sdk:GRAAL_SDK",
+                "com.oracle.svm.core",
             ],
             "checkstyle": "com.oracle.svm.core",
             "workingSets": "SVM",
@@ -854,6 +855,19 @@ suite = {
             "spotbugs": "false",
         },
 
+        "com.oracle.svm.agent.test": {
+            "subDir": "src",
+            "sourceDirs": ["src"],
+            "dependencies": [
+                "com.oracle.svm.agent",
+                "mx:JUNIT_TOOL",
+            ],
+            "checkstyle": "com.oracle.svm.driver",
+            "workingSets": "SVM",
+            "javaCompliance": "8+",
+            "spotbugs": "false",
+        },
+
         "com.oracle.svm.diagnosticsagent": {
             "subDir": "src",
             "sourceDirs": [
@@ -1130,6 +1144,20 @@ suite = {
           "distDependencies": [
             "mx:JUNIT_TOOL",
             "sdk:GRAAL_SDK",
+            "SVM",
+          ],
+          "testDistribution" : True,
+        },
+
+        "SVM_AGENT_TESTS" : {
+          "subDir": "src",
+          "relpath" : True,
+          "dependencies" : [
+            "com.oracle.svm.agent.test",
+          ],
+          "distDependencies": [
+            "mx:JUNIT_TOOL",
+            "SVM_AGENT",
           ],
           "testDistribution" : True,
         },
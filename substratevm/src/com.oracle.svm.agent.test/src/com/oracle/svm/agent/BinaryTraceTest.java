@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.agent;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.svm.configure.trace.BinaryTraceReader;
+
+public class BinaryTraceTest {
+
+    private static Map<String, Object> entry(Object... keyValues) {
+        Map<String, Object> entry = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            entry.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return entry;
+    }
+
+    private static final List<Map<String, Object>> ENTRIES = Arrays.asList(
+                    entry("tracer", "reflect", "function", "forName", "args", new Object[]{"java.lang.String"}, "result", true),
+                    entry("tracer", "reflect", "function", "getDeclaredMethod", "class", "java.lang.String", "args", new Object[]{"valueOf", new Object[]{"int"}}, "result", false),
+                    entry("tracer", "jni", "function", "FindClass", "caller_class", null, "args", new Object[]{"java/lang/Object", "\u00e9t\u00e9 \u20ac"}),
+                    entry("tracer", "reflect", "function", "forName", "args", new Object[]{"java.lang.String"}, "result", true));
+
+    /** Converts arrays to lists, which is how the reader represents them. */
+    private static Object expected(Object value) {
+        if (value instanceof Object[]) {
+            List<Object> list = new ArrayList<>();
+            for (Object element : (Object[]) value) {
+                list.add(expected(element));
+            }
+            return list;
+        }
+        return value;
+    }
+
+    private static byte[] writeTrace() throws IOException {
+        Path file = Files.createTempFile("trace", ".bin");
+        try {
+            try (BinaryTraceFileWriter writer = new BinaryTraceFileWriter(file)) {
+                for (Map<String, Object> entry : ENTRIES) {
+                    writer.traceEntry(entry);
+                }
+            }
+            return Files.readAllBytes(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<Map<String, Object>> readTrace(byte[] bytes) throws IOException {
+        BinaryTraceReader reader = new BinaryTraceReader(new ByteArrayInputStream(bytes));
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (Map<String, Object> entry = reader.next(); entry != null; entry = reader.next()) {
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static void assertEntries(List<Map<String, Object>> actual, int expectedCount) {
+        Assert.assertEquals(expectedCount, actual.size());
+        if (!actual.isEmpty()) {
+            // the writer starts every trace with an initialization entry
+            Assert.assertEquals("meta", actual.get(0).get("tracer"));
+        }
+        for (int i = 1; i < actual.size(); i++) {
+            Map<String, Object> expectedEntry = new HashMap<>();
+            for (Map.Entry<String, Object> e : ENTRIES.get(i - 1).entrySet()) {
+                expectedEntry.put(e.getKey(), expected(e.getValue()));
+            }
+            Assert.assertEquals(expectedEntry, actual.get(i));
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        assertEntries(readTrace(writeTrace()), ENTRIES.size() + 1);
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        byte[] trace = writeTrace();
+        int complete = 0;
+        int header = Integer.BYTES + 1;
+        for (int length = header; length < trace.length; length++) {
+            List<Map<String, Object>> entries = readTrace(Arrays.copyOf(trace, length));
+            Assert.assertTrue(entries.size() >= complete && entries.size() <= ENTRIES.size() + 1);
+            assertEntries(entries, entries.size());
+            complete = entries.size();
+        }
+        // without the end tag all entries are complete
+        assertEntries(readTrace(Arrays.copyOf(trace, trace.length - 1)), ENTRIES.size() + 1);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.agent;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.oracle.svm.configure.trace.BinaryTraceFormat;
+import com.oracle.svm.core.util.VMError;
+
+/**
+ * Writes trace entries in the {@link BinaryTraceFormat}. Class, member and key names repeat very
+ * frequently in traces, so each distinct string is written only once and then referred to by its
+ * index, which makes the trace much smaller and cheaper to produce than JSON.
+ */
+class BinaryTraceFileWriter extends TraceWriter {
+    private final Object lock = new Object();
+    private final DataOutputStream output;
+    private final Map<String, Integer> stringIndices = new HashMap<>();
+    private boolean open = true;
+
+    BinaryTraceFileWriter(Path path) throws IOException {
+        output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024));
+        output.writeInt(BinaryTraceFormat.MAGIC);
+        output.writeByte(BinaryTraceFormat.VERSION);
+        traceInitialization();
+    }
+
+    @Override
+    void traceEntry(Map<String, Object> entry) {
+        synchronized (lock) {
+            if (!open) { // late events on exit
+                return;
+            }
+            try {
+                for (Entry<String, Object> mapEntry : entry.entrySet()) {
+                    defineStrings(mapEntry.getKey());
+                    defineStrings(mapEntry.getValue());
+                }
+                output.writeByte(BinaryTraceFormat.TAG_ENTRY);
+                writeLength(entry.size());
+                for (Entry<String, Object> mapEntry : entry.entrySet()) {
+                    writeLength(stringIndices.get(mapEntry.getKey()));
+                    writeValue(mapEntry.getValue());
+                }
+            } catch (IOException e) {
+                throw VMError.shouldNotReachHere(e);
+            }
+        }
+    }
+
+    /** Writes a definition for each string in {@code value} that has not been written yet. */
+    private void defineStrings(Object value) throws IOException {
+        if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+                defineStrings(element);
+            }
+        } else if (value != null && !(value instanceof Boolean)) {
+            String s = value.toString();
+            if (!stringIndices.containsKey(s)) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                output.writeByte(BinaryTraceFormat.TAG_STRING);
+                writeLength(bytes.length);
+                output.write(bytes);
+                stringIndices.put(s, stringIndices.size());
+            }
+        }
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(BinaryTraceFormat.VALUE_NULL);
+        } else if (value instanceof Boolean) {
+            output.writeByte((Boolean) value ? BinaryTraceFormat.VALUE_TRUE : BinaryTraceFormat.VALUE_FALSE);
+        } else if (value instanceof Object[]) {
+            Object[] array = (Object[]) value;
+            output.writeByte(BinaryTraceFormat.VALUE_ARRAY);
+            writeLength(array.length);
+            for (Object element : array) {
+                writeValue(element);
+            }
+        } else {
+            output.writeByte(BinaryTraceFormat.VALUE_STRING);
+            writeLength(stringIndices.get(value.toString()));
+        }
+    }
+
+    private void writeLength(int value) throws IOException {
+        int v = value;
+        while ((v & ~0x7f) != 0) {
+            output.writeByte((v & 0x7f) | 0x80);
+            v >>>= 7;
+        }
+        output.writeByte(v);
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            try {
+                output.writeByte(BinaryTraceFormat.TAG_END);
+                output.close();
+            } catch (IOException ignored) {
+            }
+            open = false;
+        }
+    }
+}
@@ -41,16 +41,23 @@ import static com.oracle.svm.jvmtiagentbase.Support.toCString;
 import static com.oracle.svm.jni.JNIObjectHandles.nullHandle;
 import static org.graalvm.word.WordFactory.nullPointer;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.graalvm.nativeimage.StackValue;
+import org.graalvm.nativeimage.UnmanagedMemory;
 import org.graalvm.nativeimage.c.function.CEntryPoint;
 import org.graalvm.nativeimage.c.function.CEntryPointLiteral;
+import org.graalvm.nativeimage.c.struct.SizeOf;
 import org.graalvm.nativeimage.c.type.CCharPointer;
 import org.graalvm.nativeimage.c.type.CCharPointerPointer;
+import org.graalvm.nativeimage.c.type.CLongPointer;
 import org.graalvm.nativeimage.c.type.CTypeConversion.CCharPointerHolder;
 import org.graalvm.nativeimage.c.type.WordPointer;
+import org.graalvm.word.PointerBase;
 
 import com.oracle.svm.jvmtiagentbase.AgentIsolate;
 import com.oracle.svm.jvmtiagentbase.Support;
+import com.oracle.svm.jvmtiagentbase.jvmti.JvmtiCapabilities;
 import com.oracle.svm.jvmtiagentbase.jvmti.JvmtiEnv;
 import com.oracle.svm.jvmtiagentbase.jvmti.JvmtiError;
 import com.oracle.svm.agent.restrict.JniAccessVerifier;
@@ -79,10 +86,53 @@ final class JniCallInterceptor {
     private static JniAccessVerifier accessVerifier;
     private static NativeImageAgent agent;
 
+    /** Source of JVMTI tags which identify classes in {@link #isDuplicateLookup}. */
+    private static final AtomicLong nextClassTag = new AtomicLong();
+
     private static boolean shouldTrace() {
         return traceWriter != null;
     }
 
+    /**
+     * Returns a tag that identifies {@code clazz} for as long as it is loaded, or -1 if it could not
+     * be determined. Unlike handles, tags can be compared without calling back into the VM. Two
+     * threads can race to tag the same class, in which case the class could be traced once more.
+     */
+    private static long getClassTag(JNIObjectHandle clazz) {
+        if (clazz.equal(nullHandle())) {
+            return 0;
+        }
+        CLongPointer tagPtr = StackValue.get(CLongPointer.class);
+        if (jvmtiFunctions().GetTag().invoke(jvmtiEnv(), clazz, tagPtr) != JvmtiError.JVMTI_ERROR_NONE) {
+            return -1;
+        }
+        long tag = tagPtr.read();
+        if (tag == 0) {
+            tag = nextClassTag.incrementAndGet();
+            if (jvmtiFunctions().SetTag().invoke(jvmtiEnv(), clazz, tag) != JvmtiError.JVMTI_ERROR_NONE) {
+                return -1;
+            }
+        }
+        return tag;
+    }
+
+    /**
+     * Determines whether a successful member lookup was already traced, without converting any
+     * handles or C strings. A member ID together with the class that was searched uniquely
+     * determines the name, signature and declaring class in the trace entry.
+     */
+    private static boolean isDuplicateLookup(String function, JNIObjectHandle clazz, JNIObjectHandle callerClass, PointerBase result) {
+        if (result.isNull()) {
+            return false; // the name and signature are needed to tell failed lookups apart
+        }
+        long classTag = getClassTag(clazz);
+        long callerTag = getClassTag(callerClass);
+        if (classTag == -1 || callerTag == -1) {
+            return false;
+        }
+        return traceWriter.isDuplicateLookup(function, callerTag, classTag, result.rawValue());
+    }
+
     private static void traceCall(JNIEnvironment env, String function, JNIObjectHandle clazz, JNIObjectHandle declaringClass, JNIObjectHandle callerClass, Object result, Object... args) {
         JNIObjectHandle pending = jniFunctions().getExceptionOccurred().invoke(env);
         clearException(env);
@@ -146,7 +196,7 @@ final class JniCallInterceptor {
             // NOTE: GetMethodID() above can have initialized `clazz` as a side effect
             result = nullPointer();
         }
-        if (shouldTrace()) {
+        if (shouldTrace() && !isDuplicateLookup("GetMethodID", clazz, callerClass, result)) {
             traceCall(env, "GetMethodID", clazz, getMethodDeclaringClass(result), callerClass, result.isNonNull(), fromCString(name), fromCString(signature));
         }
         return result;
@@ -161,7 +211,7 @@ final class JniCallInterceptor {
             // NOTE: GetStaticMethodID() above can have initialized `clazz` as a side effect
             result = nullPointer();
         }
-        if (shouldTrace()) {
+        if (shouldTrace() && !isDuplicateLookup("GetStaticMethodID", clazz, callerClass, result)) {
             traceCall(env, "GetStaticMethodID", clazz, getMethodDeclaringClass(result), callerClass, result.isNonNull(), fromCString(name), fromCString(signature));
         }
         return result;
@@ -176,7 +226,7 @@ final class JniCallInterceptor {
             // NOTE: GetFieldID() above can have initialized `clazz` as a side effect
             result = nullPointer();
         }
-        if (shouldTrace()) {
+        if (shouldTrace() && !isDuplicateLookup("GetFieldID", clazz, callerClass, result)) {
             traceCall(env, "GetFieldID", clazz, getFieldDeclaringClass(clazz, result), callerClass, result.isNonNull(), fromCString(name), fromCString(signature));
         }
         return result;
@@ -191,7 +241,7 @@ final class JniCallInterceptor {
             // NOTE: GetStaticFieldID() above can have initialized `clazz` as a side effect
             result = nullPointer();
         }
-        if (shouldTrace()) {
+        if (shouldTrace() && !isDuplicateLookup("GetStaticFieldID", clazz, callerClass, result)) {
             traceCall(env, "GetStaticFieldID", clazz, getFieldDeclaringClass(clazz, result), callerClass, result.isNonNull(), fromCString(name), fromCString(signature));
         }
         return result;
@@ -329,10 +379,18 @@ final class JniCallInterceptor {
         return result;
     }
 
-    public static void onLoad(TraceWriter writer, JniAccessVerifier verifier, NativeImageAgent nativeImageTracingAgent) {
+    public static void onLoad(JvmtiEnv jvmti, TraceWriter writer, JniAccessVerifier verifier, NativeImageAgent nativeImageTracingAgent) {
         accessVerifier = verifier;
         traceWriter = writer;
         JniCallInterceptor.agent = nativeImageTracingAgent;
+
+        if (writer != null) {
+            JvmtiCapabilities capabilities = UnmanagedMemory.calloc(SizeOf.get(JvmtiCapabilities.class));
+            check(jvmti.getFunctions().GetCapabilities().invoke(jvmti, capabilities));
+            capabilities.setCanTagObjects(1);
+            check(jvmti.getFunctions().AddCapabilities().invoke(jvmti, capabilities));
+            UnmanagedMemory.free(capabilities);
+        }
     }
 
     public static void onVMStart(JvmtiEnv jvmti) {
@@ -123,6 +123,8 @@ public final class NativeImageAgent extends JvmtiAgentBase<NativeImageAgentJNIHa
     @Override
     protected int onLoadCallback(JNIJavaVM vm, JvmtiEnv jvmti, JvmtiEventCallbacks callbacks, String options) {
         String traceOutputFile = null;
+        boolean binaryTraceFormat = false;
+        boolean deduplicate = true;
         String configOutputDir = null;
         ConfigurationSet restrictConfigs = new ConfigurationSet();
         ConfigurationSet mergeConfigs = new ConfigurationSet();
@@ -147,6 +149,17 @@ public final class NativeImageAgent extends JvmtiAgentBase<NativeImageAgentJNIHa
                     return 1;
                 }
                 traceOutputFile = getTokenValue(token);
+            } else if (token.startsWith("trace-format=")) {
+                String format = getTokenValue(token);
+                if (!format.equals("json") && !format.equals("binary")) {
+                    System.err.println(MESSAGE_PREFIX + "trace-format can only be json or binary");
+                    return 1;
+                }
+                binaryTraceFormat = format.equals("binary");
+            } else if (token.equals("no-deduplicate")) {
+                deduplicate = false;
+            } else if (token.startsWith("deduplicate=")) {
+                deduplicate = Boolean.parseBoolean(getTokenValue(token));
             } else if (token.startsWith("config-output-dir=") || token.startsWith("config-merge-dir=")) {
                 if (configOutputDir != null) {
                     System.err.println(MESSAGE_PREFIX + "cannot specify more than one of config-output-dir= or config-merge-dir=.");
@@ -265,13 +278,17 @@ public final class NativeImageAgent extends JvmtiAgentBase<NativeImageAgentJNIHa
         } else if (traceOutputFile != null) {
             try {
                 Path path = Paths.get(transformPath(traceOutputFile));
-                traceWriter = new TraceFileWriter(path);
+                traceWriter = binaryTraceFormat ? new BinaryTraceFileWriter(path) : new TraceFileWriter(path);
             } catch (Throwable t) {
                 System.err.println(MESSAGE_PREFIX + t);
                 return 2;
             }
         }
 
+        if (traceWriter != null) {
+            traceWriter.setDeduplicate(deduplicate);
+        }
+
         if (build) {
             int status = buildImage(jvmti);
             System.exit(status);
@@ -309,7 +326,7 @@ public final class NativeImageAgent extends JvmtiAgentBase<NativeImageAgentJNIHa
                 TypeAccessChecker accessChecker = new TypeAccessChecker(restrictConfigs.loadJniConfig(ConfigurationSet.FAIL_ON_EXCEPTION));
                 verifier = new JniAccessVerifier(accessChecker, reflectAccessChecker, accessAdvisor, this);
             }
-            JniCallInterceptor.onLoad(traceWriter, verifier, this);
+            JniCallInterceptor.onLoad(jvmti, traceWriter, verifier, this);
         } catch (Throwable t) {
             System.err.println(MESSAGE_PREFIX + t);
             return 4;
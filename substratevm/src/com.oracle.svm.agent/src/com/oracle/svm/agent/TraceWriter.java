@@ -28,6 +28,8 @@ import java.io.Closeable;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class TraceWriter implements Closeable {
     /** Value to explicitly express {@code null} in a trace, instead of omitting the value. */
@@ -36,6 +38,20 @@ public abstract class TraceWriter implements Closeable {
     /** Value to express an unknown value, for example on failure to retrieve the value. */
     public static final String UNKNOWN_VALUE = new String("\0");
 
+    /**
+     * Calls which have already been traced in the current phase. Configuration generation only
+     * depends on which distinct calls have been made in a phase, so repeated calls are dropped
+     * here instead of being written (or processed) again and again. Lookups come from many threads
+     * and on the hot path of the application, so this is a concurrent set rather than a
+     * synchronized one.
+     */
+    private final Set<Object> tracedCalls = ConcurrentHashMap.newKeySet();
+    private boolean deduplicate = true;
+
+    void setDeduplicate(boolean value) {
+        deduplicate = value;
+    }
+
     static Object handleSpecialValue(Object obj) {
         if (obj == EXPLICIT_NULL) {
             return null;
@@ -66,6 +82,8 @@ public abstract class TraceWriter implements Closeable {
     }
 
     public void tracePhaseChange(String phase) {
+        /* Entries are interpreted depending on the phase, so they must be traced again. */
+        tracedCalls.clear();
         Map<String, Object> entry = new HashMap<>();
         entry.put("tracer", "meta");
         entry.put("event", "phase_change");
@@ -89,27 +107,91 @@ public abstract class TraceWriter implements Closeable {
      * @param args Arguments to the call, which may contain arrays (which can contain more arrays)
      */
     public void traceCall(String tracer, String function, Object clazz, Object declaringClass, Object callerClass, Object result, Object... args) {
+        Object[] values = {tracer, function, handleSpecialValue(clazz), handleSpecialValue(declaringClass), handleSpecialValue(callerClass), handleSpecialValue(result),
+                        (args != null) ? handleSpecialValue(args) : null};
+        if (deduplicate && !tracedCalls.add(new CallKey(values))) {
+            return;
+        }
         Map<String, Object> entry = new HashMap<>();
         entry.put("tracer", tracer);
         entry.put("function", function);
         if (clazz != null) {
-            entry.put("class", handleSpecialValue(clazz));
+            entry.put("class", values[2]);
         }
         if (declaringClass != null) {
-            entry.put("declaring_class", handleSpecialValue(declaringClass));
+            entry.put("declaring_class", values[3]);
         }
         if (callerClass != null) {
-            entry.put("caller_class", handleSpecialValue(callerClass));
+            entry.put("caller_class", values[4]);
         }
         if (result != null) {
-            entry.put("result", handleSpecialValue(result));
+            entry.put("result", values[5]);
         }
         if (args != null) {
-            entry.put("args", handleSpecialValue(args));
+            entry.put("args", values[6]);
         }
         traceEntry(entry);
     }
 
+    /**
+     * Records that a native lookup with the given identity has been made and returns whether it
+     * had already been traced in the current phase. This lets interceptors discard repeated calls
+     * early, before doing the comparatively expensive conversions of handles and C strings to Java
+     * strings that {@link #traceCall} requires. The identity values must uniquely determine the
+     * resulting trace entry, otherwise distinct entries could be lost.
+     */
+    boolean isDuplicateLookup(String function, long callerTag, long classTag, long result) {
+        return deduplicate && !tracedCalls.add(new LookupKey(function, callerTag, classTag, result));
+    }
+
+    private static final class CallKey {
+        private final Object[] values;
+        private final int hash;
+
+        CallKey(Object[] values) {
+            this.values = values;
+            this.hash = Arrays.deepHashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof CallKey && hash == ((CallKey) obj).hash && Arrays.deepEquals(values, ((CallKey) obj).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class LookupKey {
+        private final String function;
+        private final long callerTag;
+        private final long classTag;
+        private final long result;
+
+        LookupKey(String function, long callerTag, long classTag, long result) {
+            this.function = function;
+            this.callerTag = callerTag;
+            this.classTag = classTag;
+            this.result = result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof LookupKey)) {
+                return false;
+            }
+            LookupKey other = (LookupKey) obj;
+            return function.equals(other.function) && callerTag == other.callerTag && classTag == other.classTag && result == other.result;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (31 * (31 * (31 * function.hashCode() + Long.hashCode(callerTag)) + Long.hashCode(classTag)) + Long.hashCode(result));
+        }
+    }
+
     abstract void traceEntry(Map<String, Object> entry);
 
     @Override
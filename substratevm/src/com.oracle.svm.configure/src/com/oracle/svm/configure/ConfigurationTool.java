@@ -24,13 +24,13 @@
  */
 package com.oracle.svm.configure;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Reader;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -259,8 +259,8 @@ public class ConfigurationTool {
             throw new UsageException("No inputs specified.");
         }
         for (URI uri : traceInputs) {
-            try (Reader reader = Files.newBufferedReader(Paths.get(uri))) {
-                p.process(reader);
+            try (InputStream input = new BufferedInputStream(Files.newInputStream(Paths.get(uri)))) {
+                p.process(input);
             }
         }
 
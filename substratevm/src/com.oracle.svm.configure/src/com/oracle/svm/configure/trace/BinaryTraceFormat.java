@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.configure.trace;
+
+/**
+ * Constants of the compact binary trace format, which is an alternative to JSON trace files that
+ * is cheaper to write for the agent and that can be processed as a stream.
+ *
+ * A trace starts with {@link #MAGIC} and {@link #VERSION}, followed by a sequence of records, each
+ * starting with a tag byte:
+ * <ul>
+ * <li>{@link #TAG_STRING}: the length and UTF-8 bytes of a string, which is implicitly assigned the
+ * next string index, starting at 0. Strings are defined before their first use and then only
+ * referred to by their index.</li>
+ * <li>{@link #TAG_ENTRY}: a trace entry as the number of its key-value pairs, each consisting of the
+ * string index of the key and a value.</li>
+ * <li>{@link #TAG_END}: the end of the trace.</li>
+ * </ul>
+ * A value is a byte indicating its kind, followed by a string index for {@link #VALUE_STRING}, or
+ * by the length and element values for {@link #VALUE_ARRAY}. All lengths, counts and indices are
+ * unsigned variable-length integers with 7 bits per byte, least significant group first.
+ */
+public final class BinaryTraceFormat {
+    /** "NITR" in ASCII. */
+    public static final int MAGIC = 0x4E495452;
+    public static final int VERSION = 1;
+
+    public static final int TAG_END = 0;
+    public static final int TAG_STRING = 1;
+    public static final int TAG_ENTRY = 2;
+
+    public static final int VALUE_NULL = 0;
+    public static final int VALUE_STRING = 1;
+    public static final int VALUE_TRUE = 2;
+    public static final int VALUE_FALSE = 3;
+    public static final int VALUE_ARRAY = 4;
+
+    private BinaryTraceFormat() {
+    }
+}
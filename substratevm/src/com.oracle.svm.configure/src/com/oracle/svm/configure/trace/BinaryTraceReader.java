@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.configure.trace;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads trace entries one at a time from a trace in the {@link BinaryTraceFormat}. Entries have
+ * the same shape as those parsed from a JSON trace, with arrays represented as {@link List lists}.
+ */
+public final class BinaryTraceReader {
+    private final DataInputStream input;
+    private final List<String> strings = new ArrayList<>();
+    private boolean ended;
+
+    public BinaryTraceReader(InputStream in) throws IOException {
+        input = new DataInputStream(in);
+        if (input.readInt() != BinaryTraceFormat.MAGIC) {
+            throw new IOException("Not a binary trace");
+        }
+        int version = input.readUnsignedByte();
+        if (version != BinaryTraceFormat.VERSION) {
+            throw new IOException("Unsupported binary trace version: " + version);
+        }
+    }
+
+    /**
+     * Returns the next entry, or {@code null} at the end of the trace. A trace that ends without
+     * {@link BinaryTraceFormat#TAG_END}, for example because the traced process was killed, ends
+     * after its last complete record.
+     */
+    public Map<String, Object> next() throws IOException {
+        while (!ended) {
+            int tag = input.read();
+            try {
+                switch (tag) {
+                    case -1:
+                    case BinaryTraceFormat.TAG_END:
+                        ended = true;
+                        break;
+                    case BinaryTraceFormat.TAG_STRING:
+                        byte[] bytes = new byte[readLength()];
+                        input.readFully(bytes);
+                        strings.add(new String(bytes, StandardCharsets.UTF_8));
+                        break;
+                    case BinaryTraceFormat.TAG_ENTRY:
+                        int count = readLength();
+                        Map<String, Object> entry = new HashMap<>();
+                        for (int i = 0; i < count; i++) {
+                            String key = readString();
+                            entry.put(key, readValue());
+                        }
+                        return entry;
+                    default:
+                        throw new IOException("Invalid binary trace record: " + tag);
+                }
+            } catch (EOFException e) {
+                /* The trace was cut off within this record, which is dropped. */
+                ended = true;
+            }
+        }
+        return null;
+    }
+
+    private Object readValue() throws IOException {
+        int kind = input.readUnsignedByte();
+        switch (kind) {
+            case BinaryTraceFormat.VALUE_NULL:
+                return null;
+            case BinaryTraceFormat.VALUE_STRING:
+                return readString();
+            case BinaryTraceFormat.VALUE_TRUE:
+                return Boolean.TRUE;
+            case BinaryTraceFormat.VALUE_FALSE:
+                return Boolean.FALSE;
+            case BinaryTraceFormat.VALUE_ARRAY:
+                int length = readLength();
+                List<Object> list = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    list.add(readValue());
+                }
+                return list;
+            default:
+                throw new IOException("Invalid binary trace value: " + kind);
+        }
+    }
+
+    private String readString() throws IOException {
+        int index = readLength();
+        if (index >= strings.size()) {
+            throw new IOException("Undefined string in binary trace: " + index);
+        }
+        return strings.get(index);
+    }
+
+    private int readLength() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = input.read();
+            if (b == -1) {
+                throw new EOFException();
+            }
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IOException("Invalid length in binary trace");
+    }
+}
@@ -24,8 +24,12 @@
  */
 package com.oracle.svm.configure.trace;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -70,6 +74,35 @@ public class TraceProcessor extends AbstractProcessor {
         processTrace(trace);
     }
 
+    /**
+     * Processes a trace in either the JSON or the {@link BinaryTraceFormat binary} format, which is
+     * detected from the first bytes. Binary traces are processed as a stream without reading them
+     * completely into memory first.
+     */
+    public void process(InputStream stream) throws IOException {
+        InputStream in = stream.markSupported() ? stream : new BufferedInputStream(stream);
+        in.mark(Integer.BYTES);
+        int magic = 0;
+        int n;
+        for (n = 0; n < Integer.BYTES; n++) {
+            int b = in.read();
+            if (b == -1) {
+                break;
+            }
+            magic = (magic << 8) | b;
+        }
+        in.reset();
+        if (n == Integer.BYTES && magic == BinaryTraceFormat.MAGIC) {
+            setInLivePhase(false);
+            BinaryTraceReader reader = new BinaryTraceReader(in);
+            for (Map<String, ?> entry = reader.next(); entry != null; entry = reader.next()) {
+                processEntry(entry);
+            }
+        } else {
+            process(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
     private void processTrace(List<Map<String, ?>> trace) {
         for (Map<String, ?> entry : trace) {
             processEntry(entry);
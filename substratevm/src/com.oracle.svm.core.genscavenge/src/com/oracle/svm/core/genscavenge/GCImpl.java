@@ -64,6 +64,8 @@ import com.oracle.svm.core.code.SimpleCodeInfoQueryResult;
 import com.oracle.svm.core.deopt.DeoptimizationSupport;
 import com.oracle.svm.core.deopt.DeoptimizedFrame;
 import com.oracle.svm.core.deopt.Deoptimizer;
+import com.oracle.svm.core.flightrecorder.FlightRecorder;
+import com.oracle.svm.core.flightrecorder.FlightRecorderEvents;
 import com.oracle.svm.core.heap.CodeReferenceMapDecoder;
 import com.oracle.svm.core.heap.GC;
 import com.oracle.svm.core.heap.GCCause;
@@ -71,6 +73,7 @@ import com.oracle.svm.core.heap.NoAllocationVerifier;
 import com.oracle.svm.core.heap.ObjectVisitor;
 import com.oracle.svm.core.heap.ReferenceHandler;
 import com.oracle.svm.core.heap.RuntimeCodeCacheCleaner;
+import com.oracle.svm.core.heapdump.HeapDumpSupportImpl;
 import com.oracle.svm.core.jdk.RuntimeSupport;
 import com.oracle.svm.core.log.Log;
 import com.oracle.svm.core.os.CommittedMemoryProvider;
@@ -138,6 +141,7 @@ public final class GCImpl implements GC {
         data.setRequestingEpoch(getCollectionEpoch());
         collectOperation.enqueue(data);
         if (data.getOutOfMemory()) {
+            HeapDumpSupportImpl.onOutOfMemoryError();
             throw oldGenerationSizeExceeded;
         }
     }
@@ -154,6 +158,8 @@ public final class GCImpl implements GC {
 
         timers.mutator.close();
         startCollectionOrExit();
+        long startTicks = System.nanoTime();
+        UnsignedWord usedBefore = FlightRecorder.isRecording() ? HeapImpl.getHeapImpl().getUsedChunkBytes() : WordFactory.zero();
 
         timers.resetAllExceptMutator();
         collectionEpoch = collectionEpoch.add(1);
@@ -165,6 +171,9 @@ public final class GCImpl implements GC {
         boolean outOfMemory = collectImpl(cause.getName());
         HeapPolicy.youngUsedBytes.set(getAccounting().getYoungChunkBytesAfter());
         printGCAfter(cause.getName());
+        if (FlightRecorder.isEnabled()) {
+            FlightRecorderEvents.emitGarbageCollection(startTicks, getCollectionEpoch(), cause.getId(), completeCollection, usedBefore, HeapImpl.getHeapImpl().getUsedChunkBytes());
+        }
 
         finishCollection();
         timers.mutator.open();
@@ -47,12 +47,15 @@ import org.graalvm.word.WordFactory;
 import com.oracle.svm.core.SubstrateOptions;
 import com.oracle.svm.core.annotate.RestrictHeapAccess;
 import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.flightrecorder.FlightRecorder;
+import com.oracle.svm.core.flightrecorder.FlightRecorderEvents;
 import com.oracle.svm.core.genscavenge.AlignedHeapChunk.AlignedHeader;
 import com.oracle.svm.core.genscavenge.UnalignedHeapChunk.UnalignedHeader;
 import com.oracle.svm.core.genscavenge.graal.nodes.FormatArrayNode;
 import com.oracle.svm.core.genscavenge.graal.nodes.FormatObjectNode;
 import com.oracle.svm.core.graal.snippets.DeoptTester;
 import com.oracle.svm.core.graal.snippets.SubstrateAllocationSnippets;
+import com.oracle.svm.core.heapdump.HeapDumpSupportImpl;
 import com.oracle.svm.core.hub.DynamicHub;
 import com.oracle.svm.core.hub.LayoutEncoding;
 import com.oracle.svm.core.log.Log;
@@ -168,6 +171,9 @@ public final class ThreadLocalAllocation {
 
             UnsignedWord size = LayoutEncoding.getInstanceSize(hub.getLayoutEncoding());
             Object result = allocateNewInstanceUninterruptibly(hub, tlab, rememberedSet, size, newChunk);
+            if (FlightRecorder.isEnabled()) {
+                FlightRecorderEvents.emitAllocationInNewTLAB(hub, size, HeapPolicy.getAlignedHeapChunkSize());
+            }
 
             log().string("  ThreadLocalAllocation.allocateNewInstance returns ").object(result).string(" .. ").hex(LayoutEncoding.getObjectEnd(result)).string("]").newline();
             return result;
@@ -229,14 +235,21 @@ public final class ThreadLocalAllocation {
                  * OutOfMemoryError if this object is allocated and survives.
                  */
                 if (size.aboveOrEqual(HeapPolicy.getMaximumHeapSize())) {
+                    HeapDumpSupportImpl.onOutOfMemoryError();
                     throw arrayAllocationTooLarge;
                 }
                 UnalignedHeapChunk.UnalignedHeader uChunk = HeapImpl.getChunkProvider().produceUnalignedChunk(size);
                 result = allocateLargeArray(hub, length, size, uChunk, tlab, rememberedSet);
+                if (FlightRecorder.isEnabled()) {
+                    FlightRecorderEvents.emitAllocationOutsideTLAB(hub, size);
+                }
             } else {
                 /* Small arrays go into the regular aligned chunk. */
                 AlignedHeader newChunk = prepareNewAllocationChunk(tlab);
                 result = allocateSmallArray(hub, length, size, tlab, rememberedSet, newChunk);
+                if (FlightRecorder.isEnabled()) {
+                    FlightRecorderEvents.emitAllocationInNewTLAB(hub, size, HeapPolicy.getAlignedHeapChunkSize());
+                }
             }
             log().string("  ThreadLocalAllocation.allocateNewArray returns ").object(result).string(" .. ").hex(LayoutEncoding.getObjectEnd(result)).string("]").newline();
             return result;
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.posix;
+
+import static com.oracle.svm.core.annotate.RestrictHeapAccess.Access.NO_ALLOCATION;
+
+import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.c.type.CCharPointer;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.SignedWord;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.CErrorNumber;
+import com.oracle.svm.core.VMInspection;
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.annotate.RestrictHeapAccess;
+import com.oracle.svm.core.heapdump.HeapDumpSupportImpl;
+import com.oracle.svm.core.posix.headers.Errno;
+import com.oracle.svm.core.posix.headers.Fcntl;
+import com.oracle.svm.core.posix.headers.Unistd;
+
+@AutomaticFeature
+class PosixHeapDumpSupportFeature implements Feature {
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return VMInspection.isEnabled();
+    }
+
+    @Override
+    public void afterRegistration(AfterRegistrationAccess access) {
+        ImageSingletons.add(HeapDumpSupportImpl.class, new PosixHeapDumpSupport());
+    }
+}
+
+/**
+ * Writes heap dumps with the plain file system calls. The calls do not transition to native code
+ * because they are made from a VM operation.
+ */
+class PosixHeapDumpSupport extends HeapDumpSupportImpl {
+    private static final int FILE_MODE = 0644;
+
+    @Override
+    @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Called while writing a heap dump.")
+    protected int openFile(CCharPointer path) {
+        return Fcntl.NoTransitions.open(path, Fcntl.O_WRONLY() | Fcntl.O_CREAT() | Fcntl.O_TRUNC(), FILE_MODE);
+    }
+
+    @Override
+    @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Called while writing a heap dump.")
+    protected boolean writeBytes(int fd, Pointer data, int size) {
+        Pointer position = data;
+        Pointer end = data.add(size);
+        while (position.belowThan(end)) {
+            SignedWord written = Unistd.NoTransitions.write(fd, position, end.subtract(position));
+            if (written.lessThan(0)) {
+                if (CErrorNumber.getCErrorNumber() == Errno.EINTR()) {
+                    continue;
+                }
+                return false;
+            }
+            position = position.add(WordFactory.unsigned(written.rawValue()));
+        }
+        return true;
+    }
+
+    @Override
+    @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Called while writing a heap dump.")
+    protected void closeFile(int fd) {
+        Unistd.NoTransitions.close(fd);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.posix;
+
+import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.IsolateThread;
+import org.graalvm.nativeimage.StackValue;
+import org.graalvm.nativeimage.c.function.CEntryPoint;
+import org.graalvm.nativeimage.c.function.CEntryPointLiteral;
+import org.graalvm.nativeimage.c.struct.SizeOf;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.annotate.RestrictHeapAccess;
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.c.CGlobalData;
+import com.oracle.svm.core.c.CGlobalDataFactory;
+import com.oracle.svm.core.c.function.CEntryPointOptions;
+import com.oracle.svm.core.c.function.CEntryPointOptions.NoEpilogue;
+import com.oracle.svm.core.c.function.CEntryPointOptions.NoPrologue;
+import com.oracle.svm.core.c.function.CEntryPointOptions.Publish;
+import com.oracle.svm.core.posix.headers.LibC;
+import com.oracle.svm.core.posix.headers.Pthread;
+import com.oracle.svm.core.posix.headers.Pthread.pthread_key_t;
+import com.oracle.svm.core.posix.headers.Pthread.pthread_key_tPointer;
+import com.oracle.svm.core.posix.headers.Signal;
+import com.oracle.svm.core.posix.headers.Signal.AdvancedSignalDispatcher;
+import com.oracle.svm.core.posix.headers.Signal.sigaction;
+import com.oracle.svm.core.posix.headers.Signal.siginfo_t;
+import com.oracle.svm.core.posix.headers.Signal.ucontext_t;
+import com.oracle.svm.core.posix.headers.Time;
+import com.oracle.svm.core.posix.headers.Time.itimerval;
+import com.oracle.svm.core.sampler.SubstrateSigprofHandler;
+
+@AutomaticFeature
+class PosixSubstrateSigprofHandlerFeature implements Feature {
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return SubstrateSigprofHandler.isEnabled();
+    }
+
+    @Override
+    public void afterRegistration(AfterRegistrationAccess access) {
+        ImageSingletons.add(SubstrateSigprofHandler.class, new PosixSubstrateSigprofHandler());
+    }
+}
+
+class PosixSubstrateSigprofHandler extends SubstrateSigprofHandler {
+    /**
+     * The pthread key of the thread-local variable that maps threads to their isolate thread, and
+     * a flag whether it was created yet. Both are stored outside of the image heap, so that the
+     * signal handler can read them before it has entered the isolate.
+     */
+    private static final CGlobalData<Pointer> threadLocalKey = CGlobalDataFactory.createWord();
+    private static final CGlobalData<Pointer> threadLocalKeyCreated = CGlobalDataFactory.createWord();
+
+    @CEntryPoint
+    @CEntryPointOptions(prologue = NoPrologue.class, epilogue = NoEpilogue.class, publishAs = Publish.NotPublished, include = CEntryPointOptions.NotIncludedAutomatically.class)
+    @RestrictHeapAccess(access = RestrictHeapAccess.Access.NO_ALLOCATION, reason = "Must not allocate in the signal handler.")
+    @Uninterruptible(reason = "The interrupted thread must not reach a safepoint check.")
+    private static void dispatch(@SuppressWarnings("unused") int signalNumber, @SuppressWarnings("unused") siginfo_t sigInfo, ucontext_t uContext) {
+        sample(uContext);
+    }
+
+    /** The address of the signal handler for SIGPROF, above. */
+    private static final CEntryPointLiteral<AdvancedSignalDispatcher> advancedSignalDispatcher = CEntryPointLiteral.create(PosixSubstrateSigprofHandler.class,
+                    "dispatch", int.class, siginfo_t.class, ucontext_t.class);
+
+    @Override
+    protected void install() {
+        int structSigActionSize = SizeOf.get(sigaction.class);
+        sigaction structSigAction = StackValue.get(structSigActionSize);
+        LibC.memset(structSigAction, WordFactory.signed(0), WordFactory.unsigned(structSigActionSize));
+        /* Register sa_sigaction signal handler, interrupted system calls are restarted. */
+        structSigAction.sa_flags(Signal.SA_SIGINFO() | Signal.SA_RESTART());
+        structSigAction.sa_sigaction(advancedSignalDispatcher.getFunctionPointer());
+        PosixUtils.checkStatusIs0(Signal.sigaction(Signal.SignalEnum.SIGPROF, structSigAction, WordFactory.nullPointer()), "sigaction(SIGPROF)");
+    }
+
+    @Override
+    protected void createThreadLocalKey() {
+        pthread_key_tPointer key = StackValue.get(pthread_key_tPointer.class);
+        PosixUtils.checkStatusIs0(Pthread.pthread_key_create(key, WordFactory.nullPointer()), "pthread_key_create");
+        threadLocalKey.get().writeWord(0, key.read());
+        threadLocalKeyCreated.get().writeInt(0, 1);
+    }
+
+    @Override
+    @Uninterruptible(reason = "Called from uninterruptible code.")
+    protected void setThreadLocal(IsolateThread thread) {
+        if (threadLocalKeyCreated.get().readInt(0) != 0) {
+            pthread_key_t key = threadLocalKey.get().readWord(0);
+            Pthread.pthread_setspecific(key, thread);
+        }
+    }
+
+    @Override
+    @Uninterruptible(reason = "Called from the signal handler.")
+    protected IsolateThread getThreadLocal() {
+        if (threadLocalKeyCreated.get().readInt(0) == 0) {
+            return WordFactory.nullPointer();
+        }
+        pthread_key_t key = threadLocalKey.get().readWord(0);
+        return (IsolateThread) Pthread.pthread_getspecific(key);
+    }
+
+    @Override
+    protected void updateTimer(int intervalMillis) {
+        itimerval newValue = StackValue.get(itimerval.class);
+        newValue.it_interval().set_tv_sec(intervalMillis / 1000);
+        newValue.it_interval().set_tv_usec((intervalMillis % 1000) * 1000);
+        newValue.it_value().set_tv_sec(intervalMillis / 1000);
+        newValue.it_value().set_tv_usec((intervalMillis % 1000) * 1000);
+        PosixUtils.checkStatusIs0(Time.setitimer(Time.ITIMER_PROF(), newValue, WordFactory.nullPointer()), "setitimer(ITIMER_PROF)");
+    }
+}
@@ -96,12 +96,14 @@ class AMD64UContextRegisterDumper implements UContextRegisterDumper {
     }
 
     @Override
+    @Uninterruptible(reason = "Called from uninterruptible code", mayBeInlined = true, calleeMustBe = false)
     public PointerBase getSP(ucontext_t uContext) {
         GregsPointer gregs = uContext.uc_mcontext_gregs();
         return WordFactory.pointer(gregs.read(GregEnum.REG_RSP.getCValue()));
     }
 
     @Override
+    @Uninterruptible(reason = "Called from uninterruptible code", mayBeInlined = true, calleeMustBe = false)
     public PointerBase getIP(ucontext_t uContext) {
         GregsPointer gregs = uContext.uc_mcontext_gregs();
         return WordFactory.pointer(gregs.read(GregEnum.REG_RIP.getCValue()));
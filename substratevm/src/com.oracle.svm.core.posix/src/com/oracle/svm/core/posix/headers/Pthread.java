@@ -62,6 +62,14 @@ public class Pthread {
     public interface pthread_attr_t extends PointerBase {
     }
 
+    public interface pthread_key_t extends UnsignedWord {
+    }
+
+    @CPointerTo(nameOfCType = "pthread_key_t")
+    public interface pthread_key_tPointer extends PointerBase {
+        pthread_key_t read();
+    }
+
     @CStruct
     public interface pthread_mutex_t extends PointerBase {
     }
@@ -158,4 +166,13 @@ public class Pthread {
 
     @CFunction
     public static native int pthread_kill(pthread_t thread, Signal.SignalEnum sig);
+
+    @CFunction(transition = Transition.NO_TRANSITION)
+    public static native int pthread_key_create(pthread_key_tPointer key, WordBase destructor);
+
+    @CFunction(transition = Transition.NO_TRANSITION)
+    public static native int pthread_setspecific(pthread_key_t key, PointerBase value);
+
+    @CFunction(transition = Transition.NO_TRANSITION)
+    public static native PointerBase pthread_getspecific(pthread_key_t key);
 }
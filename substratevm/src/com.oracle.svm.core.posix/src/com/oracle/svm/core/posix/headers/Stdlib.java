@@ -26,6 +26,7 @@ package com.oracle.svm.core.posix.headers;
 
 import org.graalvm.nativeimage.c.CContext;
 import org.graalvm.nativeimage.c.function.CFunction;
+import org.graalvm.nativeimage.c.function.CFunction.Transition;
 import org.graalvm.nativeimage.c.type.CCharPointer;
 
 // Checkstyle: stop
@@ -38,4 +39,9 @@ public class Stdlib {
 
     @CFunction
     public static native CCharPointer realpath(CCharPointer name, CCharPointer resolved);
+
+    public static class NoTransitions {
+        @CFunction(transition = Transition.NO_TRANSITION)
+        public static native int mkstemp(CCharPointer template);
+    }
 }
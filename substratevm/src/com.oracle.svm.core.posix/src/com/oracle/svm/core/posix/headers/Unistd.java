@@ -122,10 +122,16 @@ public class Unistd {
         @CFunction(transition = Transition.NO_TRANSITION)
         public static native SignedWord read(int fd, PointerBase buf, UnsignedWord nbytes);
 
+        @CFunction(transition = Transition.NO_TRANSITION)
+        public static native SignedWord write(int fd, PointerBase buf, UnsignedWord nbytes);
+
         @CFunction(transition = Transition.NO_TRANSITION)
         public static native long sysconf(int name);
 
         @CFunction(transition = Transition.NO_TRANSITION)
         public static native SignedWord lseek(int fd, SignedWord offset, int whence);
+
+        @CFunction(transition = Transition.NO_TRANSITION)
+        public static native int unlink(CCharPointer path);
     }
 }
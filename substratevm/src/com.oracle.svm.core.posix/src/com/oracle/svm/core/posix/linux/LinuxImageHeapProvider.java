@@ -54,6 +54,7 @@ import org.graalvm.word.SignedWord;
 import org.graalvm.word.UnsignedWord;
 import org.graalvm.word.WordFactory;
 
+import com.oracle.svm.core.SubstrateUtil;
 import com.oracle.svm.core.annotate.AutomaticFeature;
 import com.oracle.svm.core.annotate.Uninterruptible;
 import com.oracle.svm.core.c.CGlobalData;
@@ -67,6 +68,7 @@ import com.oracle.svm.core.os.VirtualMemoryProvider;
 import com.oracle.svm.core.os.VirtualMemoryProvider.Access;
 import com.oracle.svm.core.posix.PosixUtils;
 import com.oracle.svm.core.posix.headers.Fcntl;
+import com.oracle.svm.core.posix.headers.Stdlib;
 import com.oracle.svm.core.posix.headers.Unistd;
 import com.oracle.svm.core.util.PointerUtils;
 
@@ -95,12 +97,20 @@ class LinuxImageHeapProviderFeature implements Feature {
  *
  * The implementation avoids dirtying the pages of the original, and only referencing what is
  * strictly required.
+ *
+ * If the image file cannot be located or opened, for example because it has been replaced or
+ * deleted since the process started, a copy of the original heap is written once to an unlinked
+ * temporary file (preferably in memory-backed {@code /dev/shm}), which then takes the place of the
+ * image file. Isolates still share the physical pages of that copy until they modify them, instead
+ * of each isolate copying the entire image heap.
  */
 public class LinuxImageHeapProvider implements ImageHeapProvider {
     /** Magic value to verify that a located image file matches our loaded image. */
     public static final CGlobalData<Pointer> MAGIC = CGlobalDataFactory.createWord(WordFactory.<Word> signed(ThreadLocalRandom.current().nextLong()));
 
     private static final CGlobalData<CCharPointer> PROC_SELF_MAPS = CGlobalDataFactory.createCString("/proc/self/maps");
+    private static final CGlobalData<CCharPointer> SHM_IMAGE_HEAP_COPY_TEMPLATE = CGlobalDataFactory.createCString("/dev/shm/svm-image-heap-XXXXXX");
+    private static final CGlobalData<CCharPointer> TMP_IMAGE_HEAP_COPY_TEMPLATE = CGlobalDataFactory.createCString("/tmp/svm-image-heap-XXXXXX");
 
     private static final SignedWord FIRST_ISOLATE_FD = signed(-1);
     private static final SignedWord UNASSIGNED_FD = signed(-2);
@@ -151,6 +161,9 @@ public class LinuxImageHeapProvider implements ImageHeapProvider {
          */
         if (fd.equal(UNASSIGNED_FD) || firstIsolate) {
             int opened = openImageFile();
+            if (opened == CANNOT_OPEN_FD_VALUE) {
+                opened = createImageHeapCopy();
+            }
             MembarNode.memoryBarrier(MemoryBarriers.STORE_STORE);
             SignedWord previous = ((Pointer) CACHED_IMAGE_FD.get()).compareAndSwapWord(0, fd, signed(opened), LocationIdentity.ANY_LOCATION);
             if (previous.equal(fd)) {
@@ -163,7 +176,7 @@ public class LinuxImageHeapProvider implements ImageHeapProvider {
             }
         }
 
-        // If we cannot find or open the image file, fall back to copy it from memory.
+        // If we can neither open the image file nor create a copy, fall back to copy from memory.
         if (fd.equal(CANNOT_OPEN_FD)) {
             return fallbackCopyingProvider.initialize(reservedAddressSpace, reservedSize, basePointer, endPointer);
         }
@@ -318,6 +331,51 @@ public class LinuxImageHeapProvider implements ImageHeapProvider {
         return opened;
     }
 
+    /**
+     * Writes the loaded image heap to an unlinked temporary file that can be mapped instead of the
+     * image file. This must happen before the first isolate starts using the loaded image heap, so
+     * that the copy is pristine. A copy made by a thread that loses the race to cache its file
+     * descriptor is discarded.
+     */
+    @Uninterruptible(reason = "Called during isolate initialization.")
+    private static int createImageHeapCopy() {
+        int fd = createTemporaryFile(SHM_IMAGE_HEAP_COPY_TEMPLATE.get());
+        if (fd < 0) {
+            fd = createTemporaryFile(TMP_IMAGE_HEAP_COPY_TEMPLATE.get());
+            if (fd < 0) {
+                return CANNOT_OPEN_FD_VALUE;
+            }
+        }
+        Pointer imageHeapBegin = IMAGE_HEAP_BEGIN.get();
+        UnsignedWord imageHeapSize = ((Pointer) IMAGE_HEAP_END.get()).subtract(imageHeapBegin);
+        UnsignedWord written = WordFactory.zero();
+        while (written.belowThan(imageHeapSize)) {
+            SignedWord result = Unistd.NoTransitions.write(fd, imageHeapBegin.add(written), imageHeapSize.subtract(written));
+            if (result.lessOrEqual(0)) {
+                Unistd.NoTransitions.close(fd);
+                return CANNOT_OPEN_FD_VALUE;
+            }
+            written = written.add((UnsignedWord) result);
+        }
+        CACHED_IMAGE_HEAP_OFFSET.get().write(WordFactory.zero());
+        return fd;
+    }
+
+    @Uninterruptible(reason = "Called during isolate initialization.")
+    private static int createTemporaryFile(CCharPointer template) {
+        UnsignedWord length = SubstrateUtil.strlen(template).add(1);
+        CCharPointer path = StackValue.get(MAX_PATHLEN);
+        if (length.aboveThan(MAX_PATHLEN)) {
+            return -1;
+        }
+        memcpy(path, template, length);
+        int fd = Stdlib.NoTransitions.mkstemp(path);
+        if (fd >= 0) {
+            Unistd.NoTransitions.unlink(path);
+        }
+        return fd;
+    }
+
     @Override
     @Uninterruptible(reason = "Called during isolate tear-down.")
     public int freeImageHeap(PointerBase imageHeap) {
@@ -239,6 +239,15 @@ public final class CodeInfoAccess {
         CodeInfoDecoder.lookupCodeInfo(info, ip, codeInfoQueryResult);
     }
 
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    public static long lookupEncodedFrameSizeUninterruptibly(CodeInfo info, long ip) {
+        return CodeInfoDecoder.lookupEncodedFrameSizeUninterruptibly(info, ip);
+    }
+
+    public static FrameInfoQueryResult lookupEnclosingFrameInfo(CodeInfo info, long ip) {
+        return CodeInfoDecoder.lookupEnclosingFrameInfo(info, ip);
+    }
+
     @Uninterruptible(reason = "Nonmovable object arrays are not visible to GC until installed.")
     public static void setFrameInfo(CodeInfo info, NonmovableArray<Byte> encodings, NonmovableObjectArray<Object> objectConstants,
                     NonmovableObjectArray<Class<?>> sourceClasses, NonmovableObjectArray<String> sourceMethodNames, NonmovableObjectArray<String> names) {
@@ -30,14 +30,20 @@ import org.graalvm.compiler.api.replacements.Fold;
 import org.graalvm.compiler.core.common.util.TypeConversion;
 import org.graalvm.compiler.options.Option;
 import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
 
 import com.oracle.svm.core.annotate.AlwaysInline;
 import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.config.ConfigurationValues;
 import com.oracle.svm.core.option.HostedOptionKey;
 import com.oracle.svm.core.util.ByteArrayReader;
 import com.oracle.svm.core.util.Counter;
 import com.oracle.svm.core.util.NonmovableByteArrayReader;
 
+import jdk.vm.ci.meta.JavaKind;
+
 /**
  * Decodes the metadata for compiled code. The data is an encoded byte stream to make it as compact
  * as possible, but still allow fast constant time access.
@@ -136,6 +142,51 @@ public final class CodeInfoDecoder {
         codeInfoQueryResult.setReferenceMapIndex(CodeInfoQueryResult.NO_REFERENCE_MAP);
     }
 
+    /**
+     * Looks up the encoded frame size for the given relative {@code ip} without ever reaching a
+     * safepoint check, so that it can be used while the current thread is interrupted at an
+     * arbitrary instruction, e.g., from a signal handler. The {@code ip} does not need to be exactly
+     * at a call or safepoint. The lookup counters are not updated.
+     */
+    @Uninterruptible(reason = "Called from a signal handler that must not reach a safepoint check.")
+    static long lookupEncodedFrameSizeUninterruptibly(CodeInfo info, long ip) {
+        CodeInfoImpl impl = (CodeInfoImpl) info;
+        Pointer index = ((Pointer) impl.getCodeInfoIndex()).add(byteArrayBaseOffset());
+        Pointer encodings = ((Pointer) impl.getCodeInfoEncodings()).add(byteArrayBaseOffset());
+
+        /* Relative IPs are never negative, so a signed division is sufficient. */
+        long entryIP = (ip / indexGranularity()) * indexGranularity();
+        long entryOffset = index.readInt(WordFactory.unsigned((ip / indexGranularity()) * Integer.BYTES)) & 0xFFFFFFFFL;
+        long sizeEncoding = initialSizeEncoding();
+        do {
+            int entryFlags = encodings.readByte(WordFactory.unsigned(entryOffset)) & 0xFF;
+            UnsignedWord sizeOffset = WordFactory.unsigned(entryOffset + FS_OFFSET);
+            switch (extractFS(entryFlags)) {
+                case FS_SIZE_S1:
+                    sizeEncoding = encodings.readByte(sizeOffset);
+                    break;
+                case FS_SIZE_S2:
+                    sizeEncoding = encodings.readShort(sizeOffset);
+                    break;
+                case FS_SIZE_S4:
+                    sizeEncoding = encodings.readInt(sizeOffset);
+                    break;
+                default:
+                    /* FS_NO_CHANGE: the frame size of the previous entry still applies. */
+                    break;
+            }
+
+            int deltaIP = encodings.readByte(WordFactory.unsigned(entryOffset + IP_OFFSET)) & 0xFF;
+            if (deltaIP == DELTA_END_OF_TABLE) {
+                break;
+            }
+            entryIP += deltaIP;
+            entryOffset += MEM_SIZE[entryFlags] & 0xFF;
+        } while (entryIP <= ip);
+
+        return sizeEncoding;
+    }
+
     static long lookupDeoptimizationEntrypoint(CodeInfo info, long method, long encodedBci, CodeInfoQueryResult codeInfo) {
 
         long sizeEncoding = initialSizeEncoding();
@@ -183,6 +234,38 @@ public final class CodeInfoDecoder {
         return -1;
     }
 
+    /**
+     * Returns the frame information of the first entry at or after {@code ip} that has frame
+     * information and belongs to the same method, or {@code null} if there is none. Unlike
+     * {@link #lookupCodeInfo}, the {@code ip} does not need to be exactly at a call or safepoint.
+     * The outermost {@link FrameInfoQueryResult#getCaller() caller} of the result is the method
+     * that contains {@code ip}.
+     */
+    static FrameInfoQueryResult lookupEnclosingFrameInfo(CodeInfo info, long ip) {
+        long sizeEncoding = initialSizeEncoding();
+        long entryIP = lookupEntryIP(ip);
+        long entryOffset = loadEntryOffset(info, ip);
+        do {
+            int entryFlags = loadEntryFlags(info, entryOffset);
+            sizeEncoding = updateSizeEncoding(info, entryOffset, entryFlags, sizeEncoding);
+            if (entryIP > ip && decodeMethodStart(entryFlags, sizeEncoding)) {
+                /* Advanced to the next method. */
+                return null;
+            }
+            if (entryIP >= ip) {
+                FrameInfoQueryResult frameInfo = loadFrameInfo(info, entryOffset, entryFlags);
+                if (frameInfo != null) {
+                    return frameInfo;
+                }
+            }
+
+            entryIP = advanceIP(info, entryOffset, entryIP);
+            entryOffset = advanceOffset(entryOffset, entryFlags);
+        } while (!endOfTable(entryIP));
+
+        return null;
+    }
+
     static long lookupStackReferenceMapIndex(CodeInfo info, long ip) {
         long entryIP = lookupEntryIP(ip);
         long entryOffset = loadEntryOffset(info, ip);
@@ -199,6 +282,7 @@ public final class CodeInfoDecoder {
         return CodeInfoQueryResult.NO_REFERENCE_MAP;
     }
 
+    @Fold
     static long indexGranularity() {
         return Options.CodeInfoIndexGranularity.getValue();
     }
@@ -221,6 +305,7 @@ public final class CodeInfoDecoder {
 
     private static final int INVALID_SIZE_ENCODING = 0;
 
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     private static int initialSizeEncoding() {
         return INVALID_SIZE_ENCODING;
     }
@@ -440,6 +525,7 @@ public final class CodeInfoDecoder {
         }
     }
 
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     static int extractFS(int entryFlags) {
         return (entryFlags & FS_MASK_IN_PLACE) >> FS_SHIFT;
     }
@@ -486,6 +572,11 @@ public final class CodeInfoDecoder {
         return entryOffset + ByteArrayReader.getU1(MEM_SIZE, entryFlags);
     }
 
+    @Fold
+    static int byteArrayBaseOffset() {
+        return ConfigurationValues.getObjectLayout().getArrayBaseOffset(JavaKind.Byte);
+    }
+
     @Fold
     static CodeInfoDecoderCounters counters() {
         return ImageSingletons.lookup(CodeInfoDecoderCounters.class);
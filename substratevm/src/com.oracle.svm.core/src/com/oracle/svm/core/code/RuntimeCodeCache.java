@@ -79,9 +79,23 @@ public class RuntimeCodeCache {
     static final String INFO_ADD = "Add";
     static final String INFO_INVALIDATE = "Invalidate";
 
-    private static final int INITIAL_TABLE_SIZE = 100;
+    /**
+     * The maximum number of methods per segment. Adding or removing a method only moves the entries
+     * of one segment, so the cost of a modification within the safepoint does not grow with the
+     * number of methods.
+     */
+    private static final int SEGMENT_CAPACITY = 256;
+    private static final int INITIAL_SEGMENTS_TABLE_SIZE = 8;
 
-    private NonmovableArray<UntetheredCodeInfo> codeInfos;
+    /**
+     * The code cache is a sorted table of methods that is split into segments. Each segment is a
+     * sorted array of {@link #SEGMENT_CAPACITY} entries, of which the first
+     * {@link #segmentSizes}[i] are used, and no segment is empty. The segments are sorted by the
+     * code start of their first method and cover disjoint ranges of addresses.
+     */
+    private NonmovableArray<NonmovableArray<UntetheredCodeInfo>> segments;
+    private NonmovableArray<Integer> segmentSizes;
+    private int numSegments;
     private int numCodeInfos;
 
     @Platforms(Platform.HOSTED_ONLY.class)
@@ -91,8 +105,15 @@ public class RuntimeCodeCache {
     /** Tear down the heap, return all allocated virtual memory chunks to VirtualMemoryProvider. */
     @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
     public final void tearDown() {
-        NonmovableArrays.releaseUnmanagedArray(codeInfos);
-        codeInfos = NonmovableArrays.nullArray();
+        for (int i = 0; i < numSegments; i++) {
+            NonmovableArrays.releaseUnmanagedArray(NonmovableArrays.getWord(segments, i));
+        }
+        NonmovableArrays.releaseUnmanagedArray(segments);
+        NonmovableArrays.releaseUnmanagedArray(segmentSizes);
+        segments = NonmovableArrays.nullArray();
+        segmentSizes = NonmovableArrays.nullArray();
+        numSegments = 0;
+        numCodeInfos = 0;
 
         // releases all CodeInfos from our table too
         RuntimeCodeInfoMemory.singleton().tearDown();
@@ -100,34 +121,33 @@ public class RuntimeCodeCache {
 
     /**
      * Looking up a method is lock-free: it is called frequently during stack walking, so locking or
-     * even a {@link VMOperation} would be too slow. The lookup must access the {@link #codeInfos}
-     * array, which is modified non-atomically when adding or removing methods. All modifications
+     * even a {@link VMOperation} would be too slow. The lookup must access the {@link #segments}
+     * arrays, which are modified non-atomically when adding or removing methods. All modifications
      * are done from within a {@link VMOperation}. Making this method {@link Uninterruptible}
-     * ensures that we see one consistent snapshot of the array, without the possibility for a
-     * concurrent modification.
+     * ensures that we see one consistent snapshot of the arrays, without the possibility for a
+     * concurrent modification. The safepoints of modifications thereby also act as the epochs after
+     * which the memory of removed entries and segments can be reclaimed.
      */
-    @Uninterruptible(reason = "codeInfos is accessed without holding a lock, so must not be interrupted by a safepoint that can add/remove code", callerMustBe = true)
+    @Uninterruptible(reason = "segments are accessed without holding a lock, so must not be interrupted by a safepoint that can add/remove code", callerMustBe = true)
     protected UntetheredCodeInfo lookupCodeInfo(CodePointer ip) {
         lookupMethodCount.inc();
         assert verifyTable();
-        if (numCodeInfos == 0) {
+        int segmentIdx = findSegment(ip);
+        if (segmentIdx < 0) {
+            /* No methods, or ip is below the first method, so no hit. */
             return WordFactory.nullPointer();
         }
 
-        int idx = binarySearch(codeInfos, 0, numCodeInfos, ip);
+        NonmovableArray<UntetheredCodeInfo> segment = NonmovableArrays.getWord(segments, segmentIdx);
+        int idx = binarySearch(segment, 0, NonmovableArrays.getInt(segmentSizes, segmentIdx), ip);
         if (idx >= 0) {
             /* Exact hit, ip is the begin of the method. */
-            return NonmovableArrays.getWord(codeInfos, idx);
+            return NonmovableArrays.getWord(segment, idx);
         }
 
         int insertionPoint = -idx - 1;
-        if (insertionPoint == 0) {
-            /* ip is below the first method, so no hit. */
-            assert ((UnsignedWord) ip).belowThan((UnsignedWord) UntetheredCodeInfoAccess.getCodeStart(NonmovableArrays.getWord(codeInfos, 0)));
-            return WordFactory.nullPointer();
-        }
-
-        UntetheredCodeInfo info = NonmovableArrays.getWord(codeInfos, insertionPoint - 1);
+        assert insertionPoint > 0 : "the first method of the segment starts at or below ip";
+        UntetheredCodeInfo info = NonmovableArrays.getWord(segment, insertionPoint - 1);
         assert ((UnsignedWord) ip).aboveThan((UnsignedWord) UntetheredCodeInfoAccess.getCodeStart(info));
         if (((UnsignedWord) ip).subtract((UnsignedWord) UntetheredCodeInfoAccess.getCodeStart(info)).aboveOrEqual(UntetheredCodeInfoAccess.getCodeSize(info))) {
             /* ip is not within the range of a method. */
@@ -137,6 +157,28 @@ public class RuntimeCodeCache {
         return info;
     }
 
+    /**
+     * Returns the index of the last segment whose first method starts at or below {@code ip}, or -1
+     * if there is no such segment. All segments must be non-empty, which is ensured by removing
+     * segments as soon as their last method is removed.
+     */
+    @Uninterruptible(reason = "called from uninterruptible code")
+    private int findSegment(CodePointer ip) {
+        int low = 0;
+        int high = numSegments - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            assert NonmovableArrays.getInt(segmentSizes, mid) > 0 : "must not search empty segments";
+            CodePointer midVal = UntetheredCodeInfoAccess.getCodeStart(NonmovableArrays.getWord(NonmovableArrays.getWord(segments, mid), 0));
+            if (((UnsignedWord) midVal).belowOrEqual((UnsignedWord) ip)) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low - 1;
+    }
+
     /* Copied and adapted from Arrays.binarySearch. */
     @Uninterruptible(reason = "called from uninterruptible code")
     private static int binarySearch(NonmovableArray<UntetheredCodeInfo> a, int fromIndex, int toIndex, CodePointer key) {
@@ -175,18 +217,34 @@ public class RuntimeCodeCache {
             Log.log().string("]").newline();
         }
 
-        if (codeInfos.isNull() || numCodeInfos >= NonmovableArrays.lengthOf(codeInfos)) {
-            enlargeTable();
-            assert verifyTable();
+        CodePointer codeStart = CodeInfoAccess.getCodeStart(info);
+        int segmentIdx;
+        if (numSegments == 0) {
+            /* The new segment is still empty, so it must not be searched by findSegment. */
+            insertSegment(0, NonmovableArrays.createWordArray(SEGMENT_CAPACITY), 0);
+            segmentIdx = 0;
+        } else {
+            /* Code below the first method goes into the first segment. */
+            segmentIdx = Math.max(findSegment(codeStart), 0);
+        }
+        if (NonmovableArrays.getInt(segmentSizes, segmentIdx) == SEGMENT_CAPACITY) {
+            splitSegment(segmentIdx);
+            NonmovableArray<UntetheredCodeInfo> upper = NonmovableArrays.getWord(segments, segmentIdx + 1);
+            if (((UnsignedWord) UntetheredCodeInfoAccess.getCodeStart(NonmovableArrays.getWord(upper, 0))).belowThan((UnsignedWord) codeStart)) {
+                segmentIdx++;
+            }
         }
-        assert numCodeInfos < NonmovableArrays.lengthOf(codeInfos);
 
-        int idx = binarySearch(codeInfos, 0, numCodeInfos, CodeInfoAccess.getCodeStart(info));
+        NonmovableArray<UntetheredCodeInfo> segment = NonmovableArrays.getWord(segments, segmentIdx);
+        int segmentSize = NonmovableArrays.getInt(segmentSizes, segmentIdx);
+        assert segmentSize < SEGMENT_CAPACITY;
+        int idx = binarySearch(segment, 0, segmentSize, codeStart);
         assert idx < 0 : "must not find code already in table";
         int insertionPoint = -idx - 1;
-        NonmovableArrays.arraycopy(codeInfos, insertionPoint, codeInfos, insertionPoint + 1, numCodeInfos - insertionPoint);
+        NonmovableArrays.arraycopy(segment, insertionPoint, segment, insertionPoint + 1, segmentSize - insertionPoint);
+        NonmovableArrays.setWord(segment, insertionPoint, info);
+        NonmovableArrays.setInt(segmentSizes, segmentIdx, segmentSize + 1);
         numCodeInfos++;
-        NonmovableArrays.setWord(codeInfos, insertionPoint, info);
 
         if (Options.TraceCodeCache.getValue()) {
             logTable();
@@ -194,17 +252,52 @@ public class RuntimeCodeCache {
         assert verifyTable();
     }
 
-    private void enlargeTable() {
-        int newTableSize = numCodeInfos * 2;
-        if (newTableSize < INITIAL_TABLE_SIZE) {
-            newTableSize = INITIAL_TABLE_SIZE;
+    /** Moves the upper half of a full segment into a new segment that directly follows it. */
+    private void splitSegment(int segmentIdx) {
+        NonmovableArray<UntetheredCodeInfo> segment = NonmovableArrays.getWord(segments, segmentIdx);
+        int lowerSize = SEGMENT_CAPACITY / 2;
+        int upperSize = SEGMENT_CAPACITY - lowerSize;
+        NonmovableArray<UntetheredCodeInfo> upper = NonmovableArrays.createWordArray(SEGMENT_CAPACITY);
+        NonmovableArrays.arraycopy(segment, lowerSize, upper, 0, upperSize);
+        for (int i = lowerSize; i < SEGMENT_CAPACITY; i++) {
+            NonmovableArrays.setWord(segment, i, WordFactory.nullPointer());
         }
-        NonmovableArray<UntetheredCodeInfo> newCodeInfos = NonmovableArrays.createWordArray(newTableSize);
-        if (codeInfos.isNonNull()) {
-            NonmovableArrays.arraycopy(codeInfos, 0, newCodeInfos, 0, NonmovableArrays.lengthOf(codeInfos));
-            NonmovableArrays.releaseUnmanagedArray(codeInfos);
+        NonmovableArrays.setInt(segmentSizes, segmentIdx, lowerSize);
+        insertSegment(segmentIdx + 1, upper, upperSize);
+    }
+
+    private void insertSegment(int segmentIdx, NonmovableArray<UntetheredCodeInfo> segment, int size) {
+        if (segments.isNull() || numSegments == NonmovableArrays.lengthOf(segments)) {
+            enlargeSegmentsTable();
         }
-        codeInfos = newCodeInfos;
+        NonmovableArrays.arraycopy(segments, segmentIdx, segments, segmentIdx + 1, numSegments - segmentIdx);
+        NonmovableArrays.arraycopy(segmentSizes, segmentIdx, segmentSizes, segmentIdx + 1, numSegments - segmentIdx);
+        NonmovableArrays.setWord(segments, segmentIdx, segment);
+        NonmovableArrays.setInt(segmentSizes, segmentIdx, size);
+        numSegments++;
+    }
+
+    private void removeSegment(int segmentIdx) {
+        NonmovableArrays.releaseUnmanagedArray(NonmovableArrays.getWord(segments, segmentIdx));
+        NonmovableArrays.arraycopy(segments, segmentIdx + 1, segments, segmentIdx, numSegments - (segmentIdx + 1));
+        NonmovableArrays.arraycopy(segmentSizes, segmentIdx + 1, segmentSizes, segmentIdx, numSegments - (segmentIdx + 1));
+        numSegments--;
+        NonmovableArrays.setWord(segments, numSegments, WordFactory.nullPointer());
+        NonmovableArrays.setInt(segmentSizes, numSegments, 0);
+    }
+
+    private void enlargeSegmentsTable() {
+        int newTableSize = Math.max(numSegments * 2, INITIAL_SEGMENTS_TABLE_SIZE);
+        NonmovableArray<NonmovableArray<UntetheredCodeInfo>> newSegments = NonmovableArrays.createWordArray(newTableSize);
+        NonmovableArray<Integer> newSegmentSizes = NonmovableArrays.createIntArray(newTableSize);
+        if (segments.isNonNull()) {
+            NonmovableArrays.arraycopy(segments, 0, newSegments, 0, numSegments);
+            NonmovableArrays.arraycopy(segmentSizes, 0, newSegmentSizes, 0, numSegments);
+            NonmovableArrays.releaseUnmanagedArray(segments);
+            NonmovableArrays.releaseUnmanagedArray(segmentSizes);
+        }
+        segments = newSegments;
+        segmentSizes = newSegmentSizes;
     }
 
     protected void invalidateMethod(CodeInfo info) {
@@ -255,11 +348,21 @@ public class RuntimeCodeCache {
          */
 
         /* Remove info entry from our table. */
-        int idx = binarySearch(codeInfos, 0, numCodeInfos, CodeInfoAccess.getCodeStart(info));
+        CodePointer codeStart = CodeInfoAccess.getCodeStart(info);
+        int segmentIdx = findSegment(codeStart);
+        assert segmentIdx >= 0 : "info must be in table";
+        NonmovableArray<UntetheredCodeInfo> segment = NonmovableArrays.getWord(segments, segmentIdx);
+        int segmentSize = NonmovableArrays.getInt(segmentSizes, segmentIdx);
+        int idx = binarySearch(segment, 0, segmentSize, codeStart);
         assert idx >= 0 : "info must be in table";
-        NonmovableArrays.arraycopy(codeInfos, idx + 1, codeInfos, idx, numCodeInfos - (idx + 1));
+        NonmovableArrays.arraycopy(segment, idx + 1, segment, idx, segmentSize - (idx + 1));
+        segmentSize--;
+        NonmovableArrays.setWord(segment, segmentSize, WordFactory.nullPointer());
+        NonmovableArrays.setInt(segmentSizes, segmentIdx, segmentSize);
         numCodeInfos--;
-        NonmovableArrays.setWord(codeInfos, numCodeInfos, WordFactory.nullPointer());
+        if (segmentSize == 0) {
+            removeSegment(segmentIdx);
+        }
 
         RuntimeCodeInfoAccess.partialReleaseAfterInvalidate(info, notifyGC);
 
@@ -271,24 +374,35 @@ public class RuntimeCodeCache {
 
     @Uninterruptible(reason = "called from uninterruptible code")
     private boolean verifyTable() {
-        if (codeInfos.isNull()) {
-            assert numCodeInfos == 0 : "a1";
+        if (segments.isNull()) {
+            assert numSegments == 0 && numCodeInfos == 0 : "a1";
             return true;
         }
 
-        assert numCodeInfos <= NonmovableArrays.lengthOf(codeInfos) : "a11";
-
-        for (int i = 0; i < numCodeInfos; i++) {
-            UntetheredCodeInfo info = NonmovableArrays.getWord(codeInfos, i);
-            assert info.isNonNull() : "a20";
-            assert i == 0 || ((UnsignedWord) UntetheredCodeInfoAccess.getCodeStart(NonmovableArrays.getWord(codeInfos, i - 1)))
-                            .belowThan((UnsignedWord) UntetheredCodeInfoAccess.getCodeStart(NonmovableArrays.getWord(codeInfos, i))) : "a22";
-            assert i == 0 || ((UnsignedWord) UntetheredCodeInfoAccess.getCodeEnd(NonmovableArrays.getWord(codeInfos, i - 1)))
-                            .belowOrEqual((UnsignedWord) UntetheredCodeInfoAccess.getCodeStart(info)) : "a23";
+        assert numSegments <= NonmovableArrays.lengthOf(segments) : "a11";
+
+        int total = 0;
+        UntetheredCodeInfo prev = WordFactory.nullPointer();
+        for (int s = 0; s < numSegments; s++) {
+            NonmovableArray<UntetheredCodeInfo> segment = NonmovableArrays.getWord(segments, s);
+            int segmentSize = NonmovableArrays.getInt(segmentSizes, s);
+            assert segment.isNonNull() && segmentSize > 0 && segmentSize <= SEGMENT_CAPACITY : "a12";
+            for (int i = 0; i < segmentSize; i++) {
+                UntetheredCodeInfo info = NonmovableArrays.getWord(segment, i);
+                assert info.isNonNull() : "a20";
+                assert prev.isNull() || ((UnsignedWord) UntetheredCodeInfoAccess.getCodeStart(prev)).belowThan((UnsignedWord) UntetheredCodeInfoAccess.getCodeStart(info)) : "a22";
+                assert prev.isNull() || ((UnsignedWord) UntetheredCodeInfoAccess.getCodeEnd(prev)).belowOrEqual((UnsignedWord) UntetheredCodeInfoAccess.getCodeStart(info)) : "a23";
+                prev = info;
+            }
+            for (int i = segmentSize; i < SEGMENT_CAPACITY; i++) {
+                assert NonmovableArrays.getWord(segment, i).isNull() : "a31";
+            }
+            total += segmentSize;
         }
+        assert total == numCodeInfos : "a32";
 
-        for (int i = numCodeInfos; i < NonmovableArrays.lengthOf(codeInfos); i++) {
-            assert NonmovableArrays.getWord(codeInfos, i).isNull() : "a31";
+        for (int s = numSegments; s < NonmovableArrays.lengthOf(segments); s++) {
+            assert NonmovableArrays.getWord(segments, s).isNull() : "a33";
         }
         return true;
     }
@@ -306,16 +420,18 @@ public class RuntimeCodeCache {
     }
 
     public void logTable(Log log) {
-        log.string("== [RuntimeCodeCache: ").signed(numCodeInfos).string(" methods");
-        for (int i = 0; i < numCodeInfos; i++) {
-            logCodeInfo(log, i);
+        log.string("== [RuntimeCodeCache: ").signed(numCodeInfos).string(" methods in ").signed(numSegments).string(" segments");
+        for (int s = 0; s < numSegments; s++) {
+            for (int i = 0; i < NonmovableArrays.getInt(segmentSizes, s); i++) {
+                logCodeInfo(log, s, i);
+            }
         }
         log.string("]").newline();
     }
 
     @Uninterruptible(reason = "Must prevent the GC from freeing the CodeInfo object.")
-    private void logCodeInfo(Log log, int i) {
-        UntetheredCodeInfo untetheredInfo = NonmovableArrays.getWord(codeInfos, i);
+    private void logCodeInfo(Log log, int segmentIdx, int i) {
+        UntetheredCodeInfo untetheredInfo = NonmovableArrays.getWord(NonmovableArrays.getWord(segments, segmentIdx), i);
         Object tether = CodeInfoAccess.acquireTether(untetheredInfo);
         try {
             CodeInfo info = CodeInfoAccess.convert(untetheredInfo, tether);
@@ -359,16 +475,18 @@ public class RuntimeCodeCache {
     public boolean walkRuntimeMethods(MemoryWalker.Visitor visitor) {
         VMOperation.guaranteeInProgress("Modifying code tables that are used by the GC");
         boolean continueVisiting = true;
-        for (int i = 0; (continueVisiting && (i < numCodeInfos)); i += 1) {
-            continueVisiting = walkRuntimeMethod(visitor, i);
+        for (int s = 0; continueVisiting && s < numSegments; s++) {
+            for (int i = 0; (continueVisiting && (i < NonmovableArrays.getInt(segmentSizes, s))); i += 1) {
+                continueVisiting = walkRuntimeMethod(visitor, s, i);
+            }
         }
         return continueVisiting;
     }
 
     @Uninterruptible(reason = "Must prevent the GC from freeing the CodeInfo object.")
-    private boolean walkRuntimeMethod(MemoryWalker.Visitor visitor, int i) {
+    private boolean walkRuntimeMethod(MemoryWalker.Visitor visitor, int segmentIdx, int i) {
         boolean continueVisiting;
-        UntetheredCodeInfo untetheredInfo = NonmovableArrays.getWord(codeInfos, i);
+        UntetheredCodeInfo untetheredInfo = NonmovableArrays.getWord(NonmovableArrays.getWord(segments, segmentIdx), i);
         Object tether = CodeInfoAccess.acquireTether(untetheredInfo);
         try {
             CodeInfo codeInfo = CodeInfoAccess.convert(untetheredInfo, tether);
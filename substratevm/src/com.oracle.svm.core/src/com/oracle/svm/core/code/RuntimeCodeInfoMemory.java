@@ -28,6 +28,8 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import org.graalvm.compiler.api.replacements.Fold;
 import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
 import org.graalvm.nativeimage.hosted.Feature;
 import org.graalvm.word.WordFactory;
 
@@ -45,12 +47,17 @@ import com.oracle.svm.core.util.VMError;
  * Keeps track of {@link CodeInfo} structures of runtime-compiled methods (including invalidated and
  * not yet freed ones) and releases their memory on tear-down.
  * <p>
- * Implementation: linear probing hash table adapted from OpenJDK {@link java.util.IdentityHashMap}.
+ * Implementation: the structures are distributed by address over a fixed number of segments, each
+ * a linear probing hash table adapted from OpenJDK {@link java.util.IdentityHashMap} with its own
+ * lock. Threads that install code concurrently, e.g., multiple compiler threads, therefore rarely
+ * contend for the same lock.
  * <p>
  * All methods in here need to be either uninterruptible or it must be ensured that they are only
  * called by the GC. This is necessary because the GC can invalidate code as well. So, it must be
  * guaranteed that none of these methods is executed when a GC is triggered as we would end up with
- * races between the application and the GC otherwise.
+ * races between the application and the GC otherwise. The GC removes entries without locking
+ * because it runs at a safepoint, when no other thread can be in an uninterruptible method of this
+ * class.
  */
 public class RuntimeCodeInfoMemory {
     @Fold
@@ -58,148 +65,213 @@ public class RuntimeCodeInfoMemory {
         return ImageSingletons.lookup(RuntimeCodeInfoMemory.class);
     }
 
-    private final ReentrantLock lock = new ReentrantLock();
-    private NonmovableArray<UntetheredCodeInfo> table;
-    private int count = 0;
+    private static final int SEGMENT_COUNT = 16;
+    /** CodeInfo structures are allocated with at least this alignment, see {@link #segmentFor}. */
+    private static final int SEGMENT_SELECTOR_SHIFT = 4;
+
+    private final Segment[] segments;
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    RuntimeCodeInfoMemory() {
+        assert SubstrateUtil.isPowerOf2(SEGMENT_COUNT);
+        segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    private Segment segmentFor(UntetheredCodeInfo info) {
+        return segments[(int) (info.rawValue() >>> SEGMENT_SELECTOR_SHIFT) & (SEGMENT_COUNT - 1)];
+    }
 
     public void add(CodeInfo info) {
         // It is fine that this method is interruptible as all the relevant work is done in the
         // uninterruptible method that is called below.
         assert !Heap.getHeap().isAllocationDisallowed();
         assert info.isNonNull();
-        lock.lock();
+        Segment segment = segmentFor(info);
+        segment.lock.lock();
         try {
-            add0(info);
+            segment.add0(info);
         } finally {
-            lock.unlock();
+            segment.lock.unlock();
         }
     }
 
     public boolean remove(CodeInfo info) {
         assert !VMOperation.isGCInProgress() : "Must call removeDuringGC";
         assert info.isNonNull();
-        lock.lock();
+        Segment segment = segmentFor(info);
+        segment.lock.lock();
         try {
-            return remove0(info);
+            return segment.remove0(info);
         } finally {
-            lock.unlock();
+            segment.lock.unlock();
         }
     }
 
     public boolean removeDuringGC(CodeInfo info) {
         assert VMOperation.isGCInProgress() : "Otherwise, we would need to protect the CodeInfo from the GC.";
         assert info.isNonNull();
-        return remove0(info);
+        return segmentFor(info).remove0(info);
     }
 
-    @Uninterruptible(reason = "Manipulate walkers list atomically with regard to GC.")
-    private void add0(CodeInfo info) {
-        if (table.isNull()) {
-            table = NonmovableArrays.createWordArray(32);
+    public boolean walkRuntimeMethods(CodeInfoVisitor visitor) {
+        assert VMOperation.isGCInProgress() : "otherwise, we would need to make sure that the CodeInfo is not freeded by the GC";
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i].walkRuntimeMethods(visitor);
         }
-        int index;
-        boolean resized;
-        do {
-            int length = NonmovableArrays.lengthOf(table);
-            index = hashIndex(info, length);
-            while (NonmovableArrays.getWord(table, index).isNonNull()) {
-                assert NonmovableArrays.getWord(table, index).notEqual(info) : "Duplicate CodeInfo";
-                index = nextIndex(index, length);
-            }
-            resized = false;
-            int newCount = count + 1;
-            if (newCount + (newCount << 1) > (length << 1)) { // enforce 3/4 load factor
-                resized = resize(length << 1);
-            }
-        } while (resized);
-        NonmovableArrays.setWord(table, index, info);
-        count++;
+        return true;
     }
 
     @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
-    private boolean resize(int newLength) {
-        assert SubstrateUtil.isPowerOf2(newLength);
-        final int maxLength = 1 << 30;
-        int oldLength = NonmovableArrays.lengthOf(table);
-        if (oldLength == maxLength) {
-            VMError.guarantee(count < maxLength - 1, "Maximum capacity exhausted");
-            return false;
+    public void tearDown() {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i].tearDown();
         }
-        if (oldLength >= newLength) {
-            return false;
+    }
+
+    private static final class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private NonmovableArray<UntetheredCodeInfo> table;
+        private int count = 0;
+
+        @Platforms(Platform.HOSTED_ONLY.class)
+        Segment() {
         }
-        NonmovableArray<UntetheredCodeInfo> oldTable = table;
-        table = NonmovableArrays.createWordArray(newLength);
-        for (int i = 0; i < oldLength; i++) {
-            UntetheredCodeInfo tag = NonmovableArrays.getWord(oldTable, i);
-            if (tag.isNonNull()) {
-                NonmovableArrays.setWord(oldTable, i, WordFactory.zero());
-                int u = hashIndex(tag, newLength);
-                while (NonmovableArrays.getWord(table, u).isNonNull()) {
-                    u = nextIndex(u, newLength);
-                }
-                NonmovableArrays.setWord(table, u, tag);
+
+        @Uninterruptible(reason = "Manipulate walkers list atomically with regard to GC.")
+        private void add0(CodeInfo info) {
+            if (table.isNull()) {
+                table = NonmovableArrays.createWordArray(32);
             }
+            int index;
+            boolean resized;
+            do {
+                int length = NonmovableArrays.lengthOf(table);
+                index = hashIndex(info, length);
+                while (NonmovableArrays.getWord(table, index).isNonNull()) {
+                    assert NonmovableArrays.getWord(table, index).notEqual(info) : "Duplicate CodeInfo";
+                    index = nextIndex(index, length);
+                }
+                resized = false;
+                int newCount = count + 1;
+                if (newCount + (newCount << 1) > (length << 1)) { // enforce 3/4 load factor
+                    resized = resize(length << 1);
+                }
+            } while (resized);
+            NonmovableArrays.setWord(table, index, info);
+            count++;
         }
-        NonmovableArrays.releaseUnmanagedArray(oldTable);
-        return true;
-    }
 
-    @Uninterruptible(reason = "Manipulate walkers list atomically with regard to GC.")
-    private boolean remove0(CodeInfo info) {
-        int length = NonmovableArrays.lengthOf(table);
-        int index = hashIndex(info, length);
-        UntetheredCodeInfo entry = NonmovableArrays.getWord(table, index);
-        while (entry.isNonNull()) {
-            if (entry.equal(info)) {
-                NonmovableArrays.setWord(table, index, WordFactory.zero());
-                count--;
-                rehashAfterUnregisterAt(index);
-                return true;
+        @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+        private boolean resize(int newLength) {
+            assert SubstrateUtil.isPowerOf2(newLength);
+            final int maxLength = 1 << 30;
+            int oldLength = NonmovableArrays.lengthOf(table);
+            if (oldLength == maxLength) {
+                VMError.guarantee(count < maxLength - 1, "Maximum capacity exhausted");
+                return false;
+            }
+            if (oldLength >= newLength) {
+                return false;
+            }
+            NonmovableArray<UntetheredCodeInfo> oldTable = table;
+            table = NonmovableArrays.createWordArray(newLength);
+            for (int i = 0; i < oldLength; i++) {
+                UntetheredCodeInfo tag = NonmovableArrays.getWord(oldTable, i);
+                if (tag.isNonNull()) {
+                    NonmovableArrays.setWord(oldTable, i, WordFactory.zero());
+                    int u = hashIndex(tag, newLength);
+                    while (NonmovableArrays.getWord(table, u).isNonNull()) {
+                        u = nextIndex(u, newLength);
+                    }
+                    NonmovableArrays.setWord(table, u, tag);
+                }
             }
-            index = nextIndex(index, length);
-            entry = NonmovableArrays.getWord(table, index);
+            NonmovableArrays.releaseUnmanagedArray(oldTable);
+            return true;
         }
-        return false;
-    }
 
-    /** Rehashes possibly-colliding entries after deletion to preserve collision properties. */
-    @Uninterruptible(reason = "Called from uninterruptible code.")
-    private void rehashAfterUnregisterAt(int index) { // from IdentityHashMap: Knuth 6.4 Algorithm R
-        int length = NonmovableArrays.lengthOf(table);
-        int d = index;
-        int i = nextIndex(d, length);
-        UntetheredCodeInfo info = NonmovableArrays.getWord(table, i);
-        while (info.isNonNull()) {
-            int r = hashIndex(info, length);
-            if ((i < r && (r <= d || d <= i)) || (r <= d && d <= i)) {
-                NonmovableArrays.setWord(table, d, info);
-                NonmovableArrays.setWord(table, i, WordFactory.zero());
-                d = i;
+        @Uninterruptible(reason = "Manipulate walkers list atomically with regard to GC.")
+        private boolean remove0(CodeInfo info) {
+            if (table.isNull()) {
+                return false;
+            }
+            int length = NonmovableArrays.lengthOf(table);
+            int index = hashIndex(info, length);
+            UntetheredCodeInfo entry = NonmovableArrays.getWord(table, index);
+            while (entry.isNonNull()) {
+                if (entry.equal(info)) {
+                    NonmovableArrays.setWord(table, index, WordFactory.zero());
+                    count--;
+                    rehashAfterUnregisterAt(index);
+                    return true;
+                }
+                index = nextIndex(index, length);
+                entry = NonmovableArrays.getWord(table, index);
             }
-            i = nextIndex(i, length);
-            info = NonmovableArrays.getWord(table, i);
+            return false;
         }
-    }
 
-    public boolean walkRuntimeMethods(CodeInfoVisitor visitor) {
-        assert VMOperation.isGCInProgress() : "otherwise, we would need to make sure that the CodeInfo is not freeded by the GC";
-        if (table.isNonNull()) {
+        /** Rehashes possibly-colliding entries after deletion to preserve collision properties. */
+        @Uninterruptible(reason = "Called from uninterruptible code.")
+        private void rehashAfterUnregisterAt(int index) { // from IdentityHashMap: Knuth 6.4 Algorithm R
             int length = NonmovableArrays.lengthOf(table);
-            for (int i = 0; i < length;) {
-                UntetheredCodeInfo info = NonmovableArrays.getWord(table, i);
-                if (info.isNonNull()) {
-                    visitor.visitCode(CodeInfoAccess.convert(info));
+            int d = index;
+            int i = nextIndex(d, length);
+            UntetheredCodeInfo info = NonmovableArrays.getWord(table, i);
+            while (info.isNonNull()) {
+                int r = hashIndex(info, length);
+                if ((i < r && (r <= d || d <= i)) || (r <= d && d <= i)) {
+                    NonmovableArrays.setWord(table, d, info);
+                    NonmovableArrays.setWord(table, i, WordFactory.zero());
+                    d = i;
                 }
+                i = nextIndex(i, length);
+                info = NonmovableArrays.getWord(table, i);
+            }
+        }
 
-                // If the visitor removed the current entry from the table, then it is necessary to
-                // visit the now updated entry one more time.
-                if (info == NonmovableArrays.getWord(table, i)) {
-                    i++;
+        private void walkRuntimeMethods(CodeInfoVisitor visitor) {
+            if (table.isNonNull()) {
+                int length = NonmovableArrays.lengthOf(table);
+                for (int i = 0; i < length;) {
+                    UntetheredCodeInfo info = NonmovableArrays.getWord(table, i);
+                    if (info.isNonNull()) {
+                        visitor.visitCode(CodeInfoAccess.convert(info));
+                    }
+
+                    // If the visitor removed the current entry from the table, then it is
+                    // necessary to visit the now updated entry one more time.
+                    if (info == NonmovableArrays.getWord(table, i)) {
+                        i++;
+                    }
                 }
             }
         }
-        return true;
+
+        @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+        private void tearDown() {
+            if (table.isNonNull()) {
+                int length = NonmovableArrays.lengthOf(table);
+                for (int i = 0; i < length; i++) {
+                    UntetheredCodeInfo untetheredInfo = NonmovableArrays.getWord(table, i);
+                    if (untetheredInfo.isNonNull()) {
+                        Object tether = CodeInfoAccess.acquireTether(untetheredInfo);
+                        try {
+                            CodeInfo info = CodeInfoAccess.convert(untetheredInfo, tether);
+                            RuntimeCodeInfoAccess.releaseMethodInfoOnTearDown(info);
+                        } finally {
+                            CodeInfoAccess.releaseTetherUnsafe(untetheredInfo, tether);
+                        }
+                    }
+                }
+                NonmovableArrays.releaseUnmanagedArray(table);
+                table = NonmovableArrays.nullArray();
+            }
+        }
     }
 
     @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
@@ -213,27 +285,6 @@ public class RuntimeCodeInfoMemory {
     private static int nextIndex(int index, int length) {
         return (index + 1 < length) ? (index + 1) : 0;
     }
-
-    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
-    public void tearDown() {
-        if (table.isNonNull()) {
-            int length = NonmovableArrays.lengthOf(table);
-            for (int i = 0; i < length; i++) {
-                UntetheredCodeInfo untetheredInfo = NonmovableArrays.getWord(table, i);
-                if (untetheredInfo.isNonNull()) {
-                    Object tether = CodeInfoAccess.acquireTether(untetheredInfo);
-                    try {
-                        CodeInfo info = CodeInfoAccess.convert(untetheredInfo, tether);
-                        RuntimeCodeInfoAccess.releaseMethodInfoOnTearDown(info);
-                    } finally {
-                        CodeInfoAccess.releaseTetherUnsafe(untetheredInfo, tether);
-                    }
-                }
-            }
-            NonmovableArrays.releaseUnmanagedArray(table);
-            table = NonmovableArrays.nullArray();
-        }
-    }
 }
 
 @AutomaticFeature
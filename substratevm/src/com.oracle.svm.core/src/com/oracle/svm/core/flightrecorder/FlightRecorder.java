@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.flightrecorder;
+
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.graalvm.compiler.api.replacements.Fold;
+import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+import org.graalvm.nativeimage.hosted.Feature;
+
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.jdk.RuntimeSupport;
+import com.oracle.svm.core.log.Log;
+import com.oracle.svm.core.thread.JavaVMOperation;
+import com.oracle.svm.core.util.UserError;
+
+/**
+ * Low-overhead recording of VM events (see {@link FlightRecorderEvent}) into a binary recording
+ * file.
+ * <p>
+ * Events are appended to a {@link FlightRecorderThreadBuffer buffer in the thread-local area} of
+ * the emitting thread without any synchronization. Full thread buffers are copied to a lock-free
+ * {@link FlightRecorderGlobalBuffer global ring buffer}. A daemon thread periodically drains the
+ * global buffer, together with all thread buffers, at a safepoint and
+ * {@link FlightRecorderChunkWriter writes} the events as a new chunk of the recording file.
+ * <p>
+ * Support is only included in the image if {@link FlightRecorderOptions#FlightRecorder} is
+ * enabled. A recording is started at isolate startup if
+ * {@link FlightRecorderOptions#FlightRecordingFile} is set, or explicitly with {@link #start}, and is
+ * finished at the latest when the VM shuts down.
+ */
+public final class FlightRecorder {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile boolean recording;
+    private FlightRecorderGlobalBuffer globalBuffer;
+    private FlightRecorderChunkWriter writer;
+    private byte[] drainBuffer;
+    private Thread flushThread;
+    private long chunkStartTicks;
+    private long chunkStartMillis;
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    FlightRecorder() {
+    }
+
+    @Fold
+    public static boolean isEnabled() {
+        return FlightRecorderOptions.FlightRecorder.getValue();
+    }
+
+    @Fold
+    public static FlightRecorder singleton() {
+        return ImageSingletons.lookup(FlightRecorder.class);
+    }
+
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    public static boolean isRecording() {
+        return isEnabled() && singleton().recording;
+    }
+
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    FlightRecorderGlobalBuffer getGlobalBuffer() {
+        return globalBuffer;
+    }
+
+    /** Starts a new recording that is written to the file at {@code path}. */
+    public void start(String path) throws IOException {
+        lock.lock();
+        try {
+            if (recording) {
+                throw new IllegalStateException("A flight recording is already in progress.");
+            }
+            long capacity = FlightRecorderOptions.FlightRecorderGlobalBufferSize.getValue() & ~(Long.BYTES - 1);
+            if (capacity < FlightRecorderThreadBuffer.getCapacity() || capacity > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The global flight recorder buffer must be between the thread buffer size and 2GB: " + capacity);
+            }
+            writer = new FlightRecorderChunkWriter(path);
+            drainBuffer = new byte[(int) capacity];
+            globalBuffer = FlightRecorderGlobalBuffer.allocate(capacity);
+            chunkStartTicks = System.nanoTime();
+            chunkStartMillis = System.currentTimeMillis();
+            recording = true;
+
+            flushThread = new Thread(this::flushPeriodically, "Flight Recorder Flush");
+            flushThread.setDaemon(true);
+            flushThread.start();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Writes all pending events and finishes the current recording, if any. */
+    public void stop() throws IOException {
+        lock.lock();
+        try {
+            if (!recording) {
+                return;
+            }
+            flushThread.interrupt();
+            flushThread = null;
+            try {
+                writeChunk(true);
+            } finally {
+                writer.close();
+                globalBuffer.free();
+                writer = null;
+                globalBuffer = null;
+                drainBuffer = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Writes all events recorded so far as a new chunk of the recording file. */
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            if (recording) {
+                writeChunk(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void writeChunk(boolean stopRecording) throws IOException {
+        int[] length = new int[1];
+        JavaVMOperation.enqueueBlockingSafepoint("FlightRecorderFlush", () -> {
+            FlightRecorderThreadBuffer.flushAllThreads();
+            if (stopRecording) {
+                recording = false;
+            }
+            length[0] = globalBuffer.drain(drainBuffer);
+        });
+
+        long endTicks = System.nanoTime();
+        writer.writeChunk(drainBuffer, length[0], chunkStartTicks, endTicks, chunkStartMillis, globalBuffer.getAndResetLostBytes());
+        chunkStartTicks = endTicks;
+        chunkStartMillis = System.currentTimeMillis();
+    }
+
+    private void flushPeriodically() {
+        long interval = FlightRecorderOptions.FlightRecorderFlushInterval.getValue();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(interval);
+                flush();
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException e) {
+                Log.log().string("Failed to write flight recording: ").string(e.getMessage()).newline();
+            }
+        }
+    }
+
+    static void startAtStartup() {
+        String path = FlightRecorderOptions.FlightRecordingFile.getValue();
+        if (!path.isEmpty()) {
+            try {
+                singleton().start(path);
+            } catch (IOException | RuntimeException e) {
+                Log.log().string("Failed to start flight recording: ").string(e.getMessage()).newline();
+            }
+        }
+    }
+
+    static void stopAtShutdown() {
+        try {
+            singleton().stop();
+        } catch (IOException e) {
+            Log.log().string("Failed to write flight recording: ").string(e.getMessage()).newline();
+        }
+    }
+}
+
+@AutomaticFeature
+class FlightRecorderFeature implements Feature {
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return FlightRecorder.isEnabled();
+    }
+
+    @Override
+    public void afterRegistration(AfterRegistrationAccess access) {
+        ImageSingletons.add(FlightRecorder.class, new FlightRecorder());
+    }
+
+    @Override
+    public void beforeAnalysis(BeforeAnalysisAccess access) {
+        UserError.guarantee(FlightRecorderThreadBuffer.getCapacity() >= FlightRecorderThreadBuffer.getMaximumEventSize(),
+                        "The option %s must be at least %d bytes.", FlightRecorderOptions.FlightRecorderThreadBufferSize.getName(), FlightRecorderThreadBuffer.getMaximumEventSize());
+        RuntimeSupport.getRuntimeSupport().addStartupHook(FlightRecorder::startAtStartup);
+        RuntimeSupport.getRuntimeSupport().addShutdownHook(FlightRecorder::stopAtShutdown);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.flightrecorder;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.graalvm.word.Pointer;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.heap.GCCause;
+import com.oracle.svm.core.hub.DynamicHub;
+
+/**
+ * Writes drained event data to a recording file as a sequence of self-describing chunks. All
+ * values of the chunk header and the pools are big-endian; the event records are copied verbatim
+ * from the event buffers and therefore use the byte order recorded in the header.
+ *
+ * <pre>
+ * chunk:
+ *   int     magic ('SVMR')
+ *   short   major version
+ *   short   minor version
+ *   long    chunk size in bytes, including this header
+ *   byte    byte order of the event records (0 = big-endian, 1 = little-endian)
+ *   long    start ticks (nanoseconds, monotonic)
+ *   long    duration in nanoseconds
+ *   long    start time in milliseconds since the epoch
+ *   long    number of bytes of event records that were lost because the global buffer was full
+ *   metadata:     int count, then per event: int id, UTF name, int field count, then per field: UTF name, byte kind
+ *   class pool:   int count, then per class: long hub address, UTF name
+ *   cause pool:   int count, then per GC cause: int id, UTF name
+ *   events:       int length in bytes, then the event records
+ * </pre>
+ */
+final class FlightRecorderChunkWriter implements Closeable {
+    static final int MAGIC = 0x53564D52;
+    static final short MAJOR_VERSION = 1;
+    static final short MINOR_VERSION = 0;
+    private static final int CHUNK_HEADER_SIZE = 4 + 2 + 2 + 8 + 1 + 8 + 8 + 8 + 8;
+
+    private final DataOutputStream out;
+
+    FlightRecorderChunkWriter(String path) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)));
+    }
+
+    void writeChunk(byte[] events, int length, long startTicks, long endTicks, long startMillis, long lostBytes) throws IOException {
+        ByteBuffer records = ByteBuffer.wrap(events, 0, length).order(ByteOrder.nativeOrder());
+        Map<Long, String> classes = new LinkedHashMap<>();
+        Map<Integer, String> causes = new LinkedHashMap<>();
+        collectPoolEntries(records, length, classes, causes);
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream bodyOut = new DataOutputStream(body);
+        writeMetadata(bodyOut);
+        bodyOut.writeInt(classes.size());
+        for (Map.Entry<Long, String> entry : classes.entrySet()) {
+            bodyOut.writeLong(entry.getKey());
+            bodyOut.writeUTF(entry.getValue());
+        }
+        bodyOut.writeInt(causes.size());
+        for (Map.Entry<Integer, String> entry : causes.entrySet()) {
+            bodyOut.writeInt(entry.getKey());
+            bodyOut.writeUTF(entry.getValue());
+        }
+        bodyOut.writeInt(length);
+        bodyOut.flush();
+
+        out.writeInt(MAGIC);
+        out.writeShort(MAJOR_VERSION);
+        out.writeShort(MINOR_VERSION);
+        out.writeLong(CHUNK_HEADER_SIZE + body.size() + length);
+        out.writeByte(ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN ? 0 : 1);
+        out.writeLong(startTicks);
+        out.writeLong(endTicks - startTicks);
+        out.writeLong(startMillis);
+        out.writeLong(lostBytes);
+        body.writeTo(out);
+        out.write(events, 0, length);
+        out.flush();
+    }
+
+    private static void writeMetadata(DataOutputStream metadata) throws IOException {
+        FlightRecorderEvent[] events = FlightRecorderEvent.values();
+        metadata.writeInt(events.length);
+        for (FlightRecorderEvent event : events) {
+            metadata.writeInt(event.getId());
+            metadata.writeUTF(event.name());
+            metadata.writeInt(event.getFieldCount());
+            for (int i = 0; i < event.getFieldCount(); i++) {
+                metadata.writeUTF(event.getField(i).getName());
+                metadata.writeByte(event.getField(i).getKind().ordinal());
+            }
+        }
+    }
+
+    private static void collectPoolEntries(ByteBuffer records, int length, Map<Long, String> classes, Map<Integer, String> causes) {
+        int position = 0;
+        while (position < length) {
+            int size = records.getInt(position + FlightRecorderThreadBuffer.SIZE_OFFSET);
+            FlightRecorderEvent event = FlightRecorderEvent.fromId(records.getInt(position + FlightRecorderThreadBuffer.EVENT_ID_OFFSET));
+            if (size <= 0 || event == null) {
+                /* Corrupted data: stop here, the records are still written for diagnostics. */
+                return;
+            }
+            for (int i = 0; i < event.getFieldCount(); i++) {
+                long value = records.getLong(position + FlightRecorderThreadBuffer.getFieldOffset(i));
+                switch (event.getField(i).getKind()) {
+                    case Class:
+                        classes.computeIfAbsent(value, FlightRecorderChunkWriter::className);
+                        break;
+                    case GCCause:
+                        causes.computeIfAbsent((int) value, FlightRecorderChunkWriter::causeName);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            position += size;
+        }
+    }
+
+    private static String className(long hubAddress) {
+        /* The hub is in the image heap, so the address recorded for the event is still valid. */
+        Pointer hub = WordFactory.pointer(hubAddress);
+        return ((DynamicHub) hub.toObject()).getName();
+    }
+
+    private static String causeName(int causeId) {
+        GCCause cause = GCCause.fromId(causeId);
+        return cause != null ? cause.getName() : "unknown";
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.flightrecorder;
+
+import com.oracle.svm.core.annotate.Uninterruptible;
+
+/**
+ * The kinds of events that the {@link FlightRecorder} can record. Every event has a fixed-size
+ * record in the event buffers: a header (see {@link FlightRecorderThreadBuffer}) followed by one
+ * 64-bit value per field. The field names and kinds are written to the metadata of every chunk so
+ * that recordings can be parsed without knowing the image that produced them.
+ */
+public enum FlightRecorderEvent {
+    GarbageCollection(1, field("gcEpoch", FieldKind.Long), field("cause", FieldKind.GCCause), field("complete", FieldKind.Boolean),
+                    field("usedBefore", FieldKind.Long), field("usedAfter", FieldKind.Long)),
+    Safepoint(2, field("safepointId", FieldKind.Long), field("synchronizationNanos", FieldKind.Long)),
+    JavaMonitorEnter(3, field("monitorClass", FieldKind.Class)),
+    ObjectAllocationInNewTLAB(4, field("objectClass", FieldKind.Class), field("allocationSize", FieldKind.Long), field("tlabSize", FieldKind.Long)),
+    ObjectAllocationOutsideTLAB(5, field("objectClass", FieldKind.Class), field("allocationSize", FieldKind.Long));
+
+    /** Determines how the 64-bit value of a field is interpreted by readers of a recording. */
+    public enum FieldKind {
+        Long,
+        Boolean,
+        /** The address of a {@link com.oracle.svm.core.hub.DynamicHub}, see the class pool. */
+        Class,
+        /** The id of a {@link com.oracle.svm.core.heap.GCCause}, see the GC cause pool. */
+        GCCause
+    }
+
+    public static final class Field {
+        private final String name;
+        private final FieldKind kind;
+
+        Field(String name, FieldKind kind) {
+            this.name = name;
+            this.kind = kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public FieldKind getKind() {
+            return kind;
+        }
+    }
+
+    private final int id;
+    private final Field[] fields;
+
+    FlightRecorderEvent(int id, Field... fields) {
+        this.id = id;
+        this.fields = fields;
+    }
+
+    private static Field field(String name, FieldKind kind) {
+        return new Field(name, kind);
+    }
+
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    public int getId() {
+        return id;
+    }
+
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    public int getFieldCount() {
+        return fields.length;
+    }
+
+    public Field getField(int index) {
+        return fields[index];
+    }
+
+    public static FlightRecorderEvent fromId(int id) {
+        for (FlightRecorderEvent event : values()) {
+            if (event.id == id) {
+                return event;
+            }
+        }
+        return null;
+    }
+}
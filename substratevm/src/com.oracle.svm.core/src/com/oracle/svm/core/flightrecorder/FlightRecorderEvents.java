@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.flightrecorder;
+
+import org.graalvm.compiler.word.Word;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.UnsignedWord;
+
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.hub.DynamicHub;
+import com.oracle.svm.core.snippets.KnownIntrinsics;
+
+/**
+ * Emits {@link FlightRecorderEvent events} from the VM. Callers should guard calls with
+ * {@link FlightRecorder#isEnabled()} so that no code is emitted for images without flight recorder
+ * support. All methods return immediately if no recording is in progress.
+ */
+public final class FlightRecorderEvents {
+    private FlightRecorderEvents() {
+    }
+
+    @Uninterruptible(reason = "Accesses the thread-local event buffer.")
+    public static void emitGarbageCollection(long startTicks, UnsignedWord gcEpoch, int causeId, boolean complete, UnsignedWord usedBefore, UnsignedWord usedAfter) {
+        if (FlightRecorder.isRecording()) {
+            FlightRecorderEvent event = FlightRecorderEvent.GarbageCollection;
+            Pointer record = FlightRecorderThreadBuffer.beginEvent(event, startTicks, System.nanoTime() - startTicks);
+            record.writeLong(FlightRecorderThreadBuffer.getFieldOffset(0), gcEpoch.rawValue());
+            record.writeLong(FlightRecorderThreadBuffer.getFieldOffset(1), causeId);
+            record.writeLong(FlightRecorderThreadBuffer.getFieldOffset(2), complete ? 1 : 0);
+            record.writeLong(FlightRecorderThreadBuffer.getFieldOffset(3), usedBefore.rawValue());
+            record.writeLong(FlightRecorderThreadBuffer.getFieldOffset(4), usedAfter.rawValue());
+            FlightRecorderThreadBuffer.endEvent(event);
+        }
+    }
+
+    @Uninterruptible(reason = "Accesses the thread-local event buffer.")
+    public static void emitSafepoint(long startTicks, long safepointId, long synchronizationNanos) {
+        if (FlightRecorder.isRecording()) {
+            FlightRecorderEvent event = FlightRecorderEvent.Safepoint;
+            Pointer record = FlightRecorderThreadBuffer.beginEvent(event, startTicks, System.nanoTime() - startTicks);
+            record.writeLong(FlightRecorderThreadBuffer.getFieldOffset(0), safepointId);
+            record.writeLong(FlightRecorderThreadBuffer.getFieldOffset(1), synchronizationNanos);
+            FlightRecorderThreadBuffer.endEvent(event);
+        }
+    }
+
+    /** Records that acquiring the monitor of {@code obj} was contended. */
+    @Uninterruptible(reason = "Accesses the thread-local event buffer.")
+    public static void emitJavaMonitorEnter(long startTicks, Object obj) {
+        if (FlightRecorder.isRecording()) {
+            FlightRecorderEvent event = FlightRecorderEvent.JavaMonitorEnter;
+            Pointer record = FlightRecorderThreadBuffer.beginEvent(event, startTicks, System.nanoTime() - startTicks);
+            record.writeLong(FlightRecorderThreadBuffer.getFieldOffset(0), hubAddress(KnownIntrinsics.readHub(obj)));
+            FlightRecorderThreadBuffer.endEvent(event);
+        }
+    }
+
+    @Uninterruptible(reason = "Accesses the thread-local event buffer.")
+    public static void emitAllocationInNewTLAB(DynamicHub hub, UnsignedWord allocationSize, UnsignedWord tlabSize) {
+        if (FlightRecorder.isRecording()) {
+            FlightRecorderEvent event = FlightRecorderEvent.ObjectAllocationInNewTLAB;
+            Pointer record = FlightRecorderThreadBuffer.beginEvent(event, System.nanoTime(), 0);
+            record.writeLong(FlightRecorderThreadBuffer.getFieldOffset(0), hubAddress(hub));
+            record.writeLong(FlightRecorderThreadBuffer.getFieldOffset(1), allocationSize.rawValue());
+            record.writeLong(FlightRecorderThreadBuffer.getFieldOffset(2), tlabSize.rawValue());
+            FlightRecorderThreadBuffer.endEvent(event);
+        }
+    }
+
+    @Uninterruptible(reason = "Accesses the thread-local event buffer.")
+    public static void emitAllocationOutsideTLAB(DynamicHub hub, UnsignedWord allocationSize) {
+        if (FlightRecorder.isRecording()) {
+            FlightRecorderEvent event = FlightRecorderEvent.ObjectAllocationOutsideTLAB;
+            Pointer record = FlightRecorderThreadBuffer.beginEvent(event, System.nanoTime(), 0);
+            record.writeLong(FlightRecorderThreadBuffer.getFieldOffset(0), hubAddress(hub));
+            record.writeLong(FlightRecorderThreadBuffer.getFieldOffset(1), allocationSize.rawValue());
+            FlightRecorderThreadBuffer.endEvent(event);
+        }
+    }
+
+    /**
+     * Hubs are in the image heap and never move, so their address identifies the class for the
+     * class pool that is written with every chunk.
+     */
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    private static long hubAddress(DynamicHub hub) {
+        return Word.objectToUntrackedPointer(hub).rawValue();
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.flightrecorder;
+
+import org.graalvm.compiler.word.Word;
+import org.graalvm.nativeimage.UnmanagedMemory;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.MemoryUtil;
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.config.ConfigurationValues;
+import com.oracle.svm.core.jdk.UninterruptibleUtils.AtomicLong;
+import com.oracle.svm.core.thread.VMOperation;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * A ring buffer in native memory that receives the contents of full
+ * {@link FlightRecorderThreadBuffer thread buffers}. Writers reserve space with a single
+ * compare-and-swap on the monotonically increasing {@link #writePosition} and then copy their data
+ * without holding any lock. The buffer is drained by the {@link FlightRecorder} at a safepoint,
+ * which guarantees that all reserved space has also been filled because writes are
+ * uninterruptible.
+ * <p>
+ * Since thread buffers are always written as a whole, the buffer only ever contains complete event
+ * records. When the buffer is full, the data of the writer is dropped and accounted in
+ * {@link #lostBytes} rather than overwriting events that have not been drained yet.
+ */
+final class FlightRecorderGlobalBuffer {
+    private static final int BYTE_ARRAY_BASE_OFFSET = ConfigurationValues.getObjectLayout().getArrayBaseOffset(JavaKind.Byte);
+
+    private final Pointer data;
+    private final long capacity;
+    private final AtomicLong writePosition = new AtomicLong(0);
+    private final AtomicLong lostBytes = new AtomicLong(0);
+    /** Only modified at a safepoint. */
+    private long readPosition;
+
+    private FlightRecorderGlobalBuffer(Pointer data, long capacity) {
+        this.data = data;
+        this.capacity = capacity;
+    }
+
+    static FlightRecorderGlobalBuffer allocate(long capacity) {
+        Pointer data = UnmanagedMemory.malloc(WordFactory.unsigned(capacity));
+        return new FlightRecorderGlobalBuffer(data, capacity);
+    }
+
+    void free() {
+        UnmanagedMemory.free(data);
+    }
+
+    long getAndResetLostBytes() {
+        return lostBytes.getAndSet(0);
+    }
+
+    @Uninterruptible(reason = "Reserved space must be filled before the next safepoint.", callerMustBe = true)
+    boolean write(Pointer source, UnsignedWord size) {
+        long start;
+        do {
+            start = writePosition.get();
+            if (start + size.rawValue() - readPosition > capacity) {
+                lostBytes.addAndGet(size.rawValue());
+                return false;
+            }
+        } while (!writePosition.compareAndSet(start, start + size.rawValue()));
+
+        long offset = start % capacity;
+        long firstPart = capacity - offset;
+        if (size.belowOrEqual(WordFactory.unsigned(firstPart))) {
+            MemoryUtil.copyConjointMemoryAtomic(source, data.add(WordFactory.unsigned(offset)), size);
+        } else {
+            MemoryUtil.copyConjointMemoryAtomic(source, data.add(WordFactory.unsigned(offset)), WordFactory.unsigned(firstPart));
+            MemoryUtil.copyConjointMemoryAtomic(source.add(WordFactory.unsigned(firstPart)), data, size.subtract(WordFactory.unsigned(firstPart)));
+        }
+        return true;
+    }
+
+    /**
+     * Copies all events that were written since the last call to the start of {@code target},
+     * which must be at least as large as the buffer, and returns the number of copied bytes.
+     */
+    @Uninterruptible(reason = "Accesses a Java array via raw memory accesses.")
+    int drain(byte[] target) {
+        assert VMOperation.isInProgressAtSafepoint();
+        assert target.length >= capacity;
+
+        long start = readPosition;
+        long end = writePosition.get();
+        long length = end - start;
+        long offset = start % capacity;
+        long firstPart = capacity - offset < length ? capacity - offset : length;
+
+        Pointer targetData = Word.objectToUntrackedPointer(target).add(BYTE_ARRAY_BASE_OFFSET);
+        MemoryUtil.copyConjointMemoryAtomic(data.add(WordFactory.unsigned(offset)), targetData, WordFactory.unsigned(firstPart));
+        if (firstPart < length) {
+            MemoryUtil.copyConjointMemoryAtomic(data, targetData.add(WordFactory.unsigned(firstPart)), WordFactory.unsigned(length - firstPart));
+        }
+        readPosition = end;
+        return (int) length;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.flightrecorder;
+
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionType;
+
+import com.oracle.svm.core.option.HostedOptionKey;
+import com.oracle.svm.core.option.RuntimeOptionKey;
+
+public class FlightRecorderOptions {
+    @Option(help = "Include support for recording low-overhead VM events (GC, safepoints, monitor contention, allocation) in the image.", type = OptionType.User)//
+    public static final HostedOptionKey<Boolean> FlightRecorder = new HostedOptionKey<>(false);
+
+    @Option(help = "Size in bytes of the per-thread event buffer. Must be large enough to hold the largest event.", type = OptionType.Expert)//
+    public static final HostedOptionKey<Integer> FlightRecorderThreadBufferSize = new HostedOptionKey<>(1024);
+
+    @Option(help = "Start recording at isolate startup and write the recorded events to this file.", type = OptionType.User)//
+    public static final RuntimeOptionKey<String> FlightRecordingFile = new RuntimeOptionKey<>("");
+
+    @Option(help = "Size in bytes of the global event ring buffer that thread buffers are flushed to.", type = OptionType.Expert)//
+    public static final RuntimeOptionKey<Long> FlightRecorderGlobalBufferSize = new RuntimeOptionKey<>(4L * 1024L * 1024L);
+
+    @Option(help = "Interval in milliseconds at which recorded events are written to the recording file.", type = OptionType.Expert)//
+    public static final RuntimeOptionKey<Long> FlightRecorderFlushInterval = new RuntimeOptionKey<>(1000L);
+}
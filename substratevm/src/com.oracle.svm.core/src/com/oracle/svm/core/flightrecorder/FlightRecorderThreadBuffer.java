@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.flightrecorder;
+
+import org.graalvm.compiler.api.replacements.Fold;
+import org.graalvm.compiler.core.common.NumUtil;
+import org.graalvm.nativeimage.CurrentIsolate;
+import org.graalvm.nativeimage.IsolateThread;
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+import org.graalvm.nativeimage.c.struct.RawField;
+import org.graalvm.nativeimage.c.struct.RawStructure;
+import org.graalvm.nativeimage.c.struct.SizeOf;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.PointerBase;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.thread.VMOperation;
+import com.oracle.svm.core.thread.VMThreads;
+import com.oracle.svm.core.threadlocal.FastThreadLocalBytes;
+import com.oracle.svm.core.threadlocal.FastThreadLocalFactory;
+
+/**
+ * The per-thread event buffer, stored inline in the thread-local area of each
+ * {@link IsolateThread}. Events are only ever appended by the owning thread, so no synchronization
+ * is necessary. When the buffer is full, its contents are copied to the
+ * {@link FlightRecorderGlobalBuffer global buffer} and the buffer is reused.
+ * <p>
+ * All accesses are uninterruptible: the buffers of other threads are only flushed by the VM
+ * operation thread at a safepoint, or by the owning thread itself when it detaches, so a flush never
+ * observes a partially written event.
+ * <p>
+ * Every event record starts with a header of {@link #EVENT_HEADER_SIZE} bytes (size of the record
+ * in bytes, event id, start ticks, duration in nanoseconds, and the address of the
+ * {@link IsolateThread} that emitted the event), followed by one 64-bit value per field of the
+ * {@link FlightRecorderEvent}. All values are stored in the native byte order.
+ */
+public final class FlightRecorderThreadBuffer {
+    @RawStructure
+    interface Header extends PointerBase {
+        /** Number of bytes of the data area that are in use. */
+        @RawField
+        int getPosition();
+
+        @RawField
+        void setPosition(int value);
+    }
+
+    static final int SIZE_OFFSET = 0;
+    static final int EVENT_ID_OFFSET = 4;
+    static final int START_TICKS_OFFSET = 8;
+    static final int DURATION_OFFSET = 16;
+    static final int THREAD_OFFSET = 24;
+    static final int EVENT_HEADER_SIZE = 32;
+
+    private static final FastThreadLocalBytes<Header> buffer = FastThreadLocalFactory.createBytes(FlightRecorderThreadBuffer::getThreadLocalSize);
+
+    private FlightRecorderThreadBuffer() {
+    }
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    private static int getThreadLocalSize() {
+        return getDataOffset() + getCapacity();
+    }
+
+    @Fold
+    static int getDataOffset() {
+        return NumUtil.roundUp(SizeOf.get(Header.class), Long.BYTES);
+    }
+
+    @Fold
+    static int getCapacity() {
+        return NumUtil.roundUp(FlightRecorderOptions.FlightRecorderThreadBufferSize.getValue(), Long.BYTES);
+    }
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    static int getMaximumEventSize() {
+        int result = 0;
+        for (FlightRecorderEvent event : FlightRecorderEvent.values()) {
+            result = Math.max(result, getEventSize(event));
+        }
+        return result;
+    }
+
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    static int getEventSize(FlightRecorderEvent event) {
+        return EVENT_HEADER_SIZE + event.getFieldCount() * Long.BYTES;
+    }
+
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    private static Pointer getData(Header header) {
+        return ((Pointer) header).add(getDataOffset());
+    }
+
+    /**
+     * Reserves space for an event in the buffer of the current thread and writes the event header.
+     * The caller must write all fields of the event to the returned address (see
+     * {@link #getFieldOffset}) and then call {@link #endEvent}.
+     */
+    @Uninterruptible(reason = "Accesses the event buffer, which may be flushed at a safepoint.", callerMustBe = true)
+    static Pointer beginEvent(FlightRecorderEvent event, long startTicks, long duration) {
+        Header header = buffer.getAddress();
+        int size = getEventSize(event);
+        if (header.getPosition() + size > getCapacity()) {
+            flush(header);
+        }
+        Pointer record = getData(header).add(header.getPosition());
+        record.writeInt(SIZE_OFFSET, size);
+        record.writeInt(EVENT_ID_OFFSET, event.getId());
+        record.writeLong(START_TICKS_OFFSET, startTicks);
+        record.writeLong(DURATION_OFFSET, duration);
+        record.writeLong(THREAD_OFFSET, CurrentIsolate.getCurrentThread().rawValue());
+        return record;
+    }
+
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    static int getFieldOffset(int index) {
+        return EVENT_HEADER_SIZE + index * Long.BYTES;
+    }
+
+    /** Publishes the event that was started by the last call to {@link #beginEvent}. */
+    @Uninterruptible(reason = "Accesses the event buffer, which may be flushed at a safepoint.", callerMustBe = true)
+    static void endEvent(FlightRecorderEvent event) {
+        Header header = buffer.getAddress();
+        header.setPosition(header.getPosition() + getEventSize(event));
+    }
+
+    /** Flushes the buffer of a thread that is about to detach. */
+    @Uninterruptible(reason = "Accesses the event buffer, which may be flushed at a safepoint.")
+    public static void flushBeforeDetach(IsolateThread thread) {
+        assert thread.equal(CurrentIsolate.getCurrentThread());
+        flush(buffer.getAddress(thread));
+    }
+
+    /** Flushes the buffers of all threads. */
+    @Uninterruptible(reason = "Iterates the thread list.")
+    static void flushAllThreads() {
+        assert VMOperation.isInProgressAtSafepoint();
+        for (IsolateThread thread = VMThreads.firstThread(); thread.isNonNull(); thread = VMThreads.nextThread(thread)) {
+            flush(buffer.getAddress(thread));
+        }
+    }
+
+    /**
+     * Copies the events of the buffer to the global buffer and empties the buffer. Events are
+     * discarded if no recording is in progress anymore.
+     */
+    @Uninterruptible(reason = "Called from uninterruptible code.")
+    private static void flush(Header header) {
+        int position = header.getPosition();
+        if (position > 0 && FlightRecorder.isRecording()) {
+            FlightRecorder.singleton().getGlobalBuffer().write(getData(header), WordFactory.unsigned(position));
+        }
+        header.setPosition(0);
+    }
+}
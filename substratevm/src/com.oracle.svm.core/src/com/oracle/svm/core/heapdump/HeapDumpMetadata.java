@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.heapdump;
+
+import org.graalvm.compiler.api.replacements.Fold;
+import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+
+import com.oracle.svm.core.annotate.UnknownObjectField;
+
+import jdk.vm.ci.meta.JavaKind;
+
+/**
+ * The field layout of all types, which is needed to write class and instance records of a heap
+ * dump. Reflection metadata is only available for registered fields, so this information is
+ * collected at image build time for all types.
+ * <p>
+ * The fields of the type with type id {@code t} have the indices from {@code fieldStarts[2 * t]}
+ * to {@code fieldStarts[2 * t + 1]} (instance fields) and from {@code fieldStarts[2 * t + 1]} to
+ * {@code fieldStarts[2 * t + 2]} (static fields). Only the fields declared by the type itself are
+ * included. For each field, the name, the {@link HeapDumpWriter HPROF basic type} and the offset
+ * are stored, where the offset of a static field is relative to the static fields array that
+ * matches its type.
+ */
+public final class HeapDumpMetadata {
+
+    @UnknownObjectField(types = {int[].class}) private int[] fieldStarts;
+    @UnknownObjectField(types = {int[].class}) private int[] fieldNameIndices;
+    @UnknownObjectField(types = {byte[].class}) private byte[] fieldTypes;
+    @UnknownObjectField(types = {int[].class}) private int[] fieldOffsets;
+    /** The distinct field names, so that each needs to be written only once. */
+    @UnknownObjectField(types = {String[].class}) private String[] fieldNames;
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    public HeapDumpMetadata() {
+    }
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    public void setData(int[] starts, int[] nameIndices, byte[] types, int[] offsets, String[] names) {
+        this.fieldStarts = starts;
+        this.fieldNameIndices = nameIndices;
+        this.fieldTypes = types;
+        this.fieldOffsets = offsets;
+        this.fieldNames = names;
+    }
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    public static byte basicType(JavaKind kind) {
+        switch (kind) {
+            case Boolean:
+                return HeapDumpWriter.TYPE_BOOLEAN;
+            case Char:
+                return HeapDumpWriter.TYPE_CHAR;
+            case Float:
+                return HeapDumpWriter.TYPE_FLOAT;
+            case Double:
+                return HeapDumpWriter.TYPE_DOUBLE;
+            case Byte:
+                return HeapDumpWriter.TYPE_BYTE;
+            case Short:
+                return HeapDumpWriter.TYPE_SHORT;
+            case Int:
+                return HeapDumpWriter.TYPE_INT;
+            case Long:
+                return HeapDumpWriter.TYPE_LONG;
+            default:
+                return HeapDumpWriter.TYPE_OBJECT;
+        }
+    }
+
+    @Fold
+    static HeapDumpMetadata singleton() {
+        return ImageSingletons.lookup(HeapDumpMetadata.class);
+    }
+
+    int getInstanceFieldsStart(int typeId) {
+        return fieldStarts[2 * typeId];
+    }
+
+    int getInstanceFieldsEnd(int typeId) {
+        return fieldStarts[2 * typeId + 1];
+    }
+
+    int getStaticFieldsStart(int typeId) {
+        return fieldStarts[2 * typeId + 1];
+    }
+
+    int getStaticFieldsEnd(int typeId) {
+        return fieldStarts[2 * typeId + 2];
+    }
+
+    String getFieldName(int field) {
+        return fieldNames[fieldNameIndices[field]];
+    }
+
+    byte getFieldType(int field) {
+        return fieldTypes[field];
+    }
+
+    int getFieldOffset(int field) {
+        return fieldOffsets[field];
+    }
+
+    int getFieldNameCount() {
+        return fieldNames.length;
+    }
+
+    String getFieldNameAt(int index) {
+        return fieldNames[index];
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.heapdump;
+
+import static com.oracle.svm.core.annotate.RestrictHeapAccess.Access.NO_ALLOCATION;
+
+import java.io.IOException;
+
+import org.graalvm.compiler.api.replacements.Fold;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.ProcessProperties;
+import org.graalvm.nativeimage.StackValue;
+import org.graalvm.nativeimage.c.struct.RawField;
+import org.graalvm.nativeimage.c.struct.RawStructure;
+import org.graalvm.nativeimage.c.struct.SizeOf;
+import org.graalvm.nativeimage.c.type.CCharPointer;
+import org.graalvm.nativeimage.c.type.CTypeConversion;
+import org.graalvm.nativeimage.c.type.CTypeConversion.CCharPointerHolder;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.impl.HeapDumpSupport;
+import org.graalvm.nativeimage.impl.UnmanagedMemorySupport;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.UnsignedWord;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.MemoryUtil;
+import com.oracle.svm.core.SubstrateUtil;
+import com.oracle.svm.core.VMInspection;
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.annotate.RestrictHeapAccess;
+import com.oracle.svm.core.heap.GCCause;
+import com.oracle.svm.core.heap.Heap;
+import com.oracle.svm.core.jdk.RuntimeSupport;
+import com.oracle.svm.core.jdk.UninterruptibleUtils.AtomicInteger;
+import com.oracle.svm.core.log.Log;
+import com.oracle.svm.core.option.RuntimeOptionKey;
+import com.oracle.svm.core.thread.NativeVMOperation;
+import com.oracle.svm.core.thread.NativeVMOperationData;
+import com.oracle.svm.core.thread.VMOperation;
+import com.oracle.svm.core.util.UserError;
+
+@AutomaticFeature
+class HeapDumpSupportFeature implements Feature {
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return VMInspection.isEnabled();
+    }
+
+    @Override
+    public void beforeAnalysis(BeforeAnalysisAccess access) {
+        if (!ImageSingletons.contains(HeapDumpSupportImpl.class)) {
+            /* The platform does not support writing heap dumps. */
+            return;
+        }
+        UserError.guarantee(HeapDumpSupportImpl.Options.HeapDumpBufferSize.getValue() > 0, "The option %s must be positive.", HeapDumpSupportImpl.Options.HeapDumpBufferSize.getName());
+        ImageSingletons.add(HeapDumpSupport.class, HeapDumpSupportImpl.singleton());
+        RuntimeSupport.getRuntimeSupport().addStartupHook(HeapDumpSupportImpl::startupHook);
+    }
+}
+
+/**
+ * Writes heap dumps of the running image in the HPROF format, see {@link HeapDumpWriter}. A heap
+ * dump is requested via {@link org.graalvm.nativeimage.VMRuntime#dumpHeap}, which the
+ * {@link VMInspection} also calls when the process receives {@code SIGUSR1}, or automatically for
+ * the first {@link OutOfMemoryError} if {@link Options#HeapDumpOnOutOfMemoryError} is set.
+ * <p>
+ * The heap dump is written in a VM operation at a safepoint, so that the heap does not change
+ * while it is walked. Apart from a native buffer of {@link Options#HeapDumpBufferSize} bytes, no
+ * memory is needed, which makes it possible to write a heap dump when the heap is exhausted. The
+ * platform-dependent subclass provides the file access, which must not transition out of the VM
+ * operation.
+ */
+public abstract class HeapDumpSupportImpl implements HeapDumpSupport {
+
+    public static class Options {
+        @Option(help = "Write a heap dump in the HPROF format when the first OutOfMemoryError is thrown. Requires -H:+AllowVMInspection.", type = OptionType.User)//
+        public static final RuntimeOptionKey<Boolean> HeapDumpOnOutOfMemoryError = new RuntimeOptionKey<>(false);
+
+        @Option(help = "File to which the heap dump is written when an OutOfMemoryError is thrown. Default: svm-heapdump-<pid>-oom.hprof", type = OptionType.User)//
+        public static final RuntimeOptionKey<String> HeapDumpPath = new RuntimeOptionKey<>("");
+
+        @Option(help = "Size in bytes of the native buffer into which heap dumps are encoded before they are written to the file.")//
+        public static final RuntimeOptionKey<Integer> HeapDumpBufferSize = new RuntimeOptionKey<>(1024 * 1024);
+    }
+
+    private final HeapDumpWriter writer = new HeapDumpWriter();
+    private final HeapDumpVMOperation dumpOperation = new HeapDumpVMOperation();
+    private final AtomicInteger outOfMemoryDumpState = new AtomicInteger(0);
+    /** The file name for heap dumps on {@link OutOfMemoryError}, as a C string in native memory. */
+    private CCharPointer outOfMemoryDumpPath;
+
+    @Fold
+    public static boolean isEnabled() {
+        return ImageSingletons.contains(HeapDumpSupportImpl.class);
+    }
+
+    @Fold
+    static HeapDumpSupportImpl singleton() {
+        return ImageSingletons.lookup(HeapDumpSupportImpl.class);
+    }
+
+    /**
+     * Opens the file with the given name for writing, truncating it if it exists. Returns a file
+     * descriptor, or a negative value on failure.
+     */
+    @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Called while writing a heap dump.")
+    protected abstract int openFile(CCharPointer path);
+
+    /** Writes all {@code size} bytes to the file, returning false on failure. */
+    @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Called while writing a heap dump.")
+    protected abstract boolean writeBytes(int fd, Pointer data, int size);
+
+    @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Called while writing a heap dump.")
+    protected abstract void closeFile(int fd);
+
+    static void startupHook() {
+        if (Options.HeapDumpOnOutOfMemoryError.getValue()) {
+            String path = Options.HeapDumpPath.getValue();
+            if (path.isEmpty()) {
+                path = "svm-heapdump-" + ProcessProperties.getProcessID() + "-oom.hprof";
+            }
+            /*
+             * The path is converted eagerly because there is no memory for the conversion when
+             * the heap is exhausted. The native copy is never freed.
+             */
+            try (CCharPointerHolder holder = CTypeConversion.toCString(path)) {
+                UnsignedWord size = SubstrateUtil.strlen(holder.get()).add(1);
+                CCharPointer copy = ImageSingletons.lookup(UnmanagedMemorySupport.class).malloc(size);
+                if (copy.isNull()) {
+                    Log.log().string("Heap dump on OutOfMemoryError disabled: cannot allocate the file name.").newline();
+                    return;
+                }
+                MemoryUtil.copyConjointMemoryAtomic((Pointer) holder.get(), (Pointer) copy, size);
+                singleton().outOfMemoryDumpPath = copy;
+            }
+        }
+    }
+
+    @Override
+    public void dumpHeap(String outputFile, boolean live) throws IOException {
+        if (live) {
+            /* Only reachable objects remain after a full collection. */
+            Heap.getHeap().getGC().collectCompletely(GCCause.JavaLangSystemGC);
+        }
+        boolean success;
+        try (CCharPointerHolder path = CTypeConversion.toCString(outputFile)) {
+            success = dumpHeap(path.get());
+        }
+        if (!success) {
+            throw new IOException("Could not write heap dump to " + outputFile);
+        }
+    }
+
+    /**
+     * Called before an {@link OutOfMemoryError} is thrown. Writes a heap dump for the first error
+     * only, and only if the error is not thrown while a VM operation is in progress, e.g., when the
+     * garbage collector runs out of memory.
+     */
+    @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Called when the heap is exhausted.")
+    public static void onOutOfMemoryError() {
+        if (!isEnabled()) {
+            return;
+        }
+        HeapDumpSupportImpl support = singleton();
+        if (support.outOfMemoryDumpPath.isNull() || VMOperation.isInProgress() || !support.outOfMemoryDumpState.compareAndSet(0, 1)) {
+            return;
+        }
+        Log log = Log.log().string("Dumping heap on OutOfMemoryError: ").string(support.outOfMemoryDumpPath).newline();
+        if (!support.dumpHeap(support.outOfMemoryDumpPath)) {
+            log.string("Writing the heap dump failed.").newline();
+        }
+    }
+
+    @RestrictHeapAccess(access = NO_ALLOCATION, reason = "May be called when the heap is exhausted.")
+    private boolean dumpHeap(CCharPointer path) {
+        int size = SizeOf.get(HeapDumpVMOperationData.class);
+        HeapDumpVMOperationData data = StackValue.get(size);
+        MemoryUtil.fillToMemoryAtomic((Pointer) data, WordFactory.unsigned(size), (byte) 0);
+        data.setNativeVMOperation(dumpOperation);
+        data.setPath(path);
+        dumpOperation.enqueue(data);
+        return data.getSuccess();
+    }
+
+    @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Must not allocate while writing a heap dump.")
+    private boolean writeHeapDump(CCharPointer path) {
+        int bufferSize = Options.HeapDumpBufferSize.getValue();
+        Pointer buffer = ImageSingletons.lookup(UnmanagedMemorySupport.class).malloc(WordFactory.unsigned(bufferSize));
+        if (buffer.isNull()) {
+            return false;
+        }
+        try {
+            int fd = openFile(path);
+            if (fd < 0) {
+                return false;
+            }
+            try {
+                return writer.dump(this, fd, buffer, bufferSize);
+            } finally {
+                closeFile(fd);
+            }
+        } finally {
+            ImageSingletons.lookup(UnmanagedMemorySupport.class).free(buffer);
+        }
+    }
+
+    private static class HeapDumpVMOperation extends NativeVMOperation {
+        HeapDumpVMOperation() {
+            super("Heap dump", SystemEffect.SAFEPOINT);
+        }
+
+        @Override
+        @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Must not allocate while writing a heap dump.")
+        protected void operate(NativeVMOperationData data) {
+            HeapDumpVMOperationData d = (HeapDumpVMOperationData) data;
+            d.setSuccess(singleton().writeHeapDump(d.getPath()));
+        }
+    }
+
+    @RawStructure
+    private interface HeapDumpVMOperationData extends NativeVMOperationData {
+        @RawField
+        CCharPointer getPath();
+
+        @RawField
+        void setPath(CCharPointer value);
+
+        @RawField
+        boolean getSuccess();
+
+        @RawField
+        void setSuccess(boolean value);
+    }
+}
@@ -0,0 +1,569 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.heapdump;
+
+import static com.oracle.svm.core.annotate.RestrictHeapAccess.Access.NO_ALLOCATION;
+
+import org.graalvm.compiler.word.ObjectAccess;
+import org.graalvm.compiler.word.Word;
+import org.graalvm.nativeimage.CurrentIsolate;
+import org.graalvm.nativeimage.IsolateThread;
+import org.graalvm.nativeimage.Platform;
+import org.graalvm.nativeimage.Platforms;
+import org.graalvm.nativeimage.c.function.CodePointer;
+import org.graalvm.word.Pointer;
+
+import com.oracle.svm.core.StaticFieldsSupport;
+import com.oracle.svm.core.annotate.NeverInline;
+import com.oracle.svm.core.annotate.RestrictHeapAccess;
+import com.oracle.svm.core.code.CodeInfo;
+import com.oracle.svm.core.code.CodeInfoTable;
+import com.oracle.svm.core.deopt.DeoptimizedFrame;
+import com.oracle.svm.core.heap.Heap;
+import com.oracle.svm.core.heap.ObjectReferenceVisitor;
+import com.oracle.svm.core.heap.ObjectVisitor;
+import com.oracle.svm.core.heap.ReferenceAccess;
+import com.oracle.svm.core.hub.DynamicHub;
+import com.oracle.svm.core.hub.LayoutEncoding;
+import com.oracle.svm.core.snippets.KnownIntrinsics;
+import com.oracle.svm.core.stack.JavaStackWalker;
+import com.oracle.svm.core.stack.StackFrameVisitor;
+import com.oracle.svm.core.thread.JavaThreads;
+import com.oracle.svm.core.thread.VMOperation;
+import com.oracle.svm.core.thread.VMThreads;
+
+/**
+ * Writes a heap dump in the HPROF binary format, version 1.0.2, which is understood by the common
+ * heap analysis tools. The dump contains a class record for every type, the Java threads and the
+ * references from their stack frames as roots, and every object of the image heap and of the
+ * collected heap. Object and class ids are the addresses of the objects.
+ * <p>
+ * The heap dump is written at a safepoint and must not allocate, so that it can also be written
+ * when the heap is exhausted. All records are encoded into a fixed-size native buffer, which is
+ * written to the file whenever it is full. Records of the heap dump are grouped into segments that
+ * each fit into the buffer, so that the length of a segment can be patched before the buffer is
+ * written. Only objects that are larger than the whole buffer, i.e., large arrays, get a segment of
+ * their own whose length is known in advance.
+ */
+final class HeapDumpWriter {
+    /* Basic types of fields and array elements. */
+    static final byte TYPE_OBJECT = 2;
+    static final byte TYPE_BOOLEAN = 4;
+    static final byte TYPE_CHAR = 5;
+    static final byte TYPE_FLOAT = 6;
+    static final byte TYPE_DOUBLE = 7;
+    static final byte TYPE_BYTE = 8;
+    static final byte TYPE_SHORT = 9;
+    static final byte TYPE_INT = 10;
+    static final byte TYPE_LONG = 11;
+
+    /* Top-level record tags. */
+    private static final int HPROF_UTF8 = 0x01;
+    private static final int HPROF_LOAD_CLASS = 0x02;
+    private static final int HPROF_TRACE = 0x05;
+    private static final int HPROF_HEAP_DUMP_SEGMENT = 0x1C;
+    private static final int HPROF_HEAP_DUMP_END = 0x2C;
+
+    /* Tags of heap dump sub-records. */
+    private static final int HPROF_GC_ROOT_JAVA_FRAME = 0x03;
+    private static final int HPROF_GC_ROOT_STICKY_CLASS = 0x05;
+    private static final int HPROF_GC_ROOT_THREAD_OBJ = 0x08;
+    private static final int HPROF_GC_CLASS_DUMP = 0x20;
+    private static final int HPROF_GC_INSTANCE_DUMP = 0x21;
+    private static final int HPROF_GC_OBJ_ARRAY_DUMP = 0x22;
+    private static final int HPROF_GC_PRIM_ARRAY_DUMP = 0x23;
+
+    private static final String HPROF_HEADER = "JAVA PROFILE 1.0.2";
+    private static final int ID_SIZE = Long.BYTES;
+    /** Tag, time stamp and length. */
+    private static final int RECORD_HEADER_SIZE = 1 + Integer.BYTES + Integer.BYTES;
+    /** The serial number of the only, empty, stack trace that all objects refer to. */
+    private static final int EMPTY_STACK_TRACE_SERIAL = 1;
+
+    private final ClassNameVisitor classNameVisitor = new ClassNameVisitor();
+    private final ClassDumpVisitor classDumpVisitor = new ClassDumpVisitor();
+    private final ObjectDumpVisitor objectDumpVisitor = new ObjectDumpVisitor();
+    private final FrameRootsVisitor frameRootsVisitor = new FrameRootsVisitor();
+    private final FrameReferenceVisitor frameReferenceVisitor = new FrameReferenceVisitor();
+
+    private HeapDumpSupportImpl output;
+    private int fd;
+    private Pointer buffer;
+    private int capacity;
+    private int position;
+    private boolean failed;
+    /** The buffer position of the heap dump segment that is currently open, or -1. */
+    private int segmentStart;
+    private int threadSerial;
+    private int frameNumber;
+
+    @Platforms(Platform.HOSTED_ONLY.class)
+    HeapDumpWriter() {
+    }
+
+    /**
+     * Writes the heap dump to the file {@code fileDescriptor}, using {@code dumpBuffer} of
+     * {@code bufferSize} bytes as the only temporary memory. Returns false if writing failed.
+     */
+    @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Must not allocate while writing a heap dump.")
+    boolean dump(HeapDumpSupportImpl dumpOutput, int fileDescriptor, Pointer dumpBuffer, int bufferSize) {
+        assert VMOperation.isInProgressAtSafepoint();
+        this.output = dumpOutput;
+        this.fd = fileDescriptor;
+        this.buffer = dumpBuffer;
+        this.capacity = bufferSize;
+        this.position = 0;
+        this.failed = false;
+        this.segmentStart = -1;
+
+        writeFileHeader();
+        writeFieldNames();
+        Heap.getHeap().walkImageHeapObjects(classNameVisitor);
+        writeEmptyStackTrace();
+
+        /* Classes only live in the image heap. */
+        Heap.getHeap().walkImageHeapObjects(classDumpVisitor);
+        writeThreadRoots();
+        Heap.getHeap().walkObjects(objectDumpVisitor);
+
+        endSegment();
+        writeRecordHeader(HPROF_HEAP_DUMP_END, 0);
+        flush();
+        return !failed;
+    }
+
+    private void writeFileHeader() {
+        for (int i = 0; i < HPROF_HEADER.length(); i++) {
+            writeU1(HPROF_HEADER.charAt(i));
+        }
+        writeU1(0);
+        writeU4(ID_SIZE);
+        writeU8(System.currentTimeMillis());
+    }
+
+    private void writeFieldNames() {
+        HeapDumpMetadata metadata = HeapDumpMetadata.singleton();
+        for (int i = 0; i < metadata.getFieldNameCount(); i++) {
+            writeString(metadata.getFieldNameAt(i), false);
+        }
+    }
+
+    private void writeEmptyStackTrace() {
+        writeRecordHeader(HPROF_TRACE, 3 * Integer.BYTES);
+        writeU4(EMPTY_STACK_TRACE_SERIAL);
+        writeU4(0);
+        writeU4(0);
+    }
+
+    /** Writes a UTF8 record whose id is the address of the string. */
+    private void writeString(String value, boolean className) {
+        writeRecordHeader(HPROF_UTF8, ID_SIZE + utf8Length(value));
+        writeObjectId(value);
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (className && ch == '.') {
+                /* Class names use the internal form. */
+                ch = '/';
+            }
+            if (ch != 0 && ch < 0x80) {
+                writeU1(ch);
+            } else if (ch < 0x800) {
+                writeU1(0xC0 | (ch >> 6));
+                writeU1(0x80 | (ch & 0x3F));
+            } else {
+                writeU1(0xE0 | (ch >> 12));
+                writeU1(0x80 | ((ch >> 6) & 0x3F));
+                writeU1(0x80 | (ch & 0x3F));
+            }
+        }
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch != 0 && ch < 0x80) {
+                length += 1;
+            } else if (ch < 0x800) {
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private void writeClassName(DynamicHub hub) {
+        writeString(hub.getName(), true);
+        writeRecordHeader(HPROF_LOAD_CLASS, 2 * Integer.BYTES + 2 * ID_SIZE);
+        writeU4(hub.getTypeID() + 1);
+        writeObjectId(hub);
+        writeU4(EMPTY_STACK_TRACE_SERIAL);
+        writeObjectId(hub.getName());
+    }
+
+    private void writeClassDump(DynamicHub hub) {
+        HeapDumpMetadata metadata = HeapDumpMetadata.singleton();
+        int typeId = hub.getTypeID();
+        int staticStart = metadata.getStaticFieldsStart(typeId);
+        int staticEnd = metadata.getStaticFieldsEnd(typeId);
+        int instanceStart = metadata.getInstanceFieldsStart(typeId);
+        int instanceEnd = metadata.getInstanceFieldsEnd(typeId);
+
+        long size = 1 + 7 * ID_SIZE + 2 * Integer.BYTES + 3 * Short.BYTES + (instanceEnd - instanceStart) * (ID_SIZE + 1);
+        for (int field = staticStart; field < staticEnd; field++) {
+            size += ID_SIZE + 1 + valueSize(metadata.getFieldType(field));
+        }
+        beginSubRecord(size);
+        writeU1(HPROF_GC_CLASS_DUMP);
+        writeObjectId(hub);
+        writeU4(EMPTY_STACK_TRACE_SERIAL);
+        writeObjectId(hub.getSuperHub());
+        /* Class loader, signers, protection domain and two reserved ids. */
+        for (int i = 0; i < 5; i++) {
+            writeId(0);
+        }
+        writeU4(LayoutEncoding.isInstance(hub.getLayoutEncoding()) ? (int) LayoutEncoding.getInstanceSize(hub.getLayoutEncoding()).rawValue() : 0);
+        /* Constant pool. */
+        writeU2(0);
+
+        writeU2(staticEnd - staticStart);
+        for (int field = staticStart; field < staticEnd; field++) {
+            byte type = metadata.getFieldType(field);
+            writeObjectId(metadata.getFieldName(field));
+            writeU1(type);
+            Object holder = type == TYPE_OBJECT ? StaticFieldsSupport.getStaticObjectFields() : StaticFieldsSupport.getStaticPrimitiveFields();
+            writeFieldValue(holder, type, metadata.getFieldOffset(field));
+        }
+
+        writeU2(instanceEnd - instanceStart);
+        for (int field = instanceStart; field < instanceEnd; field++) {
+            writeObjectId(metadata.getFieldName(field));
+            writeU1(metadata.getFieldType(field));
+        }
+
+        beginSubRecord(1 + ID_SIZE);
+        writeU1(HPROF_GC_ROOT_STICKY_CLASS);
+        writeObjectId(hub);
+    }
+
+    private void writeThreadRoots() {
+        threadSerial = 0;
+        for (IsolateThread thread = VMThreads.firstThread(); thread.isNonNull(); thread = VMThreads.nextThread(thread)) {
+            threadSerial++;
+            Thread javaThread = JavaThreads.fromVMThread(thread);
+            if (javaThread != null) {
+                beginSubRecord(1 + ID_SIZE + 2 * Integer.BYTES);
+                writeU1(HPROF_GC_ROOT_THREAD_OBJ);
+                writeObjectId(javaThread);
+                writeU4(threadSerial);
+                writeU4(EMPTY_STACK_TRACE_SERIAL);
+            }
+
+            frameNumber = 0;
+            if (thread == CurrentIsolate.getCurrentThread()) {
+                walkCurrentThread();
+            } else {
+                JavaStackWalker.walkThread(thread, frameRootsVisitor);
+            }
+        }
+    }
+
+    @NeverInline("Starts a stack walk in the caller frame.")
+    private void walkCurrentThread() {
+        JavaStackWalker.walkCurrentThread(KnownIntrinsics.readCallerStackPointer(), frameRootsVisitor);
+    }
+
+    private void writeObject(Object obj) {
+        if (obj instanceof DynamicHub) {
+            /* Already written as a class dump. */
+            return;
+        }
+        DynamicHub hub = KnownIntrinsics.readHub(obj);
+        int encoding = hub.getLayoutEncoding();
+        if (hub.isArray() && LayoutEncoding.isObjectArray(encoding)) {
+            writeObjectArray(obj, hub);
+        } else if (hub.isArray() && LayoutEncoding.isPrimitiveArray(encoding)) {
+            writePrimitiveArray(obj, hub);
+        } else {
+            /* Includes hybrid objects, of which only the fields are written. */
+            writeInstance(obj, hub);
+        }
+    }
+
+    private void writeInstance(Object obj, DynamicHub hub) {
+        HeapDumpMetadata metadata = HeapDumpMetadata.singleton();
+        int valuesSize = 0;
+        for (DynamicHub cur = hub; cur != null; cur = cur.getSuperHub()) {
+            int typeId = cur.getTypeID();
+            for (int field = metadata.getInstanceFieldsStart(typeId); field < metadata.getInstanceFieldsEnd(typeId); field++) {
+                valuesSize += valueSize(metadata.getFieldType(field));
+            }
+        }
+
+        beginSubRecord(1 + 2 * ID_SIZE + 2 * Integer.BYTES + valuesSize);
+        writeU1(HPROF_GC_INSTANCE_DUMP);
+        writeObjectId(obj);
+        writeU4(EMPTY_STACK_TRACE_SERIAL);
+        writeObjectId(hub);
+        writeU4(valuesSize);
+        for (DynamicHub cur = hub; cur != null; cur = cur.getSuperHub()) {
+            int typeId = cur.getTypeID();
+            for (int field = metadata.getInstanceFieldsStart(typeId); field < metadata.getInstanceFieldsEnd(typeId); field++) {
+                writeFieldValue(obj, metadata.getFieldType(field), metadata.getFieldOffset(field));
+            }
+        }
+    }
+
+    private void writeObjectArray(Object array, DynamicHub hub) {
+        int length = KnownIntrinsics.readArrayLength(array);
+        int encoding = hub.getLayoutEncoding();
+        beginSubRecord(1 + 2 * ID_SIZE + 2 * Integer.BYTES + (long) length * ID_SIZE);
+        writeU1(HPROF_GC_OBJ_ARRAY_DUMP);
+        writeObjectId(array);
+        writeU4(EMPTY_STACK_TRACE_SERIAL);
+        writeU4(length);
+        writeObjectId(hub);
+        for (int i = 0; i < length; i++) {
+            writeObjectId(ObjectAccess.readObject(array, LayoutEncoding.getArrayElementOffset(encoding, i)));
+        }
+    }
+
+    private void writePrimitiveArray(Object array, DynamicHub hub) {
+        int length = KnownIntrinsics.readArrayLength(array);
+        int encoding = hub.getLayoutEncoding();
+        byte type = primitiveType(hub.getComponentHub());
+        int elementSize = valueSize(type);
+        beginSubRecord(1 + ID_SIZE + 2 * Integer.BYTES + 1 + (long) length * elementSize);
+        writeU1(HPROF_GC_PRIM_ARRAY_DUMP);
+        writeObjectId(array);
+        writeU4(EMPTY_STACK_TRACE_SERIAL);
+        writeU4(length);
+        writeU1(type);
+        for (int i = 0; i < length; i++) {
+            writeFieldValue(array, type, (int) LayoutEncoding.getArrayElementOffset(encoding, i).rawValue());
+        }
+    }
+
+    private static byte primitiveType(DynamicHub componentHub) {
+        if (componentHub == DynamicHub.fromClass(boolean.class)) {
+            return TYPE_BOOLEAN;
+        } else if (componentHub == DynamicHub.fromClass(byte.class)) {
+            return TYPE_BYTE;
+        } else if (componentHub == DynamicHub.fromClass(char.class)) {
+            return TYPE_CHAR;
+        } else if (componentHub == DynamicHub.fromClass(short.class)) {
+            return TYPE_SHORT;
+        } else if (componentHub == DynamicHub.fromClass(int.class)) {
+            return TYPE_INT;
+        } else if (componentHub == DynamicHub.fromClass(float.class)) {
+            return TYPE_FLOAT;
+        } else if (componentHub == DynamicHub.fromClass(long.class)) {
+            return TYPE_LONG;
+        } else {
+            assert componentHub == DynamicHub.fromClass(double.class);
+            return TYPE_DOUBLE;
+        }
+    }
+
+    private static int valueSize(byte type) {
+        switch (type) {
+            case TYPE_BOOLEAN:
+            case TYPE_BYTE:
+                return 1;
+            case TYPE_CHAR:
+            case TYPE_SHORT:
+                return 2;
+            case TYPE_INT:
+            case TYPE_FLOAT:
+                return 4;
+            default:
+                return 8;
+        }
+    }
+
+    private void writeFieldValue(Object holder, byte type, int offset) {
+        switch (type) {
+            case TYPE_OBJECT:
+                writeObjectId(ObjectAccess.readObject(holder, offset));
+                break;
+            case TYPE_BOOLEAN:
+            case TYPE_BYTE:
+                writeU1(ObjectAccess.readByte(holder, offset));
+                break;
+            case TYPE_CHAR:
+            case TYPE_SHORT:
+                writeU2(ObjectAccess.readShort(holder, offset));
+                break;
+            case TYPE_INT:
+            case TYPE_FLOAT:
+                writeU4(ObjectAccess.readInt(holder, offset));
+                break;
+            default:
+                writeU8(ObjectAccess.readLong(holder, offset));
+                break;
+        }
+    }
+
+    /*
+     * Low-level encoding. All values are written in big-endian byte order.
+     */
+
+    private void writeRecordHeader(int tag, int length) {
+        writeU1(tag);
+        writeU4(0);
+        writeU4(length);
+    }
+
+    /**
+     * Makes room for a heap dump sub-record of the given size, opening a new segment if necessary.
+     * Sub-records are never split across the buffer boundary of an open segment.
+     */
+    private void beginSubRecord(long size) {
+        if (segmentStart >= 0 && position + size > capacity) {
+            flush();
+        }
+        if (segmentStart < 0) {
+            if (RECORD_HEADER_SIZE + size > capacity - position) {
+                flush();
+            }
+            if (RECORD_HEADER_SIZE + size <= capacity) {
+                segmentStart = position;
+                /* The length is patched when the segment ends. */
+                writeRecordHeader(HPROF_HEAP_DUMP_SEGMENT, 0);
+            } else {
+                /* A segment of its own, whose contents are written in multiple parts. */
+                writeRecordHeader(HPROF_HEAP_DUMP_SEGMENT, (int) size);
+            }
+        }
+    }
+
+    private void endSegment() {
+        if (segmentStart >= 0) {
+            int length = position - segmentStart - RECORD_HEADER_SIZE;
+            int lengthPosition = segmentStart + 1 + Integer.BYTES;
+            buffer.writeByte(lengthPosition, (byte) (length >>> 24));
+            buffer.writeByte(lengthPosition + 1, (byte) (length >>> 16));
+            buffer.writeByte(lengthPosition + 2, (byte) (length >>> 8));
+            buffer.writeByte(lengthPosition + 3, (byte) length);
+            segmentStart = -1;
+        }
+    }
+
+    private void flush() {
+        endSegment();
+        if (position > 0 && !failed) {
+            failed = !output.writeBytes(fd, buffer, position);
+        }
+        position = 0;
+    }
+
+    private void writeU1(int value) {
+        if (position == capacity) {
+            flush();
+        }
+        buffer.writeByte(position, (byte) value);
+        position++;
+    }
+
+    private void writeU2(int value) {
+        writeU1(value >>> 8);
+        writeU1(value);
+    }
+
+    private void writeU4(int value) {
+        writeU2(value >>> 16);
+        writeU2(value);
+    }
+
+    private void writeU8(long value) {
+        writeU4((int) (value >>> 32));
+        writeU4((int) value);
+    }
+
+    private void writeId(long value) {
+        writeU8(value);
+    }
+
+    private void writeObjectId(Object obj) {
+        writeId(obj == null ? 0 : Word.objectToUntrackedPointer(obj).rawValue());
+    }
+
+    private final class ClassNameVisitor implements ObjectVisitor {
+        @Override
+        @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Must not allocate while visiting the heap.")
+        public boolean visitObject(Object obj) {
+            if (obj instanceof DynamicHub && !((DynamicHub) obj).isPrimitive()) {
+                writeClassName((DynamicHub) obj);
+            }
+            return !failed;
+        }
+    }
+
+    private final class ClassDumpVisitor implements ObjectVisitor {
+        @Override
+        @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Must not allocate while visiting the heap.")
+        public boolean visitObject(Object obj) {
+            if (obj instanceof DynamicHub && !((DynamicHub) obj).isPrimitive()) {
+                writeClassDump((DynamicHub) obj);
+            }
+            return !failed;
+        }
+    }
+
+    private final class ObjectDumpVisitor implements ObjectVisitor {
+        @Override
+        @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Must not allocate while visiting the heap.")
+        public boolean visitObject(Object obj) {
+            writeObject(obj);
+            return !failed;
+        }
+    }
+
+    private final class FrameRootsVisitor extends StackFrameVisitor {
+        @Override
+        @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Must not allocate while writing a heap dump.")
+        protected boolean visitFrame(Pointer sp, CodePointer ip, CodeInfo codeInfo, DeoptimizedFrame deoptimizedFrame) {
+            frameNumber++;
+            return CodeInfoTable.visitObjectReferences(sp, ip, codeInfo, deoptimizedFrame, frameReferenceVisitor);
+        }
+    }
+
+    private final class FrameReferenceVisitor implements ObjectReferenceVisitor {
+        @Override
+        @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Must not allocate while writing a heap dump.")
+        public boolean visitObjectReference(Pointer objRef, boolean compressed) {
+            Object obj = ReferenceAccess.singleton().readObjectAt(objRef, compressed);
+            if (obj != null) {
+                beginSubRecord(1 + ID_SIZE + 2 * Integer.BYTES);
+                writeU1(HPROF_GC_ROOT_JAVA_FRAME);
+                writeObjectId(obj);
+                writeU4(threadSerial);
+                writeU4(frameNumber);
+            }
+            return !failed;
+        }
+    }
+}
@@ -24,6 +24,7 @@
  */
 package com.oracle.svm.core.jdk;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -68,6 +69,16 @@ public abstract class SystemPropertiesSupport {
                     "java.vm.specification.version"
     };
 
+    /**
+     * Returns true if the value of the system property with the given key is taken from the VM
+     * hosting the image generator, so reading it at image build time yields the same value as at
+     * run time.
+     */
+    @Platforms(Platform.HOSTED_ONLY.class)
+    public static boolean isHostedProperty(String key) {
+        return Arrays.asList(HOSTED_PROPERTIES).contains(key);
+    }
+
     /** System properties that are lazily computed at run time on first access. */
     private final Map<String, Supplier<String>> lazyRuntimeValues;
 
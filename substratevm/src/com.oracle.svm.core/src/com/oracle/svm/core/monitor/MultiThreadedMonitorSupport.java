@@ -55,6 +55,8 @@ import com.oracle.svm.core.annotate.RestrictHeapAccess;
 import com.oracle.svm.core.annotate.RestrictHeapAccess.Access;
 import com.oracle.svm.core.annotate.TargetClass;
 import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.flightrecorder.FlightRecorder;
+import com.oracle.svm.core.flightrecorder.FlightRecorderEvents;
 import com.oracle.svm.core.hub.DynamicHub;
 import com.oracle.svm.core.snippets.KnownIntrinsics;
 import com.oracle.svm.core.snippets.SubstrateForeignCallTarget;
@@ -77,6 +79,15 @@ import sun.misc.Unsafe;
  * (and thus need a monitor) and assigns a monitor offset to point to the {@link #getMonitorOffset
  * slot for the monitor}. The monitor is implemented with a {@link ReentrantLock}.
  * <p>
+ * Most synchronization is uncontended and not recursive, so a monitor slot does not hold a lock
+ * until it is needed. Instead, a thread locks the object by atomically installing its
+ * {@link Thread} object in the empty slot, and unlocks it by atomically clearing the slot again.
+ * Such a thin lock does not allocate. It is inflated to a {@link ReentrantLock} that is owned by
+ * the thread which holds the thin lock when another thread tries to lock the object, when the owner
+ * locks it recursively, or for {@link #wait()} and {@link #notify()}. A monitor is never deflated.
+ * The 3 reserved bits of the object header are all used by the garbage collector, so the thin lock
+ * is stored in the monitor slot instead of the header.
+ * <p>
  * There are a few exceptions: {@link String} and {@link DynamicHub} objects never have monitor
  * fields because we want instances in the image heap to be immutable. Arrays never have monitor
  * fields because it would increase the size of every array and it is not possible to distinguish
@@ -230,7 +241,21 @@ public class MultiThreadedMonitorSupport extends MonitorSupport {
     @RestrictHeapAccess(reason = NO_LONGER_UNINTERRUPTIBLE, overridesCallers = true, access = Access.UNRESTRICTED)
     @Override
     public void monitorEnter(Object obj) {
+        int monitorOffset = getMonitorOffset(obj);
+        if (monitorOffset != 0 && UNSAFE.compareAndSwapObject(obj, monitorOffset, null, Thread.currentThread())) {
+            /* The common case: acquired the thin lock. */
+            return;
+        }
         ReentrantLock lockObject = getOrCreateMonitor(obj, true);
+        if (FlightRecorder.isEnabled() && FlightRecorder.isRecording()) {
+            if (!lockObject.tryLock()) {
+                /* Contended: record how long it takes to acquire the monitor. */
+                long startTicks = System.nanoTime();
+                lockObject.lock();
+                FlightRecorderEvents.emitJavaMonitorEnter(startTicks, obj);
+            }
+            return;
+        }
         lockObject.lock();
     }
 
@@ -269,6 +294,11 @@ public class MultiThreadedMonitorSupport extends MonitorSupport {
     @RestrictHeapAccess(reason = NO_LONGER_UNINTERRUPTIBLE, overridesCallers = true, access = Access.UNRESTRICTED)
     @Override
     public void monitorExit(Object obj) {
+        int monitorOffset = getMonitorOffset(obj);
+        if (monitorOffset != 0 && UNSAFE.compareAndSwapObject(obj, monitorOffset, Thread.currentThread(), null)) {
+            /* Released the thin lock, which was not inflated in the meantime. */
+            return;
+        }
         ReentrantLock lockObject = getOrCreateMonitor(obj, true);
         lockObject.unlock();
     }
@@ -331,12 +361,19 @@ public class MultiThreadedMonitorSupport extends MonitorSupport {
 
     @Override
     public boolean isLockedByCurrentThread(Object obj) {
+        Thread thinLockOwner = getThinLockOwner(obj);
+        if (thinLockOwner != null) {
+            return thinLockOwner == Thread.currentThread();
+        }
         ReentrantLock lockObject = getOrCreateMonitor(obj, false);
         return lockObject != null && lockObject.isHeldByCurrentThread();
     }
 
     @Override
     public boolean isLockedByAnyThread(Object obj) {
+        if (getThinLockOwner(obj) != null) {
+            return true;
+        }
         ReentrantLock lockObject = getOrCreateMonitor(obj, false);
         return lockObject != null && lockObject.isLocked();
     }
@@ -398,19 +435,49 @@ public class MultiThreadedMonitorSupport extends MonitorSupport {
         }
     }
 
-    protected ReentrantLock getOrCreateMonitorFromObject(Object obj, boolean createIfNotExisting, int monitorOffset) {
-        ReentrantLock existingMonitor = KnownIntrinsics.convertUnknownValue(BarrieredAccess.readObject(obj, monitorOffset), ReentrantLock.class);
-        if (existingMonitor != null || !createIfNotExisting) {
-            assert existingMonitor == null || isMonitorLock(existingMonitor);
-            return existingMonitor;
+    /**
+     * Returns the thread that holds the thin lock of the object, or null if the object is not
+     * thin-locked. The result is only stable if the current thread holds the thin lock.
+     */
+    protected static Thread getThinLockOwner(Object obj) {
+        int monitorOffset = getMonitorOffset(obj);
+        if (monitorOffset != 0) {
+            Object slot = KnownIntrinsics.convertUnknownValue(BarrieredAccess.readObject(obj, monitorOffset), Object.class);
+            if (slot instanceof Thread) {
+                return (Thread) slot;
+            }
         }
-        /* Atomically put a new lock in place of the null at the monitorOffset. */
-        ReentrantLock newMonitor = newMonitorLock();
-        if (UNSAFE.compareAndSwapObject(obj, monitorOffset, null, newMonitor)) {
-            return newMonitor;
+        return null;
+    }
+
+    protected ReentrantLock getOrCreateMonitorFromObject(Object obj, boolean createIfNotExisting, int monitorOffset) {
+        while (true) {
+            Object slot = KnownIntrinsics.convertUnknownValue(BarrieredAccess.readObject(obj, monitorOffset), Object.class);
+            if (slot instanceof ReentrantLock) {
+                ReentrantLock existingMonitor = (ReentrantLock) slot;
+                assert isMonitorLock(existingMonitor);
+                return existingMonitor;
+            } else if (!createIfNotExisting) {
+                /* Either unlocked or thin-locked, but not inflated. */
+                return null;
+            }
+
+            ReentrantLock newMonitor;
+            if (slot == null) {
+                newMonitor = newMonitorLock();
+            } else {
+                /* Inflate the thin lock: its owner becomes the owner of the new lock. */
+                newMonitor = newLockedMonitorForThread((Thread) slot, 1);
+            }
+            /* Atomically put the new lock in place of the null or the thin lock. */
+            if (UNSAFE.compareAndSwapObject(obj, monitorOffset, slot, newMonitor)) {
+                return newMonitor;
+            }
+            /*
+             * We lost the race: the thin lock was acquired or released, or some other thread
+             * installed a lock. Retry with the new state.
+             */
         }
-        /* We lost the race, use the lock some other thread installed. */
-        return KnownIntrinsics.convertUnknownValue(BarrieredAccess.readObject(obj, monitorOffset), ReentrantLock.class);
     }
 
     protected ReentrantLock getOrCreateMonitorFromMap(Object obj, boolean createIfNotExisting) {
@@ -452,7 +519,7 @@ public class MultiThreadedMonitorSupport extends MonitorSupport {
      * patching of internal state, since there is no public API in {@link ReentrantLock} to do that
      * (for a good reason, because it is a highly unusual operation).
      */
-    protected static ReentrantLock newLockedMonitorForThread(IsolateThread isolateThread, int recursionDepth) {
+    protected static ReentrantLock newLockedMonitorForThread(Thread thread, int recursionDepth) {
         ReentrantLock result = newMonitorLock();
         for (int i = 0; i < recursionDepth; i++) {
             result.lock();
@@ -462,11 +529,15 @@ public class MultiThreadedMonitorSupport extends MonitorSupport {
         Target_java_util_concurrent_locks_AbstractOwnableSynchronizer sync = SubstrateUtil.cast(lock.sync, Target_java_util_concurrent_locks_AbstractOwnableSynchronizer.class);
 
         assert sync.exclusiveOwnerThread == Thread.currentThread() : "Must be locked by current thread";
-        sync.exclusiveOwnerThread = JavaThreads.fromVMThread(isolateThread);
+        sync.exclusiveOwnerThread = thread;
 
         return result;
     }
 
+    protected static ReentrantLock newLockedMonitorForThread(IsolateThread isolateThread, int recursionDepth) {
+        return newLockedMonitorForThread(JavaThreads.fromVMThread(isolateThread), recursionDepth);
+    }
+
     protected static boolean isMonitorLock(ReentrantLock lock) {
         return lock != null && isMonitorLockSynchronizer(SubstrateUtil.cast(lock, Target_java_util_concurrent_locks_ReentrantLock.class).sync);
     }
@@ -483,6 +554,11 @@ public class MultiThreadedMonitorSupport extends MonitorSupport {
         return getOrCreateMonitor(obj, true);
     }
 
+    /** Returns the lock of the object, or null if it is unlocked or only thin-locked. */
+    public ReentrantLock getInflatedMonitorForTesting(Object obj) {
+        return getOrCreateMonitor(obj, false);
+    }
+
     protected ConditionObject getOrCreateCondition(ReentrantLock monitorLock, boolean createIfNotExisting) {
         assert isMonitorLock(monitorLock);
         Target_java_util_concurrent_locks_ReentrantLock lock = SubstrateUtil.cast(monitorLock, Target_java_util_concurrent_locks_ReentrantLock.class);
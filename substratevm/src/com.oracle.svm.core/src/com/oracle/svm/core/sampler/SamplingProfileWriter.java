@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.sampler;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graalvm.nativeimage.c.function.CodePointer;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.code.CodeInfo;
+import com.oracle.svm.core.code.CodeInfoAccess;
+import com.oracle.svm.core.code.CodeInfoQueryResult;
+import com.oracle.svm.core.code.CodeInfoTable;
+import com.oracle.svm.core.code.FrameInfoQueryResult;
+import com.oracle.svm.core.code.UntetheredCodeInfo;
+
+/**
+ * Writes the stacks recorded in a {@link SamplingStackTable} in the collapsed stack format that is
+ * consumed by flame graph tools: one line per distinct stack, with the frames from the outermost to
+ * the innermost method separated by semicolons, followed by the number of samples. Inlined methods
+ * are expanded to separate frames. Stacks that only differ in instruction pointers that map to the
+ * same methods are merged.
+ */
+final class SamplingProfileWriter {
+    private static final String UNKNOWN_FRAME = "[unknown]";
+    private static final String LOST_SAMPLES_FRAME = "[lost samples]";
+
+    private SamplingProfileWriter() {
+    }
+
+    static void write(String path, SamplingStackTable table) throws IOException {
+        Map<String, Long> stacks = new HashMap<>();
+        List<String> frames = new ArrayList<>();
+        table.forEachEntry((ips, depth, count) -> {
+            frames.clear();
+            for (int i = 0; i < depth; i++) {
+                addFrames(frames, WordFactory.pointer(ips[i]), i == 0);
+            }
+            stacks.merge(collapse(frames), count, Long::sum);
+        });
+        long lostSamples = table.getLostSamples();
+        if (lostSamples > 0) {
+            stacks.put(LOST_SAMPLES_FRAME, lostSamples);
+        }
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8))) {
+            for (Map.Entry<String, Long> entry : stacks.entrySet()) {
+                writer.write(entry.getKey());
+                writer.write(' ');
+                writer.write(Long.toString(entry.getValue()));
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static String collapse(List<String> frames) {
+        StringBuilder result = new StringBuilder();
+        for (int i = frames.size() - 1; i >= 0; i--) {
+            result.append(frames.get(i));
+            if (i > 0) {
+                result.append(';');
+            }
+        }
+        return result.toString();
+    }
+
+    @Uninterruptible(reason = "Prevent the GC from freeing the CodeInfo.")
+    private static void addFrames(List<String> frames, CodePointer ip, boolean innermost) {
+        UntetheredCodeInfo untetheredInfo = CodeInfoTable.lookupCodeInfo(ip);
+        if (untetheredInfo.isNull()) {
+            addFrames0(frames, WordFactory.nullPointer(), ip, innermost);
+            return;
+        }
+
+        Object tether = CodeInfoAccess.acquireTether(untetheredInfo);
+        try {
+            CodeInfo info = CodeInfoAccess.convert(untetheredInfo, tether);
+            addFrames0(frames, info, ip, innermost);
+        } finally {
+            CodeInfoAccess.releaseTether(untetheredInfo, tether);
+        }
+    }
+
+    @Uninterruptible(reason = "Pass the now protected CodeInfo to interruptible code.", calleeMustBe = false)
+    private static void addFrames0(List<String> frames, CodeInfo info, CodePointer ip, boolean innermost) {
+        addFrames(frames, info, ip, innermost);
+    }
+
+    /**
+     * Adds the frames for {@code ip}, innermost first. Return addresses are exactly at a call, so
+     * the frame information of the call site applies. The innermost frame was interrupted at an
+     * arbitrary instruction, so the frame information of the next call site in the same method is
+     * used, which can attribute the sample to a method that is inlined shortly after the
+     * instruction.
+     */
+    private static void addFrames(List<String> frames, CodeInfo info, CodePointer ip, boolean innermost) {
+        if (info.isNull()) {
+            frames.add(UNKNOWN_FRAME);
+            return;
+        }
+
+        FrameInfoQueryResult frameInfo;
+        if (innermost) {
+            frameInfo = CodeInfoAccess.lookupEnclosingFrameInfo(info, CodeInfoAccess.relativeIP(info, ip));
+        } else {
+            CodeInfoQueryResult queryResult = CodeInfoTable.lookupCodeInfoQueryResult(info, ip);
+            frameInfo = queryResult.getFrameInfo();
+        }
+        if (frameInfo == null) {
+            frames.add("[" + CodeInfoAccess.getName(info) + "]");
+            return;
+        }
+        for (FrameInfoQueryResult frame = frameInfo; frame != null; frame = frame.getCaller()) {
+            frames.add(frame.getSourceClassName() + "." + frame.getSourceMethodName());
+        }
+    }
+}
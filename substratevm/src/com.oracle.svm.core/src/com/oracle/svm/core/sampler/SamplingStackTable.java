@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.sampler;
+
+import org.graalvm.nativeimage.UnmanagedMemory;
+import org.graalvm.word.LocationIdentity;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.jdk.UninterruptibleUtils.AtomicLong;
+
+/**
+ * A fixed-size hash table in native memory that counts how often each distinct stack, i.e.,
+ * sequence of raw instruction pointers, was sampled. Stacks are recorded from the signal handler,
+ * so recording only uses uninterruptible code, no Java heap accesses and no locks: an empty entry
+ * is claimed with a compare-and-swap of its state and published once its instruction pointers are
+ * written, and counts are incremented with compare-and-swap loops. When no entry can be found for
+ * a stack within a bounded number of probes, the sample is counted as lost.
+ * <p>
+ * Each entry has the layout {@code int state, int depth, long hash, long count, long[] ips}.
+ */
+final class SamplingStackTable {
+    private static final int STATE_EMPTY = 0;
+    private static final int STATE_WRITING = 1;
+    private static final int STATE_READY = 2;
+
+    private static final int STATE_OFFSET = 0;
+    private static final int DEPTH_OFFSET = 4;
+    private static final int HASH_OFFSET = 8;
+    private static final int COUNT_OFFSET = 16;
+    private static final int IPS_OFFSET = 24;
+
+    private static final int MAX_PROBES = 16;
+
+    private Pointer entries;
+    private int capacity;
+    private int maxDepth;
+    private int entrySize;
+    private final AtomicLong lostSamples = new AtomicLong(0);
+
+    /** Allocates the native memory of the table. Must be called before any sample is recorded. */
+    void allocate(int tableCapacity, int tableMaxDepth) {
+        assert entries.isNull();
+        this.capacity = tableCapacity;
+        this.maxDepth = tableMaxDepth;
+        this.entrySize = IPS_OFFSET + tableMaxDepth * Long.BYTES;
+        this.entries = UnmanagedMemory.calloc(WordFactory.unsigned(tableCapacity).multiply(entrySize));
+    }
+
+    /** Frees the native memory of the table. No samples must be recorded concurrently. */
+    void free() {
+        if (entries.isNonNull()) {
+            UnmanagedMemory.free(entries);
+            entries = WordFactory.nullPointer();
+        }
+    }
+
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    long getLostSamples() {
+        return lostSamples.get();
+    }
+
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    void recordLostSample() {
+        lostSamples.incrementAndGet();
+    }
+
+    /**
+     * Records one sample of the stack consisting of the {@code depth} instruction pointers at
+     * {@code ips}, starting with the innermost frame.
+     */
+    @Uninterruptible(reason = "Called from the signal handler.")
+    void record(Pointer ips, int depth) {
+        if (entries.isNull()) {
+            return;
+        }
+        long hash = hash(ips, depth);
+        int index = (int) ((hash & Long.MAX_VALUE) % capacity);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            Pointer entry = entryAt(index);
+            int state = entry.readInt(STATE_OFFSET);
+            if (state == STATE_EMPTY && entry.logicCompareAndSwapInt(STATE_OFFSET, STATE_EMPTY, STATE_WRITING, LocationIdentity.ANY_LOCATION)) {
+                entry.writeInt(DEPTH_OFFSET, depth);
+                entry.writeLong(HASH_OFFSET, hash);
+                entry.writeLong(COUNT_OFFSET, 1);
+                for (int i = 0; i < depth; i++) {
+                    entry.writeWord(IPS_OFFSET + i * Long.BYTES, ips.readWord(i * Long.BYTES));
+                }
+                entry.logicCompareAndSwapInt(STATE_OFFSET, STATE_WRITING, STATE_READY, LocationIdentity.ANY_LOCATION);
+                return;
+            }
+            /*
+             * An entry that is still being written by another thread is treated like a different
+             * stack. This can result in the same stack being recorded in two entries, which are
+             * merged again when the profile is written.
+             */
+            if (entry.readInt(STATE_OFFSET) == STATE_READY && matches(entry, hash, ips, depth)) {
+                long count;
+                do {
+                    count = entry.readLong(COUNT_OFFSET);
+                } while (!entry.logicCompareAndSwapLong(COUNT_OFFSET, count, count + 1, LocationIdentity.ANY_LOCATION));
+                return;
+            }
+            index = (index + 1) % capacity;
+        }
+        recordLostSample();
+    }
+
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    private Pointer entryAt(int index) {
+        return entries.add(WordFactory.unsigned(index).multiply(entrySize));
+    }
+
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    private static boolean matches(Pointer entry, long hash, Pointer ips, int depth) {
+        if (entry.readLong(HASH_OFFSET) != hash || entry.readInt(DEPTH_OFFSET) != depth) {
+            return false;
+        }
+        for (int i = 0; i < depth; i++) {
+            if (entry.readLong(IPS_OFFSET + i * Long.BYTES) != ips.readLong(i * Long.BYTES)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    private static long hash(Pointer ips, int depth) {
+        long hash = depth;
+        for (int i = 0; i < depth; i++) {
+            hash = hash * 31 + ips.readLong(i * Long.BYTES);
+        }
+        return hash;
+    }
+
+    /** Visits all complete entries of the table. Samples may be recorded concurrently. */
+    void forEachEntry(EntryVisitor visitor) {
+        if (entries.isNull()) {
+            return;
+        }
+        long[] ips = new long[maxDepth];
+        for (int index = 0; index < capacity; index++) {
+            Pointer entry = entryAt(index);
+            if (entry.readInt(STATE_OFFSET) != STATE_READY) {
+                continue;
+            }
+            int depth = entry.readInt(DEPTH_OFFSET);
+            for (int i = 0; i < depth; i++) {
+                ips[i] = entry.readLong(IPS_OFFSET + i * Long.BYTES);
+            }
+            visitor.visit(ips, depth, entry.readLong(COUNT_OFFSET));
+        }
+    }
+
+    interface EntryVisitor {
+        /**
+         * Called for each recorded stack. The {@code ips} array is reused between calls, only its
+         * first {@code depth} elements are valid.
+         */
+        void visit(long[] ips, int depth, long count);
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.core.sampler;
+
+import static com.oracle.svm.core.annotate.RestrictHeapAccess.Access.NO_ALLOCATION;
+
+import java.io.IOException;
+
+import org.graalvm.compiler.api.replacements.Fold;
+import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.options.OptionType;
+import org.graalvm.nativeimage.CurrentIsolate;
+import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.IsolateThread;
+import org.graalvm.nativeimage.ProcessProperties;
+import org.graalvm.nativeimage.StackValue;
+import org.graalvm.nativeimage.c.function.CodePointer;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.word.Pointer;
+import org.graalvm.word.WordFactory;
+
+import com.oracle.svm.core.CErrorNumber;
+import com.oracle.svm.core.FrameAccess;
+import com.oracle.svm.core.RegisterDumper;
+import com.oracle.svm.core.SubstrateOptions;
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.annotate.RestrictHeapAccess;
+import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.code.CodeInfo;
+import com.oracle.svm.core.code.CodeInfoAccess;
+import com.oracle.svm.core.code.CodeInfoQueryResult;
+import com.oracle.svm.core.code.CodeInfoTable;
+import com.oracle.svm.core.code.UntetheredCodeInfo;
+import com.oracle.svm.core.deopt.DeoptimizedFrame;
+import com.oracle.svm.core.deopt.Deoptimizer;
+import com.oracle.svm.core.graal.nodes.WriteCurrentVMThreadNode;
+import com.oracle.svm.core.graal.nodes.WriteHeapBaseNode;
+import com.oracle.svm.core.jdk.RuntimeSupport;
+import com.oracle.svm.core.log.Log;
+import com.oracle.svm.core.option.HostedOptionKey;
+import com.oracle.svm.core.option.RuntimeOptionKey;
+import com.oracle.svm.core.stack.JavaFrameAnchor;
+import com.oracle.svm.core.stack.JavaFrameAnchors;
+import com.oracle.svm.core.thread.VMOperation;
+import com.oracle.svm.core.thread.VMThreads;
+import com.oracle.svm.core.util.UserError;
+import com.oracle.svm.core.util.VMError;
+
+import sun.misc.Signal;
+
+@AutomaticFeature
+class SubstrateSigprofHandlerFeature implements Feature {
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return SubstrateSigprofHandler.isEnabled();
+    }
+
+    @Override
+    public void beforeAnalysis(BeforeAnalysisAccess access) {
+        if (!ImageSingletons.contains(SubstrateSigprofHandler.class)) {
+            throw UserError.abort("The option %s is not supported on this platform.", SubstrateSigprofHandler.Options.SamplingProfiler.getName());
+        }
+        UserError.guarantee(SubstrateSigprofHandler.Options.SamplingProfilerMaxStackDepth.getValue() > 0, "The option %s must be positive.",
+                        SubstrateSigprofHandler.Options.SamplingProfilerMaxStackDepth.getName());
+        VMError.guarantee(ImageSingletons.contains(RegisterDumper.class));
+        RuntimeSupport.getRuntimeSupport().addStartupHook(SubstrateSigprofHandler::startupHook);
+        RuntimeSupport.getRuntimeSupport().addShutdownHook(SubstrateSigprofHandler::shutdownHook);
+    }
+}
+
+/**
+ * A sampling profiler that periodically interrupts the thread that consumes CPU time with a
+ * {@code SIGPROF} signal and records the stack of that thread if it runs Java code. Each sample
+ * only consists of the raw instruction pointers of the stack, which are counted in a
+ * {@link SamplingStackTable}. Mapping them to (possibly inlined) Java methods via the
+ * {@link CodeInfoTable} is deferred until the profile is written, because that requires allocation.
+ * The profile is written in the collapsed stack format that flame graph tools consume, at exit and
+ * optionally whenever a configurable signal is received.
+ * <p>
+ * The signal handler can interrupt a thread at any instruction, so it must neither allocate nor
+ * reach a safepoint check: the interrupted frame has no reference map and the frames below the
+ * signal handler would not be visited by the GC. The stack walk therefore uses
+ * {@link CodeInfoAccess#lookupEncodedFrameSizeUninterruptibly} instead of the regular
+ * {@link com.oracle.svm.core.stack.JavaStackWalker}. Threads that are not in
+ * {@link VMThreads.StatusSupport#STATUS_IN_JAVA} are not sampled, and neither is the thread that
+ * performs a garbage collection.
+ * <p>
+ * The platform-dependent subclass installs the signal handler, drives the timer, and provides a
+ * native thread-local variable that maps the interrupted thread to its {@link IsolateThread}. The
+ * thread register cannot be trusted in the signal handler because the thread may run native code.
+ */
+public abstract class SubstrateSigprofHandler {
+
+    public static class Options {
+        @Option(help = "Enable a sampling profiler that records the stacks of threads running Java code on SIGPROF signals.", type = OptionType.User)//
+        public static final HostedOptionKey<Boolean> SamplingProfiler = new HostedOptionKey<>(false);
+
+        @Option(help = "Maximum number of frames that the sampling profiler records per sample. Only the innermost frames of deeper stacks are recorded.")//
+        public static final HostedOptionKey<Integer> SamplingProfilerMaxStackDepth = new HostedOptionKey<>(64);
+
+        @Option(help = "Interval in milliseconds of consumed CPU time between two samples of the sampling profiler.", type = OptionType.User)//
+        public static final RuntimeOptionKey<Integer> SamplingProfilerInterval = new RuntimeOptionKey<>(10);
+
+        @Option(help = "Maximum number of distinct stacks that the sampling profiler records. Samples of further stacks are counted as lost.")//
+        public static final RuntimeOptionKey<Integer> SamplingProfilerTableSize = new RuntimeOptionKey<>(4096);
+
+        @Option(help = "File to which the sampling profiler writes the profile in collapsed stack format. Default: svm-profile-<pid>.collapsed", type = OptionType.User)//
+        public static final RuntimeOptionKey<String> SamplingProfilerOutputFile = new RuntimeOptionKey<>("");
+
+        @Option(help = "Name of a signal, e.g., USR2, upon which the sampling profiler writes the profile collected so far.", type = OptionType.User)//
+        public static final RuntimeOptionKey<String> SamplingProfilerDumpSignal = new RuntimeOptionKey<>("");
+    }
+
+    private final SamplingStackTable stackTable = new SamplingStackTable();
+
+    @Fold
+    public static boolean isEnabled() {
+        return Options.SamplingProfiler.getValue();
+    }
+
+    @Fold
+    static SubstrateSigprofHandler singleton() {
+        return ImageSingletons.lookup(SubstrateSigprofHandler.class);
+    }
+
+    @Fold
+    static int maxStackDepth() {
+        return Options.SamplingProfilerMaxStackDepth.getValue();
+    }
+
+    static void startupHook() {
+        int interval = Options.SamplingProfilerInterval.getValue();
+        int tableSize = Options.SamplingProfilerTableSize.getValue();
+        if (interval <= 0 || tableSize <= 0) {
+            Log.log().string("The sampling profiler is disabled because its interval and table size must be positive.").newline();
+            return;
+        }
+        singleton().start(interval, tableSize);
+    }
+
+    static void shutdownHook() {
+        SubstrateSigprofHandler handler = singleton();
+        handler.updateTimer(0);
+        handler.writeProfile();
+    }
+
+    private void start(int intervalMillis, int tableSize) {
+        stackTable.allocate(tableSize, maxStackDepth());
+        createThreadLocalKey();
+        /* Threads that attach from now on register themselves, see VMThreads.attachThread. */
+        setThreadLocal(CurrentIsolate.getCurrentThread());
+        install();
+
+        String dumpSignal = Options.SamplingProfilerDumpSignal.getValue();
+        if (!dumpSignal.isEmpty()) {
+            Signal.handle(new Signal(dumpSignal), signal -> writeProfile());
+        }
+        updateTimer(intervalMillis);
+    }
+
+    private void writeProfile() {
+        String path = Options.SamplingProfilerOutputFile.getValue();
+        if (path.isEmpty()) {
+            path = "svm-profile-" + ProcessProperties.getProcessID() + ".collapsed";
+        }
+        try {
+            writeProfile(path);
+        } catch (IOException e) {
+            Log.log().string("Failed to write sampling profile: ").string(e.getMessage()).newline();
+        }
+    }
+
+    private synchronized void writeProfile(String path) throws IOException {
+        SamplingProfileWriter.write(path, stackTable);
+    }
+
+    /**
+     * Writes the profile collected so far to {@code path}. Sampling continues, and the profile is
+     * still written at exit.
+     */
+    public static void dumpProfile(String path) throws IOException {
+        singleton().writeProfile(path);
+    }
+
+    /** Installs the platform-dependent {@code SIGPROF} signal handler. */
+    protected abstract void install();
+
+    /** Creates the native thread-local variable that maps threads to their isolate thread. */
+    protected abstract void createThreadLocalKey();
+
+    /**
+     * Sets the native thread-local variable of the current thread. Does nothing if the variable
+     * was not created yet.
+     */
+    @Uninterruptible(reason = "Called from uninterruptible code.")
+    protected abstract void setThreadLocal(IsolateThread thread);
+
+    /**
+     * Returns the value of the native thread-local variable of the current thread, or null if the
+     * variable was not created yet. Must neither access the image heap nor the isolate thread.
+     */
+    @Uninterruptible(reason = "Called from the signal handler.")
+    protected abstract IsolateThread getThreadLocal();
+
+    /** Starts the timer that triggers {@code SIGPROF}, or stops it if the interval is 0. */
+    protected abstract void updateTimer(int intervalMillis);
+
+    /** Called by {@link VMThreads} when the current thread attaches to the isolate. */
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    public static void registerCurrentThread(IsolateThread thread) {
+        singleton().setThreadLocal(thread);
+    }
+
+    /** Called by {@link VMThreads} before the current thread detaches from the isolate. */
+    @Uninterruptible(reason = "Called from uninterruptible code.", mayBeInlined = true)
+    public static void unregisterCurrentThread() {
+        singleton().setThreadLocal(WordFactory.nullPointer());
+    }
+
+    /**
+     * Called from the platform-dependent signal handler. Enters the isolate if the interrupted
+     * thread is attached and records a sample of its stack. The errno value of the interrupted
+     * thread is preserved.
+     */
+    @Uninterruptible(reason = "The interrupted thread must not reach a safepoint check.")
+    @RestrictHeapAccess(access = NO_ALLOCATION, reason = "Must not allocate in the signal handler.", overridesCallers = true)
+    protected static void sample(RegisterDumper.Context context) {
+        IsolateThread thread = singleton().getThreadLocal();
+        if (thread.isNull()) {
+            /* The interrupted thread is not attached to an isolate. */
+            return;
+        }
+        if (SubstrateOptions.SpawnIsolates.getValue()) {
+            WriteHeapBaseNode.writeCurrentVMHeapBase(VMThreads.IsolateTL.get(thread));
+        }
+        if (SubstrateOptions.MultiThreaded.getValue()) {
+            WriteCurrentVMThreadNode.writeCurrentVMThread(thread);
+        }
+        if (VMThreads.StatusSupport.getStatusVolatile(thread) != VMThreads.StatusSupport.STATUS_IN_JAVA || VMOperation.isGCInProgress()) {
+            return;
+        }
+
+        int savedErrno = CErrorNumber.getCErrorNumber();
+        Pointer sp = (Pointer) RegisterDumper.singleton().getSP(context);
+        CodePointer ip = (CodePointer) RegisterDumper.singleton().getIP(context);
+        singleton().recordSample(sp, ip);
+        CErrorNumber.setCErrorNumber(savedErrno);
+    }
+
+    /**
+     * Walks the stack of the current thread starting at the interrupted instruction. The walk
+     * stops at the first instruction pointer that is not in Java code. In particular, a thread that
+     * was interrupted in a C function called without a thread state transition is recorded with a
+     * single unknown frame.
+     * <p>
+     * The size of the innermost frame is derived from the method that contains the interrupted
+     * instruction. If the thread is interrupted in a method prologue or epilogue, the stack pointer
+     * does not match that frame size yet, so the caller frames of such a sample can be wrong. This
+     * is the usual inaccuracy of profilers that walk stacks without frame pointers.
+     */
+    @Uninterruptible(reason = "The interrupted thread must not reach a safepoint check.")
+    private void recordSample(Pointer startSP, CodePointer startIP) {
+        Pointer ips = StackValue.get(maxStackDepth(), Long.BYTES);
+        JavaFrameAnchor anchor = JavaFrameAnchors.getFrameAnchor();
+        Pointer sp = startSP;
+        CodePointer ip = startIP;
+        int depth = 0;
+        while (depth < maxStackDepth()) {
+            ips.writeWord(depth * Long.BYTES, ip);
+            depth++;
+
+            UntetheredCodeInfo untetheredInfo = CodeInfoTable.lookupCodeInfo(ip);
+            if (untetheredInfo.isNull()) {
+                break;
+            }
+            /* No safepoint can happen during the walk, so the code cannot be freed. */
+            CodeInfo info = CodeInfoAccess.convert(untetheredInfo);
+
+            /* Only frames of callers can be deoptimized, the innermost frame is executing. */
+            DeoptimizedFrame deoptFrame = depth > 1 ? Deoptimizer.checkDeoptimized(sp) : null;
+            long encodedFrameSize;
+            if (deoptFrame != null) {
+                encodedFrameSize = deoptFrame.getSourceEncodedFrameSize();
+            } else {
+                encodedFrameSize = CodeInfoAccess.lookupEncodedFrameSizeUninterruptibly(info, CodeInfoAccess.relativeIP(info, ip));
+            }
+
+            if (!CodeInfoQueryResult.isEntryPoint(encodedFrameSize)) {
+                sp = sp.add(WordFactory.unsigned(CodeInfoQueryResult.getTotalFrameSize(encodedFrameSize)));
+                ip = FrameAccess.singleton().readReturnAddress(sp);
+            } else {
+                /* Continue with the Java frames before the last block of C frames, if any. */
+                while (anchor.isNonNull() && anchor.getLastJavaSP().belowOrEqual(sp)) {
+                    anchor = anchor.getPreviousAnchor();
+                }
+                if (anchor.isNull()) {
+                    break;
+                }
+                sp = anchor.getLastJavaSP();
+                ip = anchor.getLastJavaIP();
+                anchor = anchor.getPreviousAnchor();
+            }
+        }
+        stackTable.record(ips, depth);
+    }
+}
@@ -50,6 +50,8 @@ import com.oracle.svm.core.annotate.NeverInline;
 import com.oracle.svm.core.annotate.RestrictHeapAccess;
 import com.oracle.svm.core.annotate.StubCallingConvention;
 import com.oracle.svm.core.annotate.Uninterruptible;
+import com.oracle.svm.core.flightrecorder.FlightRecorder;
+import com.oracle.svm.core.flightrecorder.FlightRecorderEvents;
 import com.oracle.svm.core.heap.Heap;
 import com.oracle.svm.core.jdk.UninterruptibleUtils;
 import com.oracle.svm.core.log.Log;
@@ -520,6 +522,11 @@ public final class Safepoint {
         /** The thread requesting a safepoint. */
         private volatile IsolateThread requestingThread;
 
+        /** Number of safepoints so far and start of the current one, for the flight recorder. */
+        private long safepointId;
+        private long startTicks;
+        private long synchronizationNanos;
+
         @Platforms(Platform.HOSTED_ONLY.class)
         private Master() {
             this.safepointState = NOT_AT_SAFEPOINT;
@@ -544,6 +551,8 @@ public final class Safepoint {
             }
 
             requestingThread = CurrentIsolate.getCurrentThread();
+            safepointId++;
+            startTicks = System.nanoTime();
             Statistics.reset();
             Statistics.setStartNanos();
             ImageSingletons.lookup(Heap.class).prepareForSafepoint();
@@ -551,6 +560,7 @@ public final class Safepoint {
             requestSafepoints(reason);
             waitForSafepoints(reason);
             Statistics.setFrozenNanos();
+            synchronizationNanos = System.nanoTime() - startTicks;
             safepointState = AT_SAFEPOINT;
             return lock;
         }
@@ -566,6 +576,9 @@ public final class Safepoint {
             ImageSingletons.lookup(Heap.class).endSafepoint();
             Statistics.setThawedNanos();
             requestingThread = WordFactory.nullPointer();
+            if (FlightRecorder.isEnabled()) {
+                FlightRecorderEvents.emitSafepoint(startTicks, safepointId, synchronizationNanos);
+            }
 
             if (unlock) {
                 VMThreads.THREAD_MUTEX.unlock();
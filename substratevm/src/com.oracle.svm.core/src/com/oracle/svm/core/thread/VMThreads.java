@@ -44,11 +44,14 @@ import com.oracle.svm.core.annotate.RestrictHeapAccess;
 import com.oracle.svm.core.annotate.Uninterruptible;
 import com.oracle.svm.core.c.function.CEntryPointErrors;
 import com.oracle.svm.core.c.function.CFunctionOptions;
+import com.oracle.svm.core.flightrecorder.FlightRecorder;
+import com.oracle.svm.core.flightrecorder.FlightRecorderThreadBuffer;
 import com.oracle.svm.core.heap.Heap;
 import com.oracle.svm.core.jdk.UninterruptibleUtils;
 import com.oracle.svm.core.jdk.UninterruptibleUtils.AtomicWord;
 import com.oracle.svm.core.locks.VMCondition;
 import com.oracle.svm.core.locks.VMMutex;
+import com.oracle.svm.core.sampler.SubstrateSigprofHandler;
 import com.oracle.svm.core.threadlocal.FastThreadLocalFactory;
 import com.oracle.svm.core.threadlocal.FastThreadLocalInt;
 import com.oracle.svm.core.threadlocal.FastThreadLocalWord;
@@ -271,6 +274,9 @@ public abstract class VMThreads {
         } finally {
             VMThreads.THREAD_MUTEX.unlock();
         }
+        if (SubstrateSigprofHandler.isEnabled()) {
+            SubstrateSigprofHandler.registerCurrentThread(thread);
+        }
         return CEntryPointErrors.NO_ERROR;
     }
 
@@ -288,6 +294,9 @@ public abstract class VMThreads {
             nextOsThreadToCleanup = OSThreadHandleTL.get(thread);
         }
 
+        if (SubstrateSigprofHandler.isEnabled()) {
+            SubstrateSigprofHandler.unregisterCurrentThread();
+        }
         cleanupBeforeDetach(thread);
 
         setStatusIgnoreSafepointsAndLock();
@@ -419,6 +428,9 @@ public abstract class VMThreads {
     @RestrictHeapAccess(access = RestrictHeapAccess.Access.UNRESTRICTED, reason = "Still safe at this point.")
     private static void cleanupBeforeDetach(IsolateThread thread) {
         JavaThreads.cleanupBeforeDetach(thread);
+        if (FlightRecorder.isEnabled()) {
+            FlightRecorderThreadBuffer.flushBeforeDetach(thread);
+        }
     }
 
     /**
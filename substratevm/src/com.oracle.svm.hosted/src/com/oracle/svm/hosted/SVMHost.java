@@ -48,6 +48,7 @@ import org.graalvm.compiler.core.common.spi.ForeignCallDescriptor;
 import org.graalvm.compiler.core.common.spi.ForeignCallsProvider;
 import org.graalvm.compiler.graph.Node;
 import org.graalvm.compiler.java.GraphBuilderPhase.Instance;
+import org.graalvm.compiler.nodes.Invoke;
 import org.graalvm.compiler.nodes.StaticDeoptimizingNode;
 import org.graalvm.compiler.nodes.StructuredGraph;
 import org.graalvm.compiler.nodes.ValueNode;
@@ -55,6 +56,7 @@ import org.graalvm.compiler.nodes.extended.UnsafeAccessNode;
 import org.graalvm.compiler.nodes.graphbuilderconf.GraphBuilderConfiguration;
 import org.graalvm.compiler.nodes.graphbuilderconf.IntrinsicContext;
 import org.graalvm.compiler.nodes.java.AccessFieldNode;
+import org.graalvm.compiler.nodes.java.LoadFieldNode;
 import org.graalvm.compiler.options.OptionValues;
 import org.graalvm.compiler.phases.OptimisticOptimizations;
 import org.graalvm.compiler.serviceprovider.JavaVersionUtil;
@@ -83,14 +85,18 @@ import com.oracle.svm.core.heap.Target_java_lang_ref_Reference;
 import com.oracle.svm.core.hub.DynamicHub;
 import com.oracle.svm.core.hub.HubType;
 import com.oracle.svm.core.hub.ReferenceType;
+import com.oracle.svm.core.jdk.SystemPropertiesSupport;
 import com.oracle.svm.core.option.SubstrateOptionsParser;
 import com.oracle.svm.core.util.HostedStringDeduplication;
 import com.oracle.svm.core.util.VMError;
 import com.oracle.svm.hosted.c.GraalAccess;
+import com.oracle.svm.hosted.classinitialization.ClassInitializationFeature;
 import com.oracle.svm.hosted.classinitialization.ClassInitializationSupport;
+import com.oracle.svm.hosted.classinitialization.TypeInitializerGraph;
 import com.oracle.svm.hosted.code.InliningUtilities;
 import com.oracle.svm.hosted.meta.HostedType;
 import com.oracle.svm.hosted.phases.AnalysisGraphBuilderPhase;
+import com.oracle.svm.hosted.substitute.ComputedValue;
 import com.oracle.svm.hosted.substitute.UnsafeAutomaticSubstitutionProcessor;
 import com.oracle.svm.util.ReflectionUtil;
 
@@ -517,11 +523,22 @@ public final class SVMHost implements HostVM {
      * by tracking the call chain, i.e., allowing static field accesses when the root method of the
      * call chain is the class initializer. But this does not fit well into the current approach
      * where each method has a `Safety` flag.
+     *
+     * With {@link ClassInitializationFeature.Options#InferClassInitializationSafety}, two kinds of
+     * accesses to other classes are allowed because they cannot observe state that differs between
+     * image build time and run time: reads of static final fields with a primitive or String type,
+     * whose declaring class is then still a dependency of the method, and calls to
+     * {@link System#getProperty} with a constant key whose value is
+     * {@link SystemPropertiesSupport#isHostedProperty fixed at image build time}.
      */
     private void checkClassInitializerSideEffect(BigBang bb, AnalysisMethod method, Node n) {
         if (n instanceof AccessFieldNode) {
             ResolvedJavaField field = ((AccessFieldNode) n).field();
-            if (field.isStatic() && (!method.isClassInitializer() || !field.getDeclaringClass().equals(method.getDeclaringClass()))) {
+            if (field.isStatic() && (!method.isClassInitializer() || !field.getDeclaringClass().equals(method.getDeclaringClass())) && !isImmutableStaticFieldLoad(bb, n, field)) {
+                classInitializerSideEffect.put(method, true);
+            }
+        } else if (n instanceof Invoke && TypeInitializerGraph.isSystemPropertyRead(((Invoke) n).callTarget().targetMethod())) {
+            if (!isHostedSystemPropertyRead(bb, (Invoke) n)) {
                 classInitializerSideEffect.put(method, true);
             }
         } else if (n instanceof UnsafeAccessNode) {
@@ -541,6 +558,29 @@ public final class SVMHost implements HostVM {
         }
     }
 
+    private static boolean isImmutableStaticFieldLoad(BigBang bb, Node n, ResolvedJavaField field) {
+        if (!ClassInitializationFeature.Options.InferClassInitializationSafety.getValue() || !(n instanceof LoadFieldNode) || !field.isFinal()) {
+            return false;
+        }
+        if (field instanceof AnalysisField && ((AnalysisField) field).wrapped instanceof ComputedValue) {
+            /* The value in the image is not the value that is seen during image generation. */
+            return false;
+        }
+        return field.getJavaKind().isPrimitive() || field.getType().equals(bb.getMetaAccess().lookupJavaType(String.class));
+    }
+
+    private static boolean isHostedSystemPropertyRead(BigBang bb, Invoke invoke) {
+        if (!ClassInitializationFeature.Options.InferClassInitializationSafety.getValue()) {
+            return false;
+        }
+        ValueNode key = invoke.callTarget().arguments().get(0);
+        if (!key.isJavaConstant()) {
+            return false;
+        }
+        String keyValue = bb.getProviders().getSnippetReflection().asObject(String.class, key.asJavaConstant());
+        return keyValue != null && SystemPropertiesSupport.isHostedProperty(keyValue);
+    }
+
     public void keepAnalysisGraphs() {
         if (analysisGraphs == null) {
             analysisGraphs = new ConcurrentHashMap<>();
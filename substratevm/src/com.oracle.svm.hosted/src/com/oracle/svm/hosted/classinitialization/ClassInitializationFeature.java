@@ -134,6 +134,10 @@ public class ClassInitializationFeature implements GraalFeature {
 
         @Option(help = "Prints class initialization info for all classes detected by analysis.", type = OptionType.Debug)//
         public static final HostedOptionKey<Boolean> PrintClassInitialization = new HostedOptionKey<>(false);
+
+        @Option(help = "Prove class initializers safe for build-time initialization also when they make virtual calls with statically known callees, " +
+                        "read immutable static final fields of other classes, or read system properties that are fixed at image build time.", type = OptionType.Expert)//
+        public static final HostedOptionKey<Boolean> InferClassInitializationSafety = new HostedOptionKey<>(true);
     }
 
     public static void processClassInitializationOptions(ClassInitializationSupport initializationSupport) {
@@ -43,6 +43,8 @@ import com.oracle.svm.hosted.SVMHost;
 import com.oracle.svm.hosted.phases.SubstrateClassInitializationPlugin;
 import com.oracle.svm.hosted.substitute.SubstitutionMethod;
 
+import jdk.vm.ci.meta.ResolvedJavaMethod;
+
 /**
  * Keeps a type-hierarchy dependency graph for {@link AnalysisType}s from {@code universe}. Each
  * type carries the information if it {@link Safety#SAFE} or {@link Safety#UNSAFE} to execute during
@@ -73,10 +75,12 @@ public class TypeInitializerGraph {
 
     private final Map<AnalysisMethod, Safety> methodSafety = new HashMap<>();
     private final Collection<AnalysisMethod> methods;
+    private final boolean inferSafety;
 
     TypeInitializerGraph(AnalysisUniverse universe) {
         hostVM = ((SVMHost) universe.hostVM());
         classInitializationSupport = hostVM.getClassInitializationSupport();
+        inferSafety = ClassInitializationFeature.Options.InferClassInitializationSafety.getValue();
 
         universe.getTypes().forEach(this::addInitializer);
         universe.getTypes().forEach(this::addInitializerDependencies);
@@ -164,12 +168,33 @@ public class TypeInitializerGraph {
 
     /**
      * Unsafe invokes (1) call native methods, and/or (2) can't be statically bound.
+     *
+     * With {@link ClassInitializationFeature.Options#InferClassInitializationSafety}, invokes that
+     * cannot be statically bound are still safe if the static analysis found all their callees,
+     * for example calls to the collections that a class initializer allocates. Calls to
+     * {@link System#getProperty} are safe here because callers that read properties which are not
+     * fixed at image build time are already marked as having a side effect.
      */
     private boolean isInvokeInitiallyUnsafe(InvokeTypeFlow i) {
+        if (inferSafety) {
+            if (isSystemPropertyRead(i.getTargetMethod())) {
+                return false;
+            }
+            Collection<AnalysisMethod> callees = i.getCallees();
+            return i.getTargetMethod().isNative() || callees.isEmpty() || callees.stream().anyMatch(AnalysisMethod::isNative);
+        }
         return i.getTargetMethod().isNative() ||
                         !i.canBeStaticallyBound();
     }
 
+    /**
+     * Returns true if {@code method} is {@link System#getProperty(String)} or
+     * {@link System#getProperty(String, String)}.
+     */
+    public static boolean isSystemPropertyRead(ResolvedJavaMethod method) {
+        return method != null && method.getName().equals("getProperty") && method.getDeclaringClass().toJavaName().equals(System.class.getName());
+    }
+
     /**
      * Type is promoted to unsafe when it is not already unsafe and it (1) depends on an unsafe
      * type, or (2) its class initializer was promoted to unsafe.
@@ -207,6 +232,9 @@ public class TypeInitializerGraph {
      */
     private boolean isInvokeUnsafeIterative(InvokeTypeFlow i) {
         assert i.getTargetMethod() != null : "All methods can be statically bound.";
+        if (inferSafety) {
+            return !isSystemPropertyRead(i.getTargetMethod()) && i.getCallees().stream().anyMatch(m -> methodSafety.get(m) == Safety.UNSAFE);
+        }
         return methodSafety.get(i.getTargetMethod()) == Safety.UNSAFE;
     }
 
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.hosted.diagnostic;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graalvm.nativeimage.ImageSingletons;
+import org.graalvm.nativeimage.hosted.Feature;
+
+import com.oracle.svm.core.VMInspection;
+import com.oracle.svm.core.annotate.AutomaticFeature;
+import com.oracle.svm.core.heapdump.HeapDumpMetadata;
+import com.oracle.svm.hosted.FeatureImpl.BeforeCompilationAccessImpl;
+import com.oracle.svm.hosted.meta.HostedField;
+import com.oracle.svm.hosted.meta.HostedType;
+import com.oracle.svm.hosted.meta.HostedUniverse;
+
+import jdk.vm.ci.meta.ResolvedJavaField;
+
+/**
+ * Collects the field layout of all types for heap dumps that are written at run time.
+ */
+@AutomaticFeature
+public class HeapDumpMetadataFeature implements Feature {
+
+    @Override
+    public boolean isInConfiguration(IsInConfigurationAccess access) {
+        return VMInspection.isEnabled();
+    }
+
+    @Override
+    public void afterRegistration(AfterRegistrationAccess access) {
+        ImageSingletons.add(HeapDumpMetadata.class, new HeapDumpMetadata());
+    }
+
+    @Override
+    public void beforeCompilation(BeforeCompilationAccess a) {
+        HostedUniverse universe = ((BeforeCompilationAccessImpl) a).getUniverse();
+        HostedType[] types = new HostedType[universe.getTypes().size()];
+        for (HostedType type : universe.getTypes()) {
+            types[type.getTypeID()] = type;
+        }
+
+        int[] starts = new int[2 * types.length + 1];
+        List<HostedField> fields = new ArrayList<>();
+        for (int typeId = 0; typeId < types.length; typeId++) {
+            starts[2 * typeId] = fields.size();
+            if (types[typeId] != null) {
+                for (HostedField field : types[typeId].getInstanceFields(false)) {
+                    if (field.hasLocation()) {
+                        fields.add(field);
+                    }
+                }
+            }
+            starts[2 * typeId + 1] = fields.size();
+            if (types[typeId] != null) {
+                for (ResolvedJavaField f : types[typeId].getStaticFields()) {
+                    HostedField field = (HostedField) f;
+                    if (field.hasLocation()) {
+                        fields.add(field);
+                    }
+                }
+            }
+        }
+        starts[2 * types.length] = fields.size();
+
+        int[] nameIndices = new int[fields.size()];
+        byte[] fieldTypes = new byte[fields.size()];
+        int[] offsets = new int[fields.size()];
+        Map<String, Integer> nameToIndex = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            HostedField field = fields.get(i);
+            nameIndices[i] = nameToIndex.computeIfAbsent(field.getName(), name -> {
+                names.add(name);
+                return names.size() - 1;
+            });
+            fieldTypes[i] = HeapDumpMetadata.basicType(field.getStorageKind());
+            offsets[i] = field.getLocation();
+        }
+        ImageSingletons.lookup(HeapDumpMetadata.class).setData(starts, nameIndices, fieldTypes, offsets, names.toArray(new String[0]));
+    }
+}
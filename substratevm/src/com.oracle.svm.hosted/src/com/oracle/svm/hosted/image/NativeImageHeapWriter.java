@@ -30,11 +30,13 @@ import java.lang.reflect.Array;
 import java.lang.reflect.Modifier;
 import java.nio.ByteBuffer;
 import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.graalvm.compiler.core.common.CompressEncoding;
 import org.graalvm.compiler.core.common.NumUtil;
 import org.graalvm.compiler.debug.DebugContext;
 import org.graalvm.compiler.debug.Indent;
+import org.graalvm.compiler.options.Option;
 import org.graalvm.nativeimage.ImageSingletons;
 import org.graalvm.nativeimage.c.function.CFunctionPointer;
 import org.graalvm.nativeimage.c.function.RelocatedPointer;
@@ -51,6 +53,7 @@ import com.oracle.svm.core.heap.ObjectHeader;
 import com.oracle.svm.core.hub.DynamicHub;
 import com.oracle.svm.core.image.ImageHeapLayoutInfo;
 import com.oracle.svm.core.meta.SubstrateObjectConstant;
+import com.oracle.svm.core.option.HostedOptionKey;
 import com.oracle.svm.hosted.config.HybridLayout;
 import com.oracle.svm.hosted.image.NativeImageHeap.ObjectInfo;
 import com.oracle.svm.hosted.meta.HostedClass;
@@ -67,14 +70,25 @@ import jdk.vm.ci.meta.ResolvedJavaMethod;
  * Writes the native image heap into one or multiple {@link RelocatableBuffer}s.
  */
 public final class NativeImageHeapWriter {
+
+    public static class Options {
+        @Option(help = "Write the objects of the native image heap using multiple threads.")//
+        public static final HostedOptionKey<Boolean> ParallelImageHeapWriting = new HostedOptionKey<>(true);
+    }
+
     private final NativeImageHeap heap;
     private final ImageHeapLayoutInfo heapLayout;
-    private long sectionOffsetOfARelocatablePointer;
+    /**
+     * The lowest section offset of any relocatable pointer that has been written. Using the
+     * minimum rather than the first one keeps the result independent of the order in which
+     * objects are written.
+     */
+    private final AtomicLong sectionOffsetOfARelocatablePointer;
 
     public NativeImageHeapWriter(NativeImageHeap heap, ImageHeapLayoutInfo heapLayout) {
         this.heap = heap;
         this.heapLayout = heapLayout;
-        this.sectionOffsetOfARelocatablePointer = -1;
+        this.sectionOffsetOfARelocatablePointer = new AtomicLong(-1);
     }
 
     /**
@@ -84,9 +98,21 @@ public final class NativeImageHeapWriter {
     @SuppressWarnings("try")
     public long writeHeap(DebugContext debug, RelocatableBuffer buffer) {
         try (Indent perHeapIndent = debug.logAndIndent("BootImageHeap.writeHeap:")) {
-            for (ObjectInfo info : heap.getObjects()) {
-                assert !heap.isBlacklisted(info.getObject());
-                writeObject(info, buffer);
+            /*
+             * The layouter has already assigned every object its final offset within its partition,
+             * so each object occupies a distinct, preassigned range of the buffer and objects can be
+             * written independently of each other.
+             */
+            if (Options.ParallelImageHeapWriting.getValue()) {
+                heap.getObjects().parallelStream().forEach(info -> {
+                    assert !heap.isBlacklisted(info.getObject());
+                    writeObject(info, buffer);
+                });
+            } else {
+                for (ObjectInfo info : heap.getObjects()) {
+                    assert !heap.isBlacklisted(info.getObject());
+                    writeObject(info, buffer);
+                }
             }
 
             // Only static fields that are writable get written to the native image heap,
@@ -95,7 +121,7 @@ public final class NativeImageHeapWriter {
 
             heap.getLayouter().writeMetadata(buffer.getByteBuffer());
         }
-        return sectionOffsetOfARelocatablePointer;
+        return sectionOffsetOfARelocatablePointer.get();
     }
 
     private void writeStaticFields(RelocatableBuffer buffer) {
@@ -216,17 +242,17 @@ public final class NativeImageHeapWriter {
         assert size == 4 || size == 8;
         assert !NativeImageHeap.spawnIsolates() || heapLayout.isReadOnlyRelocatable(index);
         buffer.addRelocationWithoutAddend(index, size == 8 ? ObjectFile.RelocationKind.DIRECT_8 : ObjectFile.RelocationKind.DIRECT_4, target);
-        if (sectionOffsetOfARelocatablePointer == -1) {
-            sectionOffsetOfARelocatablePointer = index;
-        }
+        recordRelocatablePointer(index);
     }
 
     private void addDirectRelocationWithAddend(RelocatableBuffer buffer, int index, DynamicHub target, long objectHeaderBits) {
         assert !NativeImageHeap.spawnIsolates() || heapLayout.isReadOnlyRelocatable(index);
         buffer.addRelocationWithAddend(index, referenceSize() == 8 ? ObjectFile.RelocationKind.DIRECT_8 : ObjectFile.RelocationKind.DIRECT_4, objectHeaderBits, target);
-        if (sectionOffsetOfARelocatablePointer == -1) {
-            sectionOffsetOfARelocatablePointer = index;
-        }
+        recordRelocatablePointer(index);
+    }
+
+    private void recordRelocatablePointer(int index) {
+        sectionOffsetOfARelocatablePointer.accumulateAndGet(index, (current, offset) -> (current == -1 || offset < current) ? offset : current);
     }
 
     /**
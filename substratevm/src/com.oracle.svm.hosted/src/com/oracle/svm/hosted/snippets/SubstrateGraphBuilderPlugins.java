@@ -79,6 +79,7 @@ import org.graalvm.compiler.nodes.spi.Replacements;
 import org.graalvm.compiler.nodes.type.NarrowOopStamp;
 import org.graalvm.compiler.nodes.util.GraphUtil;
 import org.graalvm.compiler.options.Option;
+import org.graalvm.compiler.replacements.StandardGraphBuilderPlugins;
 import org.graalvm.compiler.replacements.nodes.MacroNode.MacroParams;
 import org.graalvm.compiler.replacements.nodes.ObjectClone;
 import org.graalvm.compiler.serviceprovider.JavaVersionUtil;
@@ -181,6 +182,17 @@ public class SubstrateGraphBuilderPlugins {
         registerPlatformPlugins(snippetReflection, plugins);
         registerSizeOfPlugins(snippetReflection, plugins);
         registerReferenceAccessPlugins(plugins);
+        registerChecksumAndBase64Plugins(plugins, replacements);
+    }
+
+    private static void registerChecksumAndBase64Plugins(InvocationPlugins plugins, Replacements replacements) {
+        /*
+         * There are no HotSpot stubs on Substrate VM, so Adler32, CRC32 and Base64 encoding use the
+         * compiled substitutions instead of going through JNI or the interpreted loop.
+         */
+        StandardGraphBuilderPlugins.registerAdler32Plugins(plugins, replacements);
+        StandardGraphBuilderPlugins.registerCRC32Plugins(plugins, replacements);
+        StandardGraphBuilderPlugins.registerBase64EncoderPlugins(plugins, replacements);
     }
 
     private static void registerSystemPlugins(MetaAccessProvider metaAccess, InvocationPlugins plugins) {
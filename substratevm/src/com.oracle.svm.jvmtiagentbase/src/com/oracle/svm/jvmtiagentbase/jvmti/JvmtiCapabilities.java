@@ -58,4 +58,7 @@ public interface JvmtiCapabilities extends PointerBase {
 
     @CBitfield("can_get_line_numbers")
     void setCanGetLineNumbers(int value);
+
+    @CBitfield("can_tag_objects")
+    void setCanTagObjects(int value);
 }
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.svm.core.flightrecorder.FlightRecorder;
+import com.oracle.svm.core.flightrecorder.FlightRecorderEvent;
+
+/**
+ * Records events with the {@link FlightRecorder} and reads them back from the recording file. The
+ * image must be built with {@code -H:+FlightRecorder} and the default thread buffer size of 1024
+ * bytes.
+ */
+public class FlightRecorderTest {
+
+    private static final int MAGIC = 0x53564D52;
+    private static final int EVENT_HEADER_SIZE = 32;
+    private static final int THREAD_BUFFER_SIZE = 1024;
+    private static final String SYSTEM_GC_CAUSE = "java.lang.System.gc()";
+
+    private File recordingFile;
+
+    @Before
+    public void createRecordingFile() throws IOException {
+        Assume.assumeTrue(FlightRecorder.isEnabled());
+        recordingFile = File.createTempFile("svm-flight-recording", ".svmr");
+    }
+
+    @After
+    public void deleteRecordingFile() throws IOException {
+        if (recordingFile != null) {
+            FlightRecorder.singleton().stop();
+            Files.deleteIfExists(recordingFile.toPath());
+        }
+    }
+
+    static final class ContendedLock {
+    }
+
+    @Test
+    public void testEvents() throws Exception {
+        FlightRecorder.singleton().start(recordingFile.getPath());
+        System.gc();
+        contendMonitor(new ContendedLock());
+        byte[] large = new byte[8 * 1024 * 1024];
+        List<byte[]> small = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            small.add(new byte[1024]);
+        }
+        FlightRecorder.singleton().stop();
+        Assert.assertEquals(1024, small.size());
+
+        Recording recording = Recording.read(recordingFile);
+        Assert.assertEquals(0, recording.lostBytes);
+
+        RecordedEvent gc = recording.findFirst("GarbageCollection", "cause", SYSTEM_GC_CAUSE);
+        Assert.assertNotNull("no event for System.gc()", gc);
+        Assert.assertEquals(1L, gc.get("complete"));
+        Assert.assertNotNull("no safepoint event", recording.findFirst("Safepoint", null, null));
+        /* The contending thread has exited, so its events were flushed when it detached. */
+        Assert.assertNotNull("no monitor event", recording.findFirst("JavaMonitorEnter", "monitorClass", ContendedLock.class.getName()));
+        RecordedEvent largeAllocation = recording.findFirst("ObjectAllocationOutsideTLAB", "objectClass", byte[].class.getName());
+        Assert.assertNotNull("no event for the large array", largeAllocation);
+        Assert.assertTrue((Long) largeAllocation.get("allocationSize") >= large.length);
+        Assert.assertNotNull("no event for a new TLAB", recording.findFirst("ObjectAllocationInNewTLAB", "objectClass", byte[].class.getName()));
+    }
+
+    /** Holds the monitor of {@code lock} until another thread blocks on it. */
+    private static void contendMonitor(Object lock) throws InterruptedException {
+        Thread contender = new Thread(() -> {
+            synchronized (lock) {
+                lock.hashCode();
+            }
+        });
+        synchronized (lock) {
+            contender.start();
+            while (contender.getState() != Thread.State.BLOCKED && contender.getState() != Thread.State.WAITING) {
+                Thread.sleep(1);
+            }
+        }
+        contender.join();
+    }
+
+    @Test
+    public void testThreadBufferWrapAndFlush() throws Exception {
+        /* The events of the collections alone fill the thread buffer several times. */
+        int collections = 32;
+        Assert.assertTrue(collections * eventSize(FlightRecorderEvent.GarbageCollection) > 2 * THREAD_BUFFER_SIZE);
+
+        FlightRecorder.singleton().start(recordingFile.getPath());
+        for (int i = 0; i < collections; i++) {
+            System.gc();
+        }
+        FlightRecorder.singleton().flush();
+        for (int i = 0; i < collections; i++) {
+            System.gc();
+        }
+        FlightRecorder.singleton().stop();
+        /* Events after the end of the recording are discarded. */
+        System.gc();
+
+        Recording recording = Recording.read(recordingFile);
+        Assert.assertTrue("expected a chunk for the flush and one for the end of the recording", recording.chunks >= 2);
+        Assert.assertEquals(0, recording.lostBytes);
+        long lastEpoch = -1;
+        int systemGCs = 0;
+        for (RecordedEvent event : recording.events) {
+            if (event.type.equals("GarbageCollection") && SYSTEM_GC_CAUSE.equals(event.get("cause"))) {
+                long epoch = (Long) event.get("gcEpoch");
+                Assert.assertTrue("events are out of order", epoch > lastEpoch);
+                lastEpoch = epoch;
+                systemGCs++;
+            }
+        }
+        Assert.assertEquals(2 * collections, systemGCs);
+    }
+
+    @Test
+    public void testRestart() throws Exception {
+        FlightRecorder.singleton().start(recordingFile.getPath());
+        try {
+            FlightRecorder.singleton().start(recordingFile.getPath());
+            Assert.fail("a recording is already in progress");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        FlightRecorder.singleton().stop();
+        Assert.assertFalse(FlightRecorder.isRecording());
+
+        FlightRecorder.singleton().start(recordingFile.getPath());
+        System.gc();
+        FlightRecorder.singleton().stop();
+        Recording recording = Recording.read(recordingFile);
+        Assert.assertEquals(1, recording.chunks);
+        Assert.assertNotNull(recording.findFirst("GarbageCollection", "cause", SYSTEM_GC_CAUSE));
+    }
+
+    private static int eventSize(FlightRecorderEvent event) {
+        return EVENT_HEADER_SIZE + event.getFieldCount() * Long.BYTES;
+    }
+
+    static final class RecordedEvent {
+        final String type;
+        final Map<String, Object> fields = new HashMap<>();
+
+        RecordedEvent(String type) {
+            this.type = type;
+        }
+
+        Object get(String field) {
+            Assert.assertTrue(type + " has no field " + field, fields.containsKey(field));
+            return fields.get(field);
+        }
+    }
+
+    /** Parses a recording file in the format written by the flight recorder. */
+    static final class Recording {
+        final List<RecordedEvent> events = new ArrayList<>();
+        int chunks;
+        long lostBytes;
+
+        static Recording read(File file) throws IOException {
+            Recording recording = new Recording();
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+                while (true) {
+                    int magic;
+                    try {
+                        magic = in.readInt();
+                    } catch (EOFException e) {
+                        return recording;
+                    }
+                    Assert.assertEquals(MAGIC, magic);
+                    recording.readChunk(in);
+                }
+            }
+        }
+
+        private void readChunk(DataInputStream in) throws IOException {
+            Assert.assertEquals(1, in.readShort());
+            in.readShort();
+            long chunkSize = in.readLong();
+            ByteOrder order = in.readByte() == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+            in.readLong();
+            Assert.assertTrue(in.readLong() >= 0);
+            in.readLong();
+            lostBytes += in.readLong();
+            long bodySize = in.available();
+
+            Map<Integer, String> eventNames = new HashMap<>();
+            Map<Integer, String[]> fieldNames = new HashMap<>();
+            Map<Integer, byte[]> fieldKinds = new HashMap<>();
+            int eventCount = in.readInt();
+            for (int i = 0; i < eventCount; i++) {
+                int id = in.readInt();
+                eventNames.put(id, in.readUTF());
+                int fieldCount = in.readInt();
+                String[] names = new String[fieldCount];
+                byte[] kinds = new byte[fieldCount];
+                for (int j = 0; j < fieldCount; j++) {
+                    names[j] = in.readUTF();
+                    kinds[j] = in.readByte();
+                }
+                fieldNames.put(id, names);
+                fieldKinds.put(id, kinds);
+            }
+            Map<Long, String> classes = new HashMap<>();
+            int classCount = in.readInt();
+            for (int i = 0; i < classCount; i++) {
+                classes.put(in.readLong(), in.readUTF());
+            }
+            Map<Long, String> causes = new HashMap<>();
+            int causeCount = in.readInt();
+            for (int i = 0; i < causeCount; i++) {
+                causes.put((long) in.readInt(), in.readUTF());
+            }
+
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            Assert.assertEquals("chunk size", chunkSize, 4 + 2 + 2 + 8 + 1 + 8 + 8 + 8 + 8 + bodySize - in.available());
+            ByteBuffer records = ByteBuffer.wrap(data).order(order);
+            int position = 0;
+            while (position < data.length) {
+                int size = records.getInt(position);
+                int id = records.getInt(position + 4);
+                String[] names = fieldNames.get(id);
+                Assert.assertNotNull("unknown event id " + id, names);
+                Assert.assertEquals("size of " + eventNames.get(id), EVENT_HEADER_SIZE + names.length * Long.BYTES, size);
+                RecordedEvent event = new RecordedEvent(eventNames.get(id));
+                for (int i = 0; i < names.length; i++) {
+                    long value = records.getLong(position + EVENT_HEADER_SIZE + i * Long.BYTES);
+                    event.fields.put(names[i], decode(fieldKinds.get(id)[i], value, classes, causes));
+                }
+                events.add(event);
+                position += size;
+            }
+            Assert.assertEquals(data.length, position);
+            chunks++;
+        }
+
+        private static Object decode(byte kind, long value, Map<Long, String> classes, Map<Long, String> causes) {
+            switch (FlightRecorderEvent.FieldKind.values()[kind]) {
+                case Class:
+                    Assert.assertTrue("class missing from the pool", classes.containsKey(value));
+                    return classes.get(value);
+                case GCCause:
+                    Assert.assertTrue("GC cause missing from the pool", causes.containsKey(value));
+                    return causes.get(value);
+                default:
+                    return value;
+            }
+        }
+
+        RecordedEvent findFirst(String type, String field, Object value) {
+            for (RecordedEvent event : events) {
+                if (event.type.equals(type) && (field == null || value.equals(event.get(field)))) {
+                    return event;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.graalvm.nativeimage.VMRuntime;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.oracle.svm.core.heapdump.HeapDumpSupportImpl;
+
+/**
+ * Tests the HPROF heap dumps of {@link HeapDumpSupportImpl}. The image must be built with
+ * {@code -H:+AllowVMInspection}, and for the test of heap dumps on {@link OutOfMemoryError} also
+ * with {@code -R:+HeapDumpOnOutOfMemoryError} and {@code -R:HeapDumpPath}.
+ */
+public class HeapDumpTest {
+
+    private static final String HPROF_HEADER = "JAVA PROFILE 1.0.2";
+    private static final int ID_SIZE = 8;
+
+    private static final int HPROF_UTF8 = 0x01;
+    private static final int HPROF_LOAD_CLASS = 0x02;
+    private static final int HPROF_TRACE = 0x05;
+    private static final int HPROF_HEAP_DUMP_SEGMENT = 0x1C;
+    private static final int HPROF_HEAP_DUMP_END = 0x2C;
+
+    private static final int HPROF_GC_ROOT_JAVA_FRAME = 0x03;
+    private static final int HPROF_GC_ROOT_STICKY_CLASS = 0x05;
+    private static final int HPROF_GC_ROOT_THREAD_OBJ = 0x08;
+    private static final int HPROF_GC_CLASS_DUMP = 0x20;
+    private static final int HPROF_GC_INSTANCE_DUMP = 0x21;
+    private static final int HPROF_GC_OBJ_ARRAY_DUMP = 0x22;
+    private static final int HPROF_GC_PRIM_ARRAY_DUMP = 0x23;
+
+    private static final byte TYPE_OBJECT = 2;
+    private static final byte TYPE_INT = 10;
+    private static final byte TYPE_LONG = 11;
+
+    static final class Node {
+        final int value;
+        final Node next;
+        final long[] payload;
+
+        Node(int value, Node next, long[] payload) {
+            this.value = value;
+            this.next = next;
+            this.payload = payload;
+        }
+    }
+
+    static Node root;
+
+    @Test
+    public void testDumpHeap() throws IOException {
+        Assume.assumeTrue(HeapDumpSupportImpl.isEnabled());
+        root = new Node(11, new Node(22, new Node(33, null, new long[]{0xCAFEBABEL, -1L, 42L}), null), null);
+        /* Reads all fields, so that they are not removed from the image. */
+        Assert.assertEquals(3, root.next.next.payload.length + root.next.next.value - 33);
+
+        File file = File.createTempFile("svm-heapdump", ".hprof");
+        try {
+            VMRuntime.dumpHeap(file.getPath(), true);
+            HeapDump dump = HeapDump.read(file);
+            Assert.assertTrue("no thread root", dump.threadRoots > 0);
+            Assert.assertTrue("no stack frame root", dump.frameRoots > 0);
+
+            ClassDump nodeClass = dump.findClass(Node.class.getName().replace('.', '/'));
+            Assert.assertNotNull("no class dump for " + Node.class.getName(), nodeClass);
+            ClassDump testClass = dump.findClass(HeapDumpTest.class.getName().replace('.', '/'));
+            Assert.assertNotNull("no class dump for " + HeapDumpTest.class.getName(), testClass);
+            Assert.assertEquals(TYPE_OBJECT, testClass.staticFieldTypes.get("root").byteValue());
+            long rootId = testClass.staticFieldValues.get("root");
+
+            int[] expectedValues = {11, 22, 33};
+            long nodeId = rootId;
+            for (int i = 0; i < expectedValues.length; i++) {
+                Assert.assertNotEquals("chain ends early", 0, nodeId);
+                Map<String, Long> fields = dump.readInstance(nodeId);
+                Assert.assertEquals(nodeClass.id, dump.instances.get(nodeId).classId);
+                Assert.assertEquals(expectedValues[i], fields.get("value").intValue());
+                if (i < expectedValues.length - 1) {
+                    Assert.assertEquals(0L, fields.get("payload").longValue());
+                } else {
+                    PrimitiveArrayDump payload = dump.primitiveArrays.get(fields.get("payload"));
+                    Assert.assertNotNull("no array dump for the payload", payload);
+                    Assert.assertEquals(TYPE_LONG, payload.type);
+                    ByteBuffer values = ByteBuffer.wrap(payload.data);
+                    Assert.assertEquals(3, payload.length);
+                    Assert.assertEquals(0xCAFEBABEL, values.getLong());
+                    Assert.assertEquals(-1L, values.getLong());
+                    Assert.assertEquals(42L, values.getLong());
+                }
+                nodeId = fields.get("next");
+            }
+            Assert.assertEquals(0L, nodeId);
+        } finally {
+            root = null;
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    static volatile Object sink;
+
+    /** Throws an {@link OutOfMemoryError} without exhausting the heap. */
+    private static void allocateTooLargeArray() {
+        try {
+            sink = new long[Integer.MAX_VALUE - 16];
+            Assert.fail("allocation must fail");
+        } catch (OutOfMemoryError e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testDumpOnOutOfMemoryErrorOnlyOnce() throws IOException {
+        Assume.assumeTrue(HeapDumpSupportImpl.isEnabled() && HeapDumpSupportImpl.Options.HeapDumpOnOutOfMemoryError.getValue());
+        Assume.assumeFalse(HeapDumpSupportImpl.Options.HeapDumpPath.getValue().isEmpty());
+        Assume.assumeTrue(Runtime.getRuntime().maxMemory() < (Integer.MAX_VALUE - 16) * (long) Long.BYTES);
+
+        File file = new File(HeapDumpSupportImpl.Options.HeapDumpPath.getValue());
+        Files.deleteIfExists(file.toPath());
+        try {
+            allocateTooLargeArray();
+            Assert.assertTrue("no heap dump for the first OutOfMemoryError", file.exists());
+            Assert.assertTrue(HeapDump.read(file).threadRoots > 0);
+
+            Files.delete(file.toPath());
+            allocateTooLargeArray();
+            Assert.assertFalse("heap dump for the second OutOfMemoryError", file.exists());
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    static final class ClassDump {
+        final long id;
+        final long superId;
+        final List<String> instanceFieldNames = new ArrayList<>();
+        final List<Byte> instanceFieldTypes = new ArrayList<>();
+        final Map<String, Byte> staticFieldTypes = new HashMap<>();
+        final Map<String, Long> staticFieldValues = new HashMap<>();
+
+        ClassDump(long id, long superId) {
+            this.id = id;
+            this.superId = superId;
+        }
+    }
+
+    static final class InstanceDump {
+        final long classId;
+        final byte[] data;
+
+        InstanceDump(long classId, byte[] data) {
+            this.classId = classId;
+            this.data = data;
+        }
+    }
+
+    static final class PrimitiveArrayDump {
+        final byte type;
+        final int length;
+        final byte[] data;
+
+        PrimitiveArrayDump(byte type, int length, byte[] data) {
+            this.type = type;
+            this.length = length;
+            this.data = data;
+        }
+    }
+
+    /** Parses an HPROF file and checks that all records and sub-records are well-formed. */
+    static final class HeapDump {
+        final Map<Long, String> strings = new HashMap<>();
+        final Map<Long, Long> classNames = new HashMap<>();
+        final Map<Long, ClassDump> classes = new HashMap<>();
+        final Map<Long, InstanceDump> instances = new HashMap<>();
+        final Map<Long, PrimitiveArrayDump> primitiveArrays = new HashMap<>();
+        int threadRoots;
+        int frameRoots;
+
+        static HeapDump read(File file) throws IOException {
+            HeapDump dump = new HeapDump();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+                byte[] header = new byte[HPROF_HEADER.length()];
+                in.readFully(header);
+                Assert.assertEquals(HPROF_HEADER, new String(header, StandardCharsets.US_ASCII));
+                Assert.assertEquals(0, in.readByte());
+                Assert.assertEquals(ID_SIZE, in.readInt());
+                Assert.assertTrue(in.readLong() > 0);
+
+                boolean ended = false;
+                while (true) {
+                    int tag;
+                    try {
+                        tag = in.readUnsignedByte();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    Assert.assertFalse("record after the end of the heap dump", ended);
+                    in.readInt();
+                    byte[] body = new byte[in.readInt()];
+                    in.readFully(body);
+                    ByteBuffer record = ByteBuffer.wrap(body);
+                    switch (tag) {
+                        case HPROF_UTF8:
+                            long id = record.getLong();
+                            dump.strings.put(id, new String(body, ID_SIZE, body.length - ID_SIZE, StandardCharsets.UTF_8));
+                            break;
+                        case HPROF_LOAD_CLASS:
+                            record.getInt();
+                            long classId = record.getLong();
+                            record.getInt();
+                            dump.classNames.put(classId, record.getLong());
+                            break;
+                        case HPROF_TRACE:
+                            break;
+                        case HPROF_HEAP_DUMP_SEGMENT:
+                            dump.readSegment(record);
+                            break;
+                        case HPROF_HEAP_DUMP_END:
+                            Assert.assertEquals(0, body.length);
+                            ended = true;
+                            break;
+                        default:
+                            Assert.fail("unexpected record tag " + tag);
+                    }
+                }
+                Assert.assertTrue("no heap dump end record", ended);
+            }
+            return dump;
+        }
+
+        private void readSegment(ByteBuffer segment) {
+            while (segment.hasRemaining()) {
+                int tag = segment.get() & 0xFF;
+                switch (tag) {
+                    case HPROF_GC_ROOT_JAVA_FRAME:
+                        segment.getLong();
+                        segment.getInt();
+                        segment.getInt();
+                        frameRoots++;
+                        break;
+                    case HPROF_GC_ROOT_STICKY_CLASS:
+                        segment.getLong();
+                        break;
+                    case HPROF_GC_ROOT_THREAD_OBJ:
+                        segment.getLong();
+                        segment.getInt();
+                        segment.getInt();
+                        threadRoots++;
+                        break;
+                    case HPROF_GC_CLASS_DUMP:
+                        readClassDump(segment);
+                        break;
+                    case HPROF_GC_INSTANCE_DUMP: {
+                        long id = segment.getLong();
+                        segment.getInt();
+                        long classId = segment.getLong();
+                        byte[] data = new byte[segment.getInt()];
+                        segment.get(data);
+                        instances.put(id, new InstanceDump(classId, data));
+                        break;
+                    }
+                    case HPROF_GC_OBJ_ARRAY_DUMP: {
+                        segment.getLong();
+                        segment.getInt();
+                        int length = segment.getInt();
+                        segment.getLong();
+                        segment.position(segment.position() + length * ID_SIZE);
+                        break;
+                    }
+                    case HPROF_GC_PRIM_ARRAY_DUMP: {
+                        long id = segment.getLong();
+                        segment.getInt();
+                        int length = segment.getInt();
+                        byte type = segment.get();
+                        byte[] data = new byte[length * valueSize(type)];
+                        segment.get(data);
+                        primitiveArrays.put(id, new PrimitiveArrayDump(type, length, data));
+                        break;
+                    }
+                    default:
+                        Assert.fail("unexpected heap dump sub-record tag " + tag);
+                }
+            }
+        }
+
+        private void readClassDump(ByteBuffer segment) {
+            long id = segment.getLong();
+            segment.getInt();
+            ClassDump classDump = new ClassDump(id, segment.getLong());
+            for (int i = 0; i < 5; i++) {
+                segment.getLong();
+            }
+            segment.getInt();
+            Assert.assertEquals("constant pool", 0, segment.getShort());
+            int staticFields = segment.getShort() & 0xFFFF;
+            for (int i = 0; i < staticFields; i++) {
+                String name = strings.get(segment.getLong());
+                byte type = segment.get();
+                classDump.staticFieldTypes.put(name, type);
+                classDump.staticFieldValues.put(name, readValue(segment, type));
+            }
+            int instanceFields = segment.getShort() & 0xFFFF;
+            for (int i = 0; i < instanceFields; i++) {
+                classDump.instanceFieldNames.add(strings.get(segment.getLong()));
+                classDump.instanceFieldTypes.add(segment.get());
+            }
+            classes.put(id, classDump);
+        }
+
+        ClassDump findClass(String internalName) {
+            for (Map.Entry<Long, Long> entry : classNames.entrySet()) {
+                if (internalName.equals(strings.get(entry.getValue()))) {
+                    return classes.get(entry.getKey());
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Decodes the field values of an instance. The values of the fields of the class come
+         * first, followed by those of its superclasses.
+         */
+        Map<String, Long> readInstance(long id) {
+            InstanceDump instance = instances.get(id);
+            Assert.assertNotNull("no instance dump for " + id, instance);
+            ByteBuffer data = ByteBuffer.wrap(instance.data);
+            Map<String, Long> fields = new HashMap<>();
+            for (ClassDump cur = classes.get(instance.classId); cur != null; cur = classes.get(cur.superId)) {
+                for (int i = 0; i < cur.instanceFieldNames.size(); i++) {
+                    fields.putIfAbsent(cur.instanceFieldNames.get(i), readValue(data, cur.instanceFieldTypes.get(i)));
+                }
+            }
+            Assert.assertFalse("instance data is longer than its fields", data.hasRemaining());
+            return fields;
+        }
+
+        private static long readValue(ByteBuffer buffer, byte type) {
+            switch (valueSize(type)) {
+                case 1:
+                    return buffer.get();
+                case 2:
+                    return buffer.getShort();
+                case 4:
+                    return type == TYPE_INT ? buffer.getInt() : buffer.getInt() & 0xFFFFFFFFL;
+                default:
+                    return buffer.getLong();
+            }
+        }
+
+        private static int valueSize(byte type) {
+            switch (type) {
+                case 4: // boolean
+                case 8: // byte
+                    return 1;
+                case 5: // char
+                case 9: // short
+                    return 2;
+                case 6: // float
+                case TYPE_INT:
+                    return 4;
+                default:
+                    return 8;
+            }
+        }
+    }
+}
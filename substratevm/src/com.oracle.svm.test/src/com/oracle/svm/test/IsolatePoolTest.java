@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import org.graalvm.nativeimage.Isolate;
+import org.graalvm.nativeimage.IsolatePool;
+import org.graalvm.nativeimage.IsolateThread;
+import org.graalvm.nativeimage.Isolates;
+import org.graalvm.nativeimage.Isolates.CreateIsolateParameters;
+import org.graalvm.nativeimage.Isolates.IsolateException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IsolatePoolTest {
+
+    @Test
+    public void testAcquireRecycleDiscard() {
+        try (IsolatePool pool = IsolatePool.create(2, CreateIsolateParameters.getDefault())) {
+            Assert.assertEquals(2, pool.getCapacity());
+            Assert.assertEquals(0, pool.getSize());
+            pool.fill();
+            Assert.assertEquals(2, pool.getSize());
+
+            IsolateThread first = pool.acquire();
+            IsolateThread second = pool.acquire();
+            Assert.assertEquals(0, pool.getSize());
+            /* The pool is empty, so a new isolate is created. */
+            IsolateThread third = pool.acquire();
+            Assert.assertEquals(0, pool.getSize());
+            Assert.assertFalse(Isolates.getIsolate(first).equal(Isolates.getIsolate(second)));
+            Assert.assertFalse(Isolates.getIsolate(second).equal(Isolates.getIsolate(third)));
+
+            Isolate recycled = Isolates.getIsolate(second);
+            pool.recycle(first);
+            pool.recycle(second);
+            Assert.assertEquals(2, pool.getSize());
+            /* The pool is full, so the isolate is torn down. */
+            pool.recycle(third);
+            Assert.assertEquals(2, pool.getSize());
+
+            IsolateThread reacquired = pool.acquire();
+            Assert.assertTrue(Isolates.getIsolate(reacquired).equal(recycled));
+            Assert.assertEquals(1, pool.getSize());
+            pool.discard(reacquired);
+            Assert.assertEquals(1, pool.getSize());
+        }
+    }
+
+    @Test
+    public void testClose() {
+        IsolatePool pool = IsolatePool.create(1, CreateIsolateParameters.getDefault());
+        IsolateThread acquired = pool.acquire();
+        pool.fill();
+        Assert.assertEquals(1, pool.getSize());
+        pool.close();
+        Assert.assertEquals(0, pool.getSize());
+
+        /* Isolates acquired before closing are torn down when they are returned. */
+        pool.recycle(acquired);
+        Assert.assertEquals(0, pool.getSize());
+        try {
+            pool.acquire();
+            Assert.fail("acquiring from a closed pool must fail");
+        } catch (IsolateException e) {
+            // expected
+        }
+    }
+}
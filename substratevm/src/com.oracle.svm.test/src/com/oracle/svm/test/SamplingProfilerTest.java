@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import com.oracle.svm.core.sampler.SubstrateSigprofHandler;
+
+/**
+ * Tests the sampling profiler of {@link SubstrateSigprofHandler}. The image must be built with
+ * {@code -H:+SamplingProfiler}, which starts the profiler at isolate startup.
+ */
+public class SamplingProfilerTest {
+
+    private static final String BURN_CPU_FRAME = SamplingProfilerTest.class.getName() + ".burnCPU";
+    private static final String TEST_FRAME = SamplingProfilerTest.class.getName() + ".testBusyMethodIsSampled";
+
+    static volatile long sink;
+
+    /** Keeps the CPU busy for about {@code millis} milliseconds without calling other methods. */
+    static long burnCPU(long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        long result = 0;
+        do {
+            for (int i = 0; i < 100_000; i++) {
+                result = result * 6364136223846793005L + 1442695040888963407L;
+                result ^= result >>> 29;
+            }
+        } while (System.nanoTime() < deadline);
+        return result;
+    }
+
+    @Test
+    public void testBusyMethodIsSampled() throws IOException {
+        Assume.assumeTrue(SubstrateSigprofHandler.isEnabled());
+
+        File profile = File.createTempFile("svm-sampling-profile", ".collapsed");
+        try {
+            String stack = null;
+            for (int attempt = 0; attempt < 20 && stack == null; attempt++) {
+                sink = burnCPU(500);
+                SubstrateSigprofHandler.dumpProfile(profile.getPath());
+                stack = findStack(Files.readAllLines(profile.toPath(), StandardCharsets.UTF_8));
+            }
+            Assert.assertNotNull("no sample of " + BURN_CPU_FRAME + " in the profile", stack);
+        } finally {
+            Files.deleteIfExists(profile.toPath());
+        }
+    }
+
+    /**
+     * Returns the first stack of the collapsed profile in which {@link #burnCPU} is called by the
+     * test method. The instruction pointers of the samples are only mapped to methods when the
+     * profile is written, so finding the method names checks that symbolization.
+     */
+    private static String findStack(List<String> lines) {
+        for (String line : lines) {
+            int separator = line.lastIndexOf(' ');
+            Assert.assertTrue("malformed line: " + line, separator > 0);
+            Assert.assertTrue("malformed sample count: " + line, Long.parseLong(line.substring(separator + 1)) > 0);
+
+            String[] frames = line.substring(0, separator).split(";");
+            int testFrame = -1;
+            for (int i = 0; i < frames.length; i++) {
+                if (frames[i].equals(TEST_FRAME)) {
+                    testFrame = i;
+                } else if (frames[i].equals(BURN_CPU_FRAME) && testFrame >= 0) {
+                    /* The frames are ordered from the outermost to the innermost method. */
+                    return line;
+                }
+            }
+        }
+        return null;
+    }
+}
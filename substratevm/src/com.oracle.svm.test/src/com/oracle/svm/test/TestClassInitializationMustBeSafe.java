@@ -230,6 +230,38 @@ class RecursionInInitializerMustBeSafeLate {
     }
 }
 
+abstract class PureShape {
+    abstract int area();
+}
+
+class PureSquare extends PureShape {
+    @Override
+    int area() {
+        return 4;
+    }
+}
+
+class PureCircle extends PureShape {
+    @Override
+    int area() {
+        return 3;
+    }
+}
+
+class VirtualCallMustBeSafeLate {
+    static int v;
+    static {
+        PureShape[] shapes = {new PureSquare(), new PureCircle()};
+        for (PureShape shape : shapes) {
+            v += shape.area();
+        }
+    }
+}
+
+class HostedSystemPropReadMustBeSafeLate {
+    static String v = System.getProperty("line.separator");
+}
+
 class UnsafeAccessMustBeSafeLate {
     static UnsafeAccessMustBeSafeLate value = compute();
 
@@ -337,6 +369,8 @@ class TestClassInitializationMustBeSafeFeature implements Feature {
                     StaticFieldModifer1MustBeDelayed.class,
                     StaticFieldModifer2MustBeDelayed.class,
                     RecursionInInitializerMustBeSafeLate.class,
+                    VirtualCallMustBeSafeLate.class,
+                    HostedSystemPropReadMustBeSafeLate.class,
                     UnsafeAccessMustBeSafeLate.class,
                     EnumMustBeSafeEarly.class,
                     NativeMethodMustBeDelayed.class};
@@ -475,6 +509,8 @@ public class TestClassInitializationMustBeSafe {
         }
 
         System.out.println(RecursionInInitializerMustBeSafeLate.i);
+        System.out.println(VirtualCallMustBeSafeLate.v);
+        System.out.println(HostedSystemPropReadMustBeSafeLate.v.length());
 
         UnsafeAccessMustBeSafeLate value = UnsafeAccessMustBeSafeLate.value;
         System.out.println(value.f01);
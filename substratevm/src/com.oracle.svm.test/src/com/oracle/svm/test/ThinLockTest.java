@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2020, 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.svm.test;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.svm.core.monitor.MonitorSupport;
+import com.oracle.svm.core.monitor.MultiThreadedMonitorSupport;
+
+/**
+ * Tests the thin locks of {@link MultiThreadedMonitorSupport} and the cases in which they are
+ * inflated to a {@link ReentrantLock}.
+ */
+public class ThinLockTest {
+
+    /** Used for synchronization, so the analysis reserves a monitor slot in its instances. */
+    static final class Lockable {
+        boolean flag;
+    }
+
+    private MultiThreadedMonitorSupport monitors;
+
+    @Before
+    public void checkMonitorSupport() {
+        Assume.assumeTrue(MonitorSupport.singleton() instanceof MultiThreadedMonitorSupport);
+        monitors = (MultiThreadedMonitorSupport) MonitorSupport.singleton();
+    }
+
+    private void assertUnlocked(Object obj) {
+        Assert.assertFalse(monitors.isLockedByAnyThread(obj));
+        Assert.assertFalse(Thread.holdsLock(obj));
+    }
+
+    /** Asserts that the monitor of {@code obj} is inflated and held by the current thread. */
+    private ReentrantLock assertInflatedAndHeld(Object obj, int holdCount) {
+        ReentrantLock lock = monitors.getInflatedMonitorForTesting(obj);
+        Assert.assertNotNull("monitor is not inflated", lock);
+        Assert.assertTrue(lock.isHeldByCurrentThread());
+        Assert.assertEquals(holdCount, lock.getHoldCount());
+        return lock;
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.BLOCKED && thread.getState() != Thread.State.WAITING) {
+            Assert.assertTrue("thread terminated early", thread.isAlive());
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void testUncontendedLockStaysThin() {
+        Lockable obj = new Lockable();
+        synchronized (obj) {
+            Assert.assertTrue(Thread.holdsLock(obj));
+            Assert.assertTrue(monitors.isLockedByCurrentThread(obj));
+            Assert.assertNull(monitors.getInflatedMonitorForTesting(obj));
+        }
+        assertUnlocked(obj);
+        Assert.assertNull(monitors.getInflatedMonitorForTesting(obj));
+    }
+
+    @Test
+    public void testContentionInflates() throws InterruptedException {
+        Lockable obj = new Lockable();
+        Thread contender = new Thread(() -> {
+            synchronized (obj) {
+                obj.flag = true;
+            }
+        });
+        synchronized (obj) {
+            contender.start();
+            awaitBlocked(contender);
+            /* The blocked thread inflated the thin lock on behalf of the current thread. */
+            assertInflatedAndHeld(obj, 1);
+            Assert.assertFalse(obj.flag);
+        }
+        contender.join();
+        synchronized (obj) {
+            Assert.assertTrue(obj.flag);
+        }
+        assertUnlocked(obj);
+    }
+
+    @Test
+    public void testWaitNotifyInflates() throws InterruptedException {
+        Lockable obj = new Lockable();
+        synchronized (obj) {
+            Assert.assertNull(monitors.getInflatedMonitorForTesting(obj));
+            /* Nobody waits, but notify requires the monitor and inflates the thin lock. */
+            obj.notifyAll();
+            assertInflatedAndHeld(obj, 1);
+        }
+        assertUnlocked(obj);
+
+        Lockable waited = new Lockable();
+        synchronized (waited) {
+            waited.wait(1);
+            assertInflatedAndHeld(waited, 1);
+        }
+        assertUnlocked(waited);
+
+        Lockable signal = new Lockable();
+        Thread waiter = new Thread(() -> {
+            synchronized (signal) {
+                while (!signal.flag) {
+                    try {
+                        signal.wait();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            }
+        });
+        waiter.start();
+        awaitBlocked(waiter);
+        synchronized (signal) {
+            signal.flag = true;
+            signal.notify();
+        }
+        waiter.join();
+        assertUnlocked(signal);
+    }
+
+    @Test
+    public void testNotifyWithoutLockFails() {
+        Lockable obj = new Lockable();
+        try {
+            obj.notify();
+            Assert.fail("notify requires the monitor");
+        } catch (IllegalMonitorStateException e) {
+            // expected
+        }
+        assertUnlocked(obj);
+    }
+
+    /**
+     * A thin lock has a recursion depth of one, so locking recursively inflates the lock, which
+     * then counts the further recursion.
+     */
+    @Test
+    public void testRecursiveLockingInflates() throws InterruptedException {
+        Lockable obj = new Lockable();
+        int depth = 100;
+        lockRecursively(obj, 1, depth);
+        assertUnlocked(obj);
+
+        /* All recursive locks were released, so another thread can lock the object. */
+        Thread other = new Thread(() -> {
+            synchronized (obj) {
+                obj.flag = true;
+            }
+        });
+        other.start();
+        other.join();
+        Assert.assertTrue(obj.flag);
+        assertUnlocked(obj);
+    }
+
+    private void lockRecursively(Lockable obj, int level, int depth) {
+        synchronized (obj) {
+            if (level == 1) {
+                Assert.assertNull(monitors.getInflatedMonitorForTesting(obj));
+            } else {
+                assertInflatedAndHeld(obj, level);
+            }
+            if (level < depth) {
+                lockRecursively(obj, level + 1, depth);
+            }
+            Assert.assertTrue(Thread.holdsLock(obj));
+        }
+    }
+
+    /**
+     * Performs the same calls as the deoptimizer for an object whose lock was eliminated in the
+     * compiled code. Re-locking an unlocked object installs a new monitor.
+     */
+    @Test
+    public void testRelockUnlockedObject() {
+        Lockable obj = new Lockable();
+        Object lockData = monitors.prepareRelockObject(obj);
+        monitors.doRelockObject(obj, lockData);
+        assertInflatedAndHeld(obj, 1);
+        monitors.monitorExit(obj);
+        assertUnlocked(obj);
+    }
+
+    /**
+     * Re-locking an object that the current thread holds as a thin lock, i.e., a recursive lock
+     * that was eliminated, inflates the lock with the thin lock's owner.
+     */
+    @Test
+    public void testRelockThinLockedObject() {
+        Lockable obj = new Lockable();
+        synchronized (obj) {
+            Assert.assertNull(monitors.getInflatedMonitorForTesting(obj));
+            Object lockData = monitors.prepareRelockObject(obj);
+            monitors.doRelockObject(obj, lockData);
+            ReentrantLock lock = assertInflatedAndHeld(obj, 2);
+            monitors.monitorExit(obj);
+            Assert.assertEquals(1, lock.getHoldCount());
+        }
+        assertUnlocked(obj);
+    }
+}
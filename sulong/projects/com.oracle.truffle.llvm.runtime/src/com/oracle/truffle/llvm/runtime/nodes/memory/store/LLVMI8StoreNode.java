@@ -43,6 +43,10 @@ import com.oracle.truffle.llvm.runtime.pointer.LLVMNativePointer;
 @GenerateUncached
 public abstract class LLVMI8StoreNode extends LLVMStoreNodeCommon {
 
+    public static LLVMI8StoreNode create() {
+        return LLVMI8StoreNodeGen.create(null, null);
+    }
+
     @Specialization(guards = "!isAutoDerefHandle(language, addr)")
     protected void doOp(LLVMNativePointer addr, byte value,
                     @CachedLanguage LLVMLanguage language) {
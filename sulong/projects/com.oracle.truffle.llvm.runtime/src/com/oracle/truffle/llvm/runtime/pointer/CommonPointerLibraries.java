@@ -29,6 +29,8 @@
  */
 package com.oracle.truffle.llvm.runtime.pointer;
 
+import java.nio.ByteOrder;
+
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
@@ -39,6 +41,7 @@ import com.oracle.truffle.api.dsl.Fallback;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.InvalidBufferOffsetException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
@@ -48,11 +51,20 @@ import com.oracle.truffle.api.profiles.BranchProfile;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import com.oracle.truffle.api.utilities.TriState;
 import com.oracle.truffle.llvm.runtime.LLVMLanguage;
+import com.oracle.truffle.llvm.runtime.global.LLVMGlobal;
 import com.oracle.truffle.llvm.runtime.interop.access.LLVMInteropType;
 import com.oracle.truffle.llvm.runtime.interop.export.LLVMForeignGetIndexPointerNode;
 import com.oracle.truffle.llvm.runtime.interop.export.LLVMForeignGetMemberPointerNode;
 import com.oracle.truffle.llvm.runtime.interop.export.LLVMForeignReadNode;
 import com.oracle.truffle.llvm.runtime.interop.export.LLVMForeignWriteNode;
+import com.oracle.truffle.llvm.runtime.nodes.memory.load.LLVMI16LoadNode;
+import com.oracle.truffle.llvm.runtime.nodes.memory.load.LLVMI32LoadNode;
+import com.oracle.truffle.llvm.runtime.nodes.memory.load.LLVMI64LoadNode;
+import com.oracle.truffle.llvm.runtime.nodes.memory.load.LLVMI8LoadNode;
+import com.oracle.truffle.llvm.runtime.nodes.memory.store.LLVMI16StoreNode;
+import com.oracle.truffle.llvm.runtime.nodes.memory.store.LLVMI32StoreNode;
+import com.oracle.truffle.llvm.runtime.nodes.memory.store.LLVMI64StoreNode;
+import com.oracle.truffle.llvm.runtime.nodes.memory.store.LLVMI8StoreNode;
 import com.oracle.truffle.llvm.runtime.nodes.op.LLVMAddressEqualsNode;
 
 @ExportLibrary(value = InteropLibrary.class, receiverType = LLVMPointerImpl.class)
@@ -207,6 +219,173 @@ abstract class CommonPointerLibraries {
         write.execute(ptr, ptr.getExportType(), value);
     }
 
+    /**
+     * Native arrays of primitive values are exposed as buffers, giving direct access to the
+     * underlying bytes. The data is read and written in the native byte order of the platform, and
+     * byte-swapped if a different order is requested.
+     */
+    static boolean isBuffer(LLVMPointerImpl receiver) {
+        Object type = receiver.getExportType();
+        return type instanceof LLVMInteropType.Array && ((LLVMInteropType.Array) type).getElementType() instanceof LLVMInteropType.Value;
+    }
+
+    @ExportMessage
+    static boolean hasBufferElements(LLVMPointerImpl receiver) {
+        return isBuffer(receiver);
+    }
+
+    @ExportMessage
+    static boolean isBufferWritable(LLVMPointerImpl receiver,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer) throws UnsupportedMessageException {
+        if (isBuffer.profile(isBuffer(receiver))) {
+            return !isReadOnlyGlobal(receiver);
+        } else {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    /**
+     * Read-only globals live in memory that is write-protected after initialization. Only
+     * pointers to the start of a global can be mapped back to it, all other pointers are assumed
+     * to point to writable memory.
+     */
+    @TruffleBoundary
+    private static boolean isReadOnlyGlobal(LLVMPointerImpl receiver) {
+        LLVMGlobal global = LLVMLanguage.getContext().findGlobal(receiver);
+        return global != null && global.isReadOnly();
+    }
+
+    @ExportMessage
+    static long getBufferSize(LLVMPointerImpl receiver,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer) throws UnsupportedMessageException {
+        if (isBuffer.profile(isBuffer(receiver))) {
+            return receiver.getExportType().getSize();
+        } else {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    private static LLVMPointer getBufferPointer(LLVMPointerImpl receiver, long byteOffset, int length, ConditionProfile isBuffer, BranchProfile error)
+                    throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer.profile(isBuffer(receiver))) {
+            throw UnsupportedMessageException.create();
+        }
+        if (byteOffset < 0 || byteOffset > receiver.getExportType().getSize() - length) {
+            error.enter();
+            throw InvalidBufferOffsetException.create(byteOffset, length);
+        }
+        return receiver.increment(byteOffset);
+    }
+
+    private static LLVMPointer getWritableBufferPointer(LLVMPointerImpl receiver, long byteOffset, int length, ConditionProfile isBuffer, BranchProfile error)
+                    throws UnsupportedMessageException, InvalidBufferOffsetException {
+        LLVMPointer ptr = getBufferPointer(receiver, byteOffset, length, isBuffer, error);
+        if (isReadOnlyGlobal(receiver)) {
+            error.enter();
+            throw UnsupportedMessageException.create();
+        }
+        return ptr;
+    }
+
+    @ExportMessage
+    static byte readBufferByte(LLVMPointerImpl receiver, long byteOffset,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer,
+                    @Shared("error") @Cached BranchProfile error,
+                    @Exclusive @Cached LLVMI8LoadNode load) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        return (byte) load.executeWithTarget(getBufferPointer(receiver, byteOffset, Byte.BYTES, isBuffer, error));
+    }
+
+    @ExportMessage
+    static void writeBufferByte(LLVMPointerImpl receiver, long byteOffset, byte value,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer,
+                    @Shared("error") @Cached BranchProfile error,
+                    @Exclusive @Cached LLVMI8StoreNode store) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        store.executeWithTarget(getWritableBufferPointer(receiver, byteOffset, Byte.BYTES, isBuffer, error), value);
+    }
+
+    @ExportMessage
+    static short readBufferShort(LLVMPointerImpl receiver, ByteOrder order, long byteOffset,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer,
+                    @Shared("error") @Cached BranchProfile error,
+                    @Exclusive @Cached LLVMI16LoadNode load) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        short value = (short) load.executeWithTarget(getBufferPointer(receiver, byteOffset, Short.BYTES, isBuffer, error));
+        return order == ByteOrder.nativeOrder() ? value : Short.reverseBytes(value);
+    }
+
+    @ExportMessage
+    static void writeBufferShort(LLVMPointerImpl receiver, ByteOrder order, long byteOffset, short value,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer,
+                    @Shared("error") @Cached BranchProfile error,
+                    @Exclusive @Cached LLVMI16StoreNode store) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        store.executeWithTarget(getWritableBufferPointer(receiver, byteOffset, Short.BYTES, isBuffer, error), order == ByteOrder.nativeOrder() ? value : Short.reverseBytes(value));
+    }
+
+    @ExportMessage
+    static int readBufferInt(LLVMPointerImpl receiver, ByteOrder order, long byteOffset,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer,
+                    @Shared("error") @Cached BranchProfile error,
+                    @Shared("loadI32") @Cached LLVMI32LoadNode load) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        int value = (int) load.executeWithTarget(getBufferPointer(receiver, byteOffset, Integer.BYTES, isBuffer, error));
+        return order == ByteOrder.nativeOrder() ? value : Integer.reverseBytes(value);
+    }
+
+    @ExportMessage
+    static void writeBufferInt(LLVMPointerImpl receiver, ByteOrder order, long byteOffset, int value,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer,
+                    @Shared("error") @Cached BranchProfile error,
+                    @Shared("storeI32") @Cached LLVMI32StoreNode store) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        store.executeWithTarget(getWritableBufferPointer(receiver, byteOffset, Integer.BYTES, isBuffer, error), order == ByteOrder.nativeOrder() ? value : Integer.reverseBytes(value));
+    }
+
+    @ExportMessage
+    static long readBufferLong(LLVMPointerImpl receiver, ByteOrder order, long byteOffset,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer,
+                    @Shared("error") @Cached BranchProfile error,
+                    @Shared("loadI64") @Cached LLVMI64LoadNode load) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        long value = (long) load.executeWithTarget(getBufferPointer(receiver, byteOffset, Long.BYTES, isBuffer, error));
+        return order == ByteOrder.nativeOrder() ? value : Long.reverseBytes(value);
+    }
+
+    @ExportMessage
+    static void writeBufferLong(LLVMPointerImpl receiver, ByteOrder order, long byteOffset, long value,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer,
+                    @Shared("error") @Cached BranchProfile error,
+                    @Shared("storeI64") @Cached LLVMI64StoreNode store) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        store.executeWithTarget(getWritableBufferPointer(receiver, byteOffset, Long.BYTES, isBuffer, error), order == ByteOrder.nativeOrder() ? value : Long.reverseBytes(value));
+    }
+
+    @ExportMessage
+    static float readBufferFloat(LLVMPointerImpl receiver, ByteOrder order, long byteOffset,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer,
+                    @Shared("error") @Cached BranchProfile error,
+                    @Shared("loadI32") @Cached LLVMI32LoadNode load) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        return Float.intBitsToFloat(readBufferInt(receiver, order, byteOffset, isBuffer, error, load));
+    }
+
+    @ExportMessage
+    static void writeBufferFloat(LLVMPointerImpl receiver, ByteOrder order, long byteOffset, float value,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer,
+                    @Shared("error") @Cached BranchProfile error,
+                    @Shared("storeI32") @Cached LLVMI32StoreNode store) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        writeBufferInt(receiver, order, byteOffset, Float.floatToRawIntBits(value), isBuffer, error, store);
+    }
+
+    @ExportMessage
+    static double readBufferDouble(LLVMPointerImpl receiver, ByteOrder order, long byteOffset,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer,
+                    @Shared("error") @Cached BranchProfile error,
+                    @Shared("loadI64") @Cached LLVMI64LoadNode load) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        return Double.longBitsToDouble(readBufferLong(receiver, order, byteOffset, isBuffer, error, load));
+    }
+
+    @ExportMessage
+    static void writeBufferDouble(LLVMPointerImpl receiver, ByteOrder order, long byteOffset, double value,
+                    @Shared("isBuffer") @Cached ConditionProfile isBuffer,
+                    @Shared("error") @Cached BranchProfile error,
+                    @Shared("storeI64") @Cached LLVMI64StoreNode store) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        writeBufferLong(receiver, order, byteOffset, Double.doubleToRawLongBits(value), isBuffer, error, store);
+    }
+
     @ExportLibrary(InteropLibrary.class)
     public static final class Keys implements TruffleObject {
 
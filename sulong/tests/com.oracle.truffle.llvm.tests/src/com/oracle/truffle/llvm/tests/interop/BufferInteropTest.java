@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates.
+ *
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are
+ * permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of
+ * conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of
+ * conditions and the following disclaimer in the documentation and/or other materials provided
+ * with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to
+ * endorse or promote products derived from this software without specific prior written
+ * permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS
+ * OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE
+ * GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+ * AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+package com.oracle.truffle.llvm.tests.interop;
+
+import java.nio.ByteOrder;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.oracle.truffle.api.interop.InteropException;
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.InvalidBufferOffsetException;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+import com.oracle.truffle.tck.TruffleRunner;
+
+@RunWith(TruffleRunner.class)
+public class BufferInteropTest extends InteropTestBase {
+
+    static final InteropLibrary INTEROP = InteropLibrary.getUncached();
+
+    private static Object allocBuffer;
+    private static Object freeBuffer;
+    private static Object readI32;
+    private static Object getConstants;
+    private static Object getGlobals;
+
+    @BeforeClass
+    public static void loadTestBitcode() throws InteropException {
+        Object testLibrary = loadTestBitcodeInternal("bufferInterop.c");
+        allocBuffer = INTEROP.readMember(testLibrary, "alloc_buffer");
+        freeBuffer = INTEROP.readMember(testLibrary, "free_buffer");
+        readI32 = INTEROP.readMember(testLibrary, "read_i32");
+        getConstants = INTEROP.readMember(testLibrary, "get_constants");
+        getGlobals = INTEROP.readMember(testLibrary, "get_globals");
+    }
+
+    @Test
+    public void testReadWrite() throws InteropException {
+        Object buffer = INTEROP.execute(allocBuffer, 32);
+        try {
+            Assert.assertTrue(INTEROP.hasBufferElements(buffer));
+            Assert.assertTrue(INTEROP.isBufferWritable(buffer));
+            Assert.assertEquals(32, INTEROP.getBufferSize(buffer));
+
+            INTEROP.writeBufferByte(buffer, 0, (byte) 0x80);
+            Assert.assertEquals((byte) 0x80, INTEROP.readBufferByte(buffer, 0));
+
+            INTEROP.writeBufferShort(buffer, ByteOrder.BIG_ENDIAN, 2, (short) 0x0102);
+            Assert.assertEquals(0x01, INTEROP.readBufferByte(buffer, 2));
+            Assert.assertEquals(0x02, INTEROP.readBufferByte(buffer, 3));
+            Assert.assertEquals(0x0201, INTEROP.readBufferShort(buffer, ByteOrder.LITTLE_ENDIAN, 2));
+
+            INTEROP.writeBufferInt(buffer, ByteOrder.nativeOrder(), 4, 0x01020304);
+            Assert.assertEquals(0x01020304, INTEROP.asInt(INTEROP.execute(readI32, buffer, 1)));
+            Assert.assertEquals(0x01020304, INTEROP.readBufferInt(buffer, ByteOrder.nativeOrder(), 4));
+            Assert.assertEquals(0x04030201, INTEROP.readBufferInt(buffer, swap(ByteOrder.nativeOrder()), 4));
+
+            INTEROP.writeBufferLong(buffer, ByteOrder.BIG_ENDIAN, 8, 0x0102030405060708L);
+            Assert.assertEquals(0x01, INTEROP.readBufferByte(buffer, 8));
+            Assert.assertEquals(0x0807060504030201L, INTEROP.readBufferLong(buffer, ByteOrder.LITTLE_ENDIAN, 8));
+
+            INTEROP.writeBufferFloat(buffer, ByteOrder.LITTLE_ENDIAN, 16, 42.5f);
+            Assert.assertEquals(42.5f, INTEROP.readBufferFloat(buffer, ByteOrder.LITTLE_ENDIAN, 16), 0f);
+            Assert.assertEquals(Float.floatToRawIntBits(42.5f), INTEROP.readBufferInt(buffer, ByteOrder.LITTLE_ENDIAN, 16));
+
+            INTEROP.writeBufferDouble(buffer, ByteOrder.BIG_ENDIAN, 24, 42.5d);
+            Assert.assertEquals(42.5d, INTEROP.readBufferDouble(buffer, ByteOrder.BIG_ENDIAN, 24), 0d);
+            Assert.assertEquals(Double.doubleToRawLongBits(42.5d), INTEROP.readBufferLong(buffer, ByteOrder.BIG_ENDIAN, 24));
+        } finally {
+            INTEROP.execute(freeBuffer, buffer);
+        }
+    }
+
+    @Test
+    public void testOutOfBounds() throws InteropException {
+        Object buffer = INTEROP.execute(allocBuffer, 16);
+        try {
+            assertInvalidOffset(-1, Byte.BYTES, () -> INTEROP.readBufferByte(buffer, -1));
+            assertInvalidOffset(16, Byte.BYTES, () -> INTEROP.writeBufferByte(buffer, 16, (byte) 0));
+            assertInvalidOffset(14, Integer.BYTES, () -> INTEROP.readBufferInt(buffer, ByteOrder.LITTLE_ENDIAN, 14));
+            assertInvalidOffset(9, Long.BYTES, () -> INTEROP.writeBufferDouble(buffer, ByteOrder.BIG_ENDIAN, 9, 0d));
+            INTEROP.writeBufferLong(buffer, ByteOrder.LITTLE_ENDIAN, 8, -1L);
+            Assert.assertEquals(-1L, INTEROP.readBufferLong(buffer, ByteOrder.LITTLE_ENDIAN, 8));
+        } finally {
+            INTEROP.execute(freeBuffer, buffer);
+        }
+    }
+
+    @Test
+    public void testReadOnlyGlobal() throws InteropException {
+        Object constants = INTEROP.execute(getConstants);
+        Assert.assertTrue(INTEROP.hasBufferElements(constants));
+        Assert.assertFalse(INTEROP.isBufferWritable(constants));
+        Assert.assertEquals(16, INTEROP.getBufferSize(constants));
+        Assert.assertEquals(3, INTEROP.readBufferInt(constants, ByteOrder.nativeOrder(), 8));
+        try {
+            INTEROP.writeBufferInt(constants, ByteOrder.nativeOrder(), 8, 42);
+            Assert.fail();
+        } catch (UnsupportedMessageException e) {
+        }
+        Assert.assertEquals(3, INTEROP.readBufferInt(constants, ByteOrder.nativeOrder(), 8));
+    }
+
+    @Test
+    public void testWritableGlobal() throws InteropException {
+        Object globals = INTEROP.execute(getGlobals);
+        Assert.assertTrue(INTEROP.isBufferWritable(globals));
+        INTEROP.writeBufferInt(globals, ByteOrder.nativeOrder(), 8, 42);
+        Assert.assertEquals(42, INTEROP.asInt(INTEROP.execute(readI32, globals, 2)));
+    }
+
+    @Test
+    public void testNoBuffer() throws InteropException {
+        Assert.assertFalse(INTEROP.hasBufferElements(readI32));
+        try {
+            INTEROP.getBufferSize(readI32);
+            Assert.fail();
+        } catch (UnsupportedMessageException e) {
+        }
+    }
+
+    private interface BufferAccess {
+        void run() throws InteropException;
+    }
+
+    private static void assertInvalidOffset(long byteOffset, int length, BufferAccess access) throws InteropException {
+        try {
+            access.run();
+            Assert.fail();
+        } catch (InvalidBufferOffsetException e) {
+            Assert.assertEquals(byteOffset, e.getByteOffset());
+            Assert.assertEquals(length, e.getLength());
+        }
+    }
+
+    private static ByteOrder swap(ByteOrder order) {
+        return order == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+    }
+}
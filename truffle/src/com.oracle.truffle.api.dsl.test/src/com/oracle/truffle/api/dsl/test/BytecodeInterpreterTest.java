@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.dsl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.dsl.GenerateBytecode;
+import com.oracle.truffle.api.dsl.GenerateBytecode.Operation;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.dsl.UnsupportedSpecializationException;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+
+@SuppressWarnings("unused")
+public class BytecodeInterpreterTest {
+
+    @GenerateBytecode
+    abstract static class TestInterpreter extends RootNode {
+
+        protected TestInterpreter(TruffleLanguage<?> language) {
+            super(language);
+        }
+
+        @Operation
+        static final class Add {
+
+            @Specialization
+            static int doInt(int left, int right) {
+                return left + right;
+            }
+
+            @Specialization
+            static String doString(String left, Object right) {
+                return left + right;
+            }
+        }
+
+        @Operation
+        static final class Less {
+
+            @Specialization
+            static boolean doInt(int left, int right) {
+                return left < right;
+            }
+        }
+
+        @Operation
+        static final class ArgumentCount {
+
+            @Specialization
+            static int doDefault(VirtualFrame frame) {
+                return frame.getArguments().length;
+            }
+        }
+
+        @Operation
+        static final class Consume {
+
+            @Specialization
+            static void doDefault(Object value) {
+            }
+        }
+    }
+
+    private static CallTarget createAdd() {
+        TestInterpreterGen.Builder b = TestInterpreterGen.newBuilder();
+        b.emitLoadArgument(0);
+        b.emitLoadArgument(1);
+        b.emitAdd();
+        b.emitReturn();
+        return Truffle.getRuntime().createCallTarget(b.build(null));
+    }
+
+    @Test
+    public void testQuickening() {
+        CallTarget add = createAdd();
+        assertEquals(3, add.call(1, 2));
+        assertEquals(7, add.call(3, 4));
+        // rewrites the quickened instruction to the generic instruction
+        assertEquals("a2", add.call("a", 2));
+        assertEquals(11, add.call(5, 6));
+        assertEquals("b", add.call("", "b"));
+    }
+
+    @Test
+    public void testUnsupported() {
+        CallTarget add = createAdd();
+        try {
+            add.call(1d, 2);
+            fail();
+        } catch (UnsupportedSpecializationException e) {
+        }
+        assertEquals(3, add.call(1, 2));
+    }
+
+    @Test
+    public void testLoop() {
+        // sum = 0; i = 0; while (i < arg0) { sum = sum + i; i = i + 1; } consume(argumentCount()); return sum;
+        TestInterpreterGen.Builder b = TestInterpreterGen.newBuilder();
+        b.emitLoadConstant(0);
+        b.emitStoreLocal(0);
+        b.emitLoadConstant(0);
+        b.emitStoreLocal(1);
+        TestInterpreterGen.Label loop = b.createLabel();
+        TestInterpreterGen.Label exit = b.createLabel();
+        b.emitLabel(loop);
+        b.emitLoadLocal(1);
+        b.emitLoadArgument(0);
+        b.emitLess();
+        b.emitBranchFalse(exit);
+        b.emitLoadLocal(0);
+        b.emitLoadLocal(1);
+        b.emitAdd();
+        b.emitStoreLocal(0);
+        b.emitLoadLocal(1);
+        b.emitLoadConstant(1);
+        b.emitAdd();
+        b.emitStoreLocal(1);
+        b.emitBranch(loop);
+        b.emitLabel(exit);
+        b.emitArgumentCount();
+        b.emitConsume();
+        b.emitLoadLocal(0);
+        b.emitReturn();
+        CallTarget target = Truffle.getRuntime().createCallTarget(b.build(null));
+        assertEquals(0, target.call(0));
+        assertEquals(45, target.call(10));
+        assertEquals(4950, target.call(100));
+    }
+
+    @Test
+    public void testConditional() {
+        // return arg0 < arg1 ? "less" : "not less"
+        TestInterpreterGen.Builder b = TestInterpreterGen.newBuilder();
+        TestInterpreterGen.Label otherwise = b.createLabel();
+        TestInterpreterGen.Label end = b.createLabel();
+        b.emitLoadArgument(0);
+        b.emitLoadArgument(1);
+        b.emitLess();
+        b.emitBranchFalse(otherwise);
+        b.emitLoadConstant("less");
+        b.emitBranch(end);
+        b.emitLabel(otherwise);
+        b.emitLoadConstant("not less");
+        b.emitLabel(end);
+        b.emitReturn();
+        CallTarget target = Truffle.getRuntime().createCallTarget(b.build(null));
+        assertEquals("less", target.call(1, 2));
+        assertEquals("not less", target.call(2, 1));
+    }
+
+    @Test
+    public void testBuilderErrors() {
+        TestInterpreterGen.Builder b = TestInterpreterGen.newBuilder();
+        try {
+            b.emitAdd();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("Operand stack underflow.", e.getMessage());
+        }
+
+        b = TestInterpreterGen.newBuilder();
+        b.emitLoadConstant(42);
+        b.emitReturn();
+        try {
+            b.emitLoadConstant(42);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+
+        b = TestInterpreterGen.newBuilder();
+        b.emitLoadConstant(42);
+        try {
+            b.build(null);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+
+        b = TestInterpreterGen.newBuilder();
+        TestInterpreterGen.Label label = b.createLabel();
+        b.emitLoadConstant(true);
+        b.emitBranchFalse(label);
+        b.emitLoadConstant(42);
+        b.emitReturn();
+        try {
+            b.build(null);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("All labels referenced by branches must be emitted.", e.getMessage());
+        }
+
+        b = TestInterpreterGen.newBuilder();
+        try {
+            b.emitLoadLocal(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @GenerateBytecode
+    @ExpectError("Bytecode interpreter classes must be abstract.")
+    static class ErrorInterpreter1 extends RootNode {
+
+        protected ErrorInterpreter1(TruffleLanguage<?> language) {
+            super(language);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            return null;
+        }
+    }
+
+    @GenerateBytecode
+    abstract static class ErrorInterpreter2 extends RootNode {
+
+        protected ErrorInterpreter2(TruffleLanguage<?> language) {
+            super(language);
+        }
+
+        @ExpectError({"The attribute 'guards' of @Specialization is not supported for bytecode operations.",
+                        "All specializations of a bytecode operation must declare the same number of operands. Expected 2 but was 1."})
+        @Operation
+        static final class Add {
+
+            @Specialization(guards = "left > 0")
+            static int doInt(int left, int right) {
+                return left + right;
+            }
+
+            @Specialization
+            static Object doObject(Object value) {
+                return value;
+            }
+        }
+
+        @ExpectError("The operation name 'Return' is reserved for a built-in instruction.%")
+        @Operation
+        static final class Return {
+
+            @Specialization
+            static Object doDefault(Object value) {
+                return value;
+            }
+        }
+    }
+
+}
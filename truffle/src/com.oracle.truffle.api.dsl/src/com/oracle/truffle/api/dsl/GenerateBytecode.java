@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.dsl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a bytecode interpreter for an abstract root node subclass. Instead of representing a
+ * guest program as a tree of node objects, one object per operation, the generated interpreter
+ * stores the program as a compact <code>short[]</code> bytecode array and a constant pool. This
+ * considerably reduces the memory footprint of large or rarely executed guest programs.
+ * <p>
+ * The operations of the interpreter are declared as static nested classes annotated with
+ * {@link Operation}. Each operation declares one or more static {@link Specialization}
+ * methods. The parameters of a specialization are the operand values popped from the operand stack,
+ * optionally preceded by a {@link com.oracle.truffle.api.frame.VirtualFrame frame} parameter. The
+ * return value, if any, is pushed onto the operand stack. All specializations of an operation must
+ * declare the same number of operands and must either all return a value or all be
+ * <code>void</code>. Specializations are selected by the types of their operands in declaration
+ * order. Guards, caches and the other specialization attributes are not supported for operations.
+ * <p>
+ * The generated interpreter uses quickening: when an operation is executed for the first time, its
+ * instruction is rewritten in place to the instruction of the specialization that matched the
+ * operand types. A quickened instruction only checks the operand types of its specialization. If
+ * the check fails, the instruction is rewritten to a generic instruction that selects the
+ * specialization on every execution. The bytecode array is compilation final and the dispatch loop
+ * is {@link com.oracle.truffle.api.nodes.ExplodeLoop.LoopExplosionKind#MERGE_EXPLODE merge
+ * exploded}, so partial evaluation produces code specialized for the bytecode and its quickened
+ * instructions.
+ * <p>
+ * For an annotated class named <code>MyInterpreter</code>, a class named
+ * <code>MyInterpreterGen</code> is generated. Programs are created with the builder returned by
+ * <code>MyInterpreterGen.newBuilder()</code>. In addition to one <code>emit</code> method per
+ * operation, the builder provides the built-in instructions to load constants, arguments and
+ * locals, to store locals, to pop values, for unconditional and conditional branches to labels,
+ * and to return a value. The builder provides one <code>build</code> method per non-private
+ * constructor of the annotated class.
+ * <p>
+ * <b>Example:</b>
+ *
+ * <pre>
+ * &#64;GenerateBytecode
+ * abstract static class MyInterpreter extends RootNode {
+ *
+ *     protected MyInterpreter(TruffleLanguage&lt;?&gt; language) {
+ *         super(language);
+ *     }
+ *
+ *     &#64;Operation
+ *     static final class Add {
+ *
+ *         &#64;Specialization
+ *         static int doInt(int left, int right) {
+ *             return left + right;
+ *         }
+ *
+ *         &#64;Specialization
+ *         static String doString(String left, String right) {
+ *             return left + right;
+ *         }
+ *     }
+ * }
+ *
+ * MyInterpreterGen.Builder b = MyInterpreterGen.newBuilder();
+ * b.emitLoadArgument(0);
+ * b.emitLoadConstant(42);
+ * b.emitAdd();
+ * b.emitReturn();
+ * RootNode root = b.build(language);
+ * </pre>
+ *
+ * @since 20.3
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target({ElementType.TYPE})
+public @interface GenerateBytecode {
+
+    /**
+     * Declares an operation of a {@link GenerateBytecode bytecode interpreter}. Operations must be
+     * static nested classes of the class annotated with {@link GenerateBytecode}. The simple name
+     * of the class is used as the name of the operation, e.g. the builder method for an operation
+     * class named <code>Add</code> is called <code>emitAdd()</code>.
+     *
+     * @since 20.3
+     */
+    @Retention(RetentionPolicy.CLASS)
+    @Target({ElementType.TYPE})
+    @interface Operation {
+    }
+
+}
@@ -49,6 +49,7 @@ import static com.oracle.truffle.api.interop.AssertUtils.validReturn;
 import static com.oracle.truffle.api.interop.AssertUtils.violationInvariant;
 import static com.oracle.truffle.api.interop.AssertUtils.violationPost;
 
+import java.nio.ByteOrder;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -125,6 +126,7 @@ import com.oracle.truffle.api.utilities.TriState;
  * <li>{@link #isPointer(Object) pointer}
  * <li>{@link #hasMembers(Object) members}
  * <li>{@link #hasArrayElements(Object) array elements}
+ * <li>{@link #hasBufferElements(Object) buffer elements}
  * <li>{@link #hasLanguage(Object) language}
  * <li>{@link #hasMetaObject(Object) associated metaobject}
  * <li>{@link #hasSourceLocation(Object) source location}
@@ -964,6 +966,254 @@ public abstract class InteropLibrary extends Library {
         return isArrayElementModifiable(receiver, index) || isArrayElementReadable(receiver, index) || isArrayElementRemovable(receiver, index);
     }
 
+    // Buffer Messages
+
+    /**
+     * Returns <code>true</code> if the receiver may have buffer elements. A buffer is a contiguous
+     * region of raw bytes that can be accessed directly at byte offsets without boxing each element
+     * into an interop value. If this message returns <code>true</code>, then
+     * {@link #getBufferSize(Object)}, {@link #readBufferByte(Object, long)},
+     * {@link #readBufferShort(Object, ByteOrder, long)},
+     * {@link #readBufferInt(Object, ByteOrder, long)},
+     * {@link #readBufferLong(Object, ByteOrder, long)},
+     * {@link #readBufferFloat(Object, ByteOrder, long)} and
+     * {@link #readBufferDouble(Object, ByteOrder, long)} must not throw
+     * {@link UnsupportedMessageException}. A value may have buffer elements and
+     * {@link #hasArrayElements(Object) array elements} at the same time. Invoking this message does
+     * not cause any observable side-effects. Returns <code>false</code> by default.
+     *
+     * @see #getBufferSize(Object)
+     * @see #isBufferWritable(Object)
+     * @since 20.3
+     */
+    @Abstract(ifExported = {"getBufferSize", "isBufferWritable", "readBufferByte", "readBufferShort", "readBufferInt", "readBufferLong", "readBufferFloat", "readBufferDouble", "writeBufferByte",
+                    "writeBufferShort", "writeBufferInt", "writeBufferLong", "writeBufferFloat", "writeBufferDouble"})
+    public boolean hasBufferElements(Object receiver) {
+        return false;
+    }
+
+    /**
+     * Returns <code>true</code> if the receiver is a modifiable buffer. In this case the
+     * <code>writeBuffer</code> messages, like {@link #writeBufferByte(Object, long, byte)}, must
+     * not throw {@link UnsupportedMessageException} for valid byte offsets. Invoking this message
+     * does not cause any observable side-effects.
+     *
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} returns
+     *             <code>false</code>.
+     * @since 20.3
+     */
+    @Abstract(ifExported = {"hasBufferElements"})
+    public boolean isBufferWritable(Object receiver) throws UnsupportedMessageException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Returns the buffer size of the receiver in bytes. Invoking this message does not cause any
+     * observable side-effects.
+     *
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} returns
+     *             <code>false</code>.
+     * @since 20.3
+     */
+    @Abstract(ifExported = {"hasBufferElements"})
+    public long getBufferSize(Object receiver) throws UnsupportedMessageException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Reads the byte at the given byte offset from the start of the buffer. Invoking this message
+     * does not cause any observable side-effects.
+     *
+     * @throws InvalidBufferOffsetException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt;= </code>{@link #getBufferSize(Object)}.
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} returns
+     *             <code>false</code>.
+     * @since 20.3
+     */
+    @Abstract(ifExported = {"hasBufferElements"})
+    public byte readBufferByte(Object receiver, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Writes the given byte at the given byte offset from the start of the buffer. This method must
+     * not have observable side-effects other than the changed buffer contents.
+     *
+     * @throws InvalidBufferOffsetException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt;= </code>{@link #getBufferSize(Object)}.
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} or
+     *             {@link #isBufferWritable(Object)} returns <code>false</code>.
+     * @since 20.3
+     */
+    public void writeBufferByte(Object receiver, long byteOffset, byte value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Reads the short at the given byte offset from the start of the buffer in the given byte
+     * order. Unaligned accesses are supported. Invoking this message does not cause any observable
+     * side-effects.
+     *
+     * @throws InvalidBufferOffsetException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize(Object)}
+     *             <code> - 2</code>.
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} returns
+     *             <code>false</code>.
+     * @since 20.3
+     */
+    @Abstract(ifExported = {"hasBufferElements"})
+    public short readBufferShort(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Writes the given short at the given byte offset from the start of the buffer in the given
+     * byte order. Unaligned accesses are supported. This method must not have observable
+     * side-effects other than the changed buffer contents.
+     *
+     * @throws InvalidBufferOffsetException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize(Object)}
+     *             <code> - 2</code>.
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} or
+     *             {@link #isBufferWritable(Object)} returns <code>false</code>.
+     * @since 20.3
+     */
+    public void writeBufferShort(Object receiver, ByteOrder order, long byteOffset, short value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Reads the int at the given byte offset from the start of the buffer in the given byte order.
+     * Unaligned accesses are supported. Invoking this message does not cause any observable
+     * side-effects.
+     *
+     * @throws InvalidBufferOffsetException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize(Object)}
+     *             <code> - 4</code>.
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} returns
+     *             <code>false</code>.
+     * @since 20.3
+     */
+    @Abstract(ifExported = {"hasBufferElements"})
+    public int readBufferInt(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Writes the given int at the given byte offset from the start of the buffer in the given byte
+     * order. Unaligned accesses are supported. This method must not have observable side-effects
+     * other than the changed buffer contents.
+     *
+     * @throws InvalidBufferOffsetException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize(Object)}
+     *             <code> - 4</code>.
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} or
+     *             {@link #isBufferWritable(Object)} returns <code>false</code>.
+     * @since 20.3
+     */
+    public void writeBufferInt(Object receiver, ByteOrder order, long byteOffset, int value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Reads the long at the given byte offset from the start of the buffer in the given byte
+     * order. Unaligned accesses are supported. Invoking this message does not cause any observable
+     * side-effects.
+     *
+     * @throws InvalidBufferOffsetException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize(Object)}
+     *             <code> - 8</code>.
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} returns
+     *             <code>false</code>.
+     * @since 20.3
+     */
+    @Abstract(ifExported = {"hasBufferElements"})
+    public long readBufferLong(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Writes the given long at the given byte offset from the start of the buffer in the given
+     * byte order. Unaligned accesses are supported. This method must not have observable
+     * side-effects other than the changed buffer contents.
+     *
+     * @throws InvalidBufferOffsetException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize(Object)}
+     *             <code> - 8</code>.
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} or
+     *             {@link #isBufferWritable(Object)} returns <code>false</code>.
+     * @since 20.3
+     */
+    public void writeBufferLong(Object receiver, ByteOrder order, long byteOffset, long value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Reads the float at the given byte offset from the start of the buffer in the given byte
+     * order. Unaligned accesses are supported. Invoking this message does not cause any observable
+     * side-effects.
+     *
+     * @throws InvalidBufferOffsetException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize(Object)}
+     *             <code> - 4</code>.
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} returns
+     *             <code>false</code>.
+     * @since 20.3
+     */
+    @Abstract(ifExported = {"hasBufferElements"})
+    public float readBufferFloat(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Writes the given float at the given byte offset from the start of the buffer in the given
+     * byte order. Unaligned accesses are supported. This method must not have observable
+     * side-effects other than the changed buffer contents.
+     *
+     * @throws InvalidBufferOffsetException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize(Object)}
+     *             <code> - 4</code>.
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} or
+     *             {@link #isBufferWritable(Object)} returns <code>false</code>.
+     * @since 20.3
+     */
+    public void writeBufferFloat(Object receiver, ByteOrder order, long byteOffset, float value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Reads the double at the given byte offset from the start of the buffer in the given byte
+     * order. Unaligned accesses are supported. Invoking this message does not cause any observable
+     * side-effects.
+     *
+     * @throws InvalidBufferOffsetException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize(Object)}
+     *             <code> - 8</code>.
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} returns
+     *             <code>false</code>.
+     * @since 20.3
+     */
+    @Abstract(ifExported = {"hasBufferElements"})
+    public double readBufferDouble(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Writes the given double at the given byte offset from the start of the buffer in the given
+     * byte order. Unaligned accesses are supported. This method must not have observable
+     * side-effects other than the changed buffer contents.
+     *
+     * @throws InvalidBufferOffsetException if and only if
+     *             <code>byteOffset &lt; 0 || byteOffset &gt; </code>{@link #getBufferSize(Object)}
+     *             <code> - 8</code>.
+     * @throws UnsupportedMessageException if and only if {@link #hasBufferElements(Object)} or
+     *             {@link #isBufferWritable(Object)} returns <code>false</code>.
+     * @since 20.3
+     */
+    public void writeBufferDouble(Object receiver, ByteOrder order, long byteOffset, double value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        throw UnsupportedMessageException.create();
+    }
+
     /**
      * Returns <code>true</code> if the receiver value represents a native pointer. Native pointers
      * are represented as 64 bit pointers. Invoking this message does not cause any observable
@@ -2521,6 +2771,286 @@ public abstract class InteropLibrary extends Library {
             return result;
         }
 
+        @Override
+        public boolean hasBufferElements(Object receiver) {
+            assert preCondition(receiver);
+            return delegate.hasBufferElements(receiver);
+        }
+
+        @Override
+        public boolean isBufferWritable(Object receiver) throws UnsupportedMessageException {
+            assert preCondition(receiver);
+            boolean wasBuffer = delegate.hasBufferElements(receiver);
+            try {
+                boolean result = delegate.isBufferWritable(receiver);
+                assert wasBuffer : violationInvariant(receiver);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException : violationPost(receiver, e);
+                assert !wasBuffer : violationInvariant(receiver);
+                throw e;
+            }
+        }
+
+        @Override
+        public long getBufferSize(Object receiver) throws UnsupportedMessageException {
+            assert preCondition(receiver);
+            boolean wasBuffer = delegate.hasBufferElements(receiver);
+            try {
+                long result = delegate.getBufferSize(receiver);
+                assert wasBuffer : violationInvariant(receiver);
+                assert result >= 0 : violationPost(receiver, result);
+                return result;
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException : violationPost(receiver, e);
+                assert !wasBuffer : violationInvariant(receiver);
+                throw e;
+            }
+        }
+
+        private static boolean verifyBufferRead(Object receiver, long byteOffset, boolean wasBuffer) {
+            assert wasBuffer : violationInvariant(receiver, byteOffset);
+            return true;
+        }
+
+        private static boolean verifyBufferReadException(Object receiver, long byteOffset, boolean wasBuffer, InteropException e) {
+            assert e instanceof UnsupportedMessageException || e instanceof InvalidBufferOffsetException : violationPost(receiver, e);
+            assert !(e instanceof UnsupportedMessageException) || !wasBuffer : violationInvariant(receiver, byteOffset);
+            return true;
+        }
+
+        private static boolean verifyBufferWrite(Object receiver, long byteOffset, boolean wasWritable) {
+            assert wasWritable || isMultiThreaded(receiver) : violationInvariant(receiver, byteOffset);
+            return true;
+        }
+
+        private static boolean verifyBufferWriteException(Object receiver, InteropException e) {
+            assert e instanceof UnsupportedMessageException || e instanceof InvalidBufferOffsetException : violationPost(receiver, e);
+            return true;
+        }
+
+        private boolean isWritableBuffer(Object receiver) {
+            try {
+                return delegate.hasBufferElements(receiver) && delegate.isBufferWritable(receiver);
+            } catch (UnsupportedMessageException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public byte readBufferByte(Object receiver, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+            if (CompilerDirectives.inCompiledCode()) {
+                return delegate.readBufferByte(receiver, byteOffset);
+            }
+            assert preCondition(receiver);
+            boolean wasBuffer = delegate.hasBufferElements(receiver);
+            try {
+                byte result = delegate.readBufferByte(receiver, byteOffset);
+                assert verifyBufferRead(receiver, byteOffset, wasBuffer);
+                return result;
+            } catch (InteropException e) {
+                assert verifyBufferReadException(receiver, byteOffset, wasBuffer, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void writeBufferByte(Object receiver, long byteOffset, byte value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+            if (CompilerDirectives.inCompiledCode()) {
+                delegate.writeBufferByte(receiver, byteOffset, value);
+                return;
+            }
+            assert preCondition(receiver);
+            boolean wasWritable = isWritableBuffer(receiver);
+            try {
+                delegate.writeBufferByte(receiver, byteOffset, value);
+                assert verifyBufferWrite(receiver, byteOffset, wasWritable);
+            } catch (InteropException e) {
+                assert verifyBufferWriteException(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public short readBufferShort(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+            if (CompilerDirectives.inCompiledCode()) {
+                return delegate.readBufferShort(receiver, order, byteOffset);
+            }
+            assert preCondition(receiver);
+            assert validNonInteropArgument(receiver, order);
+            boolean wasBuffer = delegate.hasBufferElements(receiver);
+            try {
+                short result = delegate.readBufferShort(receiver, order, byteOffset);
+                assert verifyBufferRead(receiver, byteOffset, wasBuffer);
+                return result;
+            } catch (InteropException e) {
+                assert verifyBufferReadException(receiver, byteOffset, wasBuffer, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void writeBufferShort(Object receiver, ByteOrder order, long byteOffset, short value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+            if (CompilerDirectives.inCompiledCode()) {
+                delegate.writeBufferShort(receiver, order, byteOffset, value);
+                return;
+            }
+            assert preCondition(receiver);
+            assert validNonInteropArgument(receiver, order);
+            boolean wasWritable = isWritableBuffer(receiver);
+            try {
+                delegate.writeBufferShort(receiver, order, byteOffset, value);
+                assert verifyBufferWrite(receiver, byteOffset, wasWritable);
+            } catch (InteropException e) {
+                assert verifyBufferWriteException(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public int readBufferInt(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+            if (CompilerDirectives.inCompiledCode()) {
+                return delegate.readBufferInt(receiver, order, byteOffset);
+            }
+            assert preCondition(receiver);
+            assert validNonInteropArgument(receiver, order);
+            boolean wasBuffer = delegate.hasBufferElements(receiver);
+            try {
+                int result = delegate.readBufferInt(receiver, order, byteOffset);
+                assert verifyBufferRead(receiver, byteOffset, wasBuffer);
+                return result;
+            } catch (InteropException e) {
+                assert verifyBufferReadException(receiver, byteOffset, wasBuffer, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void writeBufferInt(Object receiver, ByteOrder order, long byteOffset, int value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+            if (CompilerDirectives.inCompiledCode()) {
+                delegate.writeBufferInt(receiver, order, byteOffset, value);
+                return;
+            }
+            assert preCondition(receiver);
+            assert validNonInteropArgument(receiver, order);
+            boolean wasWritable = isWritableBuffer(receiver);
+            try {
+                delegate.writeBufferInt(receiver, order, byteOffset, value);
+                assert verifyBufferWrite(receiver, byteOffset, wasWritable);
+            } catch (InteropException e) {
+                assert verifyBufferWriteException(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public long readBufferLong(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+            if (CompilerDirectives.inCompiledCode()) {
+                return delegate.readBufferLong(receiver, order, byteOffset);
+            }
+            assert preCondition(receiver);
+            assert validNonInteropArgument(receiver, order);
+            boolean wasBuffer = delegate.hasBufferElements(receiver);
+            try {
+                long result = delegate.readBufferLong(receiver, order, byteOffset);
+                assert verifyBufferRead(receiver, byteOffset, wasBuffer);
+                return result;
+            } catch (InteropException e) {
+                assert verifyBufferReadException(receiver, byteOffset, wasBuffer, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void writeBufferLong(Object receiver, ByteOrder order, long byteOffset, long value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+            if (CompilerDirectives.inCompiledCode()) {
+                delegate.writeBufferLong(receiver, order, byteOffset, value);
+                return;
+            }
+            assert preCondition(receiver);
+            assert validNonInteropArgument(receiver, order);
+            boolean wasWritable = isWritableBuffer(receiver);
+            try {
+                delegate.writeBufferLong(receiver, order, byteOffset, value);
+                assert verifyBufferWrite(receiver, byteOffset, wasWritable);
+            } catch (InteropException e) {
+                assert verifyBufferWriteException(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public float readBufferFloat(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+            if (CompilerDirectives.inCompiledCode()) {
+                return delegate.readBufferFloat(receiver, order, byteOffset);
+            }
+            assert preCondition(receiver);
+            assert validNonInteropArgument(receiver, order);
+            boolean wasBuffer = delegate.hasBufferElements(receiver);
+            try {
+                float result = delegate.readBufferFloat(receiver, order, byteOffset);
+                assert verifyBufferRead(receiver, byteOffset, wasBuffer);
+                return result;
+            } catch (InteropException e) {
+                assert verifyBufferReadException(receiver, byteOffset, wasBuffer, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void writeBufferFloat(Object receiver, ByteOrder order, long byteOffset, float value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+            if (CompilerDirectives.inCompiledCode()) {
+                delegate.writeBufferFloat(receiver, order, byteOffset, value);
+                return;
+            }
+            assert preCondition(receiver);
+            assert validNonInteropArgument(receiver, order);
+            boolean wasWritable = isWritableBuffer(receiver);
+            try {
+                delegate.writeBufferFloat(receiver, order, byteOffset, value);
+                assert verifyBufferWrite(receiver, byteOffset, wasWritable);
+            } catch (InteropException e) {
+                assert verifyBufferWriteException(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public double readBufferDouble(Object receiver, ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+            if (CompilerDirectives.inCompiledCode()) {
+                return delegate.readBufferDouble(receiver, order, byteOffset);
+            }
+            assert preCondition(receiver);
+            assert validNonInteropArgument(receiver, order);
+            boolean wasBuffer = delegate.hasBufferElements(receiver);
+            try {
+                double result = delegate.readBufferDouble(receiver, order, byteOffset);
+                assert verifyBufferRead(receiver, byteOffset, wasBuffer);
+                return result;
+            } catch (InteropException e) {
+                assert verifyBufferReadException(receiver, byteOffset, wasBuffer, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void writeBufferDouble(Object receiver, ByteOrder order, long byteOffset, double value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+            if (CompilerDirectives.inCompiledCode()) {
+                delegate.writeBufferDouble(receiver, order, byteOffset, value);
+                return;
+            }
+            assert preCondition(receiver);
+            assert validNonInteropArgument(receiver, order);
+            boolean wasWritable = isWritableBuffer(receiver);
+            try {
+                delegate.writeBufferDouble(receiver, order, byteOffset, value);
+                assert verifyBufferWrite(receiver, byteOffset, wasWritable);
+            } catch (InteropException e) {
+                assert verifyBufferWriteException(receiver, e);
+                throw e;
+            }
+        }
+
         @Override
         public boolean isPointer(Object receiver) {
             assert preCondition(receiver);
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2018, 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -38,24 +38,18 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
  * SOFTWARE.
  */
-package com.oracle.truffle.regex.util;
-
-import java.util.LinkedHashMap;
+package com.oracle.truffle.api.staticobject;
 
 /**
- * An implementation of a cache with a least-recently-used policy via LinkedHashMap.
+ * Base class of all objects created by {@link StaticShape#newInstance()}. Static objects do not
+ * declare any state of their own; their properties are read and written with the
+ * {@link StaticProperty} instances the shape was built with.
+ *
+ * @since 20.3
  */
-public final class LRUCache<K, V> extends LinkedHashMap<K, V> {
-    private static final long serialVersionUID = 7813848977534444613L;
-    private final int maxCacheSize;
+public abstract class StaticObject {
 
-    public LRUCache(int maxCacheSize) {
-        super(16, 0.75F, true);
-        this.maxCacheSize = maxCacheSize;
+    StaticObject() {
     }
 
-    @Override
-    protected boolean removeEldestEntry(java.util.Map.Entry<K, V> eldest) {
-        return size() > maxCacheSize;
-    }
 }
@@ -0,0 +1,460 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.staticobject;
+
+import static com.oracle.truffle.api.staticobject.StaticShape.UNSAFE;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+
+/**
+ * A property of a {@link StaticShape}. Properties are created before the shape they belong to and
+ * are bound to it when the shape is {@link StaticShape.Builder#build() built}. Each property can
+ * be added to a single shape only. The accessor methods must match the
+ * {@link StaticPropertyKind kind} of the property, e.g. {@link #getInt(Object)} can only be used
+ * for {@link StaticPropertyKind#Int} properties.
+ * <p>
+ * Languages are expected to store properties in {@link CompilationFinal compilation final} fields
+ * or to cache them, so that accesses compile to a plain field load or store.
+ *
+ * @since 20.3
+ */
+public final class StaticProperty {
+
+    private final String id;
+    private final StaticPropertyKind kind;
+    @CompilationFinal private StaticShape shape;
+    @CompilationFinal private Class<?> storageClass;
+    @CompilationFinal private long offset;
+
+    /**
+     * Creates a new property with an id that is unique within its shape.
+     *
+     * @since 20.3
+     */
+    public StaticProperty(String id, StaticPropertyKind kind) {
+        if (id == null) {
+            throw new NullPointerException("id");
+        }
+        if (kind == null) {
+            throw new NullPointerException("kind");
+        }
+        this.id = id;
+        this.kind = kind;
+    }
+
+    /**
+     * Returns the id of this property.
+     *
+     * @since 20.3
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Returns the kind of this property.
+     *
+     * @since 20.3
+     */
+    public StaticPropertyKind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the shape this property belongs to, or <code>null</code> if the shape is not yet
+     * built.
+     *
+     * @since 20.3
+     */
+    public StaticShape getShape() {
+        return shape;
+    }
+
+    void initFieldBased(StaticShape newShape, Class<?> newStorageClass, long fieldOffset) {
+        assert shape == null;
+        this.storageClass = newStorageClass;
+        this.offset = fieldOffset;
+        this.shape = newShape;
+    }
+
+    void initArrayBased(StaticShape newShape, int index) {
+        assert shape == null;
+        this.offset = index;
+        this.shape = newShape;
+    }
+
+    /**
+     * Reads the value of an {@link StaticPropertyKind#Object Object} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not
+     *             {@link StaticPropertyKind#Object} or the object does not have the shape of this
+     *             property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public Object getObject(Object obj) {
+        checkKind(StaticPropertyKind.Object);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            return ((ArrayBasedStaticObject) storage).objects[(int) offset];
+        }
+        return UNSAFE.getObject(storage, offset);
+    }
+
+    /**
+     * Writes the value of an {@link StaticPropertyKind#Object Object} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not
+     *             {@link StaticPropertyKind#Object} or the object does not have the shape of this
+     *             property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public void setObject(Object obj, Object value) {
+        checkKind(StaticPropertyKind.Object);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            ((ArrayBasedStaticObject) storage).objects[(int) offset] = value;
+        } else {
+            UNSAFE.putObject(storage, offset, value);
+        }
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Boolean Boolean} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Boolean}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public boolean getBoolean(Object obj) {
+        checkKind(StaticPropertyKind.Boolean);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            return ((ArrayBasedStaticObject) storage).primitives[(int) offset] != 0;
+        }
+        return UNSAFE.getBoolean(storage, offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Boolean Boolean} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Boolean}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public void setBoolean(Object obj, boolean value) {
+        checkKind(StaticPropertyKind.Boolean);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            ((ArrayBasedStaticObject) storage).primitives[(int) offset] = value ? 1L : 0L;
+        } else {
+            UNSAFE.putBoolean(storage, offset, value);
+        }
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Byte Byte} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Byte}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public byte getByte(Object obj) {
+        checkKind(StaticPropertyKind.Byte);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            return (byte) ((ArrayBasedStaticObject) storage).primitives[(int) offset];
+        }
+        return UNSAFE.getByte(storage, offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Byte Byte} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Byte}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public void setByte(Object obj, byte value) {
+        checkKind(StaticPropertyKind.Byte);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            ((ArrayBasedStaticObject) storage).primitives[(int) offset] = value;
+        } else {
+            UNSAFE.putByte(storage, offset, value);
+        }
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Short Short} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Short}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public short getShort(Object obj) {
+        checkKind(StaticPropertyKind.Short);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            return (short) ((ArrayBasedStaticObject) storage).primitives[(int) offset];
+        }
+        return UNSAFE.getShort(storage, offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Short Short} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Short}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public void setShort(Object obj, short value) {
+        checkKind(StaticPropertyKind.Short);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            ((ArrayBasedStaticObject) storage).primitives[(int) offset] = value;
+        } else {
+            UNSAFE.putShort(storage, offset, value);
+        }
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Char Char} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Char}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public char getChar(Object obj) {
+        checkKind(StaticPropertyKind.Char);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            return (char) ((ArrayBasedStaticObject) storage).primitives[(int) offset];
+        }
+        return UNSAFE.getChar(storage, offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Char Char} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Char}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public void setChar(Object obj, char value) {
+        checkKind(StaticPropertyKind.Char);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            ((ArrayBasedStaticObject) storage).primitives[(int) offset] = value;
+        } else {
+            UNSAFE.putChar(storage, offset, value);
+        }
+    }
+
+    /**
+     * Reads the value of an {@link StaticPropertyKind#Int Int} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Int}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public int getInt(Object obj) {
+        checkKind(StaticPropertyKind.Int);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            return (int) ((ArrayBasedStaticObject) storage).primitives[(int) offset];
+        }
+        return UNSAFE.getInt(storage, offset);
+    }
+
+    /**
+     * Writes the value of an {@link StaticPropertyKind#Int Int} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Int}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public void setInt(Object obj, int value) {
+        checkKind(StaticPropertyKind.Int);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            ((ArrayBasedStaticObject) storage).primitives[(int) offset] = value;
+        } else {
+            UNSAFE.putInt(storage, offset, value);
+        }
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Long Long} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Long}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public long getLong(Object obj) {
+        checkKind(StaticPropertyKind.Long);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            return ((ArrayBasedStaticObject) storage).primitives[(int) offset];
+        }
+        return UNSAFE.getLong(storage, offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Long Long} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Long}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public void setLong(Object obj, long value) {
+        checkKind(StaticPropertyKind.Long);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            ((ArrayBasedStaticObject) storage).primitives[(int) offset] = value;
+        } else {
+            UNSAFE.putLong(storage, offset, value);
+        }
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Float Float} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Float}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public float getFloat(Object obj) {
+        checkKind(StaticPropertyKind.Float);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            return Float.intBitsToFloat((int) ((ArrayBasedStaticObject) storage).primitives[(int) offset]);
+        }
+        return UNSAFE.getFloat(storage, offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Float Float} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Float}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public void setFloat(Object obj, float value) {
+        checkKind(StaticPropertyKind.Float);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            ((ArrayBasedStaticObject) storage).primitives[(int) offset] = Float.floatToRawIntBits(value);
+        } else {
+            UNSAFE.putFloat(storage, offset, value);
+        }
+    }
+
+    /**
+     * Reads the value of a {@link StaticPropertyKind#Double Double} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Double}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public double getDouble(Object obj) {
+        checkKind(StaticPropertyKind.Double);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            return Double.longBitsToDouble(((ArrayBasedStaticObject) storage).primitives[(int) offset]);
+        }
+        return UNSAFE.getDouble(storage, offset);
+    }
+
+    /**
+     * Writes the value of a {@link StaticPropertyKind#Double Double} property.
+     *
+     * @throws IllegalArgumentException if the property kind is not {@link StaticPropertyKind#Double}
+     *             or the object does not have the shape of this property or one of its sub-shapes.
+     * @since 20.3
+     */
+    public void setDouble(Object obj, double value) {
+        checkKind(StaticPropertyKind.Double);
+        Object storage = checkStorage(obj);
+        if (storageClass == null) {
+            ((ArrayBasedStaticObject) storage).primitives[(int) offset] = Double.doubleToRawLongBits(value);
+        } else {
+            UNSAFE.putDouble(storage, offset, value);
+        }
+    }
+
+    private void checkKind(StaticPropertyKind expectedKind) {
+        if (kind != expectedKind) {
+            CompilerDirectives.transferToInterpreter();
+            throw new IllegalArgumentException(String.format("Static property '%s' of kind %s cannot be accessed as %s.", id, kind, expectedKind));
+        }
+    }
+
+    private Object checkStorage(Object obj) {
+        StaticShape s = shape;
+        if (s == null) {
+            // the shape may be built later, the compiled code must then see the new shape
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            throw new IllegalStateException(String.format("Static property '%s' is not yet added to a built shape.", id));
+        }
+        Class<?> clazz = storageClass;
+        if (clazz == null) {
+            if (obj instanceof ArrayBasedStaticObject && (((ArrayBasedStaticObject) obj).shape == s || isSubShape(s, ((ArrayBasedStaticObject) obj).shape))) {
+                return obj;
+            }
+        } else if (clazz.isInstance(obj)) {
+            return obj;
+        }
+        CompilerDirectives.transferToInterpreter();
+        throw new IllegalArgumentException(String.format("Object %s does not have the shape of static property '%s'.", obj, id));
+    }
+
+    @TruffleBoundary
+    private static boolean isSubShape(StaticShape expected, StaticShape actual) {
+        return expected.isAssignableFrom(actual);
+    }
+
+    @Override
+    public String toString() {
+        return "StaticProperty[" + id + ": " + kind + "]";
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.staticobject;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleOptions;
+
+import sun.misc.Unsafe;
+
+/**
+ * Describes the layout of {@link StaticObject static objects}. The set of properties of a shape is
+ * fixed when the shape is {@link Builder#build() built} and never changes afterwards. A shape can
+ * extend a parent shape, in which case its instances can also be accessed with the properties of
+ * the parent shape. This is useful to represent class hierarchies of guest languages.
+ * <p>
+ * On the JVM, every shape defines a storage class with one field per property, so reading or
+ * writing a property of a constant {@link StaticProperty} compiles to a type check and a plain
+ * field access. Where classes cannot be defined at runtime, such as in native images, the values
+ * of static objects are stored in arrays instead.
+ *
+ * <pre>
+ * StaticProperty x = new StaticProperty("x", StaticPropertyKind.Int);
+ * StaticProperty next = new StaticProperty("next", StaticPropertyKind.Object);
+ * StaticShape shape = StaticShape.newBuilder().property(x).property(next).build();
+ *
+ * StaticObject object = shape.newInstance();
+ * x.setInt(object, 42);
+ * assert x.getInt(object) == 42;
+ * </pre>
+ *
+ * @since 20.3
+ */
+public final class StaticShape {
+
+    static final Unsafe UNSAFE = getUnsafe();
+
+    private final StaticShape parent;
+    private final List<StaticProperty> properties;
+    private final Class<?> storageClass;
+    private final int primitiveCount;
+    private final int objectCount;
+
+    private StaticShape(StaticShape parent, List<StaticProperty> properties, Class<?> storageClass, int primitiveCount, int objectCount) {
+        this.parent = parent;
+        this.properties = properties;
+        this.storageClass = storageClass;
+        this.primitiveCount = primitiveCount;
+        this.objectCount = objectCount;
+    }
+
+    /**
+     * Returns the shape this shape extends, or <code>null</code> if this is a root shape.
+     *
+     * @since 20.3
+     */
+    public StaticShape getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns the properties declared by this shape, not including the properties of the parent
+     * shape.
+     *
+     * @since 20.3
+     */
+    public List<StaticProperty> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Allocates a new object of this shape. Primitive properties are initialized with zero,
+     * object properties with <code>null</code>.
+     *
+     * @since 20.3
+     */
+    public StaticObject newInstance() {
+        if (storageClass == null) {
+            return new ArrayBasedStaticObject(this, primitiveCount, objectCount);
+        }
+        try {
+            return (StaticObject) UNSAFE.allocateInstance(storageClass);
+        } catch (InstantiationException e) {
+            throw CompilerDirectives.shouldNotReachHere(e);
+        }
+    }
+
+    Class<?> getStorageClass() {
+        return storageClass;
+    }
+
+    boolean isAssignableFrom(StaticShape shape) {
+        for (StaticShape current = shape; current != null; current = current.parent) {
+            if (current == this) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates a new builder for a static shape.
+     *
+     * @since 20.3
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link StaticShape static shapes}. A builder can be used to build a single
+     * shape.
+     *
+     * @since 20.3
+     */
+    public static final class Builder {
+
+        private final List<StaticProperty> properties = new ArrayList<>();
+        private final Set<String> ids = new HashSet<>();
+        private boolean built;
+
+        Builder() {
+        }
+
+        /**
+         * Adds a property to the shape. A property can be added to a single shape only, and the
+         * property ids of a shape must be unique.
+         *
+         * @throws IllegalArgumentException if the property is already used by another shape or
+         *             the property id is already used in this builder.
+         * @since 20.3
+         */
+        public Builder property(StaticProperty property) {
+            checkNotBuilt();
+            if (property.getShape() != null || properties.contains(property)) {
+                throw new IllegalArgumentException(String.format("Property '%s' is already added to a shape.", property.getId()));
+            }
+            if (!ids.add(property.getId())) {
+                throw new IllegalArgumentException(String.format("A property with id '%s' is already added to this builder.", property.getId()));
+            }
+            properties.add(property);
+            return this;
+        }
+
+        /**
+         * Builds a root shape with the added properties.
+         *
+         * @since 20.3
+         */
+        public StaticShape build() {
+            return buildImpl(null);
+        }
+
+        /**
+         * Builds a shape that extends the given parent shape. Objects of the new shape can be
+         * accessed with the properties of the parent shape and its ancestors.
+         *
+         * @since 20.3
+         */
+        public StaticShape build(StaticShape parentShape) {
+            if (parentShape == null) {
+                throw new NullPointerException("parentShape");
+            }
+            return buildImpl(parentShape);
+        }
+
+        @TruffleBoundary
+        private StaticShape buildImpl(StaticShape parentShape) {
+            checkNotBuilt();
+            for (StaticProperty property : properties) {
+                if (property.getShape() != null) {
+                    throw new IllegalArgumentException(String.format("Property '%s' is already added to a shape.", property.getId()));
+                }
+            }
+            built = true;
+            List<StaticProperty> shapeProperties = Collections.unmodifiableList(new ArrayList<>(properties));
+            StaticShape shape;
+            if (TruffleOptions.AOT) {
+                int primitiveIndex = parentShape == null ? 0 : parentShape.primitiveCount;
+                int objectIndex = parentShape == null ? 0 : parentShape.objectCount;
+                int[] indices = new int[shapeProperties.size()];
+                for (int i = 0; i < indices.length; i++) {
+                    if (shapeProperties.get(i).getKind() == StaticPropertyKind.Object) {
+                        indices[i] = objectIndex++;
+                    } else {
+                        indices[i] = primitiveIndex++;
+                    }
+                }
+                shape = new StaticShape(parentShape, shapeProperties, null, primitiveIndex, objectIndex);
+                for (int i = 0; i < indices.length; i++) {
+                    shapeProperties.get(i).initArrayBased(shape, indices[i]);
+                }
+            } else {
+                Class<?> superClass = parentShape == null ? StaticObject.class : parentShape.storageClass;
+                Class<?> storageClass = StorageClassGenerator.generate(superClass, shapeProperties);
+                shape = new StaticShape(parentShape, shapeProperties, storageClass, 0, 0);
+                for (int i = 0; i < shapeProperties.size(); i++) {
+                    Field field;
+                    try {
+                        field = storageClass.getDeclaredField(StorageClassGenerator.getFieldName(i));
+                    } catch (NoSuchFieldException e) {
+                        throw CompilerDirectives.shouldNotReachHere(e);
+                    }
+                    shapeProperties.get(i).initFieldBased(shape, storageClass, UNSAFE.objectFieldOffset(field));
+                }
+            }
+            return shape;
+        }
+
+        private void checkNotBuilt() {
+            if (built) {
+                throw new IllegalStateException("The shape of this builder was already built.");
+            }
+        }
+    }
+
+    private static Unsafe getUnsafe() {
+        try {
+            return Unsafe.getUnsafe();
+        } catch (SecurityException e) {
+        }
+        try {
+            Field theUnsafeInstance = Unsafe.class.getDeclaredField("theUnsafe");
+            theUnsafeInstance.setAccessible(true);
+            return (Unsafe) theUnsafeInstance.get(Unsafe.class);
+        } catch (Exception e) {
+            throw new RuntimeException("exception while trying to get Unsafe.theUnsafe via reflection:", e);
+        }
+    }
+}
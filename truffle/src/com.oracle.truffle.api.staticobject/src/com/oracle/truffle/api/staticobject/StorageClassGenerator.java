@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.staticobject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the storage class of a field based {@link StaticShape}. The generated class extends
+ * {@link StaticObject}, or the storage class of the parent shape, and declares one field per
+ * property with the exact type of the property kind. It declares no methods: instances are
+ * allocated without running a constructor and fields are accessed with their offsets.
+ */
+final class StorageClassGenerator {
+
+    private static final String PACKAGE = "com/oracle/truffle/api/staticobject/generated/";
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+    private static final int CLASS_FILE_VERSION_8 = 52;
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_SUPER = 0x0020;
+
+    private StorageClassGenerator() {
+    }
+
+    static String getFieldName(int index) {
+        return "field" + index;
+    }
+
+    static Class<?> generate(Class<?> superClass, List<StaticProperty> properties) {
+        String name = PACKAGE + "Storage" + COUNTER.incrementAndGet();
+        byte[] bytes = createClassFile(name, superClass.getName().replace('.', '/'), properties);
+        StorageClassLoader loader = new StorageClassLoader(superClass.getClassLoader());
+        return loader.defineStorageClass(name.replace('/', '.'), bytes);
+    }
+
+    private static byte[] createClassFile(String name, String superName, List<StaticProperty> properties) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(CLASS_FILE_MAGIC);
+            out.writeShort(0);
+            out.writeShort(CLASS_FILE_VERSION_8);
+
+            // constant pool: this class, super class, then name and descriptor of each field
+            out.writeShort(5 + 2 * properties.size());
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(name);
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(1);
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(superName);
+            out.writeByte(CONSTANT_CLASS);
+            out.writeShort(3);
+            for (int i = 0; i < properties.size(); i++) {
+                out.writeByte(CONSTANT_UTF8);
+                out.writeUTF(getFieldName(i));
+                out.writeByte(CONSTANT_UTF8);
+                out.writeUTF(properties.get(i).getKind().getDescriptor());
+            }
+
+            out.writeShort(ACC_PUBLIC | ACC_SUPER);
+            out.writeShort(2);
+            out.writeShort(4);
+            out.writeShort(0); // interfaces
+
+            out.writeShort(properties.size());
+            for (int i = 0; i < properties.size(); i++) {
+                out.writeShort(ACC_PRIVATE);
+                out.writeShort(5 + 2 * i);
+                out.writeShort(6 + 2 * i);
+                out.writeShort(0); // attributes
+            }
+
+            out.writeShort(0); // methods
+            out.writeShort(0); // attributes
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static final class StorageClassLoader extends ClassLoader {
+
+        StorageClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> defineStorageClass(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+}
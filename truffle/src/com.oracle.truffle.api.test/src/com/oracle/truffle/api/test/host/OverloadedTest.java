@@ -46,8 +46,11 @@ import java.math.BigInteger;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+import org.graalvm.polyglot.proxy.ProxyArray;
+import org.graalvm.polyglot.proxy.ProxyExecutable;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -274,6 +277,50 @@ public class OverloadedTest extends ProxyLanguageEnvTest {
         }
     }
 
+    @SuppressWarnings("unused")
+    public static class Mixed {
+        public String m(int a0, String a1) {
+            return "int,String:" + a0 + "," + a1;
+        }
+
+        public String m(double a0, Object a1) {
+            return "double,Object:" + a0 + "," + a1;
+        }
+
+        public String m(List<Integer> a0) {
+            return "List:" + (a0.get(0) + a0.get(1));
+        }
+
+        public String m(Function<Integer, Integer> a0) {
+            return "Function:" + a0.apply(41);
+        }
+
+        public String m(String a0, int... a1) {
+            int sum = 0;
+            for (int a : a1) {
+                sum += a;
+            }
+            return "String,int...:" + a0 + "," + sum;
+        }
+    }
+
+    @Test
+    public void testCachedAndUncachedConversionTargets() throws InteropException {
+        TruffleObject mixed = asTruffleObject(new Mixed());
+        Object function = env.asGuestValue((ProxyExecutable) (args) -> args[0].asInt() + 1);
+        Object list = env.asGuestValue(ProxyArray.fromArray(20, 22));
+        Object[][] calls = {{42, "a"}, {4.2, true}, {"a"}, {"a", 1, 2}, {function}, {list}};
+        String[] expected = {"int,String:42,a", "double,Object:4.2,true", "String,int...:a,0", "String,int...:a,3", "Function:42", "List:42"};
+        InteropLibrary cached = InteropLibrary.getFactory().createDispatched(3);
+        for (int i = 0; i < calls.length; i++) {
+            assertEquals(expected[i], cached.invokeMember(mixed, "m", calls[i]));
+            // the uncached path converts using the precomputed targets of the method signature
+            for (int j = 0; j < 2; j++) {
+                assertEquals(expected[i], INTEROP.invokeMember(mixed, "m", calls[i]));
+            }
+        }
+    }
+
     @Test
     public void testClassVsInterface() throws InteropException {
         TruffleObject pool = asTruffleObject(new Pool());
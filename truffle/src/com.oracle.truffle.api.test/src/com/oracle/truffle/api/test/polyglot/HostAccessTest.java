@@ -53,6 +53,8 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -397,6 +399,83 @@ public class HostAccessTest {
         ValueAssert.assertValue(value, false, Trait.MEMBERS, Trait.HOST_OBJECT);
     }
 
+    @Test
+    public void testBufferAccessEnabled() {
+        setupEnv(HostAccess.newBuilder().allowBufferAccess(true));
+        ByteBuffer buffer = ByteBuffer.allocate(16).order(ByteOrder.BIG_ENDIAN);
+        Value value = context.asValue(buffer);
+        assertTrue(value.hasBufferElements());
+        assertTrue(value.isBufferWritable());
+        assertEquals(16, value.getBufferSize());
+        value.writeBufferByte(0, (byte) 42);
+        assertEquals(42, buffer.get(0));
+        assertEquals(42, value.readBufferByte(0));
+
+        value.writeBufferInt(ByteOrder.LITTLE_ENDIAN, 4, 0x01020304);
+        assertEquals(0x04030201, buffer.getInt(4));
+        assertEquals(0x01020304, value.readBufferInt(ByteOrder.LITTLE_ENDIAN, 4));
+        assertEquals(0x04030201, value.readBufferInt(ByteOrder.BIG_ENDIAN, 4));
+
+        value.writeBufferDouble(ByteOrder.BIG_ENDIAN, 8, 42.5d);
+        assertEquals(42.5d, buffer.getDouble(8), 0d);
+        assertEquals(42.5d, value.readBufferDouble(ByteOrder.BIG_ENDIAN, 8), 0d);
+        assertEquals(buffer.getLong(8), value.readBufferLong(ByteOrder.BIG_ENDIAN, 8));
+        assertEquals(Long.reverseBytes(buffer.getLong(8)), value.readBufferLong(ByteOrder.LITTLE_ENDIAN, 8));
+
+        try {
+            value.readBufferLong(ByteOrder.BIG_ENDIAN, 12);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+        try {
+            value.readBufferByte(-1);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+        assertSame(buffer, value.asHostObject());
+    }
+
+    @Test
+    public void testReadOnlyBufferAccess() {
+        setupEnv(HostAccess.newBuilder().allowBufferAccess(true));
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        buffer.putShort(0, (short) 42);
+        Value value = context.asValue(buffer.asReadOnlyBuffer());
+        assertTrue(value.hasBufferElements());
+        assertFalse(value.isBufferWritable());
+        assertEquals(42, value.readBufferShort(buffer.order(), 0));
+        try {
+            value.writeBufferShort(buffer.order(), 0, (short) 43);
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+        assertEquals(42, buffer.getShort(0));
+    }
+
+    @Test
+    public void testBufferAccessDisabled() {
+        setupEnv(HostAccess.newBuilder().allowBufferAccess(false));
+        assertBufferAccessDisabled(context);
+    }
+
+    @Test
+    public void testPublicAccessNoBufferAccess() {
+        setupEnv(HostAccess.newBuilder().allowPublicAccess(true));
+        assertBufferAccessDisabled(context);
+    }
+
+    private static void assertBufferAccessDisabled(Context context) {
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+        Value value = context.asValue(buffer);
+        assertSame(buffer, value.asHostObject());
+        assertFalse(value.hasBufferElements());
+        try {
+            value.readBufferByte(0);
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
     private Context context;
 
     private void setupEnv(HostAccess.Builder builder) {
@@ -47,11 +47,14 @@ import static org.junit.Assert.assertNull;
 
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -103,6 +106,121 @@ public class PolyglotCachingTest {
         assertEquals(4, parseCalled.get());
     }
 
+    @Test
+    public void testEngineCache() throws Exception {
+        AtomicInteger parseCalled = new AtomicInteger(0);
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                parseCalled.incrementAndGet();
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(request.getSource().getCharacters().toString()));
+            }
+        });
+        Path cacheFile = Files.createTempFile("engine", ".cache");
+        try {
+            Source source1 = Source.create(ProxyLanguage.ID, "testEngineCache1");
+            Source source2 = Source.create(ProxyLanguage.ID, "testEngineCache2");
+            Source uncachedSource = Source.newBuilder(ProxyLanguage.ID, "testEngineCache3", "name").cached(false).build();
+            try (Context c = Context.newBuilder().allowExperimentalOptions(true).option("engine.CacheStore", cacheFile.toString()).build()) {
+                c.eval(source1);
+                c.eval(source2);
+                c.eval(source1);
+                c.eval(uncachedSource);
+            }
+            assertEquals(3, parseCalled.get());
+
+            parseCalled.set(0);
+            try (Context c = Context.newBuilder().allowExperimentalOptions(true).option("engine.CacheLoad", cacheFile.toString()).build()) {
+                c.initialize(ProxyLanguage.ID);
+                // only the cached sources are stored
+                assertEquals(2, parseCalled.get());
+                assertEquals("testEngineCache1", c.eval(Source.create(ProxyLanguage.ID, "testEngineCache1")).asString());
+                assertEquals("testEngineCache2", c.eval(Source.create(ProxyLanguage.ID, "testEngineCache2")).asString());
+                assertEquals(2, parseCalled.get());
+                c.eval(Source.create(ProxyLanguage.ID, "testEngineCache4"));
+                assertEquals(3, parseCalled.get());
+            }
+        } finally {
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+
+    @Test
+    public void testEngineCacheDropsUnusedSources() throws Exception {
+        AtomicInteger parseCalled = new AtomicInteger(0);
+        AtomicBoolean failParse = new AtomicBoolean(false);
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                parseCalled.incrementAndGet();
+                String code = request.getSource().getCharacters().toString();
+                if (failParse.get() && code.equals("testEngineCacheDrop1")) {
+                    throw new IllegalStateException("no longer parseable");
+                }
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(code));
+            }
+        });
+        Path cacheFile = Files.createTempFile("engine", ".cache");
+        try {
+            try (Context c = Context.newBuilder().allowExperimentalOptions(true).option("engine.CacheStore", cacheFile.toString()).build()) {
+                c.eval(Source.create(ProxyLanguage.ID, "testEngineCacheDrop1"));
+                c.eval(Source.create(ProxyLanguage.ID, "testEngineCacheDrop2"));
+            }
+
+            // stored again by an engine that fails to preparse the first source
+            failParse.set(true);
+            parseCalled.set(0);
+            try (Context c = Context.newBuilder().allowExperimentalOptions(true).option("engine.CacheLoad", cacheFile.toString()).option("engine.CacheStore",
+                            cacheFile.toString()).build()) {
+                c.initialize(ProxyLanguage.ID);
+                assertEquals(2, parseCalled.get());
+            }
+
+            failParse.set(false);
+            parseCalled.set(0);
+            try (Context c = Context.newBuilder().allowExperimentalOptions(true).option("engine.CacheLoad", cacheFile.toString()).build()) {
+                c.initialize(ProxyLanguage.ID);
+                // only the successfully preparsed source is kept
+                assertEquals(1, parseCalled.get());
+                assertEquals("testEngineCacheDrop2", c.eval(Source.create(ProxyLanguage.ID, "testEngineCacheDrop2")).asString());
+                assertEquals(1, parseCalled.get());
+            }
+        } finally {
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+
+    @Test
+    public void testEngineCacheInvalidFile() throws Exception {
+        Path cacheFile = Files.createTempFile("engine", ".cache");
+        try {
+            Files.write(cacheFile, new byte[]{1, 2, 3, 4});
+            try {
+                Context.newBuilder().allowExperimentalOptions(true).option("engine.CacheLoad", cacheFile.toString()).build();
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+            }
+        } finally {
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+
+    @Test
+    public void testEngineCacheTruncatedFile() throws Exception {
+        Path cacheFile = Files.createTempFile("engine", ".cache");
+        try {
+            // valid header announcing one entry, followed by a truncated string length
+            Files.write(cacheFile, new byte[]{0x54, 0x52, 0x45, 0x43, 0, 0, 0, 1, 0, 0, 0, 1, 0, 0});
+            try {
+                Context.newBuilder().allowExperimentalOptions(true).option("engine.CacheLoad", cacheFile.toString()).build();
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+            }
+        } finally {
+            Files.deleteIfExists(cacheFile);
+        }
+    }
+
     /*
      * Tests that the outer source instance is never the same as the one passed in. That allows the
      * outer source instance to be collected while the inner one is still referenced strongly. The
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.test.staticobject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.staticobject.StaticObject;
+import com.oracle.truffle.api.staticobject.StaticProperty;
+import com.oracle.truffle.api.staticobject.StaticPropertyKind;
+import com.oracle.truffle.api.staticobject.StaticShape;
+
+public class StaticObjectTest {
+
+    @Test
+    public void testPrimitiveProperties() {
+        StaticProperty booleanProperty = new StaticProperty("boolean", StaticPropertyKind.Boolean);
+        StaticProperty byteProperty = new StaticProperty("byte", StaticPropertyKind.Byte);
+        StaticProperty shortProperty = new StaticProperty("short", StaticPropertyKind.Short);
+        StaticProperty charProperty = new StaticProperty("char", StaticPropertyKind.Char);
+        StaticProperty intProperty = new StaticProperty("int", StaticPropertyKind.Int);
+        StaticProperty longProperty = new StaticProperty("long", StaticPropertyKind.Long);
+        StaticProperty floatProperty = new StaticProperty("float", StaticPropertyKind.Float);
+        StaticProperty doubleProperty = new StaticProperty("double", StaticPropertyKind.Double);
+        StaticShape shape = StaticShape.newBuilder().property(booleanProperty).property(byteProperty).property(shortProperty).property(charProperty).property(intProperty).property(
+                        longProperty).property(floatProperty).property(doubleProperty).build();
+
+        StaticObject object = shape.newInstance();
+        assertEquals(false, booleanProperty.getBoolean(object));
+        assertEquals(0, intProperty.getInt(object));
+        assertEquals(0d, doubleProperty.getDouble(object), 0d);
+
+        booleanProperty.setBoolean(object, true);
+        byteProperty.setByte(object, (byte) -1);
+        shortProperty.setShort(object, Short.MIN_VALUE);
+        charProperty.setChar(object, Character.MAX_VALUE);
+        intProperty.setInt(object, -42);
+        longProperty.setLong(object, Long.MAX_VALUE);
+        floatProperty.setFloat(object, -1.5f);
+        doubleProperty.setDouble(object, Math.PI);
+
+        assertEquals(true, booleanProperty.getBoolean(object));
+        assertEquals((byte) -1, byteProperty.getByte(object));
+        assertEquals(Short.MIN_VALUE, shortProperty.getShort(object));
+        assertEquals(Character.MAX_VALUE, charProperty.getChar(object));
+        assertEquals(-42, intProperty.getInt(object));
+        assertEquals(Long.MAX_VALUE, longProperty.getLong(object));
+        assertEquals(-1.5f, floatProperty.getFloat(object), 0f);
+        assertEquals(Math.PI, doubleProperty.getDouble(object), 0d);
+
+        StaticObject other = shape.newInstance();
+        assertEquals(0, intProperty.getInt(other));
+    }
+
+    @Test
+    public void testObjectProperty() {
+        StaticProperty property = new StaticProperty("value", StaticPropertyKind.Object);
+        StaticShape shape = StaticShape.newBuilder().property(property).build();
+        StaticObject object = shape.newInstance();
+        assertNull(property.getObject(object));
+        property.setObject(object, "value");
+        assertEquals("value", property.getObject(object));
+        property.setObject(object, object);
+        assertSame(object, property.getObject(object));
+    }
+
+    @Test
+    public void testParentShape() {
+        StaticProperty x = new StaticProperty("x", StaticPropertyKind.Int);
+        StaticShape parent = StaticShape.newBuilder().property(x).build();
+        StaticProperty y = new StaticProperty("x", StaticPropertyKind.Object);
+        StaticShape child = StaticShape.newBuilder().property(y).build(parent);
+        assertSame(parent, child.getParent());
+        assertEquals(1, child.getProperties().size());
+
+        StaticObject childObject = child.newInstance();
+        x.setInt(childObject, 1);
+        y.setObject(childObject, "y");
+        assertEquals(1, x.getInt(childObject));
+        assertEquals("y", y.getObject(childObject));
+
+        StaticObject parentObject = parent.newInstance();
+        x.setInt(parentObject, 2);
+        try {
+            y.getObject(parentObject);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testIncompatibleAccess() {
+        StaticProperty property = new StaticProperty("value", StaticPropertyKind.Int);
+        StaticProperty otherProperty = new StaticProperty("value", StaticPropertyKind.Int);
+        StaticShape shape = StaticShape.newBuilder().property(property).build();
+        StaticShape otherShape = StaticShape.newBuilder().property(otherProperty).build();
+        StaticObject object = shape.newInstance();
+        try {
+            property.getLong(object);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            otherProperty.setInt(object, 42);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            property.getInt("value");
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            property.getInt(otherShape.newInstance());
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test
+    public void testBuilder() {
+        StaticProperty property = new StaticProperty("value", StaticPropertyKind.Int);
+        try {
+            property.getInt(new Object());
+            fail();
+        } catch (IllegalStateException e) {
+        }
+
+        StaticShape.Builder builder = StaticShape.newBuilder().property(property);
+        try {
+            builder.property(property);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            builder.property(new StaticProperty("value", StaticPropertyKind.Long));
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        StaticShape shape = builder.build();
+        assertSame(shape, property.getShape());
+        try {
+            builder.build();
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        try {
+            StaticShape.newBuilder().property(property);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        assertTrue(StaticShape.newBuilder().build().getProperties().isEmpty());
+    }
+}
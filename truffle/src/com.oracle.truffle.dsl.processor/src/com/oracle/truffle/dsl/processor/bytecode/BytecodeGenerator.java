@@ -0,0 +1,750 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.dsl.processor.bytecode;
+
+import static com.oracle.truffle.dsl.processor.generator.GeneratorUtils.createClass;
+import static com.oracle.truffle.dsl.processor.java.ElementUtils.modifiers;
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+
+import com.oracle.truffle.dsl.processor.AnnotationProcessor;
+import com.oracle.truffle.dsl.processor.ProcessorContext;
+import com.oracle.truffle.dsl.processor.generator.CodeTypeElementFactory;
+import com.oracle.truffle.dsl.processor.generator.GeneratorUtils;
+import com.oracle.truffle.dsl.processor.java.ElementUtils;
+import com.oracle.truffle.dsl.processor.java.model.CodeAnnotationMirror;
+import com.oracle.truffle.dsl.processor.java.model.CodeAnnotationValue;
+import com.oracle.truffle.dsl.processor.java.model.CodeExecutableElement;
+import com.oracle.truffle.dsl.processor.java.model.CodeTree;
+import com.oracle.truffle.dsl.processor.java.model.CodeTreeBuilder;
+import com.oracle.truffle.dsl.processor.java.model.CodeTypeElement;
+import com.oracle.truffle.dsl.processor.java.model.CodeTypeMirror;
+import com.oracle.truffle.dsl.processor.java.model.CodeTypeMirror.ArrayCodeTypeMirror;
+import com.oracle.truffle.dsl.processor.java.model.CodeVariableElement;
+
+/**
+ * Generates a bytecode interpreter for a {@link BytecodeData} model. The generated class extends
+ * the template root node and contains the instruction constants, the merge exploded dispatch loop,
+ * the specialization and quickening logic of the operations and the nested builder and label
+ * classes used to create bytecode.
+ */
+public class BytecodeGenerator extends CodeTypeElementFactory<BytecodeData> {
+
+    private static final String BYTECODES = "bytecodes_";
+    private static final String CONSTANTS = "constants_";
+    private static final String NUM_LOCALS = "numLocals_";
+    private static final String MAX_STACK_HEIGHT = "maxStackHeight_";
+
+    private ProcessorContext context;
+    private BytecodeData model;
+    private CodeTypeElement genClass;
+    private final List<String> instructions = new ArrayList<>();
+
+    @Override
+    public List<CodeTypeElement> create(ProcessorContext context1, AnnotationProcessor<?> processor, BytecodeData model1) {
+        if (model1.hasErrors()) {
+            return Collections.emptyList();
+        }
+        this.context = context1;
+        this.model = model1;
+        this.instructions.clear();
+
+        Set<Modifier> classModifiers = modifiers(FINAL);
+        if (model.getTemplateType().getModifiers().contains(PUBLIC)) {
+            classModifiers.add(PUBLIC);
+        }
+        genClass = createClass(model, null, classModifiers, createGenTypeName(model), model.getTemplateType().asType());
+
+        createInstructions();
+        createFields();
+        createExecute();
+        for (BytecodeOperationData operation : model.getOperations()) {
+            createExecuteOperation(operation);
+            if (operation.isQuickened()) {
+                createInitializeOperation(operation);
+            }
+        }
+        CodeTypeElement labelClass = createLabel();
+        CodeTypeElement builderClass = createBuilder(labelClass);
+        CodeExecutableElement newBuilder = genClass.add(new CodeExecutableElement(modifiers(PUBLIC, STATIC), builderClass.asType(), "newBuilder"));
+        newBuilder.createBuilder().startReturn().startNew(builderClass.asType()).end().end();
+        genClass.add(labelClass);
+        genClass.add(builderClass);
+        return Arrays.asList(genClass);
+    }
+
+    static String createGenTypeName(BytecodeData type) {
+        return ElementUtils.firstLetterUpperCase(type.getTemplateType().getSimpleName().toString()) + "Gen";
+    }
+
+    private static String instructionName(String name) {
+        return "INSTR_" + ElementUtils.createConstantName(name);
+    }
+
+    private static String instructionName(BytecodeOperationData operation) {
+        return instructionName(operation.getName());
+    }
+
+    private static String instructionName(BytecodeOperationData operation, ExecutableElement specialization) {
+        return instructionName(operation.getName()) + "_" + ElementUtils.createConstantName(specialization.getSimpleName().toString());
+    }
+
+    private static String genericInstructionName(BytecodeOperationData operation) {
+        return instructionName(operation.getName()) + "_GENERIC";
+    }
+
+    private static String methodPrefix(BytecodeOperationData operation) {
+        return ElementUtils.firstLetterLowerCase(operation.getName());
+    }
+
+    private static boolean needsFrame(BytecodeOperationData operation) {
+        for (ExecutableElement specialization : operation.getSpecializations()) {
+            if (operation.isFrameSpecialization(specialization)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void createInstructions() {
+        for (String builtin : BytecodeParser.BUILTIN_NAMES) {
+            if (!builtin.equals("Label")) {
+                instructions.add(instructionName(builtin));
+            }
+        }
+        for (BytecodeOperationData operation : model.getOperations()) {
+            instructions.add(instructionName(operation));
+            if (operation.isQuickened()) {
+                for (ExecutableElement specialization : operation.getSpecializations()) {
+                    instructions.add(instructionName(operation, specialization));
+                }
+                instructions.add(genericInstructionName(operation));
+            }
+        }
+        for (int i = 0; i < instructions.size(); i++) {
+            CodeVariableElement constant = genClass.add(new CodeVariableElement(modifiers(PRIVATE, STATIC, FINAL), context.getType(short.class), instructions.get(i)));
+            constant.createInitBuilder().string(String.valueOf(i));
+        }
+    }
+
+    private void createFields() {
+        CodeVariableElement bytecodes = genClass.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), new ArrayCodeTypeMirror(context.getType(short.class)), BYTECODES));
+        bytecodes.getAnnotationMirrors().add(createCompilationFinal(1));
+        CodeVariableElement constants = genClass.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), new ArrayCodeTypeMirror(context.getType(Object.class)), CONSTANTS));
+        constants.getAnnotationMirrors().add(createCompilationFinal(1));
+        genClass.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), context.getType(int.class), NUM_LOCALS));
+        genClass.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), context.getType(int.class), MAX_STACK_HEIGHT));
+
+        for (ExecutableElement constructor : model.getConstructors()) {
+            CodeExecutableElement genConstructor = GeneratorUtils.createConstructorUsingFields(modifiers(PRIVATE), genClass, constructor);
+            for (TypeMirror thrownType : constructor.getThrownTypes()) {
+                genConstructor.addThrownType(thrownType);
+            }
+            genClass.add(genConstructor);
+        }
+    }
+
+    private CodeAnnotationMirror createCompilationFinal(int dimensions) {
+        CodeAnnotationMirror annotation = new CodeAnnotationMirror(types.CompilerDirectives_CompilationFinal);
+        annotation.setElementValue(annotation.findExecutableElement("dimensions"), new CodeAnnotationValue(dimensions));
+        return annotation;
+    }
+
+    private CodeAnnotationMirror createExplodeLoop() {
+        CodeAnnotationMirror annotation = new CodeAnnotationMirror(types.ExplodeLoop);
+        VariableElement mergeExplode = null;
+        for (VariableElement field : ElementFilter.fieldsIn(ElementUtils.castTypeElement(types.ExplodeLoop_LoopExplosionKind).getEnclosedElements())) {
+            if (field.getSimpleName().toString().equals("MERGE_EXPLODE")) {
+                mergeExplode = field;
+            }
+        }
+        annotation.setElementValue(annotation.findExecutableElement("kind"), new CodeAnnotationValue(mergeExplode));
+        return annotation;
+    }
+
+    private void createExecute() {
+        CodeExecutableElement execute = genClass.add(new CodeExecutableElement(modifiers(PUBLIC), context.getType(Object.class), "execute", new CodeVariableElement(types.VirtualFrame, "frame")));
+        execute.getAnnotationMirrors().add(createExplodeLoop());
+        CodeTreeBuilder b = execute.createBuilder();
+        b.declaration(new ArrayCodeTypeMirror(context.getType(short.class)), "bc", "this." + BYTECODES);
+        b.declaration(new ArrayCodeTypeMirror(context.getType(Object.class)), "stack", "new Object[" + NUM_LOCALS + " + " + MAX_STACK_HEIGHT + "]");
+        b.declaration(context.getType(int.class), "sp", NUM_LOCALS);
+        b.declaration(context.getType(int.class), "bci", "0");
+        b.declaration(context.getType(int.class), "loopCount", "0");
+        b.startWhile().string("true").end().startBlock();
+        b.startSwitch().string("bc[bci]").end().startBlock();
+
+        b.startCase().string(instructionName("Pop")).end().startBlock();
+        b.statement("stack[--sp] = null");
+        b.statement("bci += 1");
+        b.statement("break");
+        b.end();
+
+        b.startCase().string(instructionName("LoadConstant")).end().startBlock();
+        b.statement("stack[sp++] = this." + CONSTANTS + "[bc[bci + 1] & 0xFFFF]");
+        b.statement("bci += 2");
+        b.statement("break");
+        b.end();
+
+        b.startCase().string(instructionName("LoadArgument")).end().startBlock();
+        b.statement("stack[sp++] = frame.getArguments()[bc[bci + 1] & 0xFFFF]");
+        b.statement("bci += 2");
+        b.statement("break");
+        b.end();
+
+        b.startCase().string(instructionName("LoadLocal")).end().startBlock();
+        b.statement("stack[sp++] = stack[bc[bci + 1] & 0xFFFF]");
+        b.statement("bci += 2");
+        b.statement("break");
+        b.end();
+
+        b.startCase().string(instructionName("StoreLocal")).end().startBlock();
+        b.statement("stack[bc[bci + 1] & 0xFFFF] = stack[--sp]");
+        b.statement("stack[sp] = null");
+        b.statement("bci += 2");
+        b.statement("break");
+        b.end();
+
+        b.startCase().string(instructionName("Branch")).end().startBlock();
+        b.declaration(context.getType(int.class), "target", "bc[bci + 1] & 0xFFFF");
+        b.startIf().startStaticCall(types.CompilerDirectives, "inInterpreter").end().string(" && target <= bci").end().startBlock();
+        b.lineComment("loop counts are only profiled in the interpreter to keep them constant in compiled code");
+        b.statement("loopCount++");
+        b.end();
+        b.statement("bci = target");
+        b.statement("break");
+        b.end();
+
+        b.startCase().string(instructionName("BranchFalse")).end().startBlock();
+        b.declaration(context.getType(boolean.class), "condition", "(boolean) stack[--sp]");
+        b.statement("stack[sp] = null");
+        b.startIf().string("condition").end().startBlock();
+        b.statement("bci += 2");
+        b.end().startElseBlock();
+        b.statement("bci = bc[bci + 1] & 0xFFFF");
+        b.end();
+        b.statement("break");
+        b.end();
+
+        b.startCase().string(instructionName("Return")).end().startBlock();
+        b.startIf().startStaticCall(types.CompilerDirectives, "inInterpreter").end().string(" && loopCount > 0").end().startBlock();
+        b.startStatement().startStaticCall(types.LoopNode, "reportLoopCount").string("this").string("loopCount").end().end();
+        b.end();
+        b.statement("return stack[sp - 1]");
+        b.end();
+
+        for (BytecodeOperationData operation : model.getOperations()) {
+            if (operation.isQuickened()) {
+                b.startCase().string(instructionName(operation)).end().startBlock();
+                b.tree(GeneratorUtils.createTransferToInterpreterAndInvalidate());
+                startOperationResult(b, operation);
+                b.startCall(methodPrefix(operation) + "_initialize_");
+                if (needsFrame(operation)) {
+                    b.string("frame");
+                }
+                b.string("bci");
+                addOperandValues(b, operation);
+                b.end().end();
+                endOperation(b, operation);
+                b.end();
+
+                for (ExecutableElement specialization : operation.getSpecializations()) {
+                    b.startCase().string(instructionName(operation, specialization)).end().startBlock();
+                    CodeTree check = createTypeCheck(operation, specialization);
+                    if (check == null) {
+                        startOperationResult(b, operation);
+                        b.tree(createSpecializationCall(operation, specialization, true)).end();
+                    } else {
+                        for (int i = 0; i < operation.getOperandCount(); i++) {
+                            b.declaration(context.getType(Object.class), "v" + i, "stack[sp - " + (operation.getOperandCount() - i) + "]");
+                        }
+                        if (operation.isReturnsValue()) {
+                            b.statement("Object result");
+                        }
+                        b.startIf().tree(check).end().startBlock();
+                        startOperationResultAssign(b, operation);
+                        b.tree(createSpecializationCall(operation, specialization, false)).end();
+                        b.end().startElseBlock();
+                        b.tree(GeneratorUtils.createTransferToInterpreterAndInvalidate());
+                        b.statement("bc[bci] = " + genericInstructionName(operation));
+                        startOperationResultAssign(b, operation);
+                        startExecuteCall(b, operation);
+                        for (int i = 0; i < operation.getOperandCount(); i++) {
+                            b.string("v" + i);
+                        }
+                        b.end().end();
+                        b.end();
+                    }
+                    endOperation(b, operation);
+                    b.end();
+                }
+
+                b.startCase().string(genericInstructionName(operation)).end().startBlock();
+            } else {
+                b.startCase().string(instructionName(operation)).end().startBlock();
+            }
+            startOperationResult(b, operation);
+            startExecuteCall(b, operation);
+            addOperandValues(b, operation);
+            b.end().end();
+            endOperation(b, operation);
+            b.end();
+        }
+
+        b.caseDefault().startBlock();
+        b.tree(GeneratorUtils.createShouldNotReachHere("Invalid instruction"));
+        b.end();
+
+        b.end(); // switch
+        b.end(); // while
+    }
+
+    private static void addOperandValues(CodeTreeBuilder b, BytecodeOperationData operation) {
+        for (int i = 0; i < operation.getOperandCount(); i++) {
+            b.string("stack[sp - " + (operation.getOperandCount() - i) + "]");
+        }
+    }
+
+    private static void startExecuteCall(CodeTreeBuilder b, BytecodeOperationData operation) {
+        b.startCall(methodPrefix(operation) + "_execute_");
+        if (needsFrame(operation)) {
+            b.string("frame");
+        }
+    }
+
+    private static void startOperationResult(CodeTreeBuilder b, BytecodeOperationData operation) {
+        b.startStatement();
+        if (operation.isReturnsValue()) {
+            b.string("Object result = ");
+        }
+    }
+
+    private static void startOperationResultAssign(CodeTreeBuilder b, BytecodeOperationData operation) {
+        b.startStatement();
+        if (operation.isReturnsValue()) {
+            b.string("result = ");
+        }
+    }
+
+    /*
+     * Pops the operands of the operation and pushes the result.
+     */
+    private static void endOperation(CodeTreeBuilder b, BytecodeOperationData operation) {
+        int operandCount = operation.getOperandCount();
+        int firstCleared = operation.isReturnsValue() ? 1 : 0;
+        for (int i = operandCount - 1; i >= firstCleared; i--) {
+            b.statement("stack[sp - " + (operandCount - i) + "] = null");
+        }
+        if (operation.isReturnsValue()) {
+            if (operandCount == 0) {
+                b.statement("stack[sp++] = result");
+            } else {
+                b.statement("stack[sp - " + operandCount + "] = result");
+                if (operandCount > 1) {
+                    b.statement("sp -= " + (operandCount - 1));
+                }
+            }
+        } else if (operandCount > 0) {
+            b.statement("sp -= " + operandCount);
+        }
+        b.statement("bci += 1");
+        b.statement("break");
+    }
+
+    private List<TypeMirror> getOperandTypes(BytecodeOperationData operation, ExecutableElement specialization) {
+        List<TypeMirror> operandTypes = new ArrayList<>();
+        int offset = operation.isFrameSpecialization(specialization) ? 1 : 0;
+        for (int i = 0; i < operation.getOperandCount(); i++) {
+            operandTypes.add(specialization.getParameters().get(offset + i).asType());
+        }
+        return operandTypes;
+    }
+
+    /*
+     * Returns null if the specialization accepts any operand values.
+     */
+    private CodeTree createTypeCheck(BytecodeOperationData operation, ExecutableElement specialization) {
+        CodeTreeBuilder b = CodeTreeBuilder.createBuilder();
+        String sep = "";
+        List<TypeMirror> operandTypes = getOperandTypes(operation, specialization);
+        for (int i = 0; i < operandTypes.size(); i++) {
+            TypeMirror operandType = operandTypes.get(i);
+            if (ElementUtils.isObject(operandType)) {
+                continue;
+            }
+            b.string(sep);
+            b.instanceOf(CodeTreeBuilder.singleString("v" + i), ElementUtils.eraseGenericTypes(ElementUtils.boxType(context, operandType)));
+            sep = " && ";
+        }
+        return sep.isEmpty() ? null : b.build();
+    }
+
+    private CodeTree createSpecializationCall(BytecodeOperationData operation, ExecutableElement specialization, boolean fromStack) {
+        CodeTreeBuilder b = CodeTreeBuilder.createBuilder();
+        b.startStaticCall(specialization);
+        if (operation.isFrameSpecialization(specialization)) {
+            b.string("frame");
+        }
+        List<TypeMirror> operandTypes = getOperandTypes(operation, specialization);
+        for (int i = 0; i < operandTypes.size(); i++) {
+            TypeMirror operandType = operandTypes.get(i);
+            String value = fromStack ? "stack[sp - " + (operandTypes.size() - i) + "]" : "v" + i;
+            if (ElementUtils.isObject(operandType)) {
+                b.string(value);
+            } else {
+                b.cast(ElementUtils.eraseGenericTypes(operandType), CodeTreeBuilder.singleString(value));
+            }
+        }
+        b.end();
+        return b.build();
+    }
+
+    private CodeExecutableElement createOperationMethod(BytecodeOperationData operation, String suffix, boolean withBci) {
+        CodeExecutableElement method = genClass.add(new CodeExecutableElement(modifiers(PRIVATE), context.getType(Object.class), methodPrefix(operation) + suffix));
+        if (needsFrame(operation)) {
+            method.addParameter(new CodeVariableElement(types.VirtualFrame, "frame"));
+        }
+        if (withBci) {
+            method.addParameter(new CodeVariableElement(context.getType(int.class), "bci"));
+        }
+        for (int i = 0; i < operation.getOperandCount(); i++) {
+            method.addParameter(new CodeVariableElement(context.getType(Object.class), "v" + i));
+        }
+        return method;
+    }
+
+    /*
+     * Selects the specialization on every execution. Used for the generic instruction and for
+     * operations with a single specialization.
+     */
+    private void createExecuteOperation(BytecodeOperationData operation) {
+        CodeExecutableElement method = createOperationMethod(operation, "_execute_", false);
+        CodeTreeBuilder b = method.createBuilder();
+        for (ExecutableElement specialization : operation.getSpecializations()) {
+            CodeTree check = createTypeCheck(operation, specialization);
+            if (check != null) {
+                b.startIf().tree(check).end().startBlock();
+            }
+            addSpecializationReturn(b, operation, specialization);
+            if (check == null) {
+                // all further specializations are unreachable
+                return;
+            }
+            b.end();
+        }
+        addUnsupported(b, operation);
+    }
+
+    /*
+     * Selects the specialization for the first execution and quickens the instruction.
+     */
+    private void createInitializeOperation(BytecodeOperationData operation) {
+        CodeExecutableElement method = createOperationMethod(operation, "_initialize_", true);
+        CodeTreeBuilder b = method.createBuilder();
+        for (ExecutableElement specialization : operation.getSpecializations()) {
+            CodeTree check = createTypeCheck(operation, specialization);
+            if (check != null) {
+                b.startIf().tree(check).end().startBlock();
+            }
+            b.statement("this." + BYTECODES + "[bci] = " + instructionName(operation, specialization));
+            addSpecializationReturn(b, operation, specialization);
+            if (check == null) {
+                return;
+            }
+            b.end();
+        }
+        addUnsupported(b, operation);
+    }
+
+    private void addSpecializationReturn(CodeTreeBuilder b, BytecodeOperationData operation, ExecutableElement specialization) {
+        if (operation.isReturnsValue()) {
+            b.startReturn().tree(createSpecializationCall(operation, specialization, false)).end();
+        } else {
+            b.startStatement().tree(createSpecializationCall(operation, specialization, false)).end();
+            b.returnNull();
+        }
+    }
+
+    private void addUnsupported(CodeTreeBuilder b, BytecodeOperationData operation) {
+        b.startThrow().startNew(types.UnsupportedSpecializationException).string("this");
+        b.startNewArray(new ArrayCodeTypeMirror(types.Node), null);
+        for (int i = 0; i < operation.getOperandCount(); i++) {
+            b.string("null");
+        }
+        b.end();
+        for (int i = 0; i < operation.getOperandCount(); i++) {
+            b.string("v" + i);
+        }
+        b.end().end();
+    }
+
+    private CodeTypeElement createLabel() {
+        CodeTypeElement label = createClass(model, null, modifiers(PUBLIC, STATIC, FINAL), "Label", null);
+        label.add(new CodeVariableElement(modifiers(PRIVATE), context.getType(int.class), "bci")).createInitBuilder().string("-1");
+        label.add(new CodeVariableElement(modifiers(PRIVATE), context.getType(int.class), "stackHeight")).createInitBuilder().string("-1");
+        label.add(new CodeVariableElement(modifiers(PRIVATE), new ArrayCodeTypeMirror(context.getType(int.class)), "fixups")).createInitBuilder().string("new int[2]");
+        label.add(new CodeVariableElement(modifiers(PRIVATE), context.getType(int.class), "fixupCount"));
+        label.add(new CodeExecutableElement(modifiers(PRIVATE), null, "Label"));
+        return label;
+    }
+
+    private CodeTypeElement createBuilder(CodeTypeElement labelClass) {
+        CodeTypeElement builder = createClass(model, null, modifiers(PUBLIC, STATIC, FINAL), "Builder", null);
+        TypeMirror intType = context.getType(int.class);
+        TypeMirror voidType = context.getType(void.class);
+        TypeMirror label = labelClass.asType();
+
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), new ArrayCodeTypeMirror(context.getType(short.class)), "bytecodes")).createInitBuilder().string("new short[16]");
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "bci"));
+        TypeMirror constantsType = new CodeTypeMirror.DeclaredCodeTypeMirror(context.getTypeElement(ArrayList.class), Arrays.asList(context.getType(Object.class)));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE, FINAL), constantsType, "constants")).createInitBuilder().startNew(constantsType).end();
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "numLocals"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "stackHeight"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "maxStackHeight"));
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), context.getType(boolean.class), "reachable")).createInitBuilder().string("true");
+        builder.add(new CodeVariableElement(modifiers(PRIVATE), intType, "unresolvedLabels"));
+        builder.add(new CodeExecutableElement(modifiers(PRIVATE), null, "Builder"));
+
+        CodeTreeBuilder b;
+        CodeExecutableElement method;
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), label, "createLabel"));
+        method.createBuilder().startReturn().startNew(label).end().end();
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), voidType, "emitLabel", new CodeVariableElement(label, "label")));
+        b = method.createBuilder();
+        b.startIf().string("label.bci != -1").end().startBlock();
+        b.startThrow().startNew(context.getType(IllegalStateException.class)).doubleQuote("The label was already emitted.").end().end();
+        b.end();
+        b.startIf().string("bci > 0xFFFF").end().startBlock();
+        b.startThrow().startNew(context.getType(IllegalStateException.class)).doubleQuote("The bytecode is too large.").end().end();
+        b.end();
+        b.startIf().string("label.stackHeight == -1").end().startBlock();
+        b.statement("label.stackHeight = reachable ? stackHeight : 0");
+        b.end().startElseIf().string("reachable").end().startBlock();
+        b.statement("checkStackHeight(label)");
+        b.end();
+        b.startFor().string("int i = 0; i < label.fixupCount; i++").end().startBlock();
+        b.statement("bytecodes[label.fixups[i]] = (short) bci");
+        b.end();
+        b.startIf().string("label.fixupCount > 0").end().startBlock();
+        b.statement("unresolvedLabels--");
+        b.end();
+        b.statement("label.fixups = null");
+        b.statement("label.bci = bci");
+        b.statement("stackHeight = label.stackHeight");
+        b.statement("reachable = true");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), voidType, "emitBranch", new CodeVariableElement(label, "label")));
+        b = method.createBuilder();
+        b.statement("checkReachable()");
+        b.startStatement().string("emitBranch(").string(instructionName("Branch")).string(", label)").end();
+        b.statement("reachable = false");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), voidType, "emitBranchFalse", new CodeVariableElement(label, "label")));
+        b = method.createBuilder();
+        b.statement("pop(1)");
+        b.startStatement().string("emitBranch(").string(instructionName("BranchFalse")).string(", label)").end();
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), voidType, "emitBranch", new CodeVariableElement(context.getType(short.class), "instruction"),
+                        new CodeVariableElement(label, "label")));
+        b = method.createBuilder();
+        b.startIf().string("label.stackHeight == -1").end().startBlock();
+        b.statement("label.stackHeight = stackHeight");
+        b.end().startElseBlock();
+        b.statement("checkStackHeight(label)");
+        b.end();
+        b.startIf().string("label.bci != -1").end().startBlock();
+        b.statement("emit(instruction, label.bci)");
+        b.end().startElseBlock();
+        b.statement("emit(instruction, 0)");
+        b.startIf().string("label.fixupCount == 0").end().startBlock();
+        b.statement("unresolvedLabels++");
+        b.end().startElseIf().string("label.fixupCount == label.fixups.length").end().startBlock();
+        b.startStatement().string("label.fixups = ").startStaticCall(context.getType(Arrays.class), "copyOf").string("label.fixups").string("label.fixups.length * 2").end().end();
+        b.end();
+        b.statement("label.fixups[label.fixupCount++] = bci - 1");
+        b.end();
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), voidType, "checkStackHeight", new CodeVariableElement(label, "label")));
+        b = method.createBuilder();
+        b.startIf().string("label.stackHeight != stackHeight").end().startBlock();
+        b.startThrow().startNew(context.getType(IllegalStateException.class));
+        b.startGroup().doubleQuote("Inconsistent operand stack height at label. Expected ").string(" + label.stackHeight + ").doubleQuote(" but was ").string(" + stackHeight + ").doubleQuote(".").end();
+        b.end().end();
+        b.end();
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), voidType, "emitLoadConstant", new CodeVariableElement(context.getType(Object.class), "value")));
+        b = method.createBuilder();
+        b.statement("checkReachable()");
+        b.startStatement().string("emit(").string(instructionName("LoadConstant")).string(", constants.size())").end();
+        b.statement("constants.add(value)");
+        b.statement("push()");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), voidType, "emitLoadArgument", new CodeVariableElement(intType, "index")));
+        b = method.createBuilder();
+        b.statement("checkReachable()");
+        b.startStatement().string("emit(").string(instructionName("LoadArgument")).string(", index)").end();
+        b.statement("push()");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), voidType, "emitLoadLocal", new CodeVariableElement(intType, "index")));
+        b = method.createBuilder();
+        b.statement("checkReachable()");
+        b.startStatement().string("emit(").string(instructionName("LoadLocal")).string(", index)").end();
+        b.statement("numLocals = Math.max(numLocals, index + 1)");
+        b.statement("push()");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), voidType, "emitStoreLocal", new CodeVariableElement(intType, "index")));
+        b = method.createBuilder();
+        b.statement("pop(1)");
+        b.startStatement().string("emit(").string(instructionName("StoreLocal")).string(", index)").end();
+        b.statement("numLocals = Math.max(numLocals, index + 1)");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), voidType, "emitPop"));
+        b = method.createBuilder();
+        b.statement("pop(1)");
+        b.startStatement().string("emit(").string(instructionName("Pop")).string(")").end();
+
+        method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), voidType, "emitReturn"));
+        b = method.createBuilder();
+        b.statement("pop(1)");
+        b.startStatement().string("emit(").string(instructionName("Return")).string(")").end();
+        b.statement("reachable = false");
+
+        for (BytecodeOperationData operation : model.getOperations()) {
+            method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), voidType, "emit" + operation.getName()));
+            b = method.createBuilder();
+            if (operation.getOperandCount() > 0) {
+                b.statement("pop(" + operation.getOperandCount() + ")");
+            } else {
+                b.statement("checkReachable()");
+            }
+            b.startStatement().string("emit(").string(instructionName(operation)).string(")").end();
+            if (operation.isReturnsValue()) {
+                b.statement("push()");
+            }
+        }
+
+        for (ExecutableElement constructor : model.getConstructors()) {
+            method = builder.add(new CodeExecutableElement(modifiers(PUBLIC), model.getTemplateType().asType(), "build"));
+            for (VariableElement parameter : constructor.getParameters()) {
+                method.addParameter(new CodeVariableElement(parameter.asType(), parameter.getSimpleName().toString()));
+            }
+            for (TypeMirror thrownType : constructor.getThrownTypes()) {
+                method.addThrownType(thrownType);
+            }
+            method.setVarArgs(constructor.isVarArgs());
+            b = method.createBuilder();
+            b.startIf().string("reachable").end().startBlock();
+            b.startThrow().startNew(context.getType(IllegalStateException.class)).doubleQuote("The last instruction must be a return or an unconditional branch.").end().end();
+            b.end();
+            b.startIf().string("unresolvedLabels > 0").end().startBlock();
+            b.startThrow().startNew(context.getType(IllegalStateException.class)).doubleQuote("All labels referenced by branches must be emitted.").end().end();
+            b.end();
+            b.startReturn().startNew(genClass.asType());
+            for (VariableElement parameter : constructor.getParameters()) {
+                b.string(parameter.getSimpleName().toString());
+            }
+            b.startStaticCall(context.getType(Arrays.class), "copyOf").string("bytecodes").string("bci").end();
+            b.string("constants.toArray()");
+            b.string("numLocals");
+            b.string("maxStackHeight");
+            b.end().end();
+        }
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), voidType, "emit", new CodeVariableElement(context.getType(short.class), "instruction")));
+        b = method.createBuilder();
+        b.statement("ensureCapacity(1)");
+        b.statement("bytecodes[bci++] = instruction");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), voidType, "emit", new CodeVariableElement(context.getType(short.class), "instruction"),
+                        new CodeVariableElement(intType, "operand")));
+        b = method.createBuilder();
+        b.startIf().string("operand < 0 || operand > 0xFFFF").end().startBlock();
+        b.startThrow().startNew(context.getType(IllegalArgumentException.class)).startGroup().doubleQuote("Operand out of range: ").string(" + operand").end().end().end();
+        b.end();
+        b.statement("ensureCapacity(2)");
+        b.statement("bytecodes[bci++] = instruction");
+        b.statement("bytecodes[bci++] = (short) operand");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), voidType, "ensureCapacity", new CodeVariableElement(intType, "length")));
+        b = method.createBuilder();
+        b.startIf().string("bci + length > bytecodes.length").end().startBlock();
+        b.startStatement().string("bytecodes = ").startStaticCall(context.getType(Arrays.class), "copyOf").string("bytecodes").string("Math.max(bytecodes.length * 2, bci + length)").end().end();
+        b.end();
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), voidType, "push"));
+        b = method.createBuilder();
+        b.statement("stackHeight++");
+        b.statement("maxStackHeight = Math.max(maxStackHeight, stackHeight)");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), voidType, "pop", new CodeVariableElement(intType, "count")));
+        b = method.createBuilder();
+        b.statement("checkReachable()");
+        b.startIf().string("stackHeight < count").end().startBlock();
+        b.startThrow().startNew(context.getType(IllegalStateException.class)).doubleQuote("Operand stack underflow.").end().end();
+        b.end();
+        b.statement("stackHeight -= count");
+
+        method = builder.add(new CodeExecutableElement(modifiers(PRIVATE), voidType, "checkReachable"));
+        b = method.createBuilder();
+        b.startIf().string("!reachable").end().startBlock();
+        b.startThrow().startNew(context.getType(IllegalStateException.class)).doubleQuote("Unreachable instruction. A label must be emitted after a return or an unconditional branch.").end().end();
+        b.end();
+
+        return builder;
+    }
+
+}
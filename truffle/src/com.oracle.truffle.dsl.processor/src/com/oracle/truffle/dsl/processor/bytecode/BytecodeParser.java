@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.dsl.processor.bytecode;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+
+import com.oracle.truffle.dsl.processor.java.ElementUtils;
+import com.oracle.truffle.dsl.processor.parser.AbstractParser;
+
+public class BytecodeParser extends AbstractParser<BytecodeData> {
+
+    /**
+     * Names of the built-in instructions. Operations must not use these names as their builder
+     * methods and instruction constants would clash.
+     */
+    static final List<String> BUILTIN_NAMES = Arrays.asList("Pop", "LoadConstant", "LoadArgument", "LoadLocal", "StoreLocal", "Branch", "BranchFalse", "Return", "Label");
+
+    private static final List<String> UNSUPPORTED_SPECIALIZATION_ATTRIBUTES = Arrays.asList("rewriteOn", "replaces", "guards", "assumptions", "limit", "insertBefore");
+
+    @Override
+    public DeclaredType getAnnotationType() {
+        return types.GenerateBytecode;
+    }
+
+    @Override
+    protected BytecodeData parse(Element element, List<AnnotationMirror> mirrors) {
+        if (mirrors.isEmpty()) {
+            return null;
+        }
+        TypeElement type = (TypeElement) element;
+        BytecodeData model = new BytecodeData(type, mirrors.iterator().next());
+
+        if (type.getKind() != ElementKind.CLASS || !ElementUtils.isAssignable(type.asType(), types.RootNode)) {
+            model.addError("Bytecode interpreter classes must extend %s.", ElementUtils.getQualifiedName(types.RootNode));
+            return model;
+        }
+        if (!type.getModifiers().contains(Modifier.ABSTRACT)) {
+            model.addError("Bytecode interpreter classes must be abstract.");
+            return model;
+        }
+        if (type.getModifiers().contains(Modifier.PRIVATE)) {
+            model.addError("Bytecode interpreter classes must not be private.");
+            return model;
+        }
+        if (type.getEnclosingElement().getKind() != ElementKind.PACKAGE && !type.getModifiers().contains(Modifier.STATIC)) {
+            model.addError("Inner bytecode interpreter classes must be static.");
+            return model;
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            model.addError("Bytecode interpreter classes must not declare type parameters.");
+            return model;
+        }
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (!constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                model.getConstructors().add(constructor);
+            }
+        }
+        if (model.getConstructors().isEmpty()) {
+            model.addError("Bytecode interpreter classes must declare at least one non-private constructor.");
+        }
+
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getSimpleName().toString().equals("execute") && method.getParameters().size() == 1 && !method.getModifiers().contains(Modifier.ABSTRACT) &&
+                            ElementUtils.typeEquals(method.getParameters().get(0).asType(), types.VirtualFrame)) {
+                model.addError(method, "Bytecode interpreter classes must not implement the execute method. It is generated.");
+            }
+        }
+
+        for (TypeElement innerType : ElementFilter.typesIn(type.getEnclosedElements())) {
+            if (ElementUtils.findAnnotationMirror(innerType, types.GenerateBytecode_Operation) != null) {
+                model.getOperations().add(parseOperation(innerType));
+            }
+        }
+        return model;
+    }
+
+    private BytecodeOperationData parseOperation(TypeElement type) {
+        BytecodeOperationData operation = new BytecodeOperationData(type);
+        String name = operation.getName();
+        if (!type.getModifiers().contains(Modifier.STATIC) || type.getModifiers().contains(Modifier.PRIVATE)) {
+            operation.addError(type, "Operation classes must be static and must not be private.");
+            return operation;
+        }
+        if (BUILTIN_NAMES.contains(name)) {
+            operation.addError(type, "The operation name '%s' is reserved for a built-in instruction. Built-in instruction names are %s.", name, BUILTIN_NAMES);
+            return operation;
+        }
+
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (ElementUtils.findAnnotationMirror(method, types.Fallback) != null) {
+                operation.addError(method, "@%s is not supported for bytecode operations.", ElementUtils.getSimpleName(types.Fallback));
+                continue;
+            }
+            AnnotationMirror specialization = ElementUtils.findAnnotationMirror(method, types.Specialization);
+            if (specialization == null) {
+                continue;
+            }
+            if (!method.getModifiers().contains(Modifier.STATIC) || method.getModifiers().contains(Modifier.PRIVATE)) {
+                operation.addError(method, "Specializations of bytecode operations must be static and must not be private.");
+                continue;
+            }
+            for (String attribute : UNSUPPORTED_SPECIALIZATION_ATTRIBUTES) {
+                if (ElementUtils.getAnnotationValue(specialization, attribute, false) != null) {
+                    operation.addError(method, "The attribute '%s' of @%s is not supported for bytecode operations.", attribute, ElementUtils.getSimpleName(types.Specialization));
+                }
+            }
+
+            List<? extends VariableElement> parameters = method.getParameters();
+            int operandCount = parameters.size();
+            for (int i = 0; i < parameters.size(); i++) {
+                VariableElement parameter = parameters.get(i);
+                TypeMirror parameterType = parameter.asType();
+                if (!parameter.getAnnotationMirrors().isEmpty()) {
+                    operation.addError(parameter, "Parameters of bytecode operation specializations must not be annotated.");
+                } else if (ElementUtils.isAssignable(parameterType, types.Frame)) {
+                    if (i != 0) {
+                        operation.addError(parameter, "The frame parameter must be the first parameter of a bytecode operation specialization.");
+                    } else if (!ElementUtils.isAssignable(types.VirtualFrame, parameterType)) {
+                        operation.addError(parameter, "The frame parameter of a bytecode operation specialization must be assignable from %s.", ElementUtils.getSimpleName(types.VirtualFrame));
+                    }
+                    operandCount--;
+                } else if (parameterType.getKind() == TypeKind.TYPEVAR) {
+                    operation.addError(parameter, "Generic parameter types are not supported for bytecode operation specializations.");
+                }
+            }
+
+            boolean returnsValue = method.getReturnType().getKind() != TypeKind.VOID;
+            if (operation.getSpecializations().isEmpty()) {
+                operation.setOperandCount(operandCount);
+                operation.setReturnsValue(returnsValue);
+            } else if (operation.getOperandCount() != operandCount) {
+                operation.addError(method, "All specializations of a bytecode operation must declare the same number of operands. Expected %s but was %s.", operation.getOperandCount(), operandCount);
+            } else if (operation.isReturnsValue() != returnsValue) {
+                operation.addError(method, "Either all or none of the specializations of a bytecode operation must return void.");
+            }
+            operation.getSpecializations().add(method);
+        }
+
+        if (operation.getSpecializations().isEmpty()) {
+            operation.addError(type, "Operation classes must declare at least one method annotated with @%s.", ElementUtils.getSimpleName(types.Specialization));
+        }
+        return operation;
+    }
+
+}
@@ -43,17 +43,21 @@ package com.oracle.truffle.polyglot;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.graalvm.polyglot.HostAccess;
 import org.graalvm.polyglot.impl.AbstractPolyglotImpl;
 import org.graalvm.polyglot.impl.AbstractPolyglotImpl.APIAccess;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.polyglot.HostMethodDesc.SingleMethod;
 
 final class HostClassCache {
 
@@ -63,13 +67,16 @@ final class HostClassCache {
     final HostAccess hostAccess;
     private final boolean arrayAccess;
     private final boolean listAccess;
+    private final boolean bufferAccess;
     private final Map<Class<?>, Object> targetMappings;
     private final Object unnamedModule;
+    private final Map<List<Type>, ToHostNode.TargetType[]> parameterTargets = new ConcurrentHashMap<>();
 
     private HostClassCache(AbstractPolyglotImpl.APIAccess apiAccess, HostAccess conf, ClassLoader classLoader) {
         this.hostAccess = conf;
         this.arrayAccess = apiAccess.isArrayAccessible(hostAccess);
         this.listAccess = apiAccess.isListAccessible(hostAccess);
+        this.bufferAccess = apiAccess.isBufferAccessible(hostAccess);
         this.apiAccess = apiAccess;
         this.targetMappings = groupMappings(apiAccess, conf);
         this.unnamedModule = EngineAccessor.JDKSERVICES.getUnnamedModule(classLoader);
@@ -181,6 +188,33 @@ final class HostClassCache {
         return descs.get(clazz);
     }
 
+    /**
+     * Returns the argument conversion targets of a host method. The targets only depend on the
+     * generic parameter types, so they are shared between all methods with the same signature. For
+     * variable arity methods an additional last target describes the variable argument component
+     * type.
+     */
+    @TruffleBoundary
+    ToHostNode.TargetType[] getParameterTargets(SingleMethod method) {
+        Class<?>[] types = method.getParameterTypes();
+        Type[] genericTypes = method.getGenericParameterTypes();
+        int length = method.isVarArgs() ? types.length + 1 : types.length;
+        Type[] signature = Arrays.copyOf(genericTypes, length);
+        if (method.isVarArgs()) {
+            signature[length - 1] = HostExecuteNode.getGenericComponentType(genericTypes[types.length - 1]);
+        }
+        return parameterTargets.computeIfAbsent(Arrays.asList(signature), (key) -> {
+            ToHostNode.TargetType[] targets = new ToHostNode.TargetType[length];
+            for (int i = 0; i < types.length; i++) {
+                targets[i] = new ToHostNode.TargetType(this, types[i], genericTypes[i]);
+            }
+            if (method.isVarArgs()) {
+                targets[length - 1] = new ToHostNode.TargetType(this, types[types.length - 1].getComponentType(), signature[length - 1]);
+            }
+            return targets;
+        });
+    }
+
     @TruffleBoundary
     boolean allowsAccess(Method m) {
         return apiAccess.allowsAccess(hostAccess, m);
@@ -204,6 +238,10 @@ final class HostClassCache {
         return listAccess;
     }
 
+    boolean isBufferAccess() {
+        return bufferAccess;
+    }
+
     boolean allowsImplementation(Class<?> type) {
         return apiAccess.allowsImplementation(hostAccess, type);
     }
@@ -254,6 +254,9 @@ abstract class HostExecuteNode extends Node {
     }
 
     private static Object[] prepareArgumentsUncached(SingleMethod method, Object[] args, PolyglotLanguageContext languageContext, ToHostNode toJavaNode, ConditionProfile isVarArgsProfile) {
+        if (!toJavaNode.isAdoptable() && languageContext != null) {
+            return prepareArgumentsWithTargets(method, args, languageContext);
+        }
         Class<?>[] types = method.getParameterTypes();
         Type[] genericTypes = method.getGenericParameterTypes();
         Object[] convertedArguments = new Object[args.length];
@@ -273,6 +276,30 @@ abstract class HostExecuteNode extends Node {
         return convertedArguments;
     }
 
+    /**
+     * Uncached argument conversion using the precomputed conversion targets of the method
+     * signature, avoiding the per argument host class and target mapping lookups.
+     */
+    @TruffleBoundary
+    private static Object[] prepareArgumentsWithTargets(SingleMethod method, Object[] args, PolyglotLanguageContext languageContext) {
+        ToHostNode.TargetType[] targets = method.getParameterTargets(languageContext.getEngine().getHostClassCache());
+        Object[] convertedArguments = new Object[args.length];
+        if (method.isVarArgs() && asVarArgs(args, method, languageContext)) {
+            int parameterCount = method.getParameterCount();
+            ToHostNode.TargetType componentTarget = targets[parameterCount];
+            for (int i = 0; i < args.length; i++) {
+                ToHostNode.TargetType target = i < parameterCount - 1 ? targets[i] : componentTarget;
+                convertedArguments[i] = ToHostNode.convertUncached(args[i], target, languageContext);
+            }
+            convertedArguments = createVarArgsArray(method, convertedArguments, parameterCount);
+        } else {
+            for (int i = 0; i < args.length; i++) {
+                convertedArguments[i] = ToHostNode.convertUncached(args[i], targets[i], languageContext);
+            }
+        }
+        return convertedArguments;
+    }
+
     static TypeCheckNode[] createArgTypesArray(Object[] args) {
         TypeCheckNode[] nodes = new TypeCheckNode[args.length];
         // fill with null checks so the DSL does not complain when it tries to adopt
@@ -778,7 +805,7 @@ abstract class HostExecuteNode extends Node {
         throw UnsupportedTypeException.create(args, message);
     }
 
-    private static Type getGenericComponentType(Type type) {
+    static Type getGenericComponentType(Type type) {
         return type instanceof GenericArrayType ? ((GenericArrayType) type).getGenericComponentType() : ((Class<?>) type).getComponentType();
     }
 
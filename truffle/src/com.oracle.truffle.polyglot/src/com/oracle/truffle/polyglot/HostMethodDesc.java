@@ -78,6 +78,7 @@ abstract class HostMethodDesc {
         private final boolean varArgs;
         @CompilationFinal(dimensions = 1) private final Class<?>[] parameterTypes;
         @CompilationFinal(dimensions = 1) private final Type[] genericParameterTypes;
+        private ToHostNode.TargetType[] parameterTargets;
 
         protected SingleMethod(Executable executable) {
             this.varArgs = executable.isVarArgs();
@@ -105,6 +106,19 @@ abstract class HostMethodDesc {
             return genericParameterTypes;
         }
 
+        /**
+         * Returns the precomputed argument conversion targets used for uncached invocations. Racy
+         * initialization is fine as the cache returns the same targets for the same signature.
+         */
+        ToHostNode.TargetType[] getParameterTargets(HostClassCache cache) {
+            CompilerAsserts.neverPartOfCompilation();
+            ToHostNode.TargetType[] targets = parameterTargets;
+            if (targets == null) {
+                parameterTargets = targets = cache.getParameterTargets(this);
+            }
+            return targets;
+        }
+
         @Override
         public String getName() {
             return getReflectionMethod().getName();
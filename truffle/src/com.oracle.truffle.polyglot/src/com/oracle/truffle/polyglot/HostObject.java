@@ -41,6 +41,9 @@
 package com.oracle.truffle.polyglot;
 
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -64,6 +67,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.ArityException;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.InvalidBufferOffsetException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
@@ -665,6 +669,269 @@ final class HostObject implements TruffleObject {
         return ((List<?>) obj).size();
     }
 
+    @ExportMessage
+    boolean hasBufferElements() {
+        return isBuffer();
+    }
+
+    @ExportMessage
+    boolean isBufferWritable() throws UnsupportedMessageException {
+        if (isBuffer()) {
+            return !isBufferReadOnly((ByteBuffer) obj);
+        }
+        throw UnsupportedMessageException.create();
+    }
+
+    @ExportMessage
+    long getBufferSize() throws UnsupportedMessageException {
+        if (isBuffer()) {
+            return getBufferLimit((ByteBuffer) obj);
+        }
+        throw UnsupportedMessageException.create();
+    }
+
+    @ExportMessage
+    byte readBufferByte(long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            return getBufferByte((ByteBuffer) obj, byteOffset);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Byte.BYTES);
+        }
+    }
+
+    @ExportMessage
+    void writeBufferByte(long byteOffset, byte value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            putBufferByte((ByteBuffer) obj, byteOffset, value);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Byte.BYTES);
+        } catch (ReadOnlyBufferException e) {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    @ExportMessage
+    short readBufferShort(ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            return getBufferShort((ByteBuffer) obj, order, byteOffset);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Short.BYTES);
+        }
+    }
+
+    @ExportMessage
+    void writeBufferShort(ByteOrder order, long byteOffset, short value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            putBufferShort((ByteBuffer) obj, order, byteOffset, value);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Short.BYTES);
+        } catch (ReadOnlyBufferException e) {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    @ExportMessage
+    int readBufferInt(ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            return getBufferInt((ByteBuffer) obj, order, byteOffset);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Integer.BYTES);
+        }
+    }
+
+    @ExportMessage
+    void writeBufferInt(ByteOrder order, long byteOffset, int value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            putBufferInt((ByteBuffer) obj, order, byteOffset, value);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Integer.BYTES);
+        } catch (ReadOnlyBufferException e) {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    @ExportMessage
+    long readBufferLong(ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            return getBufferLong((ByteBuffer) obj, order, byteOffset);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Long.BYTES);
+        }
+    }
+
+    @ExportMessage
+    void writeBufferLong(ByteOrder order, long byteOffset, long value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            putBufferLong((ByteBuffer) obj, order, byteOffset, value);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Long.BYTES);
+        } catch (ReadOnlyBufferException e) {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    @ExportMessage
+    float readBufferFloat(ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            return getBufferFloat((ByteBuffer) obj, order, byteOffset);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Float.BYTES);
+        }
+    }
+
+    @ExportMessage
+    void writeBufferFloat(ByteOrder order, long byteOffset, float value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            putBufferFloat((ByteBuffer) obj, order, byteOffset, value);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Float.BYTES);
+        } catch (ReadOnlyBufferException e) {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    @ExportMessage
+    double readBufferDouble(ByteOrder order, long byteOffset) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            return getBufferDouble((ByteBuffer) obj, order, byteOffset);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Double.BYTES);
+        }
+    }
+
+    @ExportMessage
+    void writeBufferDouble(ByteOrder order, long byteOffset, double value) throws UnsupportedMessageException, InvalidBufferOffsetException {
+        if (!isBuffer()) {
+            throw UnsupportedMessageException.create();
+        }
+        try {
+            putBufferDouble((ByteBuffer) obj, order, byteOffset, value);
+        } catch (IndexOutOfBoundsException e) {
+            throw InvalidBufferOffsetException.create(byteOffset, Double.BYTES);
+        } catch (ReadOnlyBufferException e) {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    boolean isBuffer() {
+        return getHostClassCache().isBufferAccess() && obj instanceof ByteBuffer;
+    }
+
+    /*
+     * The ByteBuffer methods below are not PE-safe as ByteBuffer is an abstract class with
+     * multiple implementations. Byte order conversions are done on the value, without changing the
+     * order of the buffer, so that concurrent accesses with different byte orders do not interfere.
+     */
+
+    @TruffleBoundary(allowInlining = true)
+    private static boolean isBufferReadOnly(ByteBuffer buffer) {
+        return buffer.isReadOnly();
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static long getBufferLimit(ByteBuffer buffer) {
+        return buffer.limit();
+    }
+
+    private static int toBufferIndex(long byteOffset) {
+        if (byteOffset < 0 || byteOffset > Integer.MAX_VALUE) {
+            throw new IndexOutOfBoundsException();
+        }
+        return (int) byteOffset;
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static byte getBufferByte(ByteBuffer buffer, long byteOffset) {
+        return buffer.get(toBufferIndex(byteOffset));
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static void putBufferByte(ByteBuffer buffer, long byteOffset, byte value) {
+        buffer.put(toBufferIndex(byteOffset), value);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static short getBufferShort(ByteBuffer buffer, ByteOrder order, long byteOffset) {
+        short value = buffer.getShort(toBufferIndex(byteOffset));
+        return buffer.order() == order ? value : Short.reverseBytes(value);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static void putBufferShort(ByteBuffer buffer, ByteOrder order, long byteOffset, short value) {
+        buffer.putShort(toBufferIndex(byteOffset), buffer.order() == order ? value : Short.reverseBytes(value));
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static int getBufferInt(ByteBuffer buffer, ByteOrder order, long byteOffset) {
+        int value = buffer.getInt(toBufferIndex(byteOffset));
+        return buffer.order() == order ? value : Integer.reverseBytes(value);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static void putBufferInt(ByteBuffer buffer, ByteOrder order, long byteOffset, int value) {
+        buffer.putInt(toBufferIndex(byteOffset), buffer.order() == order ? value : Integer.reverseBytes(value));
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static long getBufferLong(ByteBuffer buffer, ByteOrder order, long byteOffset) {
+        long value = buffer.getLong(toBufferIndex(byteOffset));
+        return buffer.order() == order ? value : Long.reverseBytes(value);
+    }
+
+    @TruffleBoundary(allowInlining = true)
+    private static void putBufferLong(ByteBuffer buffer, ByteOrder order, long byteOffset, long value) {
+        buffer.putLong(toBufferIndex(byteOffset), buffer.order() == order ? value : Long.reverseBytes(value));
+    }
+
+    private static float getBufferFloat(ByteBuffer buffer, ByteOrder order, long byteOffset) {
+        return Float.intBitsToFloat(getBufferInt(buffer, order, byteOffset));
+    }
+
+    private static void putBufferFloat(ByteBuffer buffer, ByteOrder order, long byteOffset, float value) {
+        putBufferInt(buffer, order, byteOffset, Float.floatToRawIntBits(value));
+    }
+
+    private static double getBufferDouble(ByteBuffer buffer, ByteOrder order, long byteOffset) {
+        return Double.longBitsToDouble(getBufferLong(buffer, order, byteOffset));
+    }
+
+    private static void putBufferDouble(ByteBuffer buffer, ByteOrder order, long byteOffset, double value) {
+        putBufferLong(buffer, order, byteOffset, Double.doubleToRawLongBits(value));
+    }
+
     @ExportMessage
     boolean isNull() {
         return obj == null;
@@ -1578,4 +1845,5 @@ final class HostObject implements TruffleObject {
         }
 
     }
+
 }
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.polyglot;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import org.graalvm.polyglot.io.ByteSequence;
+
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.TruffleLanguage.Env;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.Source.SourceBuilder;
+
+/**
+ * Auxiliary engine cache that persists the cached sources parsed by an engine and parses them
+ * eagerly when a language is initialized in a later engine. This moves parsing of the sources an
+ * application is known to evaluate from the first request to the context initialization, and
+ * keeps the parsed call targets in the {@link PolyglotSourceCache} of the language instance.
+ * <p>
+ * The sources are recorded if {@link PolyglotEngineOptions#CacheStore} is set and written to the
+ * file when the engine is closed. They are read from the file if
+ * {@link PolyglotEngineOptions#CacheLoad} is set. A cached call target is reused only if the
+ * application evaluates a source that is equal to the stored one, i.e. a changed file is parsed
+ * again.
+ * <p>
+ * Only the sources recorded by the storing engine are written. A successfully preparsed source is
+ * recorded like any other parsed source, so loaded sources that fail to parse drop out of the file
+ * instead of being carried over forever. Sources that would grow the file beyond
+ * {@link #MAX_STORE_SIZE} bytes are not stored.
+ */
+final class PolyglotEngineCache {
+
+    private static final int MAGIC = 0x54524543;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+    private static final int MAX_STORE_SIZE = 64 * 1024 * 1024;
+
+    private final PolyglotEngineImpl engine;
+    private final Path storePath;
+    private final Map<String, List<Entry>> loadedEntries;
+    private final Set<Entry> recordedEntries;
+    /*
+     * Sources are interned weakly, so the preparsed sources need to be kept alive to get the same
+     * source identity for sources equal to the stored ones.
+     */
+    private final Set<Source> preparsedSources = ConcurrentHashMap.newKeySet();
+
+    private PolyglotEngineCache(PolyglotEngineImpl engine, Path storePath, Map<String, List<Entry>> loadedEntries) {
+        this.engine = engine;
+        this.storePath = storePath;
+        this.loadedEntries = loadedEntries;
+        this.recordedEntries = storePath != null ? ConcurrentHashMap.newKeySet() : null;
+    }
+
+    static PolyglotEngineCache create(PolyglotEngineImpl engine) {
+        String store = engine.engineOptionValues.get(PolyglotEngineOptions.CacheStore);
+        String load = engine.engineOptionValues.get(PolyglotEngineOptions.CacheLoad);
+        if (store.isEmpty() && load.isEmpty()) {
+            return null;
+        }
+        Map<String, List<Entry>> loaded = Collections.emptyMap();
+        if (!load.isEmpty()) {
+            Path loadPath = Paths.get(load);
+            try {
+                loaded = load(loadPath);
+            } catch (IOException | IllegalArgumentException e) {
+                throw PolyglotEngineException.illegalArgument(String.format("Failed to load the engine cache from '%s': %s", loadPath, e.getMessage()));
+            }
+        }
+        return new PolyglotEngineCache(engine, store.isEmpty() ? null : Paths.get(store), loaded);
+    }
+
+    /**
+     * Records a cached source that was parsed for the first time in a language instance.
+     */
+    void record(Source source, String[] argumentNames) {
+        if (recordedEntries == null || (source.getPath() == null && source.getURL() != null)) {
+            // sources loaded from a URL cannot be reconstructed without fetching them
+            return;
+        }
+        URI uri = source.getPath() == null ? source.getURI() : null;
+        if (uri != null && "truffle".equals(uri.getScheme())) {
+            // computed from the content, not specified by the source builder
+            uri = null;
+        }
+        Object content = source.hasBytes() ? source.getBytes().toByteArray() : source.getCharacters().toString();
+        recordedEntries.add(new Entry(source.getLanguage(), source.getName(), source.getMimeType(), source.getPath(), uri != null ? uri.toString() : null,
+                        source.isInternal(), source.isInteractive(), content, argumentNames));
+    }
+
+    /**
+     * Parses the stored sources of a language that was just initialized.
+     */
+    void preparse(PolyglotLanguageContext context) {
+        List<Entry> entries = loadedEntries.get(context.language.getId());
+        if (entries == null) {
+            return;
+        }
+        PolyglotSourceCache sourceCache = context.getLanguageInstance().getSourceCache();
+        Env env = context.requireEnv();
+        for (Entry entry : entries) {
+            try {
+                Source source = entry.toSource(env);
+                preparsedSources.add(source);
+                sourceCache.parseCached(context, source, entry.argumentNames);
+            } catch (IOException | RuntimeException e) {
+                engine.getEngineLogger().log(Level.FINE, String.format("Failed to parse cached source '%s' of language '%s'.", entry.name, entry.languageId), e);
+            }
+        }
+    }
+
+    void store() {
+        if (recordedEntries == null) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>(recordedEntries);
+        try {
+            Path temp = Files.createTempFile(storePath.toAbsolutePath().getParent(), storePath.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                out.write(serialize(entries));
+            }
+            Files.move(temp, storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            engine.getEngineLogger().log(Level.WARNING, String.format("Failed to store the engine cache to '%s'.", storePath), e);
+        }
+    }
+
+    private byte[] serialize(List<Entry> entries) throws IOException {
+        List<byte[]> serializedEntries = new ArrayList<>();
+        int size = HEADER_SIZE;
+        for (Entry entry : entries) {
+            byte[] serializedEntry = serialize(entry);
+            if (size + serializedEntry.length > MAX_STORE_SIZE) {
+                engine.getEngineLogger().log(Level.FINE, String.format("Skipped cached source '%s' of language '%s', the engine cache '%s' would exceed %d bytes.", entry.name, entry.languageId, storePath, MAX_STORE_SIZE));
+                continue;
+            }
+            serializedEntries.add(serializedEntry);
+            size += serializedEntry.length;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(size);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(serializedEntries.size());
+            for (byte[] serializedEntry : serializedEntries) {
+                out.write(serializedEntry);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] serialize(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, entry.languageId);
+            writeString(out, entry.name);
+            writeString(out, entry.mimeType);
+            writeString(out, entry.path);
+            writeString(out, entry.uri);
+            out.writeBoolean(entry.internal);
+            out.writeBoolean(entry.interactive);
+            if (entry.content instanceof byte[]) {
+                out.writeBoolean(true);
+                writeBytes(out, (byte[]) entry.content);
+            } else {
+                out.writeBoolean(false);
+                writeString(out, (String) entry.content);
+            }
+            String[] argumentNames = entry.argumentNames;
+            out.writeInt(argumentNames == null ? -1 : argumentNames.length);
+            if (argumentNames != null) {
+                for (String argumentName : argumentNames) {
+                    writeString(out, argumentName);
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, List<Entry>> load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Not an engine cache file.");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException(String.format("Unsupported engine cache version %d, expected %d.", version, VERSION));
+            }
+            int count = in.readInt();
+            Map<String, List<Entry>> entries = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                String languageId = readString(in);
+                String name = readString(in);
+                String mimeType = readString(in);
+                String sourcePath = readString(in);
+                String uri = readString(in);
+                boolean internal = in.readBoolean();
+                boolean interactive = in.readBoolean();
+                Object content = in.readBoolean() ? readBytes(in) : readString(in);
+                int argumentCount = in.readInt();
+                String[] argumentNames = null;
+                if (argumentCount >= 0) {
+                    argumentNames = new String[argumentCount];
+                    for (int j = 0; j < argumentCount; j++) {
+                        argumentNames[j] = readString(in);
+                    }
+                }
+                entries.computeIfAbsent(languageId, (id) -> new ArrayList<>()).add(new Entry(languageId, name, mimeType, sourcePath, uri, internal, interactive, content, argumentNames));
+            }
+            return entries;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > MAX_STORE_SIZE) {
+            throw new IllegalArgumentException(String.format("Invalid length %d in engine cache file.", length));
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static final class Entry {
+
+        final String languageId;
+        final String name;
+        final String mimeType;
+        final String path;
+        final String uri;
+        final boolean internal;
+        final boolean interactive;
+        final Object content;
+        final String[] argumentNames;
+
+        Entry(String languageId, String name, String mimeType, String path, String uri, boolean internal, boolean interactive, Object content, String[] argumentNames) {
+            this.languageId = languageId;
+            this.name = name;
+            this.mimeType = mimeType;
+            this.path = path;
+            this.uri = uri;
+            this.internal = internal;
+            this.interactive = interactive;
+            this.content = content;
+            this.argumentNames = argumentNames != null && argumentNames.length == 0 ? null : argumentNames;
+        }
+
+        Source toSource(Env env) throws IOException {
+            SourceBuilder builder;
+            if (path != null) {
+                TruffleFile file = env.getPublicTruffleFile(path);
+                builder = Source.newBuilder(languageId, file).name(name);
+                if (content instanceof byte[]) {
+                    builder.content(ByteSequence.create((byte[]) content));
+                } else {
+                    builder.content((String) content);
+                }
+            } else if (content instanceof byte[]) {
+                builder = Source.newBuilder(languageId, ByteSequence.create((byte[]) content), name);
+            } else {
+                builder = Source.newBuilder(languageId, (String) content, name);
+            }
+            if (uri != null) {
+                builder.uri(URI.create(uri));
+            }
+            return builder.mimeType(mimeType).internal(internal).interactive(interactive).cached(true).build();
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hash(languageId, name, mimeType, path, uri, internal, interactive);
+            result = 31 * result + (content instanceof byte[] ? Arrays.hashCode((byte[]) content) : content.hashCode());
+            return 31 * result + Arrays.hashCode(argumentNames);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) obj;
+            return languageId.equals(other.languageId) && Objects.equals(name, other.name) && Objects.equals(mimeType, other.mimeType) && Objects.equals(path, other.path) &&
+                            Objects.equals(uri, other.uri) && internal == other.internal && interactive == other.interactive &&
+                            (content instanceof byte[] ? other.content instanceof byte[] && Arrays.equals((byte[]) content, (byte[]) other.content) : content.equals(other.content)) &&
+                            Arrays.equals(argumentNames, other.argumentNames);
+        }
+    }
+}
@@ -156,4 +156,8 @@ final class PolyglotEngineException extends RuntimeException {
         return new PolyglotEngineException(new ArrayIndexOutOfBoundsException(message));
     }
 
+    static PolyglotEngineException bufferIndexOutOfBounds(String message) {
+        return new PolyglotEngineException(new IndexOutOfBoundsException(message));
+    }
+
 }
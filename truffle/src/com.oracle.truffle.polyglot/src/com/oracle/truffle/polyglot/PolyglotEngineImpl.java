@@ -196,6 +196,7 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
     @CompilationFinal private HostToGuestCodeCache hostToGuestCodeCache;
 
     final SpecializationStatistics specializationStatistics;
+    final PolyglotEngineCache engineCache;
     final Function<String, TruffleLogger> engineLoggerSupplier;
     private volatile TruffleLogger engineLogger;
 
@@ -287,6 +288,7 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
         } else {
             this.specializationStatistics = null;
         }
+        this.engineCache = PolyglotEngineCache.create(this);
 
         ENGINES.put(this, null);
         if (!preInitialization) {
@@ -373,6 +375,7 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
         } else {
             this.specializationStatistics = null;
         }
+        this.engineCache = PolyglotEngineCache.create(this);
 
         ENGINES.put(this, null);
         Collection<PolyglotInstrument> instrumentsToCreate = new ArrayList<>();
@@ -1095,6 +1098,10 @@ final class PolyglotEngineImpl extends AbstractPolyglotImpl.AbstractEngineImpl i
                 getEngineLogger().log(Level.INFO, String.format("Specialization histogram: %n%s", logMessage.toString()));
             }
 
+            if (engineCache != null && closeContexts) {
+                engineCache.store();
+            }
+
             if (closeContexts) {
                 Object loggers = getEngineLoggers();
                 if (loggers != null) {
@@ -74,4 +74,12 @@ final class PolyglotEngineOptions {
                     "Enabling this flag and the compiler option has major implications on the performance and footprint of the interpreter." + //
                     "Do not use in production environments.")//
     static final OptionKey<Boolean> SpecializationStatistics = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Records the cached sources parsed by the engine and stores them to the given file when the engine is closed. " +
+                    "The file can be used with --engine.CacheLoad to parse the sources when a language is initialized.")//
+    static final OptionKey<String> CacheStore = new OptionKey<>("");
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Loads the sources stored with --engine.CacheStore from the given file and parses them " +
+                    "when their language is initialized, so that equal sources evaluated later are taken from the source cache.")//
+    static final OptionKey<String> CacheLoad = new OptionKey<>("");
 }
@@ -607,6 +607,9 @@ final class PolyglotLanguageContext implements PolyglotImpl.VMObject {
                 }
             }
         }
+        if (wasInitialized && context.engine.engineCache != null && !context.inContextPreInitialization) {
+            context.engine.engineCache.preparse(this);
+        }
         if (wasInitialized && eventsEnabled) {
             EngineAccessor.INSTRUMENT.notifyLanguageContextInitialized(context.engine, context.creatorTruffleContext, language.info);
         }
@@ -77,6 +77,11 @@ final class PolyglotSourceCache {
                      * Parsed twice -> discard the one not in the cache.
                      */
                     target = prev;
+                } else {
+                    PolyglotEngineCache engineCache = context.context.engine.engineCache;
+                    if (engineCache != null) {
+                        engineCache.record(source, argumentNames);
+                    }
                 }
             }
         } else {
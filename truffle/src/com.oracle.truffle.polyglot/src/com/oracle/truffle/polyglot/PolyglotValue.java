@@ -44,6 +44,7 @@ import static com.oracle.truffle.api.CompilerDirectives.shouldNotReachHere;
 import static com.oracle.truffle.polyglot.EngineAccessor.RUNTIME;
 import static com.oracle.truffle.polyglot.EngineAccessor.SOURCE;
 
+import java.nio.ByteOrder;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -72,6 +73,7 @@ import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.ArityException;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.InvalidBufferOffsetException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnknownIdentifierException;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
@@ -93,13 +95,16 @@ import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.CanInvokeNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetArrayElementNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetArraySizeNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetBufferSizeNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetMemberKeysNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetMemberNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetMetaQualifiedNameNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.GetMetaSimpleNameNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.HasArrayElementsNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.HasBufferElementsNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.HasMemberNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.HasMembersNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsBufferWritableNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsDateNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsDurationNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsExceptionNodeGen;
@@ -111,10 +116,22 @@ import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsTimeZoneNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.NewInstanceNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.PutMemberNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadBufferByteNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadBufferDoubleNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadBufferFloatNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadBufferIntNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadBufferLongNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadBufferShortNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.RemoveArrayElementNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.RemoveMemberNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.SetArrayElementNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ThrowExceptionNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteBufferByteNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteBufferDoubleNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteBufferFloatNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteBufferIntNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteBufferLongNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteBufferShortNodeGen;
 
 abstract class PolyglotValue extends AbstractValueImpl {
 
@@ -198,6 +215,142 @@ abstract class PolyglotValue extends AbstractValueImpl {
         throw unsupported(context, receiver, "getArraySize()", "hasArrayElements()");
     }
 
+    @Override
+    public boolean isBufferWritable(Object receiver) {
+        try {
+            throw unsupported(languageContext, receiver, "isBufferWritable()", "hasBufferElements()");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @Override
+    public long getBufferSize(Object receiver) {
+        try {
+            throw unsupported(languageContext, receiver, "getBufferSize()", "hasBufferElements()");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @Override
+    public byte readBufferByte(Object receiver, long byteOffset) {
+        try {
+            throw readBufferUnsupported(languageContext, receiver, "readBufferByte(long)");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @Override
+    public void writeBufferByte(Object receiver, long byteOffset, byte value) {
+        try {
+            throw writeBufferUnsupported(languageContext, receiver, "writeBufferByte(long, byte)");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @Override
+    public short readBufferShort(Object receiver, ByteOrder order, long byteOffset) {
+        try {
+            throw readBufferUnsupported(languageContext, receiver, "readBufferShort(ByteOrder, long)");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @Override
+    public void writeBufferShort(Object receiver, ByteOrder order, long byteOffset, short value) {
+        try {
+            throw writeBufferUnsupported(languageContext, receiver, "writeBufferShort(ByteOrder, long, short)");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @Override
+    public int readBufferInt(Object receiver, ByteOrder order, long byteOffset) {
+        try {
+            throw readBufferUnsupported(languageContext, receiver, "readBufferInt(ByteOrder, long)");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @Override
+    public void writeBufferInt(Object receiver, ByteOrder order, long byteOffset, int value) {
+        try {
+            throw writeBufferUnsupported(languageContext, receiver, "writeBufferInt(ByteOrder, long, int)");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @Override
+    public long readBufferLong(Object receiver, ByteOrder order, long byteOffset) {
+        try {
+            throw readBufferUnsupported(languageContext, receiver, "readBufferLong(ByteOrder, long)");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @Override
+    public void writeBufferLong(Object receiver, ByteOrder order, long byteOffset, long value) {
+        try {
+            throw writeBufferUnsupported(languageContext, receiver, "writeBufferLong(ByteOrder, long, long)");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @Override
+    public float readBufferFloat(Object receiver, ByteOrder order, long byteOffset) {
+        try {
+            throw readBufferUnsupported(languageContext, receiver, "readBufferFloat(ByteOrder, long)");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @Override
+    public void writeBufferFloat(Object receiver, ByteOrder order, long byteOffset, float value) {
+        try {
+            throw writeBufferUnsupported(languageContext, receiver, "writeBufferFloat(ByteOrder, long, float)");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @Override
+    public double readBufferDouble(Object receiver, ByteOrder order, long byteOffset) {
+        try {
+            throw readBufferUnsupported(languageContext, receiver, "readBufferDouble(ByteOrder, long)");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @Override
+    public void writeBufferDouble(Object receiver, ByteOrder order, long byteOffset, double value) {
+        try {
+            throw writeBufferUnsupported(languageContext, receiver, "writeBufferDouble(ByteOrder, long, double)");
+        } catch (Throwable e) {
+            throw PolyglotImpl.guestToHostException((languageContext), e);
+        }
+    }
+
+    @TruffleBoundary
+    static RuntimeException readBufferUnsupported(PolyglotLanguageContext context, Object receiver, String message) {
+        throw unsupported(context, receiver, message, "hasBufferElements()");
+    }
+
+    @TruffleBoundary
+    static RuntimeException writeBufferUnsupported(PolyglotLanguageContext context, Object receiver, String message) {
+        throw unsupported(context, receiver, message, "isBufferWritable()");
+    }
+
     @Override
     public Value getMember(Object receiver, String key) {
         try {
@@ -726,6 +879,12 @@ abstract class PolyglotValue extends AbstractValueImpl {
         throw PolyglotEngineException.arrayIndexOutOfBounds(message);
     }
 
+    @TruffleBoundary
+    protected static RuntimeException invalidBufferIndex(PolyglotLanguageContext context, Object receiver, long byteOffset, long length) {
+        String message = String.format("Invalid buffer access of length %s at byte offset %s for buffer %s.", length, byteOffset, getValueInfo(context, receiver));
+        throw PolyglotEngineException.bufferIndexOutOfBounds(message);
+    }
+
     @TruffleBoundary
     protected static RuntimeException invalidArrayValue(PolyglotLanguageContext context, Object receiver, long identifier, Object value) {
         throw PolyglotEngineException.classCast(
@@ -951,6 +1110,21 @@ abstract class PolyglotValue extends AbstractValueImpl {
         final CallTarget setArrayElement;
         final CallTarget removeArrayElement;
         final CallTarget getArraySize;
+        final CallTarget hasBufferElements;
+        final CallTarget isBufferWritable;
+        final CallTarget getBufferSize;
+        final CallTarget readBufferByte;
+        final CallTarget writeBufferByte;
+        final CallTarget readBufferShort;
+        final CallTarget writeBufferShort;
+        final CallTarget readBufferInt;
+        final CallTarget writeBufferInt;
+        final CallTarget readBufferLong;
+        final CallTarget writeBufferLong;
+        final CallTarget readBufferFloat;
+        final CallTarget writeBufferFloat;
+        final CallTarget readBufferDouble;
+        final CallTarget writeBufferDouble;
         final CallTarget hasMembers;
         final CallTarget hasMember;
         final CallTarget getMember;
@@ -1005,6 +1179,21 @@ abstract class PolyglotValue extends AbstractValueImpl {
             this.setArrayElement = createTarget(SetArrayElementNodeGen.create(this));
             this.removeArrayElement = createTarget(RemoveArrayElementNodeGen.create(this));
             this.getArraySize = createTarget(GetArraySizeNodeGen.create(this));
+            this.hasBufferElements = createTarget(HasBufferElementsNodeGen.create(this));
+            this.isBufferWritable = createTarget(IsBufferWritableNodeGen.create(this));
+            this.getBufferSize = createTarget(GetBufferSizeNodeGen.create(this));
+            this.readBufferByte = createTarget(ReadBufferByteNodeGen.create(this));
+            this.writeBufferByte = createTarget(WriteBufferByteNodeGen.create(this));
+            this.readBufferShort = createTarget(ReadBufferShortNodeGen.create(this));
+            this.writeBufferShort = createTarget(WriteBufferShortNodeGen.create(this));
+            this.readBufferInt = createTarget(ReadBufferIntNodeGen.create(this));
+            this.writeBufferInt = createTarget(WriteBufferIntNodeGen.create(this));
+            this.readBufferLong = createTarget(ReadBufferLongNodeGen.create(this));
+            this.writeBufferLong = createTarget(WriteBufferLongNodeGen.create(this));
+            this.readBufferFloat = createTarget(ReadBufferFloatNodeGen.create(this));
+            this.writeBufferFloat = createTarget(WriteBufferFloatNodeGen.create(this));
+            this.readBufferDouble = createTarget(ReadBufferDoubleNodeGen.create(this));
+            this.writeBufferDouble = createTarget(WriteBufferDoubleNodeGen.create(this));
             this.hasMember = createTarget(HasMemberNodeGen.create(this));
             this.getMember = createTarget(GetMemberNodeGen.create(this));
             this.putMember = createTarget(PutMemberNodeGen.create(this));
@@ -1599,233 +1788,759 @@ abstract class PolyglotValue extends AbstractValueImpl {
 
         }
 
-        abstract static class GetMemberNode extends InteropNode {
+        abstract static class HasBufferElementsNode extends InteropNode {
 
-            protected GetMemberNode(InteropCodeCache interop) {
+            protected HasBufferElementsNode(InteropCodeCache interop) {
                 super(interop);
             }
 
             @Override
             protected Class<?>[] getArgumentTypes() {
-                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class};
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
             }
 
             @Override
             protected String getOperationName() {
-                return "getMember";
+                return "hasBufferElements";
             }
 
             @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary("receiver") InteropLibrary objects,
-                            @Cached("createToHost()") ToHostValueNode toHost,
-                            @Cached BranchProfile unsupported,
-                            @Cached BranchProfile unknown) {
-                String key = (String) args[ARGUMENT_OFFSET];
-                Object value;
-                try {
-                    assert key != null : "should be handled already";
-                    value = toHost.execute(context, objects.readMember(receiver, key));
-                } catch (UnsupportedMessageException e) {
-                    unsupported.enter();
-                    if (objects.hasMembers(receiver)) {
-                        value = null;
-                    } else {
-                        return getMemberUnsupported(context, receiver, key);
-                    }
-                } catch (UnknownIdentifierException e) {
-                    unknown.enter();
-                    value = null;
-                }
-                return value;
+                            @CachedLibrary("receiver") InteropLibrary buffers) {
+                return buffers.hasBufferElements(receiver);
             }
 
         }
 
-        abstract static class PutMemberNode extends InteropNode {
+        abstract static class IsBufferWritableNode extends InteropNode {
 
-            protected PutMemberNode(InteropCodeCache interop) {
+            protected IsBufferWritableNode(InteropCodeCache interop) {
                 super(interop);
             }
 
             @Override
-            protected String getOperationName() {
-                return "putMember";
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
             }
 
             @Override
-            protected Class<?>[] getArgumentTypes() {
-                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class, null};
+            protected String getOperationName() {
+                return "isBufferWritable";
             }
 
-            @Specialization
+            @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary(limit = "CACHE_LIMIT") InteropLibrary objects,
-                            @Cached ToGuestValueNode toGuestValue,
-                            @Cached BranchProfile unsupported,
-                            @Cached BranchProfile invalidValue,
-                            @Cached BranchProfile unknown) {
-                String key = (String) args[ARGUMENT_OFFSET];
-                Object originalValue = args[ARGUMENT_OFFSET + 1];
-                Object value = toGuestValue.execute(context, originalValue);
-                assert key != null;
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported) {
                 try {
-                    objects.writeMember(receiver, key, value);
+                    return buffers.isBufferWritable(receiver);
                 } catch (UnsupportedMessageException e) {
                     unsupported.enter();
-                    throw putMemberUnsupported(context, receiver);
-                } catch (UnknownIdentifierException e) {
-                    unknown.enter();
-                    throw invalidMemberKey(context, receiver, key);
-                } catch (UnsupportedTypeException e) {
-                    invalidValue.enter();
-                    throw invalidMemberValue(context, receiver, key, value);
+                    throw readBufferUnsupported(context, receiver, "isBufferWritable()");
                 }
-                return null;
             }
+
         }
 
-        abstract static class RemoveMemberNode extends InteropNode {
+        abstract static class GetBufferSizeNode extends InteropNode {
 
-            protected RemoveMemberNode(InteropCodeCache interop) {
+            protected GetBufferSizeNode(InteropCodeCache interop) {
                 super(interop);
             }
 
             @Override
-            protected String getOperationName() {
-                return "removeMember";
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
             }
 
             @Override
-            protected Class<?>[] getArgumentTypes() {
-                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class};
+            protected String getOperationName() {
+                return "getBufferSize";
             }
 
             @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary("receiver") InteropLibrary objects,
-                            @Cached BranchProfile unsupported,
-                            @Cached BranchProfile unknown) {
-                String key = (String) args[ARGUMENT_OFFSET];
-                Object value;
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported) {
                 try {
-                    assert key != null : "should be handled already";
-                    objects.removeMember(receiver, key);
-                    value = Boolean.TRUE;
+                    return buffers.getBufferSize(receiver);
                 } catch (UnsupportedMessageException e) {
                     unsupported.enter();
-                    if (!objects.hasMembers(receiver) || objects.isMemberExisting(receiver, key)) {
-                        throw removeMemberUnsupported(context, receiver);
-                    } else {
-                        value = Boolean.FALSE;
-                    }
-                } catch (UnknownIdentifierException e) {
-                    unknown.enter();
-                    value = Boolean.FALSE;
+                    throw readBufferUnsupported(context, receiver, "getBufferSize()");
                 }
-                return value;
             }
 
         }
 
-        abstract static class IsNullNode extends InteropNode {
+        abstract static class ReadBufferByteNode extends InteropNode {
 
-            protected IsNullNode(InteropCodeCache interop) {
+            protected ReadBufferByteNode(InteropCodeCache interop) {
                 super(interop);
             }
 
             @Override
             protected Class<?>[] getArgumentTypes() {
-                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, Long.class};
             }
 
             @Override
             protected String getOperationName() {
-                return "isNull";
+                return "readBufferByte";
             }
 
             @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary("receiver") InteropLibrary values) {
-                return values.isNull(receiver);
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex) {
+                long byteOffset = (long) args[ARGUMENT_OFFSET];
+                try {
+                    return buffers.readBufferByte(receiver, byteOffset);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw readBufferUnsupported(context, receiver, "readBufferByte(long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidIndex.enter();
+                    throw invalidBufferIndex(context, receiver, e.getByteOffset(), e.getLength());
+                }
             }
 
         }
 
-        abstract static class HasMembersNode extends InteropNode {
+        abstract static class WriteBufferByteNode extends InteropNode {
 
-            protected HasMembersNode(InteropCodeCache interop) {
+            protected WriteBufferByteNode(InteropCodeCache interop) {
                 super(interop);
             }
 
             @Override
             protected Class<?>[] getArgumentTypes() {
-                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, Long.class, Byte.class};
             }
 
             @Override
             protected String getOperationName() {
-                return "hasMembers";
+                return "writeBufferByte";
             }
 
             @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary("receiver") InteropLibrary objects) {
-                return objects.hasMembers(receiver);
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex) {
+                long byteOffset = (long) args[ARGUMENT_OFFSET];
+                byte value = (byte) args[ARGUMENT_OFFSET + 1];
+                try {
+                    buffers.writeBufferByte(receiver, byteOffset, value);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw writeBufferUnsupported(context, receiver, "writeBufferByte(long, byte)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidIndex.enter();
+                    throw invalidBufferIndex(context, receiver, e.getByteOffset(), e.getLength());
+                }
+                return null;
             }
 
         }
 
-        private abstract static class AbstractMemberInfoNode extends InteropNode {
+        abstract static class ReadBufferShortNode extends InteropNode {
 
-            protected AbstractMemberInfoNode(InteropCodeCache interop) {
+            protected ReadBufferShortNode(InteropCodeCache interop) {
                 super(interop);
             }
 
             @Override
-            protected final Class<?>[] getArgumentTypes() {
-                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class};
-            }
-
-        }
-
-        abstract static class HasMemberNode extends AbstractMemberInfoNode {
-
-            protected HasMemberNode(InteropCodeCache interop) {
-                super(interop);
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class};
             }
 
             @Override
             protected String getOperationName() {
-                return "hasMember";
+                return "readBufferShort";
             }
 
             @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary("receiver") InteropLibrary objects) {
-                String key = (String) args[ARGUMENT_OFFSET];
-                return objects.isMemberExisting(receiver, key);
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                try {
+                    return buffers.readBufferShort(receiver, order, byteOffset);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw readBufferUnsupported(context, receiver, "readBufferShort(ByteOrder, long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidIndex.enter();
+                    throw invalidBufferIndex(context, receiver, e.getByteOffset(), e.getLength());
+                }
             }
+
         }
 
-        abstract static class CanInvokeNode extends AbstractMemberInfoNode {
+        abstract static class WriteBufferShortNode extends InteropNode {
 
-            protected CanInvokeNode(InteropCodeCache interop) {
+            protected WriteBufferShortNode(InteropCodeCache interop) {
                 super(interop);
             }
 
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class, Short.class};
+            }
+
             @Override
             protected String getOperationName() {
-                return "canInvoke";
+                return "writeBufferShort";
             }
 
             @Specialization(limit = "CACHE_LIMIT")
             static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
-                            @CachedLibrary("receiver") InteropLibrary objects) {
-                String key = (String) args[ARGUMENT_OFFSET];
-                return objects.isMemberInvocable(receiver, key);
-            }
-
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                short value = (short) args[ARGUMENT_OFFSET + 2];
+                try {
+                    buffers.writeBufferShort(receiver, order, byteOffset, value);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw writeBufferUnsupported(context, receiver, "writeBufferShort(ByteOrder, long, short)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidIndex.enter();
+                    throw invalidBufferIndex(context, receiver, e.getByteOffset(), e.getLength());
+                }
+                return null;
+            }
+
+        }
+
+        abstract static class ReadBufferIntNode extends InteropNode {
+
+            protected ReadBufferIntNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "readBufferInt";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                try {
+                    return buffers.readBufferInt(receiver, order, byteOffset);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw readBufferUnsupported(context, receiver, "readBufferInt(ByteOrder, long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidIndex.enter();
+                    throw invalidBufferIndex(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+
+        }
+
+        abstract static class WriteBufferIntNode extends InteropNode {
+
+            protected WriteBufferIntNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class, Integer.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "writeBufferInt";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                int value = (int) args[ARGUMENT_OFFSET + 2];
+                try {
+                    buffers.writeBufferInt(receiver, order, byteOffset, value);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw writeBufferUnsupported(context, receiver, "writeBufferInt(ByteOrder, long, int)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidIndex.enter();
+                    throw invalidBufferIndex(context, receiver, e.getByteOffset(), e.getLength());
+                }
+                return null;
+            }
+
+        }
+
+        abstract static class ReadBufferLongNode extends InteropNode {
+
+            protected ReadBufferLongNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "readBufferLong";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                try {
+                    return buffers.readBufferLong(receiver, order, byteOffset);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw readBufferUnsupported(context, receiver, "readBufferLong(ByteOrder, long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidIndex.enter();
+                    throw invalidBufferIndex(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+
+        }
+
+        abstract static class WriteBufferLongNode extends InteropNode {
+
+            protected WriteBufferLongNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class, Long.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "writeBufferLong";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                long value = (long) args[ARGUMENT_OFFSET + 2];
+                try {
+                    buffers.writeBufferLong(receiver, order, byteOffset, value);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw writeBufferUnsupported(context, receiver, "writeBufferLong(ByteOrder, long, long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidIndex.enter();
+                    throw invalidBufferIndex(context, receiver, e.getByteOffset(), e.getLength());
+                }
+                return null;
+            }
+
+        }
+
+        abstract static class ReadBufferFloatNode extends InteropNode {
+
+            protected ReadBufferFloatNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "readBufferFloat";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                try {
+                    return buffers.readBufferFloat(receiver, order, byteOffset);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw readBufferUnsupported(context, receiver, "readBufferFloat(ByteOrder, long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidIndex.enter();
+                    throw invalidBufferIndex(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+
+        }
+
+        abstract static class WriteBufferFloatNode extends InteropNode {
+
+            protected WriteBufferFloatNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class, Float.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "writeBufferFloat";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                float value = (float) args[ARGUMENT_OFFSET + 2];
+                try {
+                    buffers.writeBufferFloat(receiver, order, byteOffset, value);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw writeBufferUnsupported(context, receiver, "writeBufferFloat(ByteOrder, long, float)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidIndex.enter();
+                    throw invalidBufferIndex(context, receiver, e.getByteOffset(), e.getLength());
+                }
+                return null;
+            }
+
+        }
+
+        abstract static class ReadBufferDoubleNode extends InteropNode {
+
+            protected ReadBufferDoubleNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "readBufferDouble";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                try {
+                    return buffers.readBufferDouble(receiver, order, byteOffset);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw readBufferUnsupported(context, receiver, "readBufferDouble(ByteOrder, long)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidIndex.enter();
+                    throw invalidBufferIndex(context, receiver, e.getByteOffset(), e.getLength());
+                }
+            }
+
+        }
+
+        abstract static class WriteBufferDoubleNode extends InteropNode {
+
+            protected WriteBufferDoubleNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, ByteOrder.class, Long.class, Double.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "writeBufferDouble";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary buffers,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex) {
+                ByteOrder order = (ByteOrder) args[ARGUMENT_OFFSET];
+                long byteOffset = (long) args[ARGUMENT_OFFSET + 1];
+                double value = (double) args[ARGUMENT_OFFSET + 2];
+                try {
+                    buffers.writeBufferDouble(receiver, order, byteOffset, value);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw writeBufferUnsupported(context, receiver, "writeBufferDouble(ByteOrder, long, double)");
+                } catch (InvalidBufferOffsetException e) {
+                    invalidIndex.enter();
+                    throw invalidBufferIndex(context, receiver, e.getByteOffset(), e.getLength());
+                }
+                return null;
+            }
+
+        }
+
+        abstract static class GetMemberNode extends InteropNode {
+
+            protected GetMemberNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "getMember";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary objects,
+                            @Cached("createToHost()") ToHostValueNode toHost,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile unknown) {
+                String key = (String) args[ARGUMENT_OFFSET];
+                Object value;
+                try {
+                    assert key != null : "should be handled already";
+                    value = toHost.execute(context, objects.readMember(receiver, key));
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    if (objects.hasMembers(receiver)) {
+                        value = null;
+                    } else {
+                        return getMemberUnsupported(context, receiver, key);
+                    }
+                } catch (UnknownIdentifierException e) {
+                    unknown.enter();
+                    value = null;
+                }
+                return value;
+            }
+
+        }
+
+        abstract static class PutMemberNode extends InteropNode {
+
+            protected PutMemberNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "putMember";
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class, null};
+            }
+
+            @Specialization
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary(limit = "CACHE_LIMIT") InteropLibrary objects,
+                            @Cached ToGuestValueNode toGuestValue,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidValue,
+                            @Cached BranchProfile unknown) {
+                String key = (String) args[ARGUMENT_OFFSET];
+                Object originalValue = args[ARGUMENT_OFFSET + 1];
+                Object value = toGuestValue.execute(context, originalValue);
+                assert key != null;
+                try {
+                    objects.writeMember(receiver, key, value);
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    throw putMemberUnsupported(context, receiver);
+                } catch (UnknownIdentifierException e) {
+                    unknown.enter();
+                    throw invalidMemberKey(context, receiver, key);
+                } catch (UnsupportedTypeException e) {
+                    invalidValue.enter();
+                    throw invalidMemberValue(context, receiver, key, value);
+                }
+                return null;
+            }
+        }
+
+        abstract static class RemoveMemberNode extends InteropNode {
+
+            protected RemoveMemberNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "removeMember";
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class};
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary objects,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile unknown) {
+                String key = (String) args[ARGUMENT_OFFSET];
+                Object value;
+                try {
+                    assert key != null : "should be handled already";
+                    objects.removeMember(receiver, key);
+                    value = Boolean.TRUE;
+                } catch (UnsupportedMessageException e) {
+                    unsupported.enter();
+                    if (!objects.hasMembers(receiver) || objects.isMemberExisting(receiver, key)) {
+                        throw removeMemberUnsupported(context, receiver);
+                    } else {
+                        value = Boolean.FALSE;
+                    }
+                } catch (UnknownIdentifierException e) {
+                    unknown.enter();
+                    value = Boolean.FALSE;
+                }
+                return value;
+            }
+
+        }
+
+        abstract static class IsNullNode extends InteropNode {
+
+            protected IsNullNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "isNull";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary values) {
+                return values.isNull(receiver);
+            }
+
+        }
+
+        abstract static class HasMembersNode extends InteropNode {
+
+            protected HasMembersNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "hasMembers";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary objects) {
+                return objects.hasMembers(receiver);
+            }
+
+        }
+
+        private abstract static class AbstractMemberInfoNode extends InteropNode {
+
+            protected AbstractMemberInfoNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected final Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, String.class};
+            }
+
+        }
+
+        abstract static class HasMemberNode extends AbstractMemberInfoNode {
+
+            protected HasMemberNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "hasMember";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary objects) {
+                String key = (String) args[ARGUMENT_OFFSET];
+                return objects.isMemberExisting(receiver, key);
+            }
+        }
+
+        abstract static class CanInvokeNode extends AbstractMemberInfoNode {
+
+            protected CanInvokeNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "canInvoke";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary objects) {
+                String key = (String) args[ARGUMENT_OFFSET];
+                return objects.isMemberInvocable(receiver, key);
+            }
+
         }
 
         abstract static class CanExecuteNode extends InteropNode {
@@ -2646,6 +3361,81 @@ abstract class PolyglotValue extends AbstractValueImpl {
             return (long) RUNTIME.callProfiled(cache.getArraySize, languageContext, receiver);
         }
 
+        @Override
+        public boolean hasBufferElements(Object receiver) {
+            return (boolean) RUNTIME.callProfiled(cache.hasBufferElements, languageContext, receiver);
+        }
+
+        @Override
+        public boolean isBufferWritable(Object receiver) {
+            return (boolean) RUNTIME.callProfiled(cache.isBufferWritable, languageContext, receiver);
+        }
+
+        @Override
+        public long getBufferSize(Object receiver) {
+            return (long) RUNTIME.callProfiled(cache.getBufferSize, languageContext, receiver);
+        }
+
+        @Override
+        public byte readBufferByte(Object receiver, long byteOffset) {
+            return (byte) RUNTIME.callProfiled(cache.readBufferByte, languageContext, receiver, byteOffset);
+        }
+
+        @Override
+        public void writeBufferByte(Object receiver, long byteOffset, byte value) {
+            RUNTIME.callProfiled(cache.writeBufferByte, languageContext, receiver, byteOffset, value);
+        }
+
+        @Override
+        public short readBufferShort(Object receiver, ByteOrder order, long byteOffset) {
+            return (short) RUNTIME.callProfiled(cache.readBufferShort, languageContext, receiver, order, byteOffset);
+        }
+
+        @Override
+        public void writeBufferShort(Object receiver, ByteOrder order, long byteOffset, short value) {
+            RUNTIME.callProfiled(cache.writeBufferShort, languageContext, receiver, order, byteOffset, value);
+        }
+
+        @Override
+        public int readBufferInt(Object receiver, ByteOrder order, long byteOffset) {
+            return (int) RUNTIME.callProfiled(cache.readBufferInt, languageContext, receiver, order, byteOffset);
+        }
+
+        @Override
+        public void writeBufferInt(Object receiver, ByteOrder order, long byteOffset, int value) {
+            RUNTIME.callProfiled(cache.writeBufferInt, languageContext, receiver, order, byteOffset, value);
+        }
+
+        @Override
+        public long readBufferLong(Object receiver, ByteOrder order, long byteOffset) {
+            return (long) RUNTIME.callProfiled(cache.readBufferLong, languageContext, receiver, order, byteOffset);
+        }
+
+        @Override
+        public void writeBufferLong(Object receiver, ByteOrder order, long byteOffset, long value) {
+            RUNTIME.callProfiled(cache.writeBufferLong, languageContext, receiver, order, byteOffset, value);
+        }
+
+        @Override
+        public float readBufferFloat(Object receiver, ByteOrder order, long byteOffset) {
+            return (float) RUNTIME.callProfiled(cache.readBufferFloat, languageContext, receiver, order, byteOffset);
+        }
+
+        @Override
+        public void writeBufferFloat(Object receiver, ByteOrder order, long byteOffset, float value) {
+            RUNTIME.callProfiled(cache.writeBufferFloat, languageContext, receiver, order, byteOffset, value);
+        }
+
+        @Override
+        public double readBufferDouble(Object receiver, ByteOrder order, long byteOffset) {
+            return (double) RUNTIME.callProfiled(cache.readBufferDouble, languageContext, receiver, order, byteOffset);
+        }
+
+        @Override
+        public void writeBufferDouble(Object receiver, ByteOrder order, long byteOffset, double value) {
+            RUNTIME.callProfiled(cache.writeBufferDouble, languageContext, receiver, order, byteOffset, value);
+        }
+
         @Override
         public boolean hasMembers(Object receiver) {
             return (boolean) RUNTIME.callProfiled(cache.hasMembers, languageContext, receiver);
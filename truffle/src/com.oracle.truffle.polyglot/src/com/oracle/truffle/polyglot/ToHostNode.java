@@ -121,6 +121,46 @@ abstract class ToHostNode extends Node {
         return languagecontext.getEngine().getHostClassCache().forClass(type).isAllowsImplementation();
     }
 
+    /**
+     * Conversion properties of a host method parameter type that would otherwise be recomputed for
+     * every uncached conversion. Instances are shared between all host methods with the same
+     * parameter types, see {@link HostClassCache#getParameterTargets(HostMethodDesc.SingleMethod)}.
+     */
+    static final class TargetType {
+
+        final Class<?> type;
+        final Type genericType;
+        final boolean primitiveTarget;
+        final boolean allowsImplementation;
+        final boolean useTargetMapping;
+
+        TargetType(HostClassCache cache, Class<?> type, Type genericType) {
+            this.type = type;
+            this.genericType = genericType;
+            this.primitiveTarget = isPrimitiveTarget(type);
+            this.allowsImplementation = type.isInterface() && cache.forClass(type).isAllowsImplementation();
+            this.useTargetMapping = cache.getMappings(type).length > 0;
+        }
+
+        @Override
+        public String toString() {
+            return "TargetType[" + genericType.getTypeName() + "]";
+        }
+    }
+
+    /**
+     * Converts an operand using the precomputed properties of the target type. Equivalent to the
+     * uncached {@link #execute} with target mappings enabled.
+     */
+    @TruffleBoundary
+    static Object convertUncached(Object operand, TargetType target, PolyglotLanguageContext languageContext) {
+        return convertImpl(operand, target.type, target.genericType, target.allowsImplementation, target.primitiveTarget, languageContext,
+                        InteropLibrary.getUncached(operand),
+                        target.useTargetMapping,
+                        TargetMappingNode.getUncached(),
+                        BranchProfile.getUncached());
+    }
+
     @Specialization(replaces = "doCached")
     @TruffleBoundary
     protected static Object doGeneric(Object operand,
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.test;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.io.ByteSequence;
+import org.graalvm.wasm.memory.UnsafeWasmMemory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.interop.InteropLibrary;
+import com.oracle.truffle.api.interop.InvalidBufferOffsetException;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+
+/**
+ * Tests the buffer interop messages exported by WebAssembly memories.
+ */
+public class WasmPolyglotBufferTestSuite {
+    private static final int MEMORY_SIZE = 64 * 1024;
+
+    @Test
+    public void testReadWrite() throws IOException {
+        try (Context context = Context.create("wasm")) {
+            context.eval(Source.newBuilder("wasm", ByteSequence.create(binary), "main").build());
+            Value memory = context.getBindings("wasm").getMember("memory");
+            Value load = context.getBindings("wasm").getMember("load");
+            Assert.assertTrue(memory.hasBufferElements());
+            Assert.assertTrue(memory.isBufferWritable());
+            Assert.assertEquals(MEMORY_SIZE, memory.getBufferSize());
+
+            memory.writeBufferByte(0, (byte) 0x80);
+            Assert.assertEquals((byte) 0x80, memory.readBufferByte(0));
+            Assert.assertEquals(0x80, memory.getArrayElement(0).asInt());
+
+            // WebAssembly memory is little-endian, load reads the i32 at address 4
+            memory.writeBufferInt(ByteOrder.LITTLE_ENDIAN, 4, 0x01020304);
+            Assert.assertEquals(0x01020304, load.execute().asInt());
+            Assert.assertEquals(0x04, memory.readBufferByte(4));
+            Assert.assertEquals(0x01020304, memory.readBufferInt(ByteOrder.LITTLE_ENDIAN, 4));
+            Assert.assertEquals(0x04030201, memory.readBufferInt(ByteOrder.BIG_ENDIAN, 4));
+            Assert.assertEquals(0x0304, memory.readBufferShort(ByteOrder.LITTLE_ENDIAN, 4));
+            Assert.assertEquals(0x0403, memory.readBufferShort(ByteOrder.BIG_ENDIAN, 4));
+
+            memory.writeBufferInt(ByteOrder.BIG_ENDIAN, 4, 0x01020304);
+            Assert.assertEquals(0x04030201, load.execute().asInt());
+
+            memory.writeBufferShort(ByteOrder.BIG_ENDIAN, 4, (short) 0x0102);
+            Assert.assertEquals(0x01, memory.readBufferByte(4));
+            Assert.assertEquals(0x02, memory.readBufferByte(5));
+
+            memory.writeBufferLong(ByteOrder.BIG_ENDIAN, 8, 0x0102030405060708L);
+            Assert.assertEquals(0x01, memory.readBufferByte(8));
+            Assert.assertEquals(0x0807060504030201L, memory.readBufferLong(ByteOrder.LITTLE_ENDIAN, 8));
+
+            memory.writeBufferFloat(ByteOrder.LITTLE_ENDIAN, 16, 42.5f);
+            Assert.assertEquals(42.5f, memory.readBufferFloat(ByteOrder.LITTLE_ENDIAN, 16), 0f);
+            Assert.assertEquals(Float.floatToRawIntBits(42.5f), memory.readBufferInt(ByteOrder.LITTLE_ENDIAN, 16));
+
+            memory.writeBufferDouble(ByteOrder.BIG_ENDIAN, 24, 42.5d);
+            Assert.assertEquals(42.5d, memory.readBufferDouble(ByteOrder.BIG_ENDIAN, 24), 0d);
+            Assert.assertEquals(Double.doubleToRawLongBits(42.5d), memory.readBufferLong(ByteOrder.BIG_ENDIAN, 24));
+
+            memory.writeBufferLong(ByteOrder.LITTLE_ENDIAN, MEMORY_SIZE - Long.BYTES, -1L);
+            Assert.assertEquals(-1L, memory.readBufferLong(ByteOrder.LITTLE_ENDIAN, MEMORY_SIZE - Long.BYTES));
+        }
+    }
+
+    @Test
+    public void testOutOfBounds() throws IOException {
+        try (Context context = Context.create("wasm")) {
+            context.eval(Source.newBuilder("wasm", ByteSequence.create(binary), "main").build());
+            Value memory = context.getBindings("wasm").getMember("memory");
+            assertOutOfBounds(() -> memory.readBufferByte(-1));
+            assertOutOfBounds(() -> memory.readBufferByte(MEMORY_SIZE));
+            assertOutOfBounds(() -> memory.writeBufferByte(MEMORY_SIZE, (byte) 0));
+            assertOutOfBounds(() -> memory.readBufferInt(ByteOrder.LITTLE_ENDIAN, MEMORY_SIZE - 3));
+            assertOutOfBounds(() -> memory.writeBufferLong(ByteOrder.LITTLE_ENDIAN, MEMORY_SIZE - 7, 0L));
+            assertOutOfBounds(() -> memory.readBufferDouble(ByteOrder.BIG_ENDIAN, Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void testInvalidBufferOffset() throws UnsupportedMessageException {
+        UnsafeWasmMemory memory = new UnsafeWasmMemory(1, 1);
+        InteropLibrary interop = InteropLibrary.getUncached(memory);
+        Assert.assertEquals(MEMORY_SIZE, interop.getBufferSize(memory));
+        try {
+            interop.readBufferInt(memory, ByteOrder.LITTLE_ENDIAN, MEMORY_SIZE - 2);
+            Assert.fail();
+        } catch (InvalidBufferOffsetException e) {
+            Assert.assertEquals(MEMORY_SIZE - 2, e.getByteOffset());
+            Assert.assertEquals(Integer.BYTES, e.getLength());
+        }
+        try {
+            interop.writeBufferShort(memory, ByteOrder.BIG_ENDIAN, -1, (short) 0);
+            Assert.fail();
+        } catch (InvalidBufferOffsetException e) {
+            Assert.assertEquals(-1, e.getByteOffset());
+            Assert.assertEquals(Short.BYTES, e.getLength());
+        }
+    }
+
+    private static void assertOutOfBounds(Runnable access) {
+        try {
+            access.run();
+            Assert.fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+    }
+
+    /**
+     * <pre>
+     * (module
+     *   (memory (export "memory") 1)
+     *   (func (export "load") (result i32)
+     *     i32.const 4
+     *     i32.load))
+     * </pre>
+     */
+    private static final byte[] binary = new byte[]{
+                    0x00, 0x61, 0x73, 0x6d, 0x01, 0x00, 0x00, 0x00,
+                    // type section: () -> i32
+                    0x01, 0x05, 0x01, 0x60, 0x00, 0x01, 0x7f,
+                    // function section
+                    0x03, 0x02, 0x01, 0x00,
+                    // memory section: one page
+                    0x05, 0x03, 0x01, 0x00, 0x01,
+                    // export section: "load" and "memory"
+                    0x07, 0x11, 0x02,
+                    0x04, 0x6c, 0x6f, 0x61, 0x64, 0x00, 0x00,
+                    0x06, 0x6d, 0x65, 0x6d, 0x6f, 0x72, 0x79, 0x02, 0x00,
+                    // code section
+                    0x0a, 0x09, 0x01, 0x07, 0x00, 0x41, 0x04, 0x28, 0x02, 0x00, 0x0b
+    };
+}
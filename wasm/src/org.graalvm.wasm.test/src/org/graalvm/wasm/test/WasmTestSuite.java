@@ -78,6 +78,7 @@ import org.graalvm.wasm.test.suites.webassembly.IssueSuite;
                 WasiSuite.class,
                 LinkerSuite.class,
                 WasmPolyglotTestSuite.class,
+                WasmPolyglotBufferTestSuite.class,
 })
 public class WasmTestSuite {
     @Test
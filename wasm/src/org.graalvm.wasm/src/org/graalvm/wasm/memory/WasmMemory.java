@@ -40,8 +40,11 @@
  */
 package org.graalvm.wasm.memory;
 
+import java.nio.ByteOrder;
+
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.InvalidBufferOffsetException;
 import com.oracle.truffle.api.interop.TruffleObject;
 import com.oracle.truffle.api.interop.UnsupportedMessageException;
 import com.oracle.truffle.api.interop.UnsupportedTypeException;
@@ -241,4 +244,102 @@ public abstract class WasmMemory implements TruffleObject {
         }
         store_i32_8(null, address, rawValue);
     }
+
+    @ExportMessage
+    final boolean hasBufferElements() {
+        return true;
+    }
+
+    @ExportMessage
+    final boolean isBufferWritable() {
+        return true;
+    }
+
+    @ExportMessage
+    final long getBufferSize() {
+        return byteSize();
+    }
+
+    private void checkBufferOffset(long byteOffset, int length) throws InvalidBufferOffsetException {
+        if (byteOffset < 0 || byteOffset > getBufferSize() - length) {
+            transferToInterpreter();
+            throw InvalidBufferOffsetException.create(byteOffset, length);
+        }
+    }
+
+    @ExportMessage
+    final byte readBufferByte(long byteOffset) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Byte.BYTES);
+        return (byte) load_i32_8s(null, byteOffset);
+    }
+
+    @ExportMessage
+    final void writeBufferByte(long byteOffset, byte value) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Byte.BYTES);
+        store_i32_8(null, byteOffset, value);
+    }
+
+    /*
+     * WebAssembly memory is always little-endian, values accessed in big-endian order are
+     * byte-swapped.
+     */
+
+    @ExportMessage
+    final short readBufferShort(ByteOrder order, long byteOffset) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Short.BYTES);
+        short value = (short) load_i32_16s(null, byteOffset);
+        return order == ByteOrder.LITTLE_ENDIAN ? value : Short.reverseBytes(value);
+    }
+
+    @ExportMessage
+    final void writeBufferShort(ByteOrder order, long byteOffset, short value) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Short.BYTES);
+        store_i32_16(null, byteOffset, order == ByteOrder.LITTLE_ENDIAN ? value : Short.reverseBytes(value));
+    }
+
+    @ExportMessage
+    final int readBufferInt(ByteOrder order, long byteOffset) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Integer.BYTES);
+        int value = load_i32(null, byteOffset);
+        return order == ByteOrder.LITTLE_ENDIAN ? value : Integer.reverseBytes(value);
+    }
+
+    @ExportMessage
+    final void writeBufferInt(ByteOrder order, long byteOffset, int value) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Integer.BYTES);
+        store_i32(null, byteOffset, order == ByteOrder.LITTLE_ENDIAN ? value : Integer.reverseBytes(value));
+    }
+
+    @ExportMessage
+    final long readBufferLong(ByteOrder order, long byteOffset) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Long.BYTES);
+        long value = load_i64(null, byteOffset);
+        return order == ByteOrder.LITTLE_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    @ExportMessage
+    final void writeBufferLong(ByteOrder order, long byteOffset, long value) throws InvalidBufferOffsetException {
+        checkBufferOffset(byteOffset, Long.BYTES);
+        store_i64(null, byteOffset, order == ByteOrder.LITTLE_ENDIAN ? value : Long.reverseBytes(value));
+    }
+
+    @ExportMessage
+    final float readBufferFloat(ByteOrder order, long byteOffset) throws InvalidBufferOffsetException {
+        return Float.intBitsToFloat(readBufferInt(order, byteOffset));
+    }
+
+    @ExportMessage
+    final void writeBufferFloat(ByteOrder order, long byteOffset, float value) throws InvalidBufferOffsetException {
+        writeBufferInt(order, byteOffset, Float.floatToRawIntBits(value));
+    }
+
+    @ExportMessage
+    final double readBufferDouble(ByteOrder order, long byteOffset) throws InvalidBufferOffsetException {
+        return Double.longBitsToDouble(readBufferLong(order, byteOffset));
+    }
+
+    @ExportMessage
+    final void writeBufferDouble(ByteOrder order, long byteOffset, double value) throws InvalidBufferOffsetException {
+        writeBufferLong(order, byteOffset, Double.doubleToRawLongBits(value));
+    }
 }